@@ -25,12 +25,15 @@ package es.uvigo.ei.sing.laimages.aibench.dialogs;
 
 import java.awt.Color;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
 import java.util.Optional;
 
 import javax.swing.JTextField;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.StoragePrecision;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
-import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
+import es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader;
 
 /**
  * A class used by {@code LoadDatasetOperationDialog} in order to control
@@ -41,13 +44,15 @@ import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
  */
 public class LoadDatasetOperationConfigurationController {
 
-	public static final String CONFIGURATION_FILE = "parameters.conf";
+	public static final String CONFIGURATION_FILE = 
+		ElementDatasetConfigurationProperties.CONFIGURATION_FILE_NAME;
 	private static final Color GREEN_PASTEL = new Color(189,236,182);
 	
 	private JTextField ablationSpeedTF;
 	private JTextField acquisitionTimeTF;
 	private JTextField spaceIntervalTF;
 	private JTextField standardTF;
+	private JTextField storagePrecisionTF;
 
 	public void setAblationSpeedTextField(JTextField ablationSpeedTF) {
 		this.ablationSpeedTF = ablationSpeedTF;
@@ -64,20 +69,29 @@ public class LoadDatasetOperationConfigurationController {
 	public void setStandardTextField(JTextField standardTF) {
 		this.standardTF = standardTF;
 	}
+	
+	public void setStoragePrecisionTextField(JTextField storagePrecisionTF) {
+		this.storagePrecisionTF = storagePrecisionTF;
+	}
 
 	/**
 	 * Tells the controller that the data directory has changed in order to
-	 * try to load the configuration parameters file. 
+	 * try to load the configuration parameters file. The data directory may
+	 * also be a dataset archive, in which case the configuration file is read
+	 * from the archive. Paths that are not directories or archives (e.g. 
+	 * while the path is being typed) are ignored.
 	 * 
-	 * @param dataDirectory the new data directory.
+	 * @param dataDirectory the new data directory or archive.
 	 */
 	public void dataDirectoryChanged(String dataDirectory) {
-		ElementDatasetConfigurationProperties eCP = 
-			new ElementDatasetConfigurationProperties(
-				FileNameUtils.findFileIgnoreCase(
-					new File(dataDirectory), CONFIGURATION_FILE).orElse(null)
-			);
-		updateInputTextFields(eCP);
+		try {
+			LineDatasetLoader.readConfigurationProperties(
+				new File(dataDirectory).toPath()
+			).ifPresent(this::updateInputTextFields);
+		} catch (IOException | InvalidPathException e) {
+			// The configuration can't be read, so the text fields keep their
+			// current values.
+		}
 	}
 
 	private void updateInputTextFields(ElementDatasetConfigurationProperties eCP) {
@@ -85,6 +99,19 @@ public class LoadDatasetOperationConfigurationController {
 		updateJTextField(acquisitionTimeTF, eCP.getAcquisitionTime());
 		updateJTextField(spaceIntervalTF, eCP.getSpaceInterval());
 		updateJTextField(standardTF, eCP.getStandard());
+		updateJTextField(storagePrecisionTF, 
+			parseStoragePrecision(eCP.getStoragePrecision()));
+	}
+	
+	private static Optional<String> parseStoragePrecision(Optional<String> value) {
+		try {
+			return value.map(StoragePrecision::parse)
+				.map(precision -> precision.name().toLowerCase());
+		} catch (IllegalArgumentException e) {
+			// An invalid precision is not loaded, so that the port keeps its
+			// current value.
+			return Optional.empty();
+		}
 	}
 
 	private void updateJTextField(JTextField tf, Optional<String> value) {
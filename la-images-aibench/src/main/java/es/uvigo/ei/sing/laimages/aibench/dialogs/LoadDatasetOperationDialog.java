@@ -93,6 +93,12 @@ public class LoadDatasetOperationDialog extends ParamsWindow {
 			standardTF.getDocument().addDocumentListener(
 					new CustomDocumentListener(standardTF));
 			configurationController.setStandardTextField(standardTF);
+		} else if (arg0.name().equals(
+				LoadDatasetOperation.PORT_NAME_STORAGE_PRECISION)) {
+			JTextField storagePrecisionTF = lookTextField(paramProvider);
+			storagePrecisionTF.getDocument().addDocumentListener(
+					new CustomDocumentListener(storagePrecisionTF));
+			configurationController.setStoragePrecisionTextField(storagePrecisionTF);
 		}
 		
 		return paramProvider;
@@ -42,7 +42,9 @@ import es.uvigo.ei.aibench.workbench.Workbench;
 import es.uvigo.ei.sing.laimages.aibench.datatypes.AiBenchLaImagesAnalysis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.StoragePrecision;
 import es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader;
+import es.uvigo.ei.sing.laimages.core.io.LineFileReader;
 import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
 import es.uvigo.ei.sing.laimages.core.io.exception.PositionsFileNotFoundException;
 import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
@@ -63,6 +65,8 @@ public class LoadDatasetOperation {
 	public static final String PORT_NAME_ABLATION_SPEED 	= "Ablation speed (mm/s)";
 	public static final String PORT_NAME_ACQUISITION_TIME 	= "Acquisition time (s)";
 	public static final String PORT_NAME_SPACE_INTERVAL 	= "Space interval (mm)";
+	public static final String PORT_NAME_STORAGE_PRECISION	= "Storage precision";
+	public static final String PORT_NAME_USE_CACHE 			= "Use cache";
 	
 	private static final String PORT_NAME_STANDARD_DESCRIPTION
 		= "Internal standard is used to normalize the results and to overcome "
@@ -80,24 +84,36 @@ public class LoadDatasetOperation {
 	private static final String PORT_NAME_SPACE_INTERVAL_DESCRIPTION	
 		= "The space interval is the distance among the center of two lines. "
 			+ "The lowest space interval results in the highest image resolution.";
+	private static final String PORT_NAME_STORAGE_PRECISION_DESCRIPTION
+		= "The precision used to store the values in memory: double or float. "
+			+ "Using float halves the memory used by the dataset.";
+	private static final String PORT_NAME_USE_CACHE_DESCRIPTION
+		= "Stores a binary cache of the parsed line files in the data "
+			+ "directory (.la-images.cache), so that the dataset "
+			+ "loads faster the next time it is opened.";
 	
 	private File directory;
 	private double ablationSpeed;
 	private double acquisitionTime;
 	private double spaceInterval;
 	private String standardElement;
+	private StoragePrecision storagePrecision;
+	private boolean useCache;
 	
 	/**
-	 * Sets the data directory to load (INPUT port).
+	 * Sets the data directory to load (INPUT port). It may also be an archive
+	 * containing the dataset files ({@code .zip}, {@code .tar}, 
+	 * {@code .tar.gz} or {@code .tgz}), which is read without extracting it.
 	 * 
-	 * @param directory the data directory.
+	 * @param directory the data directory or archive.
 	 */
 	@Port(
 		direction = INPUT,
 		name = PORT_NAME_DATA_DIRECTORY,
-		description = "Directory where the dataset is stored",
+		description = "Directory or archive (.zip, .tar, .tar.gz or .tgz) "
+			+ "where the dataset is stored",
 		order = 1,
-		extras="selectionMode=directories"
+		extras="selectionMode=filesAndDirectories"
 	)
 	public void setDataDirectory(File directory) {
 		this.directory = directory;
@@ -168,6 +184,43 @@ public class LoadDatasetOperation {
 		this.spaceInterval = spaceInterval;
 	}
 	
+	/**
+	 * Sets the precision used to store the values of the dataset (INPUT 
+	 * port).
+	 * 
+	 * @param storagePrecision the name of the storage precision, i.e. 
+	 * 	{@code double} or {@code float}.
+	 * @throws IllegalArgumentException if {@code storagePrecision} is not a
+	 * 	valid precision name.
+	 */
+	@Port(
+		direction = INPUT,
+		name = PORT_NAME_STORAGE_PRECISION,
+		defaultValue = "double",
+		description = PORT_NAME_STORAGE_PRECISION_DESCRIPTION,
+		order = 6
+	)
+	public void setStoragePrecision(String storagePrecision) {
+		this.storagePrecision = StoragePrecision.parse(storagePrecision);
+	}
+	
+	/**
+	 * Sets whether the binary cache of the dataset directory must be used 
+	 * (INPUT port).
+	 * 
+	 * @param useCache whether the binary cache must be used or not.
+	 */
+	@Port(
+		direction = INPUT,
+		name = PORT_NAME_USE_CACHE,
+		defaultValue = "false",
+		description = PORT_NAME_USE_CACHE_DESCRIPTION,
+		order = 7
+	)
+	public void setUseCache(boolean useCache) {
+		this.useCache = useCache;
+	}
+	
 	/**
 	 * Loads the data and returns the experiment (OUTPUT port).
 	 * 
@@ -191,8 +244,11 @@ public class LoadDatasetOperation {
 	private ElementDataset loadDataset() throws IOException,
 			NoSuchStandardElementException, PositionsFileNotFoundException {
 		ElementDatasetConfiguration configuration = new ElementDatasetConfiguration(
-				ablationSpeed, acquisitionTime, spaceInterval, standardElement);
-		LineDatasetLoader datasetLoader = new LineDatasetLoader(configuration);
+				ablationSpeed, acquisitionTime, spaceInterval, standardElement,
+				storagePrecision);
+		LineDatasetLoader datasetLoader = new LineDatasetLoader(
+			configuration, Runtime.getRuntime().availableProcessors(),
+			new LineFileReader(), useCache);
 		DefaultProgressHandler progressHandler = new DefaultProgressHandler();
 		
 		ElementDataset dataset = datasetLoader.loadAndNormalizeDataset(this.directory.toPath(), progressHandler);
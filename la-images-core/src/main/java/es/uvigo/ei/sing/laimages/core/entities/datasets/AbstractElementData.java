@@ -23,17 +23,20 @@
  */
 package es.uvigo.ei.sing.laimages.core.entities.datasets;
 
+import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesPositionsAxis;
+import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesRangeAxis;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.nio.file.Files;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
 import java.util.stream.Stream;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.Axis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
 import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
@@ -51,8 +54,10 @@ public abstract class AbstractElementData implements ElementData, Serializable {
 	protected final LineData[] lines;
 	protected String name;
 	
-	private double maxValue = Double.MIN_VALUE;
-	private double minValue = Double.MAX_VALUE;
+	private transient volatile ArithmeticAxis rangeAxis;
+	private transient volatile Axis positionsAxis;
+	private transient volatile SoftReference<ElementMatrix> matrix;
+	private transient volatile ElementStatistics statistics;
 
 	/**
 	 * Constructs an {@code AbstractElementData}.
@@ -93,6 +98,69 @@ public abstract class AbstractElementData implements ElementData, Serializable {
 		return Stream.of(this.lines).map(LineData::getCoordinates)
 			.collect(Collectors.toList());
 	}
+	
+	/**
+	 * Returns the axis of the values along the lines. The axis is computed 
+	 * the first time it is requested, so line coordinates must not be 
+	 * modified after that.
+	 * 
+	 * @return the axis of the values along the lines.
+	 */
+	protected ArithmeticAxis getRangeAxis() {
+		if (this.rangeAxis == null) {
+			this.rangeAxis = getLinesRangeAxis(getAllCoordinates());
+		}
+		
+		return this.rangeAxis;
+	}
+	
+	/**
+	 * Returns the axis of the line positions, in the same order as the lines.
+	 * The axis is computed the first time it is requested, so line 
+	 * coordinates must not be modified after that.
+	 * 
+	 * @return the axis of the line positions.
+	 */
+	protected Axis getPositionsAxis() {
+		if (this.positionsAxis == null) {
+			this.positionsAxis = getLinesPositionsAxis(getAllCoordinates());
+		}
+		
+		return this.positionsAxis;
+	}
+
+	/**
+	 * Returns the view of the data matrix. The view is built the first time 
+	 * it is requested and it is softly cached, so that it can be released 
+	 * and built again when memory is low.
+	 * 
+	 * @return the view of the data matrix.
+	 */
+	@Override
+	public ElementMatrix getMatrix() {
+		final SoftReference<ElementMatrix> reference = this.matrix;
+		ElementMatrix current = reference == null ? null : reference.get();
+		
+		if (current == null) {
+			current = createMatrix();
+			this.matrix = new SoftReference<ElementMatrix>(current);
+		}
+		
+		return current;
+	}
+	
+	/**
+	 * Builds the view of the data matrix, where missing values are 
+	 * represented by {@code NaN}.
+	 * 
+	 * @return a new view of the data matrix.
+	 */
+	protected abstract ElementMatrix createMatrix();
+	
+	@Override
+	public double[][] getData(double missingValue) {
+		return getMatrix().toArray(missingValue);
+	}
 
 	@Override
 	public int getNumLines() {
@@ -117,18 +185,24 @@ public abstract class AbstractElementData implements ElementData, Serializable {
 		return true;
 	}
 
+	/**
+	 * Returns the statistics of the element values. The statistics are 
+	 * computed the first time they are requested and then cached.
+	 * 
+	 * @return the statistics of the element values.
+	 */
 	@Override
-	public double getMaxValue() {
-		if(this.maxValue == Double.MIN_VALUE) {
-			this.maxValue = Arrays.stream(this.getLines())
-				.map(LineData::getData)
-				.flatMapToDouble(DoubleStream::of)
-				.filter(d -> !isMissingValue(d))
-				.max()
-			.orElseThrow(() -> new IllegalStateException("No values found"));
+	public ElementStatistics getStatistics() {
+		if (this.statistics == null) {
+			this.statistics = ElementStatistics.of(this.getLines());
 		}
 		
-		return this.maxValue;
+		return this.statistics;
+	}
+
+	@Override
+	public double getMaxValue() {
+		return getStatistics().getMax();
 	}
 
 	protected boolean isMissingValue(double d) {
@@ -137,16 +211,7 @@ public abstract class AbstractElementData implements ElementData, Serializable {
 
 	@Override
 	public double getMinValue() {
-		if(this.minValue == Double.MAX_VALUE) {
-			this.minValue = Arrays.stream(this.getLines())
-				.map(LineData::getData)
-				.flatMapToDouble(DoubleStream::of)
-				.filter(d -> !isMissingValue(d))
-				.min()
-			.orElseThrow(() -> new IllegalStateException("No values found"));
-		}
-
-		return this.minValue;
+		return getStatistics().getMin();
 	}
 	
 	@Override
@@ -185,19 +250,6 @@ public abstract class AbstractElementData implements ElementData, Serializable {
 		sb.append(format.getLineBreak());
 	}
 
-	protected static int indexOf(Collection<Double> collection, double value, 
-		double delta
-	) {
-		int i = 0;
-		for (double v : collection) {
-			if (Math.abs(v - value) <= delta)
-				return i;
-			else i++;
-		}
-		
-		return -1;
-	}
-	
 	/**
 	 * Write all the {@code LineData} objects into {@code sb} using the given 
 	 * {@code CSVFormat}.
@@ -0,0 +1,257 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.List;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+
+/**
+ * An {@code ElementData} that is a view of one element of a 
+ * {@link DataCube}. Its axes are the ones of the cube grid and its values are
+ * read directly from the cube. Note that {@link CubeElementData#getLines()}
+ * returns copies of the line values.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class CubeElementData implements ElementData, Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final DataCube cube;
+	private final int element;
+	private final String name;
+	private transient volatile ElementStatistics statistics;
+	private transient volatile SoftReference<ElementMatrix> matrix;
+
+	CubeElementData(DataCube cube, int element, String name) {
+		this.cube = cube;
+		this.element = element;
+		this.name = name;
+	}
+	
+	/**
+	 * Returns the cube of this element.
+	 * 
+	 * @return the cube of this element.
+	 */
+	public DataCube getCube() {
+		return cube;
+	}
+	
+	/**
+	 * Returns the index of this element in its cube.
+	 * 
+	 * @return the index of this element in its cube.
+	 */
+	public int getElementIndex() {
+		return element;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public double[][] getData(double missingValue) {
+		return getMatrix().toArray(missingValue);
+	}
+	
+	/**
+	 * Returns the view of the data matrix. The view is built the first time 
+	 * it is requested and it is softly cached, so that it can be released 
+	 * and built again when memory is low.
+	 * 
+	 * @return the view of the data matrix.
+	 */
+	@Override
+	public ElementMatrix getMatrix() {
+		final SoftReference<ElementMatrix> reference = this.matrix;
+		ElementMatrix current = reference == null ? null : reference.get();
+		
+		if (current == null) {
+			current = createMatrix();
+			this.matrix = new SoftReference<ElementMatrix>(current);
+		}
+		
+		return current;
+	}
+	
+	private ElementMatrix createMatrix() {
+		final DatasetGrid grid = cube.getGrid();
+		final double[] values = cube.getValues();
+		final int offset = cube.getPlaneOffset(element);
+		final int rangeSize = grid.getRangeAxis().size();
+		final int positionsSize = grid.getPositionsAxis().size();
+		
+		final double[] data = new double[rangeSize * positionsSize];
+		
+		for (int line = 0; line < grid.getLineCount(); line++) {
+			final int lineOffset = offset + line * grid.getColumnCount();
+			final int position = grid.getLinePosition(line);
+			
+			if (grid.isVertical()) {
+				for (int column = 0; column < rangeSize; column++) {
+					data[column * positionsSize + position] = values[lineOffset + column];
+				}
+			} else {
+				System.arraycopy(values, lineOffset, 
+					data, position * rangeSize, rangeSize);
+			}
+		}
+		
+		return grid.isVertical() ?
+			new ElementMatrix(rangeSize, positionsSize, data) :
+			new ElementMatrix(positionsSize, rangeSize, data);
+	}
+
+	@Override
+	public List<Double> getXAxis() {
+		return cube.getGrid().getXAxis();
+	}
+
+	@Override
+	public List<Double> getYAxis() {
+		return cube.getGrid().getYAxis();
+	}
+
+	@Override
+	public LineData[] getLines() {
+		final DatasetGrid grid = cube.getGrid();
+		final LineData[] lines = new LineData[grid.getLineCount()];
+		
+		for (int line = 0; line < lines.length; line++) {
+			final int start = cube.getPlaneOffset(element) 
+				+ line * grid.getColumnCount() + grid.getLineStart(line);
+			
+			lines[line] = new LineData(
+				grid.getLineName(line),
+				Arrays.copyOfRange(cube.getValues(), 
+					start, start + grid.getLineLength(line)),
+				grid.getCoordinates(line)
+			);
+		}
+		
+		return lines;
+	}
+
+	@Override
+	public int getNumLines() {
+		return cube.getGrid().getLineCount();
+	}
+
+	@Override
+	public boolean isCompatibleWith(ElementData data) {
+		if (data instanceof CubeElementData
+			&& ((CubeElementData) data).getCube().getGrid() == cube.getGrid()
+		) {
+			return true;
+		}
+		
+		final DatasetGrid grid = cube.getGrid();
+		final LineData[] lines = data.getLines();
+		if (lines.length != grid.getLineCount()) {
+			return false;
+		}
+		for (int i = 0; i < lines.length; i++) {
+			if (
+				lines[i].getLength() != grid.getLineLength(i)
+				|| lines[i].isVertical() != grid.isVertical()
+			) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Returns the statistics of the element values. The statistics are 
+	 * computed the first time they are requested, reading the lines in place
+	 * from the cube plane, and then cached.
+	 * 
+	 * @return the statistics of the element values.
+	 */
+	@Override
+	public ElementStatistics getStatistics() {
+		if (this.statistics == null) {
+			this.statistics = computeStatistics();
+		}
+		
+		return this.statistics;
+	}
+	
+	private ElementStatistics computeStatistics() {
+		final DatasetGrid grid = cube.getGrid();
+		final int[] offsets = new int[grid.getLineCount()];
+		final int[] lengths = new int[grid.getLineCount()];
+		
+		for (int line = 0; line < offsets.length; line++) {
+			offsets[line] = cube.getPlaneOffset(element) 
+				+ line * grid.getColumnCount() + grid.getLineStart(line);
+			lengths[line] = grid.getLineLength(line);
+		}
+		
+		return ElementStatistics.of(cube.getValues(), offsets, lengths);
+	}
+
+	@Override
+	public double getMaxValue() {
+		return getStatistics().getMax();
+	}
+
+	@Override
+	public double getMinValue() {
+		return getStatistics().getMin();
+	}
+
+	@Override
+	public LineCoordinates[] getCoordinates() {
+		final DatasetGrid grid = cube.getGrid();
+		final LineCoordinates[] coordinates = 
+			new LineCoordinates[grid.getLineCount()];
+		for (int line = 0; line < coordinates.length; line++) {
+			coordinates[line] = grid.getCoordinates(line);
+		}
+		
+		return coordinates;
+	}
+
+	@Override
+	public void toCSV(File file, CSVFormat format) throws IOException {
+		ElementData.createElementData(name, getLines()).toCSV(file, format);
+	}
+
+	@Override
+	public boolean isVertical() {
+		return cube.getGrid().isVertical();
+	}
+}
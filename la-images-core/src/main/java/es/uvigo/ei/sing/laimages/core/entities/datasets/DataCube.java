@@ -0,0 +1,345 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * A contiguous element &times; line &times; column cube with the values of
+ * several elements that share the same {@link DatasetGrid}. The values of 
+ * each element are stored in a plane of {@code lineCount * columnCount} 
+ * values, row by row, and positions of the grid without values are 
+ * {@code NaN}.
+ * </p>
+ * 
+ * <p>
+ * The elements of the cube are accessed through {@link CubeElementData} 
+ * views that read the cube values directly, so that the geometry of the 
+ * dataset is computed only once and cross-element operations (e.g. ratios or
+ * sum images) walk the planes sequentially.
+ * </p>
+ * 
+ * <p>
+ * Cubes are opt-in: dataset loaders produce {@code LineData} based datasets
+ * and nothing in the library builds a cube implicitly. Callers that want 
+ * the cube layout create it with {@link #of(ElementDataset)}, which copies 
+ * the values of all the elements once, and can use {@link #toDataset(Path, 
+ * String, ElementDatasetConfiguration)} to keep working with an 
+ * {@code ElementDataset} backed by the cube. Since the values are stored in
+ * a single array, a cube can hold at most {@code Integer.MAX_VALUE} values.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class DataCube implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final DatasetGrid grid;
+	private final List<String> elementNames;
+	private final double[] values;
+	private final int planeSize;
+	
+	private DataCube(DatasetGrid grid, List<String> elementNames, double[] values) {
+		this.grid = grid;
+		this.elementNames = Collections.unmodifiableList(elementNames);
+		this.values = values;
+		this.planeSize = planeSize(grid);
+	}
+	
+	/**
+	 * Creates a {@code DataCube} with the elements of {@code dataset}.
+	 * 
+	 * @param dataset an {@code ElementDataset}.
+	 * @return a new {@code DataCube}.
+	 * @throws IllegalArgumentException if the dataset is empty, its 
+	 * 	elements do not share the same geometry or the cube would have more
+	 * 	than {@code Integer.MAX_VALUE} values.
+	 */
+	public static DataCube of(ElementDataset dataset) {
+		return of(dataset.getElements());
+	}
+	
+	/**
+	 * Creates a {@code DataCube} with {@code elements}, copying their values.
+	 * 
+	 * @param elements a list of {@code ElementData}.
+	 * @return a new {@code DataCube}.
+	 * @throws IllegalArgumentException if {@code elements} is empty, its 
+	 * 	elements do not share the same geometry or the cube would have more
+	 * 	than {@code Integer.MAX_VALUE} values.
+	 */
+	public static DataCube of(List<ElementData> elements) {
+		if (elements.isEmpty()) {
+			throw new IllegalArgumentException("Elements can't be empty");
+		}
+		
+		final DatasetGrid grid = new DatasetGrid(elements.get(0).getLines());
+		final int planeSize = planeSize(grid);
+		final double[] values = new double[cubeSize(elements.size(), planeSize)];
+		Arrays.fill(values, Double.NaN);
+		
+		final List<String> names = new ArrayList<String>(elements.size());
+		for (int e = 0; e < elements.size(); e++) {
+			final ElementData element = elements.get(e);
+			final LineData[] lines = element.getLines();
+			if (!grid.matches(lines)) {
+				throw new IllegalArgumentException("Element " + element.getName()
+					+ " does not share the geometry of the other elements");
+			}
+			
+			for (int line = 0; line < lines.length; line++) {
+				System.arraycopy(lines[line].getData(), 0, values, 
+					e * planeSize + line * grid.getColumnCount() 
+						+ grid.getLineStart(line),
+					lines[line].getLength()
+				);
+			}
+			names.add(element.getName());
+		}
+		
+		return new DataCube(grid, names, values);
+	}
+	
+	private static int planeSize(DatasetGrid grid) {
+		try {
+			return Math.multiplyExact(grid.getLineCount(), grid.getColumnCount());
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("A grid of " 
+				+ grid.getLineCount() + " lines and " + grid.getColumnCount()
+				+ " columns exceeds the maximum size of a cube plane");
+		}
+	}
+	
+	private static int cubeSize(int elementCount, int planeSize) {
+		try {
+			return Math.multiplyExact(elementCount, planeSize);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("A cube of " + elementCount 
+				+ " elements with " + planeSize + " values each exceeds the "
+				+ "maximum size of a cube");
+		}
+	}
+	
+	/**
+	 * Returns the geometry shared by the elements of the cube.
+	 * 
+	 * @return the geometry shared by the elements of the cube.
+	 */
+	public DatasetGrid getGrid() {
+		return grid;
+	}
+	
+	/**
+	 * Returns the number of elements of the cube.
+	 * 
+	 * @return the number of elements of the cube.
+	 */
+	public int getElementCount() {
+		return elementNames.size();
+	}
+	
+	/**
+	 * Returns the names of the elements of the cube.
+	 * 
+	 * @return the names of the elements of the cube.
+	 */
+	public List<String> getElementNames() {
+		return elementNames;
+	}
+	
+	/**
+	 * Returns the values of the cube. Note that the returned array is not a 
+	 * copy, so it must not be modified. The value of an element at a given
+	 * line and column is located at {@code getPlaneOffset(element) + line * 
+	 * getGrid().getColumnCount() + column}.
+	 * 
+	 * @return the values of the cube.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+	
+	/**
+	 * Returns the number of values of each element.
+	 * 
+	 * @return the number of values of each element.
+	 */
+	public int getPlaneSize() {
+		return planeSize;
+	}
+	
+	/**
+	 * Returns the position of the first value of the element at 
+	 * {@code element} in the values array. Since the size of the values 
+	 * array is checked when the cube is created, the offsets of the elements
+	 * of the cube never overflow.
+	 * 
+	 * @param element the index of an element.
+	 * @return the position of the first value of the element.
+	 */
+	public int getPlaneOffset(int element) {
+		return element * planeSize;
+	}
+	
+	/**
+	 * Returns the value of the element at {@code element} at the given
+	 * {@code line} and {@code column}.
+	 * 
+	 * @param element the index of an element.
+	 * @param line the index of a line.
+	 * @param column the column in the grid.
+	 * @return the value of the element at the given line and column.
+	 */
+	public double get(int element, int line, int column) {
+		return values[element * planeSize + line * grid.getColumnCount() + column];
+	}
+	
+	/**
+	 * Returns a view of the element at {@code element}.
+	 * 
+	 * @param element the index of an element.
+	 * @return a view of the element.
+	 */
+	public ElementData getElement(int element) {
+		return new CubeElementData(this, element, elementNames.get(element));
+	}
+	
+	/**
+	 * Returns a view of the element named {@code name}.
+	 * 
+	 * @param name the name of an element.
+	 * @return a view of the element or an empty {@code Optional} if there is
+	 * 	not such element in the cube.
+	 */
+	public Optional<ElementData> getElement(String name) {
+		final int index = elementNames.indexOf(name);
+		
+		return index == -1 ? Optional.empty() : Optional.of(getElement(index));
+	}
+	
+	/**
+	 * Returns views of all the elements of the cube.
+	 * 
+	 * @return views of all the elements of the cube.
+	 */
+	public List<ElementData> getElements() {
+		return IntStream.range(0, getElementCount())
+			.mapToObj(this::getElement)
+		.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Creates an {@code ElementDataset} whose elements are views of the 
+	 * elements of this cube.
+	 * 
+	 * @param path the dataset path.
+	 * @param name the dataset name.
+	 * @param configuration the dataset configuration.
+	 * @return a new {@code ElementDataset}.
+	 */
+	public ElementDataset toDataset(Path path, String name, 
+		ElementDatasetConfiguration configuration
+	) {
+		final DefaultElementDataset dataset = 
+			new DefaultElementDataset(path, name, configuration);
+		dataset.addElements(getElements());
+		
+		return dataset;
+	}
+	
+	/**
+	 * Returns a new element, named {@code name}, whose values are the sum of
+	 * the values of all the elements of the cube at each position (e.g. a 
+	 * total ion image). Missing values are ignored, so positions are only
+	 * missing if all the elements are missing at them.
+	 * 
+	 * @param name the name of the new element.
+	 * @return a new element with the sum of all the elements.
+	 */
+	public ElementData sum(String name) {
+		final double[] sum = new double[planeSize];
+		Arrays.fill(sum, Double.NaN);
+		
+		for (int offset = 0; offset < values.length; offset += planeSize) {
+			for (int i = 0; i < planeSize; i++) {
+				final double value = values[offset + i];
+				if (!Double.isNaN(value)) {
+					sum[i] = Double.isNaN(sum[i]) ? value : sum[i] + value;
+				}
+			}
+		}
+		
+		return new DataCube(grid, Collections.singletonList(name), sum)
+			.getElement(0);
+	}
+	
+	/**
+	 * Returns a new element, named {@code name}, whose values are the ratio
+	 * between the values of the {@code numerator} and {@code denominator} 
+	 * elements at each position. Ratios with a zero denominator are missing
+	 * values.
+	 * 
+	 * @param numerator the name of the numerator element.
+	 * @param denominator the name of the denominator element.
+	 * @param name the name of the new element.
+	 * @return a new element with the ratio between the elements.
+	 * @throws IllegalArgumentException if the cube does not contain the 
+	 * 	{@code numerator} or {@code denominator} elements.
+	 */
+	public ElementData ratio(String numerator, String denominator, String name) {
+		final int numeratorOffset = getPlaneOffset(indexOf(numerator));
+		final int denominatorOffset = getPlaneOffset(indexOf(denominator));
+		
+		final double[] ratio = new double[planeSize];
+		for (int i = 0; i < planeSize; i++) {
+			ratio[i] = values[numeratorOffset + i] / values[denominatorOffset + i];
+			if (Double.isInfinite(ratio[i])) {
+				ratio[i] = Double.NaN;
+			}
+		}
+		
+		return new DataCube(grid, Collections.singletonList(name), ratio)
+			.getElement(0);
+	}
+	
+	private int indexOf(String element) {
+		final int index = elementNames.indexOf(element);
+		if (index == -1) {
+			throw new IllegalArgumentException(
+				"Element " + element + " is not present in the cube");
+		}
+		
+		return index;
+	}
+}
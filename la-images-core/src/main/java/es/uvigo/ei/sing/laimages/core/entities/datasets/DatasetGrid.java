@@ -0,0 +1,262 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesPositionsAxis;
+import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesRangeAxis;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.Axis;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+
+/**
+ * <p>
+ * The geometry shared by the elements of a dataset: the line coordinates, 
+ * the range and positions axes and the location of each line in the range
+ * axis. It is computed once for all the elements of a {@link DataCube}.
+ * </p>
+ * 
+ * <p>
+ * The grid has one row per line. Each row has {@link #getColumnCount()}
+ * columns, one for each value of the range axis, and the values of a line
+ * are located between its start column and its start column plus its 
+ * length. The index of each line in the positions axis is also computed, so
+ * that element matrices can be filled without searching the axes.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class DatasetGrid implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private static final double DELTA = 0.000001d;
+
+	private final String[] lineNames;
+	private final LineCoordinates[] coordinates;
+	private final boolean vertical;
+	private final ArithmeticAxis rangeAxis;
+	private final Axis positionsAxis;
+	private final int[] lineStarts;
+	private final int[] lineLengths;
+	private final int[] linePositions;
+	private final int columnCount;
+
+	/**
+	 * Constructs the {@code DatasetGrid} of {@code lines}.
+	 * 
+	 * @param lines the lines of an {@code ElementData}.
+	 * @throws IllegalArgumentException if {@code lines} is empty or the range
+	 * 	start or the position of some line are not values of the axes.
+	 */
+	public DatasetGrid(LineData[] lines) {
+		if (lines.length == 0) {
+			throw new IllegalArgumentException("Lines can't be empty");
+		}
+		
+		this.lineNames = new String[lines.length];
+		this.coordinates = new LineCoordinates[lines.length];
+		this.lineLengths = new int[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			this.lineNames[i] = lines[i].getName();
+			this.coordinates[i] = lines[i].getCoordinates();
+			this.lineLengths[i] = lines[i].getLength();
+		}
+		this.vertical = lines[0].isVertical();
+		
+		final List<LineCoordinates> coordinatesList = Arrays.asList(coordinates);
+		this.rangeAxis = getLinesRangeAxis(coordinatesList);
+		this.positionsAxis = getLinesPositionsAxis(coordinatesList);
+		
+		this.lineStarts = new int[lines.length];
+		this.linePositions = new int[lines.length];
+		int columns = rangeAxis.size();
+		for (int i = 0; i < lines.length; i++) {
+			this.lineStarts[i] = rangeAxis.indexOf(coordinates[i].getRangeStart(), DELTA);
+			if (this.lineStarts[i] == -1) {
+				throw new IllegalArgumentException("The range start of line " 
+					+ lines[i].getName() + " is not aligned with the range axis");
+			}
+			this.linePositions[i] = positionsAxis.indexOf(coordinates[i].getPosition(), DELTA);
+			if (this.linePositions[i] == -1) {
+				throw new IllegalArgumentException("The position of line " 
+					+ lines[i].getName() + " is not aligned with the positions axis");
+			}
+			columns = Math.max(columns, lineStarts[i] + lineLengths[i]);
+		}
+		this.columnCount = columns;
+	}
+	
+	/**
+	 * Returns {@code true} if {@code lines} have the same geometry than this
+	 * grid, that is, the same number of lines with the same orientation, 
+	 * position, range start and length.
+	 * 
+	 * @param lines the lines of an {@code ElementData}.
+	 * @return {@code true} if {@code lines} have the same geometry than this
+	 * 	grid and {@code false} otherwise.
+	 */
+	public boolean matches(LineData[] lines) {
+		if (lines.length != coordinates.length) {
+			return false;
+		}
+		
+		for (int i = 0; i < lines.length; i++) {
+			final LineCoordinates lineCoordinates = lines[i].getCoordinates();
+			if (
+				lines[i].getLength() != lineLengths[i]
+				|| lineCoordinates.isVertical() != vertical
+				|| lineCoordinates.getPosition() != coordinates[i].getPosition()
+				|| lineCoordinates.getRangeStart() != coordinates[i].getRangeStart()
+				|| lineCoordinates.getRangeTick() != coordinates[i].getRangeTick()
+			) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the number of lines (rows) of the grid.
+	 * 
+	 * @return the number of lines of the grid.
+	 */
+	public int getLineCount() {
+		return coordinates.length;
+	}
+	
+	/**
+	 * Returns the number of columns of each row of the grid, which is at 
+	 * least the size of the range axis.
+	 * 
+	 * @return the number of columns of each row of the grid.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+	
+	/**
+	 * Returns the column of the first value of the line at {@code line}.
+	 * 
+	 * @param line the index of a line.
+	 * @return the column of the first value of the line.
+	 */
+	public int getLineStart(int line) {
+		return lineStarts[line];
+	}
+	
+	/**
+	 * Returns the index of the position of the line at {@code line} in the
+	 * positions axis.
+	 * 
+	 * @param line the index of a line.
+	 * @return the index of the position of the line in the positions axis.
+	 */
+	public int getLinePosition(int line) {
+		return linePositions[line];
+	}
+	
+	/**
+	 * Returns the name of the line at {@code line}.
+	 * 
+	 * @param line the index of a line.
+	 * @return the name of the line.
+	 */
+	public String getLineName(int line) {
+		return lineNames[line];
+	}
+	
+	/**
+	 * Returns the number of values of the line at {@code line}.
+	 * 
+	 * @param line the index of a line.
+	 * @return the number of values of the line.
+	 */
+	public int getLineLength(int line) {
+		return lineLengths[line];
+	}
+	
+	/**
+	 * Returns the coordinates of the line at {@code line}. Coordinates are 
+	 * shared by all the elements of the grid.
+	 * 
+	 * @param line the index of a line.
+	 * @return the coordinates of the line.
+	 */
+	public LineCoordinates getCoordinates(int line) {
+		return coordinates[line];
+	}
+	
+	/**
+	 * Returns {@code true} if the lines are vertical and {@code false} 
+	 * otherwise.
+	 * 
+	 * @return {@code true} if the lines are vertical and {@code false} 
+	 * 	otherwise.
+	 */
+	public boolean isVertical() {
+		return vertical;
+	}
+	
+	/**
+	 * Returns the axis of the values along the lines.
+	 * 
+	 * @return the axis of the values along the lines.
+	 */
+	public ArithmeticAxis getRangeAxis() {
+		return rangeAxis;
+	}
+	
+	/**
+	 * Returns the axis of the line positions.
+	 * 
+	 * @return the axis of the line positions.
+	 */
+	public Axis getPositionsAxis() {
+		return positionsAxis;
+	}
+	
+	/**
+	 * Returns the X axis of the elements of the grid.
+	 * 
+	 * @return the X axis of the elements of the grid.
+	 */
+	public Axis getXAxis() {
+		return vertical ? positionsAxis : rangeAxis;
+	}
+	
+	/**
+	 * Returns the Y axis of the elements of the grid.
+	 * 
+	 * @return the Y axis of the elements of the grid.
+	 */
+	public Axis getYAxis() {
+		return vertical ? rangeAxis : positionsAxis;
+	}
+}
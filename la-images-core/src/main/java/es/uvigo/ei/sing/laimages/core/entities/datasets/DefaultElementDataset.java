@@ -50,8 +50,7 @@ public class DefaultElementDataset implements ElementDataset, Serializable {
 	private String name;
 	private List<ElementData> elements;
 	private ElementDatasetConfiguration configuration;
-	private Double maxValue;
-	private Double minValue;
+	private transient ElementStatistics statistics;
 	
 	/**
 	 * Constructs a new instance of {@code DefaultElementDataset}.
@@ -108,29 +107,35 @@ public class DefaultElementDataset implements ElementDataset, Serializable {
 	}
 	
 	@Override
-	public double getMinValue() {
-		if (minValue == null) {
-			minValue = getElements().stream()
-					.mapToDouble(ElementData::getMinValue).min().getAsDouble();
+	public ElementStatistics getStatistics() {
+		if (statistics == null) {
+			statistics = ElementDataset.super.getStatistics();
 		}
-		return minValue;
+		return statistics;
+	}
+	
+	@Override
+	public double getMinValue() {
+		return getStatistics().getMin();
 	}
 
 	@Override
 	public double getMaxValue() {
-		if (maxValue == null) {
-			maxValue = getElements().stream()
-					.mapToDouble(ElementData::getMaxValue).max().getAsDouble();
-		}
-		return maxValue;
+		return getStatistics().getMax();
 	}	
 	
 	public void addElement(ElementData e) {
 		this.elements.add(e);
+		this.resetValueRange();
 	}
 	
 	public void addElements(List<ElementData> e) {
 		this.elements.addAll(e);
+		this.resetValueRange();
+	}
+	
+	private void resetValueRange() {
+		this.statistics = null;
 	}
 
 	@Override
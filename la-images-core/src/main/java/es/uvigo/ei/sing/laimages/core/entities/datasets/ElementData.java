@@ -55,15 +55,29 @@ public interface ElementData {
 	public String getName();
 	
 	/**
-	 * Returns the data matrix. Since lines can have different lengths, common 
-	 * X and Y axis are created for all lines and missing values are 
-	 * represented by {@code missingValue}.
+	 * Returns a new copy of the data matrix. Since lines can have different
+	 * lengths, common X and Y axis are created for all lines and missing 
+	 * values are represented by {@code missingValue}. Use 
+	 * {@link ElementData#getMatrix()} to read the matrix without copying it.
 	 * 
 	 * @param missingValue the value to use for missing values.
 	 * @return the data matrix.
 	 */
 	public double[][] getData(double missingValue);
 	
+	/**
+	 * Returns a read-only view of the data matrix, with the same values as
+	 * {@code getData(Double.NaN)}. Implementations should build the view 
+	 * once and cache it, so that it can be read repeatedly without copying 
+	 * the matrix. This default implementation builds a new view each time it
+	 * is invoked.
+	 * 
+	 * @return a read-only view of the data matrix.
+	 */
+	public default ElementMatrix getMatrix() {
+		return ElementMatrix.of(getData(Double.NaN));
+	}
+	
 	/**
 	 * Return the x axis of the matrix returned by {@code getData}.
 	 * 
@@ -100,6 +114,28 @@ public interface ElementData {
 	 */
 	public boolean isCompatibleWith(ElementData data);
 	
+	/**
+	 * Returns the statistics of the values, excluding missing values. 
+	 * Implementations should compute the statistics once and cache them. 
+	 * This default implementation computes them each time it is invoked.
+	 * 
+	 * @return the statistics of the values.
+	 */
+	public default ElementStatistics getStatistics() {
+		return ElementStatistics.of(getLines());
+	}
+	
+	/**
+	 * Returns an immutable snapshot of this element data that can be safely 
+	 * read by several threads at the same time.
+	 * 
+	 * @return an immutable snapshot of this element data.
+	 * @see ElementDataSnapshot
+	 */
+	public default ElementData snapshot() {
+		return ElementDataSnapshot.of(this);
+	}
+	
 	/**
 	 * Returns the maximum value in the data matrix, excluding missing values.
 	 * 
@@ -0,0 +1,173 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ImmutableLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+
+/**
+ * An immutable snapshot of an {@code ElementData}. Its lines and 
+ * coordinates are copied into {@link ImmutableLineData} and 
+ * {@link ImmutableLineCoordinates} objects when the snapshot is created, and
+ * its matrix view and statistics are computed at that moment. Therefore, a 
+ * snapshot can be read concurrently by several threads (e.g. to render and
+ * export it at the same time) without synchronization or further copies.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ElementDataSnapshot implements ElementData, Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final ElementData data;
+	private final ElementStatistics statistics;
+
+	private ElementDataSnapshot(ElementData data) {
+		this.data = data;
+		this.statistics = data.getStatistics();
+		this.data.getMatrix();
+	}
+	
+	/**
+	 * Returns an immutable snapshot of {@code data} or {@code data} itself if
+	 * it is already a snapshot.
+	 * 
+	 * @param data the {@code ElementData} to copy.
+	 * @return an immutable snapshot of {@code data}.
+	 */
+	public static ElementDataSnapshot of(ElementData data) {
+		return of(data, new IdentityHashMap<>());
+	}
+	
+	/**
+	 * Returns an immutable snapshot of {@code data} or {@code data} itself if
+	 * it is already a snapshot. Coordinates that have already been copied 
+	 * are taken from {@code coordinates}, so that elements sharing the same
+	 * coordinates keep sharing them in their snapshots.
+	 * 
+	 * @param data the {@code ElementData} to copy.
+	 * @param coordinates an identity map with the immutable copies of 
+	 * 	coordinates.
+	 * @return an immutable snapshot of {@code data}.
+	 */
+	static ElementDataSnapshot of(ElementData data,
+		Map<LineCoordinates, ImmutableLineCoordinates> coordinates
+	) {
+		if (data instanceof ElementDataSnapshot) {
+			return (ElementDataSnapshot) data;
+		}
+		
+		final LineData[] lines = Stream.of(data.getLines())
+			.map(line -> ImmutableLineData.copyOf(line, coordinates))
+			.toArray(LineData[]::new);
+		
+		return new ElementDataSnapshot(
+			ElementData.createElementData(data.getName(), lines));
+	}
+
+	@Override
+	public String getName() {
+		return data.getName();
+	}
+
+	@Override
+	public double[][] getData(double missingValue) {
+		return data.getData(missingValue);
+	}
+	
+	@Override
+	public ElementMatrix getMatrix() {
+		return data.getMatrix();
+	}
+
+	@Override
+	public List<Double> getXAxis() {
+		return data.getXAxis();
+	}
+
+	@Override
+	public List<Double> getYAxis() {
+		return data.getYAxis();
+	}
+
+	/**
+	 * Returns a new array with the lines of the snapshot. Since lines are 
+	 * immutable, they are not copied.
+	 * 
+	 * @return a new array with the lines of the snapshot.
+	 */
+	@Override
+	public LineData[] getLines() {
+		return data.getLines().clone();
+	}
+
+	@Override
+	public int getNumLines() {
+		return data.getNumLines();
+	}
+
+	@Override
+	public boolean isCompatibleWith(ElementData data) {
+		return this.data.isCompatibleWith(data);
+	}
+	
+	@Override
+	public ElementStatistics getStatistics() {
+		return statistics;
+	}
+
+	@Override
+	public double getMaxValue() {
+		return statistics.getMax();
+	}
+
+	@Override
+	public double getMinValue() {
+		return statistics.getMin();
+	}
+
+	@Override
+	public LineCoordinates[] getCoordinates() {
+		return data.getCoordinates();
+	}
+
+	@Override
+	public void toCSV(File file, CSVFormat format) throws IOException {
+		data.toCSV(file, format);
+	}
+
+	@Override
+	public boolean isVertical() {
+		return data.isVertical();
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.IOException;
+
+/**
+ * A source from which the {@code ElementData} of a dataset can be loaded on
+ * demand.
+ * 
+ * @author Hugo López-Fernández
+ * @see LazyElementDataset
+ *
+ */
+@FunctionalInterface
+public interface ElementDataSource {
+	/**
+	 * Loads the {@code ElementData} with the given {@code name}.
+	 * 
+	 * @param name the name of the element.
+	 * @return the {@code ElementData} loaded.
+	 * @throws IOException if an error occurs loading the element.
+	 */
+	public ElementData load(String name) throws IOException;
+}
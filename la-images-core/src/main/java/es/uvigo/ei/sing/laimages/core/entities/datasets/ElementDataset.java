@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
 import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
@@ -97,6 +98,30 @@ public interface ElementDataset {
 	 */
 	public ElementDatasetConfiguration getConfiguration();
 	
+	/**
+	 * Returns the statistics of all the values in the dataset, which are 
+	 * computed by merging the statistics of its elements.
+	 * 
+	 * @return the statistics of all the values in the dataset.
+	 * @see ElementStatistics#merge(java.util.Collection)
+	 */
+	public default ElementStatistics getStatistics() {
+		return ElementStatistics.merge(getElements().stream()
+			.map(ElementData::getStatistics).collect(Collectors.toList()));
+	}
+	
+	/**
+	 * Returns an immutable snapshot of this dataset that can be safely read 
+	 * by several threads at the same time, for instance, to export it while
+	 * it is displayed.
+	 * 
+	 * @return an immutable snapshot of this dataset.
+	 * @see ElementDatasetSnapshot
+	 */
+	public default ElementDataset snapshot() {
+		return ElementDatasetSnapshot.of(this);
+	}
+	
 	/**
 	 * Returns the maximum value in the dataset.
 	 * 
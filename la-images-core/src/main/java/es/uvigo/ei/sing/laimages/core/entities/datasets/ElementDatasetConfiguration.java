@@ -35,13 +35,15 @@ import java.io.Serializable;
 public class ElementDatasetConfiguration implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
-	private double ablationSpeed;
-	private double acquisitionTime;
-	private double spaceInterval;
-	private String standardElement;
+	private final double ablationSpeed;
+	private final double acquisitionTime;
+	private final double spaceInterval;
+	private final String standardElement;
+	private final StoragePrecision storagePrecision;
 
 	/**
-	 * Constructs a new instance of {@code ElementDatasetConfiguration}.
+	 * Constructs a new instance of {@code ElementDatasetConfiguration} whose
+	 * values are stored with double precision.
 	 * 
 	 * @param ablationSpeed the ablation speed.
 	 * @param acquisitionTime the acquisition time.
@@ -50,11 +52,29 @@ public class ElementDatasetConfiguration implements Serializable {
 	 */
 	public ElementDatasetConfiguration(double ablationSpeed,
 			double acquisitionTime, double spaceInterval, String standardElement) {
+		this(ablationSpeed, acquisitionTime, spaceInterval, standardElement,
+			StoragePrecision.DOUBLE);
+	}
+
+	/**
+	 * Constructs a new instance of {@code ElementDatasetConfiguration}.
+	 * 
+	 * @param ablationSpeed the ablation speed.
+	 * @param acquisitionTime the acquisition time.
+	 * @param spaceInterval the space interval.
+	 * @param standardElement the standard element of the dataset.
+	 * @param storagePrecision the precision used to store the values of the
+	 * 	dataset.
+	 */
+	public ElementDatasetConfiguration(double ablationSpeed,
+			double acquisitionTime, double spaceInterval, String standardElement,
+			StoragePrecision storagePrecision) {
 
 		this.ablationSpeed = ablationSpeed;
 		this.acquisitionTime = acquisitionTime;
 		this.spaceInterval = spaceInterval;
 		this.standardElement = standardElement;
+		this.storagePrecision = storagePrecision;
 	}
 	
 	/**
@@ -123,4 +143,13 @@ public class ElementDatasetConfiguration implements Serializable {
 	public boolean shouldNormalize() {
 		return standardElement == null || standardElement.equals("");
 	}
+
+	/**
+	 * Returns the precision used to store the values of the dataset.
+	 * 
+	 * @return the precision used to store the values of the dataset.
+	 */
+	public StoragePrecision getStoragePrecision() {
+		return storagePrecision == null ? StoragePrecision.DOUBLE : storagePrecision;
+	}
 }
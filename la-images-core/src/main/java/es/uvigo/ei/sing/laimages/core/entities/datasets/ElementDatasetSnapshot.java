@@ -0,0 +1,207 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.util.FileNameUtils.getFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ImmutableLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * An immutable snapshot of an {@code ElementDataset}, whose elements are 
+ * {@link ElementDataSnapshot} objects. All its fields are final and its 
+ * element list can't be modified, so a snapshot can be safely published to
+ * other threads and read concurrently (e.g. to export it to CSV and PNG 
+ * while it is displayed) without synchronization or defensive copies.
+ * 
+ * Note that creating the snapshot of a dataset loads all its elements.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ElementDatasetSnapshot implements ElementDataset, Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final File path;
+	private final String name;
+	private final ElementDatasetConfiguration configuration;
+	private final List<ElementData> elements;
+	private transient volatile ElementStatistics statistics;
+
+	private ElementDatasetSnapshot(Path path, String name,
+		ElementDatasetConfiguration configuration, List<ElementData> elements
+	) {
+		this.path = path.toFile();
+		this.name = name;
+		this.configuration = configuration;
+		this.elements = Collections.unmodifiableList(elements);
+	}
+	
+	/**
+	 * Returns an immutable snapshot of {@code dataset} or {@code dataset} 
+	 * itself if it is already a snapshot.
+	 * 
+	 * @param dataset the dataset to copy.
+	 * @return an immutable snapshot of {@code dataset}.
+	 */
+	public static ElementDatasetSnapshot of(ElementDataset dataset) {
+		if (dataset instanceof ElementDatasetSnapshot) {
+			return (ElementDatasetSnapshot) dataset;
+		} else {
+			final Map<LineCoordinates, ImmutableLineCoordinates> coordinates = 
+				new IdentityHashMap<>();
+			final List<ElementData> elements = new ArrayList<ElementData>();
+			for (ElementData element : dataset.getElements()) {
+				elements.add(ElementDataSnapshot.of(element, coordinates));
+			}
+			
+			return new ElementDatasetSnapshot(dataset.getPath(), 
+				dataset.getName(), dataset.getConfiguration(), elements);
+		}
+	}
+	
+	/**
+	 * Returns a dataset snapshot made of {@code elements}, which are not 
+	 * copied. Therefore, {@code elements} must be immutable and the list 
+	 * must not be modified after invoking this method.
+	 * 
+	 * @param path the dataset path.
+	 * @param name the dataset name.
+	 * @param configuration the dataset configuration.
+	 * @param elements the immutable elements of the dataset.
+	 * @return a dataset snapshot made of {@code elements}.
+	 */
+	public static ElementDatasetSnapshot of(Path path, String name,
+		ElementDatasetConfiguration configuration, List<ElementData> elements
+	) {
+		return new ElementDatasetSnapshot(path, name, configuration, elements);
+	}
+
+	@Override
+	public Path getPath() {
+		return path.toPath();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Snapshots can't be modified, so this method always throws an 
+	 * {@code UnsupportedOperationException}.
+	 * 
+	 * @param name the dataset name.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setName(String name) {
+		throw new UnsupportedOperationException(
+			"Dataset snapshots can't be modified");
+	}
+
+	@Override
+	public int getElementCount() {
+		return elements.size();
+	}
+
+	@Override
+	public List<ElementData> getElements() {
+		return elements;
+	}
+
+	@Override
+	public Optional<ElementData> getElement(String name) {
+		return elements.stream()
+			.filter(e -> e.getName().equals(name)).findFirst();
+	}
+
+	@Override
+	public List<String> getElementNames() {
+		return elements.stream().map(ElementData::getName)
+			.collect(Collectors.toList());
+	}
+
+	@Override
+	public ElementDatasetConfiguration getConfiguration() {
+		return configuration;
+	}
+	
+	@Override
+	public ElementStatistics getStatistics() {
+		if (elements.isEmpty()) {
+			throw new IllegalStateException("No values found");
+		}
+		if (statistics == null) {
+			statistics = ElementDataset.super.getStatistics();
+		}
+		
+		return statistics;
+	}
+
+	@Override
+	public double getMinValue() {
+		return getStatistics().getMin();
+	}
+
+	@Override
+	public double getMaxValue() {
+		return getStatistics().getMax();
+	}
+	
+	@Override
+	public void toCSV(ElementData elementData, File file, CSVFormat format)
+		throws IOException {
+		elementData.toCSV(file, format);
+	}
+
+	@Override
+	public void toCSV(File directory, CSVFormat format) throws IOException {
+		toCSV(directory, format, () -> {});
+	}
+
+	@Override
+	public void toCSV(File directory, CSVFormat format,
+		ProgressHandler progressHandler
+	) throws IOException {
+		for (ElementData e : elements) {
+			toCSV(e, getFile(directory.toString(), e.getName(), ".csv"), format);
+			progressHandler.progress();
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A read-only view of the data matrix of an {@code ElementData}. Values are
+ * stored row by row in a single array and missing values are stored as 
+ * {@code NaN}, so that a missing value can be replaced by any value when it 
+ * is read.
+ * 
+ * Element data build their matrix once and cache it (see 
+ * {@link ElementData#getMatrix()}), so it can be read repeatedly without 
+ * allocating the whole matrix each time.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ElementMatrix implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final int rows;
+	private final int columns;
+	private final double[] values;
+	private final int missingCount;
+
+	/**
+	 * Constructs a new {@code ElementMatrix} that takes ownership of 
+	 * {@code values}, which must not be modified after invoking this 
+	 * constructor.
+	 * 
+	 * @param rows the number of rows.
+	 * @param columns the number of columns.
+	 * @param values the values of the matrix, row by row, with {@code NaN} 
+	 * 	for missing values.
+	 */
+	ElementMatrix(int rows, int columns, double[] values) {
+		if (values.length != rows * columns) {
+			throw new IllegalArgumentException(
+				"The number of values does not match the matrix size");
+		}
+		
+		this.rows = rows;
+		this.columns = columns;
+		this.values = values;
+		
+		int missing = 0;
+		for (double value : values) {
+			if (Double.isNaN(value)) {
+				missing++;
+			}
+		}
+		this.missingCount = missing;
+	}
+	
+	/**
+	 * Creates a new {@code ElementMatrix} with a copy of {@code data}. All the
+	 * rows of {@code data} must have the same length and missing values must
+	 * be {@code NaN}.
+	 * 
+	 * @param data the data matrix.
+	 * @return a new {@code ElementMatrix}.
+	 * @throws IllegalArgumentException if the rows of {@code data} have 
+	 * 	different lengths.
+	 */
+	public static ElementMatrix of(double[][] data) {
+		final int columns = data.length == 0 ? 0 : data[0].length;
+		final double[] values = new double[data.length * columns];
+		
+		for (int row = 0; row < data.length; row++) {
+			if (data[row].length != columns) {
+				throw new IllegalArgumentException("All rows must have the same length");
+			}
+			System.arraycopy(data[row], 0, values, row * columns, columns);
+		}
+		
+		return new ElementMatrix(data.length, columns, values);
+	}
+	
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return the number of rows.
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+	
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return the number of columns.
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+	
+	/**
+	 * Returns the value at {@code row} and {@code column}, which is 
+	 * {@code NaN} if the value is missing.
+	 * 
+	 * @param row the row of the value.
+	 * @param column the column of the value.
+	 * @return the value at {@code row} and {@code column}.
+	 */
+	public double get(int row, int column) {
+		return values[index(row, column)];
+	}
+	
+	/**
+	 * Returns the value at {@code row} and {@code column} or 
+	 * {@code missingValue} if the value is missing.
+	 * 
+	 * @param row the row of the value.
+	 * @param column the column of the value.
+	 * @param missingValue the value to use for missing values.
+	 * @return the value at {@code row} and {@code column}.
+	 */
+	public double get(int row, int column, double missingValue) {
+		final double value = values[index(row, column)];
+		
+		return Double.isNaN(value) ? missingValue : value;
+	}
+	
+	/**
+	 * Returns {@code true} if the value at {@code row} and {@code column} is
+	 * missing and {@code false} otherwise.
+	 * 
+	 * @param row the row of the value.
+	 * @param column the column of the value.
+	 * @return {@code true} if the value at {@code row} and {@code column} is
+	 * 	missing and {@code false} otherwise.
+	 */
+	public boolean isMissing(int row, int column) {
+		return Double.isNaN(values[index(row, column)]);
+	}
+	
+	/**
+	 * Returns the number of missing values.
+	 * 
+	 * @return the number of missing values.
+	 */
+	public int getMissingCount() {
+		return missingCount;
+	}
+	
+	/**
+	 * Returns a new mask of the missing values, where the bit at 
+	 * {@code row * getColumnCount() + column} is set if the value at 
+	 * {@code row} and {@code column} is missing.
+	 * 
+	 * @return a new mask of the missing values.
+	 */
+	public BitSet getMissingMask() {
+		final BitSet mask = new BitSet(values.length);
+		for (int i = 0; i < values.length; i++) {
+			if (Double.isNaN(values[i])) {
+				mask.set(i);
+			}
+		}
+		
+		return mask;
+	}
+	
+	/**
+	 * Copies the values of {@code row} into {@code target}, replacing missing
+	 * values by {@code missingValue}.
+	 * 
+	 * @param row the row to copy.
+	 * @param target the array where the row is copied, which must have, at 
+	 * 	least, {@code getColumnCount()} positions.
+	 * @param missingValue the value to use for missing values.
+	 */
+	public void copyRow(int row, double[] target, double missingValue) {
+		if (row < 0 || row >= rows) {
+			throw new IndexOutOfBoundsException("Row: " + row);
+		}
+		
+		final int offset = row * columns;
+		for (int column = 0; column < columns; column++) {
+			final double value = values[offset + column];
+			target[column] = Double.isNaN(value) ? missingValue : value;
+		}
+	}
+	
+	/**
+	 * Returns a new matrix with the values of this view, replacing missing 
+	 * values by {@code missingValue}.
+	 * 
+	 * @param missingValue the value to use for missing values.
+	 * @return a new matrix with the values of this view.
+	 */
+	public double[][] toArray(double missingValue) {
+		final double[][] data = new double[rows][];
+		for (int row = 0; row < rows; row++) {
+			if (Double.isNaN(missingValue)) {
+				data[row] = Arrays.copyOfRange(
+					values, row * columns, (row + 1) * columns);
+			} else {
+				data[row] = new double[columns];
+				copyRow(row, data[row], missingValue);
+			}
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * Returns a new matrix with the result of applying {@code operator} to
+	 * the values of this view. Missing values are kept missing and values 
+	 * mapped to {@code NaN} become missing values.
+	 * 
+	 * @param operator the operator to apply to each value.
+	 * @return a new matrix with the mapped values.
+	 */
+	public ElementMatrix map(DoubleUnaryOperator operator) {
+		final double[] mapped = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			mapped[i] = Double.isNaN(values[i]) ? 
+				Double.NaN : operator.applyAsDouble(values[i]);
+		}
+		
+		return new ElementMatrix(rows, columns, mapped);
+	}
+	
+	/**
+	 * Returns a new matrix with the result of applying {@code operator} to
+	 * each value of this view and the value at the same position of 
+	 * {@code other}, which is {@code NaN} if it is missing. Missing values of
+	 * this view are kept missing and values mapped to {@code NaN} become 
+	 * missing values.
+	 * 
+	 * @param other a matrix with the same size as this one.
+	 * @param operator the operator to apply to each pair of values.
+	 * @return a new matrix with the combined values.
+	 * @throws IllegalArgumentException if {@code other} has a different size.
+	 */
+	public ElementMatrix combine(
+		ElementMatrix other, DoubleBinaryOperator operator
+	) {
+		if (other.rows != rows || other.columns != columns) {
+			throw new IllegalArgumentException("Matrices must have the same size");
+		}
+		
+		final double[] combined = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			combined[i] = Double.isNaN(values[i]) ? 
+				Double.NaN : operator.applyAsDouble(values[i], other.values[i]);
+		}
+		
+		return new ElementMatrix(rows, columns, combined);
+	}
+	
+	private int index(int row, int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			throw new IndexOutOfBoundsException(
+				"Row: " + row + ", Column: " + column);
+		}
+		
+		return row * columns + column;
+	}
+}
@@ -0,0 +1,455 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The statistics of the values of an {@code ElementData} or an 
+ * {@code ElementDataset}: the minimum and maximum values, the number of 
+ * values and missing values, the mean, the variance and a histogram with a 
+ * fixed number of bins between the minimum and maximum values. Missing values
+ * ({@code NaN}) are excluded from all the statistics except the missing 
+ * values count.
+ * 
+ * The minimum, maximum, count, mean and variance are computed in a single 
+ * pass over the values. Since the histogram bins depend on the range of the 
+ * values, the histogram requires a second pass. Both passes are done in 
+ * parallel when there are enough values.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ElementStatistics implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The default number of histogram bins.
+	 */
+	public static final int DEFAULT_BIN_COUNT = 64;
+	
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	
+	private final long count;
+	private final long missingCount;
+	private final double min;
+	private final double max;
+	private final double mean;
+	private final double sumOfSquaredDeviations;
+	private final long[] histogram;
+	
+	private ElementStatistics(Moments moments, long[] histogram) {
+		this.count = moments.count;
+		this.missingCount = moments.missingCount;
+		this.min = moments.min;
+		this.max = moments.max;
+		this.mean = moments.mean;
+		this.sumOfSquaredDeviations = moments.sumOfSquaredDeviations;
+		this.histogram = histogram;
+	}
+	
+	@FunctionalInterface
+	private static interface ChunkReader {
+		public void read(int chunk, DoubleConsumer consumer);
+	}
+	
+	/**
+	 * Computes the statistics of the values of {@code lines} using 
+	 * {@link ElementStatistics#DEFAULT_BIN_COUNT} histogram bins.
+	 * 
+	 * @param lines the lines whose statistics will be computed.
+	 * @return the statistics of the values of {@code lines}.
+	 */
+	public static ElementStatistics of(LineData[] lines) {
+		return of(lines, DEFAULT_BIN_COUNT);
+	}
+	
+	/**
+	 * Computes the statistics of the values of {@code lines}.
+	 * 
+	 * @param lines the lines whose statistics will be computed.
+	 * @param binCount the number of histogram bins.
+	 * @return the statistics of the values of {@code lines}.
+	 * @throws IllegalArgumentException if {@code binCount} is not positive.
+	 */
+	public static ElementStatistics of(LineData[] lines, int binCount) {
+		final long size = Arrays.stream(lines)
+			.mapToLong(LineData::getLength).sum();
+		
+		return compute(lines.length, size, binCount, (chunk, consumer) -> {
+			final LineData line = lines[chunk];
+			for (int i = 0; i < line.getLength(); i++) {
+				consumer.accept(line.getValue(i));
+			}
+		});
+	}
+	
+	/**
+	 * Computes the statistics of the segments of {@code values} that start at
+	 * each of {@code offsets} and have the corresponding {@code lengths}, 
+	 * using {@link ElementStatistics#DEFAULT_BIN_COUNT} histogram bins. The
+	 * values are read in place, without copying them.
+	 * 
+	 * @param values the array that contains the values.
+	 * @param offsets the position of the first value of each segment.
+	 * @param lengths the number of values of each segment.
+	 * @return the statistics of the values of the segments.
+	 * @throws IllegalArgumentException if {@code offsets} and 
+	 * 	{@code lengths} have different lengths or a segment exceeds the 
+	 * 	bounds of {@code values}.
+	 */
+	public static ElementStatistics of(
+		double[] values, int[] offsets, int[] lengths
+	) {
+		return of(values, offsets, lengths, DEFAULT_BIN_COUNT);
+	}
+	
+	/**
+	 * Computes the statistics of the segments of {@code values} that start at
+	 * each of {@code offsets} and have the corresponding {@code lengths}. The
+	 * values are read in place, without copying them.
+	 * 
+	 * @param values the array that contains the values.
+	 * @param offsets the position of the first value of each segment.
+	 * @param lengths the number of values of each segment.
+	 * @param binCount the number of histogram bins.
+	 * @return the statistics of the values of the segments.
+	 * @throws IllegalArgumentException if {@code binCount} is not positive,
+	 * 	{@code offsets} and {@code lengths} have different lengths or a 
+	 * 	segment exceeds the bounds of {@code values}.
+	 */
+	public static ElementStatistics of(
+		double[] values, int[] offsets, int[] lengths, int binCount
+	) {
+		if (offsets.length != lengths.length) {
+			throw new IllegalArgumentException(
+				"offsets and lengths must have the same length");
+		}
+		
+		long size = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			if (
+				offsets[i] < 0 || lengths[i] < 0 
+				|| offsets[i] > values.length - lengths[i]
+			) {
+				throw new IllegalArgumentException("Segment " + i 
+					+ " exceeds the bounds of the values array");
+			}
+			size += lengths[i];
+		}
+		
+		return compute(offsets.length, size, binCount, (chunk, consumer) -> {
+			final int end = offsets[chunk] + lengths[chunk];
+			for (int i = offsets[chunk]; i < end; i++) {
+				consumer.accept(values[i]);
+			}
+		});
+	}
+	
+	private static ElementStatistics compute(
+		int chunks, long size, int binCount, ChunkReader reader
+	) {
+		if (binCount <= 0) {
+			throw new IllegalArgumentException("binCount must be positive");
+		}
+		
+		final boolean parallel = size >= PARALLEL_THRESHOLD;
+		
+		final Moments moments = chunks(chunks, parallel).collect(
+			Moments::new, (m, chunk) -> reader.read(chunk, m), Moments::combine);
+		
+		final Histogram histogram = chunks(chunks, parallel).collect(
+			() -> new Histogram(moments.min, moments.max, binCount),
+			(h, chunk) -> reader.read(chunk, h), 
+			Histogram::combine
+		);
+		
+		return new ElementStatistics(moments, histogram.bins);
+	}
+	
+	private static IntStream chunks(int chunks, boolean parallel) {
+		final IntStream stream = IntStream.range(0, chunks);
+		
+		return parallel ? stream.parallel() : stream;
+	}
+	
+	/**
+	 * Merges the statistics of several elements into the statistics of all 
+	 * their values, without reading the values again. The histogram of the 
+	 * result has the same number of bins as the first statistics and each 
+	 * bin of the merged statistics is assigned to the bin that contains its
+	 * center, so it is an approximation of the histogram of all the values.
+	 * 
+	 * @param statistics the statistics to merge.
+	 * @return the merged statistics.
+	 * @throws IllegalArgumentException if {@code statistics} is empty.
+	 */
+	public static ElementStatistics merge(
+		Collection<ElementStatistics> statistics
+	) {
+		if (statistics.isEmpty()) {
+			throw new IllegalArgumentException("statistics can't be empty");
+		}
+		
+		final Moments moments = new Moments();
+		for (ElementStatistics s : statistics) {
+			moments.combine(new Moments(s));
+		}
+		
+		final int binCount = statistics.iterator().next().getBinCount();
+		final Histogram histogram = 
+			new Histogram(moments.min, moments.max, binCount);
+		for (ElementStatistics s : statistics) {
+			for (int bin = 0; bin < s.histogram.length; bin++) {
+				if (s.histogram[bin] > 0) {
+					histogram.add(s.getBinCenter(bin), s.histogram[bin]);
+				}
+			}
+		}
+		
+		return new ElementStatistics(moments, histogram.bins);
+	}
+	
+	/**
+	 * Returns the number of non-missing values.
+	 * 
+	 * @return the number of non-missing values.
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Returns the number of missing values.
+	 * 
+	 * @return the number of missing values.
+	 */
+	public long getMissingCount() {
+		return missingCount;
+	}
+	
+	/**
+	 * Returns the minimum value, excluding missing values.
+	 * 
+	 * @return the minimum value, excluding missing values.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getMin() {
+		checkNotEmpty();
+		return min;
+	}
+	
+	/**
+	 * Returns the maximum value, excluding missing values.
+	 * 
+	 * @return the maximum value, excluding missing values.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getMax() {
+		checkNotEmpty();
+		return max;
+	}
+	
+	/**
+	 * Returns the mean of the values, excluding missing values.
+	 * 
+	 * @return the mean of the values, excluding missing values.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getMean() {
+		checkNotEmpty();
+		return mean;
+	}
+	
+	/**
+	 * Returns the population variance of the values, excluding missing 
+	 * values.
+	 * 
+	 * @return the population variance of the values.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getVariance() {
+		checkNotEmpty();
+		return sumOfSquaredDeviations / (double) count;
+	}
+	
+	/**
+	 * Returns the population standard deviation of the values, excluding 
+	 * missing values.
+	 * 
+	 * @return the population standard deviation of the values.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+	
+	/**
+	 * Returns the number of histogram bins.
+	 * 
+	 * @return the number of histogram bins.
+	 */
+	public int getBinCount() {
+		return histogram.length;
+	}
+	
+	/**
+	 * Returns a copy of the histogram. Bins have the same width and cover the
+	 * range between the minimum and the maximum values. The maximum value is
+	 * counted in the last bin.
+	 * 
+	 * @return a copy of the histogram.
+	 */
+	public long[] getHistogram() {
+		return histogram.clone();
+	}
+	
+	/**
+	 * Returns the width of the histogram bins.
+	 * 
+	 * @return the width of the histogram bins.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getBinWidth() {
+		checkNotEmpty();
+		return (max - min) / (double) histogram.length;
+	}
+	
+	/**
+	 * Returns the lower bound of the histogram bin {@code bin}.
+	 * 
+	 * @param bin the index of the bin.
+	 * @return the lower bound of the histogram bin.
+	 * @throws IllegalStateException if there are no values.
+	 */
+	public double getBinLowerBound(int bin) {
+		return getMin() + bin * getBinWidth();
+	}
+	
+	private double getBinCenter(int bin) {
+		return getBinLowerBound(bin) + getBinWidth() / 2d;
+	}
+	
+	private void checkNotEmpty() {
+		if (count == 0) {
+			throw new IllegalStateException("No values found");
+		}
+	}
+	
+	private static final class Moments implements DoubleConsumer {
+		private long count;
+		private long missingCount;
+		private double min = Double.POSITIVE_INFINITY;
+		private double max = Double.NEGATIVE_INFINITY;
+		private double mean;
+		private double sumOfSquaredDeviations;
+		
+		public Moments() {}
+		
+		public Moments(ElementStatistics statistics) {
+			this.count = statistics.count;
+			this.missingCount = statistics.missingCount;
+			this.min = statistics.min;
+			this.max = statistics.max;
+			this.mean = statistics.mean;
+			this.sumOfSquaredDeviations = statistics.sumOfSquaredDeviations;
+		}
+		
+		@Override
+		public void accept(double value) {
+			if (Double.isNaN(value)) {
+				missingCount++;
+			} else {
+				count++;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+				
+				final double delta = value - mean;
+				mean += delta / (double) count;
+				sumOfSquaredDeviations += delta * (value - mean);
+			}
+		}
+		
+		public void combine(Moments other) {
+			this.missingCount += other.missingCount;
+			
+			if (other.count == 0) {
+				return;
+			} else if (this.count == 0) {
+				this.count = other.count;
+				this.min = other.min;
+				this.max = other.max;
+				this.mean = other.mean;
+				this.sumOfSquaredDeviations = other.sumOfSquaredDeviations;
+			} else {
+				final long total = this.count + other.count;
+				final double delta = other.mean - this.mean;
+				
+				this.mean += delta * (double) other.count / (double) total;
+				this.sumOfSquaredDeviations += other.sumOfSquaredDeviations 
+					+ delta * delta * (double) this.count * (double) other.count 
+					/ (double) total;
+				this.count = total;
+				this.min = Math.min(this.min, other.min);
+				this.max = Math.max(this.max, other.max);
+			}
+		}
+	}
+	
+	private static final class Histogram implements DoubleConsumer {
+		private final double min;
+		private final double max;
+		private final long[] bins;
+		
+		public Histogram(double min, double max, int binCount) {
+			this.min = min;
+			this.max = max;
+			this.bins = new long[binCount];
+		}
+		
+		@Override
+		public void accept(double value) {
+			if (!Double.isNaN(value)) {
+				add(value, 1);
+			}
+		}
+		
+		public void add(double value, long count) {
+			final int bin = max > min ? 
+				(int) ((value - min) / (max - min) * bins.length) : 0;
+			
+			bins[Math.max(0, Math.min(bins.length - 1, bin))] += count;
+		}
+		
+		public void combine(Histogram other) {
+			for (int i = 0; i < bins.length; i++) {
+				this.bins[i] += other.bins[i];
+			}
+		}
+	}
+}
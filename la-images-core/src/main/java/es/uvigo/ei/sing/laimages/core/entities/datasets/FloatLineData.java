@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+
+/**
+ * A {@code LineData} that stores its measurements as floats, using half of
+ * the memory of a {@link LineData}. Values are widened to doubles when they
+ * are accessed, so {@link FloatLineData#getData()} returns a new array each
+ * time it is invoked and {@link FloatLineData#getValue(int)} should be 
+ * preferred to access single values.
+ * 
+ * @author Hugo López-Fernández
+ * @see StoragePrecision#FLOAT
+ *
+ */
+public class FloatLineData extends LineData {
+	private static final long serialVersionUID = 1L;
+	
+	private final float[] data;
+
+	/**
+	 * Constructs a new {@code FloatLineData}, narrowing {@code data} to
+	 * floats.
+	 * 
+	 * @param name the line name.
+	 * @param data the line values.
+	 * @param coordinates the {@code LineCoordinates}.
+	 */
+	public FloatLineData(String name, double[] data, LineCoordinates coordinates) {
+		super(name, coordinates);
+		
+		this.data = new float[data.length];
+		for (int i = 0; i < data.length; i++) {
+			this.data[i] = (float) data[i];
+		}
+	}
+	
+	/**
+	 * Constructs a new {@code FloatLineData}.
+	 * 
+	 * @param name the line name.
+	 * @param data the line values.
+	 * @param coordinates the {@code LineCoordinates}.
+	 */
+	public FloatLineData(String name, float[] data, LineCoordinates coordinates) {
+		super(name, coordinates);
+		
+		this.data = data;
+	}
+	
+	/**
+	 * Returns a new array with the line values widened to doubles.
+	 * 
+	 * @return a new array with the line values.
+	 */
+	@Override
+	public double[] getData() {
+		final double[] values = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			values[i] = data[i];
+		}
+		
+		return values;
+	}
+	
+	@Override
+	public double getValue(int index) {
+		return data[index];
+	}
+	
+	@Override
+	public int getLength() {
+		return data.length;
+	}
+	
+	@Override
+	public StoragePrecision getStoragePrecision() {
+		return StoragePrecision.FLOAT;
+	}
+}
@@ -23,12 +23,11 @@
  */
 package es.uvigo.ei.sing.laimages.core.entities.datasets;
 
-import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesPositionsAxis;
-import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesRangeAxis;
-
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.List;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
 import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
 
@@ -67,46 +66,43 @@ public class HorizontalElementData extends AbstractElementData {
 	};
 	
 	@Override
-	public double[][] getData(double missingValue) {
-		final List<Double> xAxis = this.getXAxis();
-		final List<Double> yAxis = this.getYAxis();
+	protected ElementMatrix createMatrix() {
+		final ArithmeticAxis xAxis = this.getRangeAxis();
+		final LineData[] lines = this.getLines();
+		final int columns = xAxis.size();
 
-		final double[][] data = new double[yAxis.size()][xAxis.size()];
+		final double[] values = new double[lines.length * columns];
+		Arrays.fill(values, Double.NaN);
 
-		for (LineData line : this.getLines()) {
-			final int startXIndex = indexOf(xAxis, line.getCoordinates().getRangeStart(), DELTA);
-			final int endXIndex = startXIndex + line.getLength();
-			final int yIndex = indexOf(yAxis, line.getCoordinates().getPosition(), DELTA);
+		for (int yIndex = 0; yIndex < lines.length; yIndex++) {
+			final LineData line = lines[yIndex];
+			final int startXIndex = xAxis.indexOf(line.getCoordinates().getRangeStart(), DELTA);
+			final int offset = yIndex * columns + startXIndex;
 			
-			for (int column = 0; column < xAxis.size(); column++) {
-				if (column >= startXIndex && column < endXIndex) {
-					double currentValue = line.getData()[column - startXIndex];
-					if (isMissingValue(currentValue)) {
-						data[yIndex][column] = missingValue;
-					} else {
-						data[yIndex][column] = currentValue;
-					}
-				} else {
-					data[yIndex][column] = missingValue;
+			final int end = Math.min(line.getLength(), columns - startXIndex);
+			for (int i = Math.max(0, -startXIndex); i < end; i++) {
+				final double currentValue = line.getValue(i);
+				if (!isMissingValue(currentValue)) {
+					values[offset + i] = currentValue;
 				}
 			}
 		}
 		
-		return data;
+		return new ElementMatrix(lines.length, columns, values);
 	}
 	
 	@Override
 	public List<Double> getXAxis() {
-		return getLinesRangeAxis(getAllCoordinates());
+		return getRangeAxis();
 	}
 
 	@Override
 	public List<Double> getYAxis() {
-		return getLinesPositionsAxis(getAllCoordinates());
+		return getPositionsAxis();
 	}
 	
 	protected void writeLines(StringBuilder sb, CSVFormat format) {
-		final List<Double> xAxis = this.getXAxis();
+		final ArithmeticAxis xAxis = this.getRangeAxis();
 
 		final DecimalFormat formatter = format.getDecimalFormatter();
 		for (LineData line : this.getLines()) {
@@ -114,12 +110,12 @@ public class HorizontalElementData extends AbstractElementData {
 			sb.append(formatter.format(y))
 				.append(format.getColumnSeparator());
 			
-			final int startXIndex = indexOf(xAxis, line.getCoordinates().getRangeStart(), DELTA);
+			final int startXIndex = xAxis.indexOf(line.getCoordinates().getRangeStart(), DELTA);
 			final int endXIndex = startXIndex + line.getLength();
 			
 			for (int column = 0; column < xAxis.size(); column++) {
 				if (column >= startXIndex && column < endXIndex) {
-					double currentValue = line.getData()[column - startXIndex];
+					double currentValue = line.getValue(column - startXIndex);
 					if (!isMissingValue(currentValue)) {
 						sb.append(formatter.format(currentValue));
 					}
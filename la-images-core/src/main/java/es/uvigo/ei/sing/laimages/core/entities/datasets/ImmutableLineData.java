@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.util.Map;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ImmutableLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+
+/**
+ * An immutable {@code LineData}. Its values and coordinates are copied when 
+ * it is created, so it can be safely shared between threads. Values are 
+ * read with {@link LineData#getValue(int)} without copying them, while 
+ * {@link ImmutableLineData#getData()} returns a copy.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ImmutableLineData extends LineData {
+	private static final long serialVersionUID = 1L;
+
+	private ImmutableLineData(
+		String name, double[] data, ImmutableLineCoordinates coordinates
+	) {
+		super(name, data, coordinates);
+	}
+	
+	/**
+	 * Returns an immutable copy of {@code line} or {@code line} itself if it
+	 * is already immutable.
+	 * 
+	 * @param line the line to copy.
+	 * @return an immutable copy of {@code line}.
+	 */
+	public static ImmutableLineData copyOf(LineData line) {
+		return copyOf(line, null);
+	}
+	
+	/**
+	 * Returns an immutable copy of {@code line} or {@code line} itself if it
+	 * is already immutable. The immutable coordinates are taken from 
+	 * {@code coordinates} when they have already been copied, so that lines 
+	 * sharing the same coordinates keep sharing them.
+	 * 
+	 * @param line the line to copy.
+	 * @param coordinates a map with the immutable copies of coordinates. It 
+	 * 	can be {@code null}.
+	 * @return an immutable copy of {@code line}.
+	 */
+	static ImmutableLineData copyOf(LineData line, 
+		Map<LineCoordinates, ImmutableLineCoordinates> coordinates
+	) {
+		if (line instanceof ImmutableLineData) {
+			return (ImmutableLineData) line;
+		}
+		
+		final double[] data = new double[line.getLength()];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = line.getValue(i);
+		}
+		
+		final ImmutableLineCoordinates lineCoordinates = coordinates == null ?
+			ImmutableLineCoordinates.copyOf(line.getCoordinates()) :
+			coordinates.computeIfAbsent(
+				line.getCoordinates(), ImmutableLineCoordinates::copyOf);
+		
+		return new ImmutableLineData(line.getName(), data, lineCoordinates);
+	}
+	
+	/**
+	 * Returns a copy of the line values.
+	 * 
+	 * @return a copy of the line values.
+	 */
+	@Override
+	public double[] getData() {
+		return super.getData().clone();
+	}
+}
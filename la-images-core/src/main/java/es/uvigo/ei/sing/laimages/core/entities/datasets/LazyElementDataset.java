@@ -0,0 +1,358 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.util.FileNameUtils.getFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * <p>
+ * An {@link ElementDataset} whose elements are loaded on demand from an
+ * {@link ElementDataSource}. Only the element names are known when the 
+ * dataset is created and each element is loaded the first time it is 
+ * accessed, either through {@link LazyElementDataset#getElement(String)} or
+ * through the list returned by {@link LazyElementDataset#getElements()}.
+ * </p>
+ * 
+ * <p>
+ * Loaded elements are kept in a bounded cache that evicts the least recently
+ * used element when it is full, so that datasets with many elements can be
+ * used with a limited amount of memory. Evicted elements are loaded again 
+ * from the source when they are accessed. The minimum and maximum values of
+ * each element are kept after evicting it.
+ * </p>
+ * 
+ * <p>
+ * Access to the elements is thread-safe. Elements are loaded outside the 
+ * lock of the dataset, so that accessing an element in memory is not blocked
+ * by the loading of other elements. When several threads request the same
+ * element, it is loaded only once. If an element can't be loaded, an
+ * {@code UncheckedIOException} is thrown. When this dataset is serialized, 
+ * it is replaced by a {@link DefaultElementDataset} containing all its 
+ * elements.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class LazyElementDataset implements ElementDataset, Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final Path path;
+	private String name;
+	private final ElementDatasetConfiguration configuration;
+	private final List<String> elementNames;
+	private final ElementDataSource source;
+	private final int maxResidentElements;
+	private final Map<String, ElementData> residentElements;
+	private final Map<String, CompletableFuture<ElementData>> loadingElements;
+	private final Map<String, ElementStatistics> statistics;
+	private final List<ElementData> elements;
+	
+	/**
+	 * Constructs a new instance of {@code LazyElementDataset}.
+	 * 
+	 * @param path the dataset path.
+	 * @param name the dataset name.
+	 * @param configuration the dataset configuration.
+	 * @param elementNames the names of the elements of the dataset.
+	 * @param source the source from which elements are loaded.
+	 * @param maxResidentElements the maximum number of elements kept in 
+	 * 	memory.
+	 * @throws IllegalArgumentException if {@code maxResidentElements} is 
+	 * 	lower than 1.
+	 */
+	public LazyElementDataset(Path path, String name,
+		ElementDatasetConfiguration configuration, List<String> elementNames,
+		ElementDataSource source, int maxResidentElements
+	) {
+		if (maxResidentElements < 1) {
+			throw new IllegalArgumentException(
+				"At least one element must be kept in memory");
+		}
+		
+		this.path = path;
+		this.name = name;
+		this.configuration = configuration;
+		this.elementNames = Collections.unmodifiableList(
+			new ArrayList<String>(elementNames));
+		this.source = source;
+		this.maxResidentElements = maxResidentElements;
+		this.residentElements = 
+			new LinkedHashMap<String, ElementData>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+					Map.Entry<String, ElementData> eldest
+				) {
+					return size() > LazyElementDataset.this.maxResidentElements;
+				}
+			};
+		this.loadingElements = 
+			new HashMap<String, CompletableFuture<ElementData>>();
+		this.statistics = new HashMap<String, ElementStatistics>();
+		this.elements = new ElementList();
+	}
+	
+	@Override
+	public Path getPath() {
+		return path;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public int getElementCount() {
+		return elementNames.size();
+	}
+
+	/**
+	 * Returns an unmodifiable view of the elements of this dataset. Each 
+	 * element is loaded when it is retrieved from the list, if it is not in
+	 * memory.
+	 * 
+	 * @return an unmodifiable view of the elements of this dataset.
+	 */
+	@Override
+	public List<ElementData> getElements() {
+		return elements;
+	}
+
+	@Override
+	public Optional<ElementData> getElement(String name) {
+		if (!elementNames.contains(name)) {
+			return Optional.empty();
+		}
+		
+		final CompletableFuture<ElementData> loading;
+		final boolean loader;
+		synchronized (this) {
+			final ElementData element = residentElements.get(name);
+			if (element != null) {
+				return Optional.of(element);
+			}
+			
+			final CompletableFuture<ElementData> current = 
+				loadingElements.get(name);
+			loader = current == null;
+			if (loader) {
+				loading = new CompletableFuture<ElementData>();
+				loadingElements.put(name, loading);
+			} else {
+				loading = current;
+			}
+		}
+		
+		if (loader) {
+			load(name, loading);
+		}
+		
+		try {
+			return Optional.of(loading.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			} else {
+				throw e;
+			}
+		}
+	}
+	
+	private void load(String name, CompletableFuture<ElementData> loading) {
+		try {
+			final ElementData element = source.load(name);
+			synchronized (this) {
+				residentElements.put(name, element);
+				loadingElements.remove(name);
+			}
+			loading.complete(element);
+		} catch (IOException | RuntimeException | Error e) {
+			synchronized (this) {
+				loadingElements.remove(name);
+			}
+			loading.completeExceptionally(e instanceof IOException ?
+				new UncheckedIOException("Error loading element " + name, 
+					(IOException) e) : e);
+		}
+	}
+
+	@Override
+	public List<String> getElementNames() {
+		return elementNames;
+	}
+	
+	/**
+	 * Returns a lazy snapshot of this dataset. Loading all the elements to
+	 * create an {@link ElementDatasetSnapshot} would defeat the purpose of 
+	 * this class, so the snapshot is a new {@code LazyElementDataset} that
+	 * loads its elements from the same source as {@link ElementDataSnapshot}
+	 * objects. Its name can't be changed by other components and its element
+	 * access is synchronized, so it can be safely read by several threads.
+	 * 
+	 * @return a lazy snapshot of this dataset.
+	 */
+	@Override
+	public ElementDataset snapshot() {
+		return new LazyElementDataset(path, name, configuration, elementNames,
+			element -> ElementDataSnapshot.of(source.load(element)), 
+			maxResidentElements
+		);
+	}
+	
+	/**
+	 * Returns the maximum number of elements kept in memory.
+	 * 
+	 * @return the maximum number of elements kept in memory.
+	 */
+	public int getMaxResidentElements() {
+		return maxResidentElements;
+	}
+	
+	/**
+	 * Returns the names of the elements currently kept in memory, from the 
+	 * least to the most recently used.
+	 * 
+	 * @return the names of the elements currently kept in memory.
+	 */
+	public synchronized List<String> getResidentElementNames() {
+		return new ArrayList<String>(residentElements.keySet());
+	}
+
+	@Override
+	public ElementDatasetConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns the statistics of all the values in the dataset. The statistics
+	 * of each element are cached, so elements are loaded only the first time
+	 * their statistics are needed.
+	 * 
+	 * @return the statistics of all the values in the dataset.
+	 */
+	@Override
+	public ElementStatistics getStatistics() {
+		return ElementStatistics.merge(elementNames.stream()
+			.map(this::getElementStatistics).collect(Collectors.toList()));
+	}
+
+	@Override
+	public double getMinValue() {
+		return elementNames.stream()
+			.mapToDouble(e -> getElementStatistics(e).getMin()).min().getAsDouble();
+	}
+
+	@Override
+	public double getMaxValue() {
+		return elementNames.stream()
+			.mapToDouble(e -> getElementStatistics(e).getMax()).max().getAsDouble();
+	}
+	
+	private ElementStatistics getElementStatistics(String name) {
+		synchronized (this) {
+			final ElementStatistics elementStatistics = statistics.get(name);
+			if (elementStatistics != null) {
+				return elementStatistics;
+			}
+		}
+		
+		final ElementStatistics elementStatistics = 
+			getElement(name).get().getStatistics();
+		synchronized (this) {
+			final ElementStatistics current = 
+				statistics.putIfAbsent(name, elementStatistics);
+			
+			return current == null ? elementStatistics : current;
+		}
+	}
+
+	@Override
+	public void toCSV(ElementData elementData, File file, CSVFormat format)
+		throws IOException {
+		elementData.toCSV(file, format);
+	}
+
+	@Override
+	public void toCSV(File directory, CSVFormat format) throws IOException {
+		toCSV(directory, format, () -> {});
+	}
+
+	@Override
+	public void toCSV(File directory, CSVFormat format,
+		ProgressHandler progressHandler) throws IOException {
+		for (ElementData e : getElements()) {
+			File elementFile = getFile(directory.toString(), e.getName(),
+					".csv");
+			toCSV(e, elementFile, format);
+			progressHandler.progress();
+		}
+	}
+	
+	private Object writeReplace() throws ObjectStreamException {
+		return new DefaultElementDataset(this);
+	}
+	
+	private class ElementList extends AbstractList<ElementData> {
+		@Override
+		public ElementData get(int index) {
+			return getElement(elementNames.get(index)).get();
+		}
+
+		@Override
+		public int size() {
+			return elementNames.size();
+		}
+	}
+}
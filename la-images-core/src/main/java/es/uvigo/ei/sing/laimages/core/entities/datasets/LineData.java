@@ -29,18 +29,20 @@ import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordina
 
 /**
  * A {@code LineData} object stores the measurements and the coordinates
- * of one element line.
+ * of one element line. Measurements are stored with double precision (see
+ * {@link FloatLineData} for a single precision storage).
  * 
  * @author Hugo López-Fernández
  * @see LineCoordinates
+ * @see StoragePrecision
  *
  */
 public class LineData implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
-	private String name;
-	private double[] data;
-	private LineCoordinates coordinates;
+	private final String name;
+	private final double[] data;
+	private final LineCoordinates coordinates;
 
 	/**
 	 * Constructs a new {@code LineData}.
@@ -55,6 +57,17 @@ public class LineData implements Serializable {
 		this.coordinates = coordinates;
 	}
 	
+	/**
+	 * Constructs a new {@code LineData} without values. This constructor is
+	 * intended for subclasses that store the line values by themselves.
+	 * 
+	 * @param name the line name.
+	 * @param coordinates the {@code LineCoordinates}.
+	 */
+	protected LineData(String name, LineCoordinates coordinates) {
+		this(name, null, coordinates);
+	}
+	
 	public String getName() {
 		return name;
 	}
@@ -63,16 +76,36 @@ public class LineData implements Serializable {
 		return data;
 	}
 
+	/**
+	 * Returns the value at {@code index}. Unlike {@link LineData#getData()},
+	 * this method never copies the line values.
+	 * 
+	 * @param index the index of a value.
+	 * @return the value at {@code index}.
+	 */
+	public double getValue(int index) {
+		return data[index];
+	}
+
 	public int getLength() {
 		return data.length;
 	}
 	
+	/**
+	 * Returns the precision used to store the line values.
+	 * 
+	 * @return the precision used to store the line values.
+	 */
+	public StoragePrecision getStoragePrecision() {
+		return StoragePrecision.DOUBLE;
+	}
+	
 	public LineCoordinates getCoordinates() {
 		return coordinates;
 	}
 	
 	public boolean isEmpty() {
-		return this.data.length == 0;
+		return this.getLength() == 0;
 	}
 
 	public boolean isVertical() {
@@ -0,0 +1,251 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+
+/**
+ * <p>
+ * A growable buffer of the lines of an element, intended to build an element
+ * line by line (e.g. while it is being acquired). Lines are kept sorted by 
+ * their position, so adding a line after the last one is an amortized 
+ * constant time operation.
+ * </p>
+ * 
+ * <p>
+ * The buffer itself is not thread-safe, but the views returned by 
+ * {@link LineDataBuffer#view()} are immutable: lines are only appended to 
+ * slots that existing views do not read, and the buffer is copied when a 
+ * line must be inserted before the last one. Therefore, creating a view is a
+ * constant time operation and views can be safely published to other 
+ * threads. The {@code ElementData} of a view is built the first time it is 
+ * read.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class LineDataBuffer {
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final String name;
+	private LineData[] lines;
+	private int size;
+
+	/**
+	 * Constructs a new empty {@code LineDataBuffer}.
+	 * 
+	 * @param name the element name.
+	 */
+	public LineDataBuffer(String name) {
+		this.name = name;
+		this.lines = new LineData[INITIAL_CAPACITY];
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the element name.
+	 * 
+	 * @return the element name.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the number of lines in the buffer.
+	 * 
+	 * @return the number of lines in the buffer.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds {@code line} to the buffer, keeping the lines sorted by position.
+	 * 
+	 * @param line the {@code LineData} to add.
+	 * @throws IllegalArgumentException if {@code line} is empty or its 
+	 * 	orientation is different from the orientation of the lines in the 
+	 * 	buffer.
+	 */
+	public void add(LineData line) {
+		if (line.isEmpty()) {
+			throw new IllegalArgumentException("Data can't be empty");
+		}
+		if (size > 0 && lines[0].isVertical() != line.isVertical()) {
+			throw new IllegalArgumentException(
+				"All lines must have the same orientation");
+		}
+		
+		final double position = line.getCoordinates().getPosition();
+		int index = size;
+		while (index > 0 
+			&& lines[index - 1].getCoordinates().getPosition() > position
+		) {
+			index--;
+		}
+		
+		if (index == size) {
+			if (size == lines.length) {
+				lines = Arrays.copyOf(lines, size * 2);
+			}
+			lines[size] = line;
+		} else {
+			final LineData[] newLines = 
+				new LineData[Math.max(lines.length, size + 1)];
+			System.arraycopy(lines, 0, newLines, 0, index);
+			newLines[index] = line;
+			System.arraycopy(lines, index, newLines, index + 1, size - index);
+			lines = newLines;
+		}
+		size++;
+	}
+	
+	/**
+	 * Returns an immutable {@code ElementData} with the lines currently in
+	 * the buffer. Lines added later are not visible in the view.
+	 * 
+	 * @return an immutable {@code ElementData} with the lines currently in
+	 * 	the buffer.
+	 * @throws IllegalStateException if the buffer is empty.
+	 */
+	public ElementData view() {
+		if (size == 0) {
+			throw new IllegalStateException("Buffer is empty");
+		}
+		
+		return new View(name, lines, size);
+	}
+	
+	private static final class View implements ElementData, Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private final String name;
+		private final LineData[] lines;
+		private final int size;
+		private transient volatile ElementData data;
+		
+		public View(String name, LineData[] lines, int size) {
+			this.name = name;
+			this.lines = lines;
+			this.size = size;
+		}
+		
+		private ElementData getElementData() {
+			if (this.data == null) {
+				this.data = ElementData.createElementData(
+					name, Arrays.copyOf(lines, size));
+			}
+			
+			return this.data;
+		}
+		
+		private Object writeReplace() {
+			return getElementData();
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public double[][] getData(double missingValue) {
+			return getElementData().getData(missingValue);
+		}
+		
+		@Override
+		public ElementMatrix getMatrix() {
+			return getElementData().getMatrix();
+		}
+
+		@Override
+		public List<Double> getXAxis() {
+			return getElementData().getXAxis();
+		}
+
+		@Override
+		public List<Double> getYAxis() {
+			return getElementData().getYAxis();
+		}
+
+		@Override
+		public LineData[] getLines() {
+			return getElementData().getLines();
+		}
+
+		@Override
+		public int getNumLines() {
+			return size;
+		}
+
+		@Override
+		public boolean isCompatibleWith(ElementData data) {
+			return getElementData().isCompatibleWith(data);
+		}
+		
+		@Override
+		public ElementStatistics getStatistics() {
+			return getElementData().getStatistics();
+		}
+		
+		@Override
+		public ElementData snapshot() {
+			return getElementData().snapshot();
+		}
+
+		@Override
+		public double getMaxValue() {
+			return getElementData().getMaxValue();
+		}
+
+		@Override
+		public double getMinValue() {
+			return getElementData().getMinValue();
+		}
+
+		@Override
+		public LineCoordinates[] getCoordinates() {
+			return getElementData().getCoordinates();
+		}
+
+		@Override
+		public void toCSV(File file, CSVFormat format) throws IOException {
+			getElementData().toCSV(file, format);
+		}
+
+		@Override
+		public boolean isVertical() {
+			return lines[0].isVertical();
+		}
+	}
+}
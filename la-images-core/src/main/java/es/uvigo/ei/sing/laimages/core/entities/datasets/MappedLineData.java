@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import java.io.ObjectStreamException;
+import java.nio.DoubleBuffer;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+
+/**
+ * A {@code LineData} whose measurements are stored in a {@code DoubleBuffer},
+ * usually a view of a memory-mapped file, so that they live outside of the 
+ * Java heap. {@link MappedLineData#getData()} copies the values into a new 
+ * array each time it is invoked, so {@link MappedLineData#getValue(int)} 
+ * should be preferred to access single values.
+ * 
+ * When a {@code MappedLineData} is serialized, it is replaced by a 
+ * {@link LineData} with a copy of its values.
+ * 
+ * @author Hugo López-Fernández
+ * @see es.uvigo.ei.sing.laimages.core.io.MappedElementStorage
+ *
+ */
+public class MappedLineData extends LineData {
+	private static final long serialVersionUID = 1L;
+	
+	private final transient DoubleBuffer values;
+	private final int offset;
+	private final int length;
+
+	/**
+	 * Constructs a new {@code MappedLineData} whose values are the 
+	 * {@code length} values of {@code values} starting at {@code offset}.
+	 * Several lines can share the same buffer.
+	 * 
+	 * @param name the line name.
+	 * @param values the buffer with the line values.
+	 * @param offset the index of the first line value in {@code values}.
+	 * @param length the number of line values.
+	 * @param coordinates the {@code LineCoordinates}.
+	 * @throws IndexOutOfBoundsException if the line values are not within
+	 * 	the limit of {@code values}.
+	 */
+	public MappedLineData(String name, DoubleBuffer values, int offset,
+		int length, LineCoordinates coordinates
+	) {
+		super(name, coordinates);
+		
+		if (offset < 0 || length < 0 || offset + length > values.limit()) {
+			throw new IndexOutOfBoundsException("Invalid line values range");
+		}
+		
+		this.values = values;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	/**
+	 * Returns a new array with the line values.
+	 * 
+	 * @return a new array with the line values.
+	 */
+	@Override
+	public double[] getData() {
+		final double[] data = new double[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = values.get(offset + i);
+		}
+		
+		return data;
+	}
+	
+	@Override
+	public double getValue(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+		
+		return values.get(offset + index);
+	}
+	
+	@Override
+	public int getLength() {
+		return length;
+	}
+	
+	private Object writeReplace() throws ObjectStreamException {
+		return new LineData(getName(), getData(), getCoordinates());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+
+/**
+ * The precision used to store the values of the lines of a dataset. Values
+ * are always accessed as doubles, so the precision only affects the memory 
+ * used by the lines.
+ * 
+ * @author Hugo López-Fernández
+ * @see LineData
+ * @see FloatLineData
+ *
+ */
+public enum StoragePrecision {
+	/**
+	 * Values are stored as 64-bit doubles.
+	 */
+	DOUBLE {
+		@Override
+		public LineData createLineData(String name, double[] data, 
+			LineCoordinates coordinates
+		) {
+			return new LineData(name, data, coordinates);
+		}
+	},
+	/**
+	 * Values are stored as 32-bit floats, which halves the memory used by 
+	 * the lines. ICP-MS counts and their ratios do not lose significant
+	 * precision.
+	 */
+	FLOAT {
+		@Override
+		public LineData createLineData(String name, double[] data, 
+			LineCoordinates coordinates
+		) {
+			return new FloatLineData(name, data, coordinates);
+		}
+	};
+	
+	/**
+	 * Creates a new {@code LineData} that stores {@code data} with this 
+	 * precision. Note that {@code data} may be used as the storage of the 
+	 * new line, so it should not be modified after invoking this method.
+	 * 
+	 * @param name the line name.
+	 * @param data the line values.
+	 * @param coordinates the {@code LineCoordinates}.
+	 * @return a new {@code LineData}.
+	 */
+	public abstract LineData createLineData(String name, double[] data,
+		LineCoordinates coordinates);
+	
+	/**
+	 * Returns the {@code StoragePrecision} whose name is {@code name}, 
+	 * ignoring case.
+	 * 
+	 * @param name the name of the precision (i.e. {@code double} or 
+	 * 	{@code float}).
+	 * @return the {@code StoragePrecision} whose name is {@code name}.
+	 * @throws IllegalArgumentException if there is no precision with 
+	 * 	{@code name}.
+	 */
+	public static StoragePrecision parse(String name) {
+		return valueOf(name.trim().toUpperCase());
+	}
+}
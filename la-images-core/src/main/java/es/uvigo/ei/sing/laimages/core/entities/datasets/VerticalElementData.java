@@ -23,12 +23,11 @@
  */
 package es.uvigo.ei.sing.laimages.core.entities.datasets;
 
-import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesPositionsAxis;
-import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesRangeAxis;
-
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.List;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
 import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
 
@@ -67,71 +66,72 @@ public class VerticalElementData extends AbstractElementData {
 	};
 	
 	@Override
-	public double[][] getData(double missingValue) {
-		final List<Double> xAxis = this.getXAxis();
-		final List<Double> yAxis = this.getYAxis();
+	protected ElementMatrix createMatrix() {
+		final ArithmeticAxis yAxis = this.getRangeAxis();
+		final LineData[] lines = this.getLines();
+		final int columns = lines.length;
 
-		final double[][] data = new double[yAxis.size()][xAxis.size()];
+		final double[] values = new double[yAxis.size() * columns];
+		Arrays.fill(values, Double.NaN);
 
-		for (LineData line : this.getLines()) {
-			final int startYIndex = indexOf(yAxis, line.getCoordinates().getRangeStart(), 0.000001d);
-			final int endYIndex = startYIndex + line.getLength();
-			final int xIndex = indexOf(xAxis, line.getCoordinates().getPosition(), 0.000001d);
+		for (int xIndex = 0; xIndex < lines.length; xIndex++) {
+			final LineData line = lines[xIndex];
+			final int startYIndex = yAxis.indexOf(line.getCoordinates().getRangeStart(), DELTA);
 
-			for (int row = 0; row < yAxis.size(); row++) {
-				if (row >= startYIndex && row < endYIndex) {
-					double currentValue = line.getData()[row - startYIndex];
-					if (isMissingValue(currentValue)) {
-						data[row][xIndex] = missingValue;
-					} else {
-						data[row][xIndex] = currentValue;
-					}
-				} else {
-					data[row][xIndex] = missingValue;
+			final int end = Math.min(line.getLength(), yAxis.size() - startYIndex);
+			for (int i = Math.max(0, -startYIndex); i < end; i++) {
+				final double currentValue = line.getValue(i);
+				if (!isMissingValue(currentValue)) {
+					values[(startYIndex + i) * columns + xIndex] = currentValue;
 				}
 			}
 		}
 		
-		return data;
+		return new ElementMatrix(yAxis.size(), columns, values);
 	}
 	
 	@Override
 	public List<Double> getXAxis() {
-		return getLinesPositionsAxis(getAllCoordinates());
+		return getPositionsAxis();
 	}
 
 	@Override
 	public List<Double> getYAxis() {
-		return getLinesRangeAxis(getAllCoordinates());
+		return getRangeAxis();
 	}
 	
 	protected void writeLines(StringBuilder sb, CSVFormat format) {
-		final List<Double> xAxis = this.getXAxis();
-		final List<Double> yAxis = this.getYAxis();
+		final ArithmeticAxis yAxis = this.getRangeAxis();
+		final LineData[] lines = this.getLines();
+		
+		final int[] linesRangeStartIndexes = new int[lines.length];
+		for (int xIndex = 0; xIndex < lines.length; xIndex++) {
+			linesRangeStartIndexes[xIndex] = yAxis.indexOf(
+				lines[xIndex].getCoordinates().getRangeStart(), DELTA);
+		}
 		
 		final DecimalFormat formatter = format.getDecimalFormatter();
-		for (Double y : yAxis) {
-			final int yIndex = indexOf(yAxis, y, DELTA);
+		for (int yIndex = 0; yIndex < yAxis.size(); yIndex++) {
+			final double y = yAxis.getValue(yIndex);
 			
 			sb.append(formatter.format(y))
 				.append(format.getColumnSeparator());
 			
-			for (Double x : xAxis) {
-				final int xIndex = indexOf(xAxis, x, DELTA);
-				final LineData line = this.getLines()[xIndex];
+			for (int xIndex = 0; xIndex < lines.length; xIndex++) {
+				final LineData line = lines[xIndex];
 				
 				final double lineRangeStart = line.getCoordinates().getRangeStart();
 				final double lineRangeEnd = line.getCoordinates().getRangeEnd();
-				final int lineRangeStartIndex = indexOf(yAxis, lineRangeStart, DELTA);
 				
 				if (y >= lineRangeStart && y <= lineRangeEnd) {
-					double currentValue = line.getData()[yIndex - lineRangeStartIndex];
+					double currentValue = line.getValue(
+						yIndex - linesRangeStartIndexes[xIndex]);
 					if (!isMissingValue(currentValue)) {
 						sb.append(formatter.format(currentValue));
 					}
 				}
 				
-				if (xIndex < xAxis.size() - 1) {
+				if (xIndex < lines.length - 1) {
 					sb.append(format.getColumnSeparator());
 				}
 			}
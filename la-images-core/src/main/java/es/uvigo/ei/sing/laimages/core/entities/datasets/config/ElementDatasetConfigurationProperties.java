@@ -25,6 +25,8 @@ package es.uvigo.ei.sing.laimages.core.entities.datasets.config;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -37,10 +39,16 @@ import java.util.Properties;
 public class ElementDatasetConfigurationProperties extends Properties {
 	private static final long serialVersionUID = 1L;
 	
+	/**
+	 * The name of the configuration file stored in dataset directories.
+	 */
+	public static final String CONFIGURATION_FILE_NAME = "parameters.conf";
+	
 	public static final String ABLATION_SPEED = "ablation.speed";
 	public static final String SPACE_INTERVAL = "space.interval";
 	public static final String ACQUISITION_TIME = "acquisition.time";
 	public static final String STANDARD = "standard";
+	public static final String STORAGE_PRECISION = "storage.precision";
 
 	/**
 	 * Creates a new {@code ElementDatasetConfigurationProperties} and loads
@@ -55,6 +63,19 @@ public class ElementDatasetConfigurationProperties extends Properties {
 		}
 	}
 
+	/**
+	 * Creates a new {@code ElementDatasetConfigurationProperties} and loads
+	 * the properties read from {@code in} (e.g. a configuration file stored 
+	 * in a dataset archive). The stream is not closed.
+	 * 
+	 * @param in the stream to read the properties from.
+	 * @throws IOException if an error occurs reading {@code in}.
+	 */
+	public ElementDatasetConfigurationProperties(InputStream in) 
+		throws IOException {
+		this.load(in);
+	}
+
 	/**
 	 * Returns a {@code Optional} with the ablation speed loaded value or null
 	 * if it has not found.
@@ -98,4 +119,15 @@ public class ElementDatasetConfigurationProperties extends Properties {
 	public Optional<String> getStandard() {
 		return Optional.ofNullable((String) getProperty(STANDARD));
 	}
+
+	/**
+	 * Returns a {@code Optional} with the storage precision loaded value 
+	 * ({@code double} or {@code float}) or null if it has not found.
+	 * 
+	 * @return a {@code Optional} with the storage precision loaded value or 
+	 * null if it has not found.
+	 */	
+	public Optional<String> getStoragePrecision() {
+		return Optional.ofNullable((String) getProperty(STORAGE_PRECISION));
+	}
 }
@@ -105,16 +105,12 @@ public abstract class AbstractLineCoordinates implements LineCoordinates,
 
 	@Override
 	public boolean equals(Object obj) {
-		if(!(obj instanceof AbstractLineCoordinates)) {
-			return false;
-		}
-		AbstractLineCoordinates anotherLC = (AbstractLineCoordinates) obj;
-		return 
-			this.getRangeTick() == anotherLC.getRangeTick() 	&&
-			this.getRangeStart() == anotherLC.getRangeStart() 	&&
-			this.getRangeEnd() == anotherLC.getRangeEnd() 		&&
-			this.getPosition() == anotherLC.getPosition() 		&&
-			this.isVertical() == anotherLC.isVertical();
+		return LineCoordinatesUtils.equals(this, obj);
+	}
+	
+	@Override
+	public int hashCode() {
+		return LineCoordinatesUtils.hashCode(this);
 	}
 	
 	@Override
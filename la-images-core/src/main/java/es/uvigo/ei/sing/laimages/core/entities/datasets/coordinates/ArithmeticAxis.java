@@ -0,0 +1,208 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
+
+import java.util.List;
+
+/**
+ * An {@code Axis} whose values start at a given value and increase by a 
+ * constant tick, such as the range axis of a set of lines. Values are 
+ * computed on demand and the index of a value is computed in constant time.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class ArithmeticAxis extends Axis {
+	private static final long serialVersionUID = 1L;
+	
+	private final double start;
+	private final double tick;
+	private final int size;
+
+	/**
+	 * Constructs a new {@code ArithmeticAxis}.
+	 * 
+	 * @param start the first value of the axis.
+	 * @param tick the difference between two consecutive values.
+	 * @param size the number of values of the axis.
+	 * @throws IllegalArgumentException if {@code tick} is not positive or 
+	 * 	{@code size} is negative.
+	 */
+	public ArithmeticAxis(double start, double tick, int size) {
+		if (!(tick > 0d)) {
+			throw new IllegalArgumentException("Tick must be positive");
+		}
+		if (size < 0) {
+			throw new IllegalArgumentException("Size can't be negative");
+		}
+		
+		this.start = start;
+		this.tick = tick;
+		this.size = size;
+	}
+	
+	/**
+	 * Creates the common range axis of a set of line coordinates, which goes
+	 * from the minimum range start to the first value that is equal or 
+	 * greater than the maximum range end, in steps of the range tick of the
+	 * coordinates.
+	 * 
+	 * @param coordinates a list of {@code LineCoordinates} with the same
+	 * 	range tick.
+	 * @return the range axis of {@code coordinates}.
+	 */
+	public static ArithmeticAxis rangeAxisOf(List<LineCoordinates> coordinates) {
+		if (coordinates.isEmpty()) {
+			return new ArithmeticAxis(0d, 1d, 0);
+		}
+		
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (LineCoordinates lC : coordinates) {
+			min = Math.min(min, lC.getRangeStart());
+			max = Math.max(max, lC.getRangeEnd());
+		}
+		
+		return sequence(min, max, coordinates.get(0).getRangeTick());
+	}
+	
+	/**
+	 * Creates an axis that goes from {@code min} to the first value that is
+	 * equal or greater than {@code max}, in steps of {@code tick}. The axis
+	 * is empty if {@code max} is not positive.
+	 * 
+	 * @param min the first value of the axis.
+	 * @param max the value that the last value of the axis must reach.
+	 * @param tick the difference between two consecutive values.
+	 * @return a new {@code ArithmeticAxis}.
+	 */
+	public static ArithmeticAxis sequence(double min, double max, double tick) {
+		return new ArithmeticAxis(min, tick, sequenceSize(min, max, tick));
+	}
+	
+	private static int sequenceSize(double min, double max, double tick) {
+		if (max <= 0) {
+			return 0;
+		}
+		
+		int last = (int) Math.max(0, Math.ceil((max - min) / tick));
+		while (last > 0 && min + (last - 1) * tick >= max) {
+			last--;
+		}
+		while (min + last * tick < max) {
+			last++;
+		}
+		
+		return last + 1;
+	}
+	
+	/**
+	 * Returns the first value of the axis.
+	 * 
+	 * @return the first value of the axis.
+	 */
+	public double getStart() {
+		return start;
+	}
+	
+	/**
+	 * Returns the difference between two consecutive values.
+	 * 
+	 * @return the difference between two consecutive values.
+	 */
+	public double getTick() {
+		return tick;
+	}
+
+	@Override
+	public double getValue(int index) {
+		checkIndex(index);
+		
+		return this.start + index * this.tick;
+	}
+
+	@Override
+	public int indexOf(double value, double delta) {
+		final long estimate = Math.round((value - this.start) / this.tick);
+		final long from = Math.max(0, estimate - 1);
+		final long to = Math.min(this.size - 1, estimate + 1);
+		
+		for (long i = from; i <= to; i++) {
+			if (Math.abs(getValue((int) i) - value) <= delta) {
+				return (int) i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns the value of the axis that is closest to {@code target}.
+	 * 
+	 * @param target the target value.
+	 * @return the value of the axis that is closest to {@code target} or
+	 * 	{@code NaN} if the axis is empty.
+	 */
+	public double findClosest(double target) {
+		if (this.size == 0) {
+			return Double.NaN;
+		}
+		
+		final long estimate = Math.round((target - this.start) / this.tick);
+		final int from = (int) Math.max(0, Math.min(this.size - 1, estimate - 1));
+		final int to = (int) Math.max(0, Math.min(this.size - 1, estimate + 1));
+		
+		double closest = Double.NaN;
+		double minimumDifference = Double.MAX_VALUE;
+		for (int i = from; i <= to; i++) {
+			final double value = getValue(i);
+			final double difference = Math.abs(value - target);
+			if (difference < minimumDifference) {
+				minimumDifference = difference;
+				closest = value;
+			}
+		}
+		
+		return closest;
+	}
+	
+	@Override
+	public double getMin() {
+		checkNotEmpty();
+		
+		return this.start;
+	}
+	
+	@Override
+	public double getMax() {
+		checkNotEmpty();
+		
+		return getValue(this.size - 1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
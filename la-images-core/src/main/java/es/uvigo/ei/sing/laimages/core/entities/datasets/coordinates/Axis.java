@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable axis of an element data, that is, a list of coordinates that
+ * stores its values as primitive doubles. Besides the {@code List} methods,
+ * it provides access to the values without boxing them and finds the index of
+ * a coordinate within a tolerance.
+ * 
+ * @author Hugo López-Fernández
+ * @see ArithmeticAxis
+ * @see ValuesAxis
+ *
+ */
+public abstract class Axis extends AbstractList<Double> 
+	implements RandomAccess, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Returns the value at {@code index}.
+	 * 
+	 * @param index the index of a value.
+	 * @return the value at {@code index}.
+	 * @throws IndexOutOfBoundsException if {@code index} is out of range.
+	 */
+	public abstract double getValue(int index);
+	
+	/**
+	 * Returns the index of the first value that differs from {@code value} 
+	 * at most {@code delta}.
+	 * 
+	 * @param value the value to find.
+	 * @param delta the maximum difference allowed.
+	 * @return the index of the first value that differs from {@code value} 
+	 * 	at most {@code delta} or -1 if there is not such value.
+	 */
+	public abstract int indexOf(double value, double delta);
+	
+	@Override
+	public Double get(int index) {
+		return getValue(index);
+	}
+	
+	/**
+	 * Returns the minimum value of the axis.
+	 * 
+	 * @return the minimum value of the axis.
+	 * @throws IllegalStateException if the axis is empty.
+	 */
+	public double getMin() {
+		checkNotEmpty();
+		
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size(); i++) {
+			min = Math.min(min, getValue(i));
+		}
+		
+		return min;
+	}
+	
+	/**
+	 * Returns the maximum value of the axis.
+	 * 
+	 * @return the maximum value of the axis.
+	 * @throws IllegalStateException if the axis is empty.
+	 */
+	public double getMax() {
+		checkNotEmpty();
+		
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size(); i++) {
+			max = Math.max(max, getValue(i));
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Returns a new array with the values of the axis.
+	 * 
+	 * @return a new array with the values of the axis.
+	 */
+	public double[] toDoubleArray() {
+		final double[] values = new double[size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getValue(i);
+		}
+		
+		return values;
+	}
+	
+	protected void checkNotEmpty() {
+		if (isEmpty()) {
+			throw new IllegalStateException("The axis is empty");
+		}
+	}
+	
+	protected void checkIndex(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException(
+				"Index: " + index + ", Size: " + size());
+		}
+	}
+	
+	/**
+	 * Returns {@code values} as an {@code Axis}. If {@code values} is already
+	 * an {@code Axis}, it is returned. Otherwise, a new {@code ValuesAxis} 
+	 * with a copy of {@code values} is returned.
+	 * 
+	 * @param values a list of coordinates.
+	 * @return an {@code Axis} with {@code values}.
+	 */
+	public static Axis of(List<Double> values) {
+		if (values instanceof Axis) {
+			return (Axis) values;
+		} else {
+			return new ValuesAxis(
+				values.stream().mapToDouble(Double::doubleValue).toArray());
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
+
+import java.io.Serializable;
+
+/**
+ * An immutable implementation of {@code LineCoordinates}. Since all its 
+ * fields are final, instances can be safely shared between threads without 
+ * synchronization. The setter methods throw an 
+ * {@code UnsupportedOperationException}.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public final class ImmutableLineCoordinates implements LineCoordinates,
+	Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private final double rangeTick;
+	private final double rangeStart;
+	private final double rangeEnd;
+	private final double position;
+	private final boolean vertical;
+
+	private ImmutableLineCoordinates(LineCoordinates coordinates) {
+		this.rangeTick = coordinates.getRangeTick();
+		this.rangeStart = coordinates.getRangeStart();
+		this.rangeEnd = coordinates.getRangeEnd();
+		this.position = coordinates.getPosition();
+		this.vertical = coordinates.isVertical();
+	}
+	
+	/**
+	 * Returns an immutable copy of {@code coordinates} or 
+	 * {@code coordinates} itself if it is already immutable.
+	 * 
+	 * @param coordinates the coordinates to copy.
+	 * @return an immutable copy of {@code coordinates}.
+	 */
+	public static ImmutableLineCoordinates copyOf(LineCoordinates coordinates) {
+		if (coordinates instanceof ImmutableLineCoordinates) {
+			return (ImmutableLineCoordinates) coordinates;
+		} else {
+			return new ImmutableLineCoordinates(coordinates);
+		}
+	}
+
+	@Override
+	public double getRangeStart() {
+		return rangeStart;
+	}
+
+	@Override
+	public double getRangeEnd() {
+		return rangeEnd;
+	}
+
+	@Override
+	public double getRangeTick() {
+		return rangeTick;
+	}
+
+	@Override
+	public double getPosition() {
+		return position;
+	}
+
+	@Override
+	public void setStartRangeCoordinate(double xStart) {
+		throw new UnsupportedOperationException(
+			"Immutable line coordinates can't be modified");
+	}
+
+	@Override
+	public void setEndRangeCoordinate(double xEnd) {
+		throw new UnsupportedOperationException(
+			"Immutable line coordinates can't be modified");
+	}
+
+	@Override
+	public void setPosition(double position) {
+		throw new UnsupportedOperationException(
+			"Immutable line coordinates can't be modified");
+	}
+
+	@Override
+	public boolean isVertical() {
+		return vertical;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		return LineCoordinatesUtils.equals(this, obj);
+	}
+	
+	@Override
+	public int hashCode() {
+		return LineCoordinatesUtils.hashCode(this);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb
+			.append("LineCoordinates: line range = [")
+			.append(this.rangeStart)
+			.append(", ")
+			.append(this.rangeEnd)
+			.append("] by ")
+			.append(rangeTick)
+			.append(" ; line position = ")
+			.append(this.position)
+			.append(". Orientation: ")
+			.append(vertical?"vertical":"horizontal")
+			.append(".");
+		return sb.toString();
+	}
+}
@@ -37,6 +37,14 @@ package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
  * the y axis of the line. 
  * </p>
  * 
+ * <p>
+ * Two {@code LineCoordinates} are equal if they have the same range, tick,
+ * position and orientation, regardless of their implementations. 
+ * Implementations should use {@link LineCoordinatesUtils#equals(
+ * LineCoordinates, Object)} and {@link LineCoordinatesUtils#hashCode(
+ * LineCoordinates)} to honor this contract.
+ * </p>
+ * 
  * @author Hugo López-Fernández
  *
  */
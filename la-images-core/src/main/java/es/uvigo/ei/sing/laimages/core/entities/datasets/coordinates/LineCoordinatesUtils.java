@@ -23,8 +23,6 @@
  */
 package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -69,34 +67,27 @@ public class LineCoordinatesUtils {
 	 * Constructs an axis with all the line positions.
 	 * 
 	 * @param coordinates a list of {@code LineCoordinates}.
-	 * @return a list of {@code Double} that represents lines positions axis.
+	 * @return an {@code Axis} that represents lines positions axis.
 	 */
-	public static List<Double> getLinesPositionsAxis(
+	public static Axis getLinesPositionsAxis(
 			List<LineCoordinates> coordinates) {
-		if(coordinates.isEmpty()) {
-			return Collections.emptyList();
-		}
-		
-		return coordinates.stream().map(LineCoordinates::getPosition)
-			.collect(Collectors.toList());
+		return new ValuesAxis(coordinates.stream()
+			.mapToDouble(LineCoordinates::getPosition).toArray());
 	}
 
 	/**
-	 * Constructs an axis for the lines ranges.
+	 * Constructs an axis for the lines ranges, which goes from the minimum
+	 * range start to the first value that is equal or greater than the 
+	 * maximum range end, in steps of the range tick.
 	 * 
 	 * @param coordinates a list of {@code LineCoordinates}.
-	 * @return a list of {@code Double} that represents lines ranges axis.
+	 * @return an {@code ArithmeticAxis} that represents lines ranges axis.
 	 */
-	public static List<Double> getLinesRangeAxis(
+	public static ArithmeticAxis getLinesRangeAxis(
 			List<LineCoordinates> coordinates) {
 		requireCompatibleCoordinates(coordinates);
 		
-		if (coordinates.isEmpty()) {
-			return Collections.emptyList();
-		}
-		
-		Range xRange = findMinAndMaxXValues(coordinates);
-		return xRange.sequence(coordinates.get(0).getRangeTick());
+		return ArithmeticAxis.rangeAxisOf(coordinates);
 	}
 	
 	private static final void requireCompatibleCoordinates(
@@ -109,51 +100,6 @@ public class LineCoordinatesUtils {
 		}
 	}
 
-	private static final Range findMinAndMaxXValues(List<LineCoordinates> coordinates) {
-		double minX = Double.MAX_VALUE;
-		double maxX = 0;
-		for(LineCoordinates lC : coordinates) {
-			if(lC.getRangeStart() < minX ) {
-				minX = lC.getRangeStart();
-			}
-			if(lC.getRangeEnd() > maxX ) {
-				maxX = lC.getRangeEnd();
-			}
-		}
-		return new Range(minX, maxX);
-	}
-	
-	static class Range {
-		
-		private double min;
-		private double max;
-
-		public Range(double min, double max) {
-			this.min = min;
-			this.max = max;
-		}
-
-		public double getMin() {
-			return min;
-		}
-		
-		public double getMax() {
-			return max;
-		}
-		
-		public List<Double> sequence(double xTick) {
-			List<Double> sequence = new ArrayList<Double>();
-			double last = 0;
-			int count = 0;
-			while(last < this.max) {
-				last = this.min + count * xTick;
-				sequence.add(last);
-				count++;
-			}
-			return sequence;
-		}
-	}
-
 	/**
 	 * Return {@code true} if each {@code LineData} have a different position
 	 * {@code false} otherwise.
@@ -203,4 +149,48 @@ public class LineCoordinatesUtils {
 			current.setPosition(tick * i);
 		}
 	}
+
+	/**
+	 * Returns {@code true} if {@code obj} is a {@code LineCoordinates} with
+	 * the same range, tick, position and orientation as {@code coordinates},
+	 * regardless of their implementations. {@code LineCoordinates} 
+	 * implementations use this method to implement {@code equals}.
+	 * 
+	 * @param coordinates a {@code LineCoordinates}.
+	 * @param obj the object to compare with {@code coordinates}.
+	 * @return {@code true} if {@code obj} is a {@code LineCoordinates} equal
+	 * 	to {@code coordinates} and {@code false} otherwise.
+	 */
+	public static boolean equals(LineCoordinates coordinates, Object obj) {
+		if (coordinates == obj) {
+			return true;
+		}
+		if (!(obj instanceof LineCoordinates)) {
+			return false;
+		}
+		final LineCoordinates another = (LineCoordinates) obj;
+		return 
+			Double.compare(coordinates.getRangeTick(), another.getRangeTick()) == 0 &&
+			Double.compare(coordinates.getRangeStart(), another.getRangeStart()) == 0 &&
+			Double.compare(coordinates.getRangeEnd(), another.getRangeEnd()) == 0 &&
+			Double.compare(coordinates.getPosition(), another.getPosition()) == 0 &&
+			coordinates.isVertical() == another.isVertical();
+	}
+	
+	/**
+	 * Returns a hash code of {@code coordinates} consistent with 
+	 * {@link LineCoordinatesUtils#equals(LineCoordinates, Object)}. 
+	 * {@code LineCoordinates} implementations use this method to implement
+	 * {@code hashCode}.
+	 * 
+	 * @param coordinates a {@code LineCoordinates}.
+	 * @return a hash code of {@code coordinates}.
+	 */
+	public static int hashCode(LineCoordinates coordinates) {
+		int hash = Double.hashCode(coordinates.getRangeTick());
+		hash = 31 * hash + Double.hashCode(coordinates.getRangeStart());
+		hash = 31 * hash + Double.hashCode(coordinates.getRangeEnd());
+		hash = 31 * hash + Double.hashCode(coordinates.getPosition());
+		return 31 * hash + Boolean.hashCode(coordinates.isVertical());
+	}
 }
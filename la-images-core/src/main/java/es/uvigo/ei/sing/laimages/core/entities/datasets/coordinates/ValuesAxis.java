@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
+
+import java.util.Arrays;
+
+/**
+ * An {@code Axis} whose values are stored in an array. Finding the index of
+ * a value requires a linear scan of the axis.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class ValuesAxis extends Axis {
+	private static final long serialVersionUID = 1L;
+	
+	private final double[] values;
+
+	/**
+	 * Constructs a new {@code ValuesAxis} with a copy of {@code values}.
+	 * 
+	 * @param values the values of the axis.
+	 */
+	public ValuesAxis(double[] values) {
+		this.values = Arrays.copyOf(values, values.length);
+	}
+
+	@Override
+	public double getValue(int index) {
+		checkIndex(index);
+		
+		return values[index];
+	}
+
+	@Override
+	public int indexOf(double value, double delta) {
+		for (int i = 0; i < values.length; i++) {
+			if (Math.abs(values[i] - value) <= delta) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+	
+	@Override
+	public double[] toDoubleArray() {
+		return Arrays.copyOf(values, values.length);
+	}
+}
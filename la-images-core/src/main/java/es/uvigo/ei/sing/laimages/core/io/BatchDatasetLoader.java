@@ -0,0 +1,297 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.StoragePrecision;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
+import es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader.ExtensionFilenameFilter;
+import es.uvigo.ei.sing.laimages.core.io.event.BatchLoadListener;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+
+/**
+ * <p>
+ * A loader of several line datasets at once. Datasets are loaded 
+ * concurrently by a bounded pool of workers, each one loading one dataset at
+ * a time as {@link LineDatasetLoader#loadAndNormalizeDataset(Path, 
+ * es.uvigo.ei.sing.laimages.core.util.ProgressHandler)} does. Datasets are
+ * scheduled from the largest to the smallest one, so that the total loading
+ * time approaches the loading time of the largest dataset.
+ * </p>
+ * 
+ * <p>
+ * The failure of a dataset does not abort the batch: it is reported in its
+ * {@link BatchLoadResult} and the rest of the datasets are loaded anyway.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class BatchDatasetLoader {
+	private final int parallelism;
+	private final LineFileReader lineFileReader;
+
+	/**
+	 * Constructs a new instance of {@code BatchDatasetLoader} that loads up
+	 * to {@code parallelism} datasets concurrently.
+	 * 
+	 * @param parallelism the maximum number of datasets loaded concurrently.
+	 * @throws IllegalArgumentException if {@code parallelism} is lower than 1.
+	 */
+	public BatchDatasetLoader(int parallelism) {
+		this(parallelism, new LineFileReader());
+	}
+	
+	/**
+	 * Constructs a new instance of {@code BatchDatasetLoader} that loads up
+	 * to {@code parallelism} datasets concurrently using 
+	 * {@code lineFileReader} to read each line file.
+	 * 
+	 * @param parallelism the maximum number of datasets loaded concurrently.
+	 * @param lineFileReader the {@code LineFileReader} used to read each line
+	 * 	file.
+	 * @throws IllegalArgumentException if {@code parallelism} is lower than 1.
+	 */
+	public BatchDatasetLoader(int parallelism, LineFileReader lineFileReader) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		
+		this.parallelism = parallelism;
+		this.lineFileReader = lineFileReader;
+	}
+	
+	/**
+	 * Returns a function that gives the configuration of each dataset 
+	 * directory or archive, read from the configuration file stored in it (see 
+	 * {@link ElementDatasetConfigurationProperties}). Parameters that are not
+	 * present in the configuration file, or datasets without configuration 
+	 * file, take their values from {@code defaults}.
+	 * 
+	 * @param defaults the default configuration.
+	 * @return a function that gives the configuration of each dataset 
+	 * 	directory.
+	 */
+	public static Function<Path, ElementDatasetConfiguration> 
+		directoryConfigurations(ElementDatasetConfiguration defaults)
+	{
+		return path -> {
+			final Optional<ElementDatasetConfigurationProperties> file;
+			try {
+				file = LineDatasetLoader.readConfigurationProperties(path);
+			} catch (IOException e) {
+				throw new UncheckedIOException(
+					"The configuration of " + path + " can't be read", e);
+			}
+			
+			if (!file.isPresent()) {
+				return defaults;
+			}
+			
+			final ElementDatasetConfigurationProperties properties = file.get();
+			return new ElementDatasetConfiguration(
+				properties.getAblationSpeed().map(Double::parseDouble)
+					.orElse(defaults.getAblationSpeed()),
+				properties.getAcquisitionTime().map(Double::parseDouble)
+					.orElse(defaults.getAcquisitionTime()),
+				properties.getSpaceInterval().map(Double::parseDouble)
+					.orElse(defaults.getSpaceInterval()),
+				properties.getStandard().orElse(defaults.getStandardElement()),
+				properties.getStoragePrecision().map(StoragePrecision::parse)
+					.orElse(defaults.getStoragePrecision())
+			);
+		};
+	}
+	
+	/**
+	 * Loads and normalizes the datasets stored at {@code paths} using the 
+	 * same {@code configuration} for all of them.
+	 * 
+	 * @param paths the paths where the datasets are stored.
+	 * @param configuration the configuration of the datasets.
+	 * @return the results of loading each dataset, in the same order than
+	 * 	{@code paths}.
+	 * @throws InterruptedException if the current thread is interrupted while
+	 * 	waiting for the datasets to be loaded.
+	 */
+	public List<BatchLoadResult> load(List<Path> paths, 
+		ElementDatasetConfiguration configuration
+	) throws InterruptedException {
+		return load(paths, configuration, result -> {});
+	}
+	
+	/**
+	 * Loads and normalizes the datasets stored at {@code paths} using the 
+	 * same {@code configuration} for all of them.
+	 * 
+	 * @param paths the paths where the datasets are stored.
+	 * @param configuration the configuration of the datasets.
+	 * @param listener the listener that receives the progress of each 
+	 * 	dataset.
+	 * @return the results of loading each dataset, in the same order than
+	 * 	{@code paths}.
+	 * @throws InterruptedException if the current thread is interrupted while
+	 * 	waiting for the datasets to be loaded.
+	 */
+	public List<BatchLoadResult> load(List<Path> paths, 
+		ElementDatasetConfiguration configuration, BatchLoadListener listener
+	) throws InterruptedException {
+		return load(paths, path -> configuration, listener);
+	}
+	
+	/**
+	 * Loads and normalizes the datasets stored at {@code paths} using the 
+	 * configuration given by {@code configurations} for each of them. If 
+	 * {@code configurations} fails, the loading of the corresponding dataset
+	 * fails.
+	 * 
+	 * @param paths the paths where the datasets are stored.
+	 * @param configurations the function that gives the configuration of each
+	 * 	dataset.
+	 * @param listener the listener that receives the progress of each 
+	 * 	dataset.
+	 * @return the results of loading each dataset, in the same order than
+	 * 	{@code paths}.
+	 * @throws InterruptedException if the current thread is interrupted while
+	 * 	waiting for the datasets to be loaded. In such case, the datasets that
+	 * 	are being loaded are interrupted.
+	 * @see BatchDatasetLoader#directoryConfigurations(ElementDatasetConfiguration)
+	 */
+	public List<BatchLoadResult> load(List<Path> paths, 
+		Function<Path, ElementDatasetConfiguration> configurations,
+		BatchLoadListener listener
+	) throws InterruptedException {
+		if (paths.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(
+			Math.min(parallelism, paths.size()));
+		try {
+			final List<Future<BatchLoadResult>> futures = 
+				new ArrayList<Future<BatchLoadResult>>(
+					Collections.nCopies(paths.size(), null));
+			for (int index : getIndexesBySizeDescending(paths)) {
+				final Path path = paths.get(index);
+				futures.set(index, executor.submit(
+					() -> loadDataset(path, configurations, listener)));
+			}
+			
+			final List<BatchLoadResult> results = 
+				new ArrayList<BatchLoadResult>(paths.size());
+			for (int i = 0; i < futures.size(); i++) {
+				results.add(getResult(paths.get(i), futures.get(i)));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private BatchLoadResult loadDataset(Path path, 
+		Function<Path, ElementDatasetConfiguration> configurations,
+		BatchLoadListener listener
+	) {
+		listener.onDatasetStarted(path);
+		
+		final DefaultProgressHandler progressHandler = new DefaultProgressHandler() {
+			@Override
+			public void progress() {
+				listener.onDatasetProgress(path);
+			}
+		};
+		
+		BatchLoadResult result;
+		try {
+			final ElementDataset dataset = new LineDatasetLoader(
+				configurations.apply(path), 1, lineFileReader
+			).loadAndNormalizeDataset(path, progressHandler);
+			
+			result = BatchLoadResult.loaded(
+				path, dataset, progressHandler.getWarnings());
+		} catch (Exception e) {
+			result = BatchLoadResult.failed(
+				path, e, progressHandler.getWarnings());
+		}
+		
+		listener.onDatasetFinished(result);
+		
+		return result;
+	}
+	
+	private static BatchLoadResult getResult(Path path, 
+		Future<BatchLoadResult> future
+	) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			return BatchLoadResult.failed(path, 
+				cause instanceof Exception ? (Exception) cause : e,
+				Collections.emptyList()
+			);
+		}
+	}
+	
+	private static int[] getIndexesBySizeDescending(List<Path> paths) {
+		final long[] sizes = paths.stream()
+			.mapToLong(BatchDatasetLoader::estimateSize).toArray();
+		final Integer[] indexes = new Integer[paths.size()];
+		Arrays.setAll(indexes, i -> i);
+		Arrays.sort(indexes, (i, j) -> Long.compare(sizes[j], sizes[i]));
+		
+		return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+	}
+	
+	private static long estimateSize(Path path) {
+		try {
+			if (Files.isDirectory(path)) {
+				return DatasetManifest.scan(path.toFile(), 
+					new ExtensionFilenameFilter(LineDatasetLoader.LINE_FILE_EXTENSIONS)
+				).getEntries().stream()
+					.mapToLong(DatasetManifest.LineFileEntry::getSize).sum();
+			} else {
+				return Files.size(path);
+			}
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+
+/**
+ * The result of loading one of the datasets of a batch: either the loaded
+ * dataset or the exception that made its loading fail, along with the 
+ * warnings reported while it was loaded.
+ * 
+ * @author Hugo López-Fernández
+ * @see BatchDatasetLoader
+ *
+ */
+public class BatchLoadResult {
+	private final Path path;
+	private final ElementDataset dataset;
+	private final Exception error;
+	private final List<String> warnings;
+
+	private BatchLoadResult(Path path, ElementDataset dataset, 
+		Exception error, List<String> warnings
+	) {
+		this.path = path;
+		this.dataset = dataset;
+		this.error = error;
+		this.warnings = Collections.unmodifiableList(warnings);
+	}
+	
+	static BatchLoadResult loaded(Path path, ElementDataset dataset, 
+		List<String> warnings
+	) {
+		return new BatchLoadResult(path, dataset, null, warnings);
+	}
+	
+	static BatchLoadResult failed(Path path, Exception error, 
+		List<String> warnings
+	) {
+		return new BatchLoadResult(path, null, error, warnings);
+	}
+	
+	/**
+	 * Returns the path of the dataset.
+	 * 
+	 * @return the path of the dataset.
+	 */
+	public Path getPath() {
+		return path;
+	}
+	
+	/**
+	 * Returns {@code true} if the dataset has been loaded and {@code false} if
+	 * its loading failed.
+	 * 
+	 * @return {@code true} if the dataset has been loaded and {@code false} if
+	 * 	its loading failed.
+	 */
+	public boolean isLoaded() {
+		return dataset != null;
+	}
+	
+	/**
+	 * Returns the loaded dataset or an empty {@code Optional} if its loading
+	 * failed.
+	 * 
+	 * @return the loaded dataset.
+	 */
+	public Optional<ElementDataset> getDataset() {
+		return Optional.ofNullable(dataset);
+	}
+	
+	/**
+	 * Returns the exception that made the loading of the dataset fail or an
+	 * empty {@code Optional} if it has been loaded.
+	 * 
+	 * @return the exception that made the loading of the dataset fail.
+	 */
+	public Optional<Exception> getError() {
+		return Optional.ofNullable(error);
+	}
+	
+	/**
+	 * Returns the warnings reported while the dataset was loaded.
+	 * 
+	 * @return the warnings reported while the dataset was loaded.
+	 */
+	public List<String> getWarnings() {
+		return warnings;
+	}
+}
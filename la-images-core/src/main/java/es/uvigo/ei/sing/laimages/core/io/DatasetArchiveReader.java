@@ -0,0 +1,605 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.coordinates.LineCoordinatesLoader;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+/**
+ * <p>
+ * This class reads the line files and the positions file of a dataset stored
+ * in an archive, without extracting it. Supported archives are ZIP files
+ * ({@code .zip}), tar files ({@code .tar}) and gzip-compressed tar files
+ * ({@code .tar.gz} or {@code .tgz}). Files may be stored in any folder of the
+ * archive, since only their names are considered. The metadata entries that
+ * macOS adds to archives ({@code __MACOSX/} folders and {@code ._} files) are
+ * ignored, and archives containing more than one positions file are rejected.
+ * The configuration file of the dataset (see 
+ * {@link ElementDatasetConfigurationProperties}) can also be read from an 
+ * archive.
+ * </p>
+ *
+ * <p>
+ * Each archive entry is decompressed straight into the line file parser. The
+ * entries of ZIP files are decompressed and parsed concurrently. Since tar
+ * files must be decompressed sequentially, their entries are only parsed
+ * concurrently.
+ * </p>
+ *
+ * @author Hugo López-Fernández
+ * @see LineDatasetLoader
+ *
+ */
+final class DatasetArchiveReader {
+	private static final String[] ZIP_EXTENSIONS = { ".zip" };
+	private static final String[] TAR_EXTENSIONS = { ".tar" };
+	private static final String[] TAR_GZIP_EXTENSIONS = { ".tar.gz", ".tgz" };
+
+	private static final String MACOS_METADATA_DIRECTORY = "__MACOSX/";
+	private static final String MACOS_METADATA_PREFIX = "._";
+
+	private static final int TAR_BLOCK_SIZE = 512;
+	private static final int BUFFER_SIZE = 65536;
+
+	private final FilenameFilter fileFilter;
+	private final LineFileReader lineFileReader;
+	private final int parallelism;
+
+	/**
+	 * Constructs a new {@code DatasetArchiveReader}.
+	 *
+	 * @param fileFilter the filter that selects the line files.
+	 * @param lineFileReader the {@code LineFileReader} used to parse the line
+	 * 	files.
+	 * @param parallelism the maximum number of line files parsed
+	 * 	concurrently.
+	 */
+	DatasetArchiveReader(FilenameFilter fileFilter,
+		LineFileReader lineFileReader, int parallelism
+	) {
+		this.fileFilter = fileFilter;
+		this.lineFileReader = lineFileReader;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * The line files and line coordinates read from an archive.
+	 */
+	static final class Contents {
+		private final List<LineFile> lines;
+		private final Optional<LineCoordinates[]> positions;
+
+		Contents(List<LineFile> lines, Optional<LineCoordinates[]> positions) {
+			this.lines = lines;
+			this.positions = positions;
+		}
+
+		public List<LineFile> getLines() {
+			return lines;
+		}
+
+		public Optional<LineCoordinates[]> getPositions() {
+			return positions;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if {@code path} is a regular file with a supported
+	 * archive extension and {@code false} otherwise.
+	 *
+	 * @param path a path.
+	 * @return {@code true} if {@code path} is a supported archive and
+	 * 	{@code false} otherwise.
+	 */
+	static boolean isArchive(Path path) {
+		return Files.isRegularFile(path) && (
+			hasExtension(path, ZIP_EXTENSIONS)
+			|| hasExtension(path, TAR_EXTENSIONS)
+			|| hasExtension(path, TAR_GZIP_EXTENSIONS)
+		);
+	}
+
+	/**
+	 * Returns the name of the dataset stored in {@code archive}, that is, its
+	 * file name without the archive extension.
+	 *
+	 * @param archive a dataset archive.
+	 * @return the name of the dataset stored in {@code archive}.
+	 */
+	static String getDatasetName(Path archive) {
+		final String name = archive.getFileName().toString();
+
+		return Stream.of(ZIP_EXTENSIONS, TAR_GZIP_EXTENSIONS, TAR_EXTENSIONS)
+			.flatMap(Stream::of)
+			.filter(e -> name.toLowerCase().endsWith(e))
+			.findFirst()
+			.map(e -> name.substring(0, name.length() - e.length()))
+		.orElse(name);
+	}
+
+	private static boolean hasExtension(Path path, String[] extensions) {
+		final String name = path.getFileName().toString().toLowerCase();
+
+		return Stream.of(extensions).anyMatch(name::endsWith);
+	}
+
+	/**
+	 * Reads the elements accepted by {@code elementFilter} of the line files
+	 * stored in {@code archive}, along with its positions file, if present.
+	 *
+	 * @param archive the dataset archive.
+	 * @param elementFilter the filter that selects the elements to read.
+	 * @param xTick the size of the ticks in the X axis.
+	 * @return the line files, in line order, and the line coordinates.
+	 * @throws IOException if an error occurs reading the archive.
+	 */
+	Contents read(Path archive, Predicate<String> elementFilter, double xTick)
+		throws IOException
+	{
+		if (hasExtension(archive, ZIP_EXTENSIONS)) {
+			return readZip(archive, elementFilter, xTick);
+		} else {
+			try (InputStream in = openTar(archive)) {
+				return readTar(archive, in, elementFilter, xTick);
+			}
+		}
+	}
+
+	/**
+	 * Reads the configuration file of the dataset stored in {@code archive},
+	 * if present. If the archive contains several configuration files, the
+	 * first one is read.
+	 *
+	 * @param archive the dataset archive.
+	 * @return the configuration properties of the dataset or an empty
+	 * 	{@code Optional} if the archive has no configuration file.
+	 * @throws IOException if an error occurs reading the archive.
+	 */
+	static Optional<ElementDatasetConfigurationProperties> readConfiguration(
+		Path archive
+	) throws IOException {
+		if (hasExtension(archive, ZIP_EXTENSIONS)) {
+			try (ZipFile zip = new ZipFile(archive.toFile())) {
+				final Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					final ZipEntry entry = entries.nextElement();
+
+					if (!entry.isDirectory() && isConfigurationEntry(entry.getName())) {
+						try (InputStream in = zip.getInputStream(entry)) {
+							return Optional.of(
+								new ElementDatasetConfigurationProperties(in));
+						}
+					}
+				}
+			}
+		} else {
+			try (InputStream in = openTar(archive)) {
+				final TarReader tar = new TarReader(in);
+				String entryName;
+				while ((entryName = tar.nextEntry()) != null) {
+					if (isConfigurationEntry(entryName)) {
+						return Optional.of(new ElementDatasetConfigurationProperties(
+							new ByteArrayInputStream(tar.readEntry())));
+					}
+				}
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	private static boolean isConfigurationEntry(String entryName) {
+		return !isIgnoredEntry(entryName) && getFileName(entryName)
+			.equalsIgnoreCase(ElementDatasetConfigurationProperties.CONFIGURATION_FILE_NAME);
+	}
+
+	private static InputStream openTar(Path archive) throws IOException {
+		final InputStream in = new BufferedInputStream(
+			Files.newInputStream(archive), BUFFER_SIZE);
+
+		return hasExtension(archive, TAR_GZIP_EXTENSIONS) ?
+			new GZIPInputStream(in, BUFFER_SIZE) : in;
+	}
+
+	private Contents readZip(Path archive, Predicate<String> elementFilter,
+		double xTick
+	) throws IOException {
+		try (ZipFile zip = new ZipFile(archive.toFile())) {
+			final List<ZipEntry> lineEntries = new ArrayList<ZipEntry>();
+			Optional<LineCoordinates[]> positions = Optional.empty();
+
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+				final String name = getFileName(entry.getName());
+
+				if (entry.isDirectory() || isIgnoredEntry(entry.getName())) {
+					continue;
+				} else if (isPositionsFile(name)) {
+					checkSinglePositionsFile(archive, positions);
+					try (InputStream in = zip.getInputStream(entry)) {
+						positions = Optional.of(
+							LineCoordinatesLoader.loadCoordinates(in, xTick));
+					}
+				} else if (fileFilter.accept(archive.toFile(), name)) {
+					lineEntries.add(entry);
+				}
+			}
+			lineEntries.sort(Comparator.comparingInt(
+				e -> DatasetManifest.getLineNumber(getFileName(e.getName()))));
+
+			return new Contents(
+				readZipEntries(zip, lineEntries, elementFilter), positions);
+		}
+	}
+
+	private List<LineFile> readZipEntries(ZipFile zip, List<ZipEntry> entries,
+		Predicate<String> elementFilter
+	) throws IOException {
+		final List<LineFile> lines = new ArrayList<LineFile>(entries.size());
+
+		if (parallelism == 1 || entries.size() < 2) {
+			for (ZipEntry entry : entries) {
+				lines.add(readZipEntry(zip, entry, elementFilter));
+			}
+		} else {
+			final ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(parallelism, entries.size()));
+			try {
+				final List<Future<LineFile>> futures = 
+					new ArrayList<Future<LineFile>>(
+						Collections.nCopies(entries.size(), null));
+				final Integer[] indexes = new Integer[entries.size()];
+				for (int i = 0; i < indexes.length; i++) {
+					indexes[i] = i;
+				}
+				Arrays.sort(indexes, (i, j) -> Long.compare(
+					entries.get(j).getSize(), entries.get(i).getSize()));
+
+				for (int index : indexes) {
+					final ZipEntry entry = entries.get(index);
+					futures.set(index, executor.submit(
+						() -> readZipEntry(zip, entry, elementFilter)));
+				}
+
+				for (Future<LineFile> future : futures) {
+					lines.add(LineToElementConverter.getLineFile(future));
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		return lines;
+	}
+
+	private LineFile readZipEntry(ZipFile zip, ZipEntry entry,
+		Predicate<String> elementFilter
+	) throws IOException {
+		try (InputStream in = zip.getInputStream(entry)) {
+			return lineFileReader.read(
+				getFileName(entry.getName()), in, elementFilter);
+		}
+	}
+
+	private Contents readTar(Path archive, InputStream in,
+		Predicate<String> elementFilter, double xTick
+	) throws IOException {
+		final List<TarLineEntry> lineEntries = new ArrayList<TarLineEntry>();
+		Optional<LineCoordinates[]> positions = Optional.empty();
+
+		final ExecutorService executor = parallelism == 1 ?
+			null : Executors.newFixedThreadPool(parallelism);
+		final Semaphore pending = new Semaphore(2 * parallelism);
+		try {
+			final TarReader tar = new TarReader(in);
+			String entryName;
+			while ((entryName = tar.nextEntry()) != null) {
+				final String name = getFileName(entryName);
+
+				if (isIgnoredEntry(entryName)) {
+					continue;
+				} else if (isPositionsFile(name)) {
+					checkSinglePositionsFile(archive, positions);
+					positions = Optional.of(LineCoordinatesLoader.loadCoordinates(
+						new ByteArrayInputStream(tar.readEntry()), xTick));
+				} else if (fileFilter.accept(archive.toFile(), name)) {
+					final byte[] content = tar.readEntry();
+					final LineFileTask task = () -> lineFileReader.read(
+						name, new ByteArrayInputStream(content), elementFilter);
+
+					if (executor == null) {
+						lineEntries.add(new TarLineEntry(name, task.call()));
+					} else {
+						acquire(pending);
+						lineEntries.add(new TarLineEntry(name, executor.submit(() -> {
+							try {
+								return task.call();
+							} finally {
+								pending.release();
+							}
+						})));
+					}
+				}
+			}
+
+			lineEntries.sort(Comparator.comparingInt(
+				e -> DatasetManifest.getLineNumber(e.name)));
+
+			final List<LineFile> lines = new ArrayList<LineFile>(lineEntries.size());
+			for (TarLineEntry entry : lineEntries) {
+				lines.add(entry.getLineFile());
+			}
+
+			return new Contents(lines, positions);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private static void acquire(Semaphore semaphore) throws IOException {
+		try {
+			semaphore.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading line files", e);
+		}
+	}
+
+	private static boolean isPositionsFile(String name) {
+		return name.equalsIgnoreCase(LineToElementConverter.POSITIONS_FILE_NAME);
+	}
+
+	/*
+	 * Entries added by archivers that are not part of the dataset, such as
+	 * the resource forks that macOS stores in __MACOSX/ or in ._ files.
+	 */
+	private static boolean isIgnoredEntry(String entryName) {
+		final String path = entryName.replace('\\', '/');
+
+		return path.startsWith(MACOS_METADATA_DIRECTORY)
+			|| path.contains("/" + MACOS_METADATA_DIRECTORY)
+			|| getFileName(path).startsWith(MACOS_METADATA_PREFIX);
+	}
+
+	private static void checkSinglePositionsFile(Path archive,
+		Optional<LineCoordinates[]> positions
+	) throws InvalidDataException {
+		if (positions.isPresent()) {
+			throw new InvalidDataException("Archive " + archive.getFileName()
+				+ " contains more than one positions file.");
+		}
+	}
+
+	private static String getFileName(String entryName) {
+		return new File(entryName.replace('\\', '/')).getName();
+	}
+
+	@FunctionalInterface
+	private interface LineFileTask {
+		LineFile call() throws IOException;
+	}
+
+	private static final class TarLineEntry {
+		private final String name;
+		private final LineFile lineFile;
+		private final Future<LineFile> future;
+
+		TarLineEntry(String name, LineFile lineFile) {
+			this.name = name;
+			this.lineFile = lineFile;
+			this.future = null;
+		}
+
+		TarLineEntry(String name, Future<LineFile> future) {
+			this.name = name;
+			this.lineFile = null;
+			this.future = future;
+		}
+
+		LineFile getLineFile() throws IOException {
+			return future == null ?
+				lineFile : LineToElementConverter.getLineFile(future);
+		}
+	}
+
+	/*
+	 * A minimal reader of the regular file entries of a tar stream, which
+	 * supports the ustar, GNU long name and pax path extensions.
+	 */
+	private static final class TarReader {
+		private final DataInputStream in;
+		private final byte[] header;
+		private long entrySize;
+
+		TarReader(InputStream in) {
+			this.in = new DataInputStream(in);
+			this.header = new byte[TAR_BLOCK_SIZE];
+		}
+
+		String nextEntry() throws IOException {
+			skipEntry();
+			String longName = null;
+
+			while (true) {
+				if (!readHeader()) {
+					return null;
+				}
+
+				final char type = (char) header[156];
+				String name = readString(0, 100);
+				if (isUstar()) {
+					final String prefix = readString(345, 155);
+					if (!prefix.isEmpty()) {
+						name = prefix + "/" + name;
+					}
+				}
+				if (longName != null) {
+					name = longName;
+					longName = null;
+				}
+				this.entrySize = readSize();
+
+				if (type == 'L') {
+					longName = trimNulls(new String(readEntry(), UTF_8));
+				} else if (type == 'x') {
+					longName = readPaxPath(readEntry());
+				} else if (type == '0' || type == '\0' || type == '7') {
+					return name;
+				} else {
+					skipEntry();
+				}
+			}
+		}
+
+		byte[] readEntry() throws IOException {
+			if (this.entrySize > Integer.MAX_VALUE - TAR_BLOCK_SIZE) {
+				throw new InvalidDataException("Archive entries larger than "
+					+ "2GB are not supported.");
+			}
+
+			final byte[] content = new byte[(int) this.entrySize];
+			this.in.readFully(content);
+
+			final int padding = (int) ((TAR_BLOCK_SIZE
+				- this.entrySize % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+			this.in.readFully(new byte[padding]);
+			this.entrySize = 0;
+
+			return content;
+		}
+
+		/*
+		 * Skips the content of the current entry, if it has not been read.
+		 */
+		private void skipEntry() throws IOException {
+			long remaining = this.entrySize + (TAR_BLOCK_SIZE
+				- this.entrySize % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE;
+
+			while (remaining > 0) {
+				final long skipped = this.in.skip(remaining);
+				if (skipped > 0) {
+					remaining -= skipped;
+				} else if (this.in.read() != -1) {
+					remaining--;
+				} else {
+					throw new EOFException("Unexpected end of archive");
+				}
+			}
+			this.entrySize = 0;
+		}
+
+		private boolean readHeader() throws IOException {
+			try {
+				this.in.readFully(this.header);
+			} catch (EOFException e) {
+				return false;
+			}
+
+			for (byte b : this.header) {
+				if (b != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isUstar() {
+			return readString(257, 5).equals("ustar");
+		}
+
+		private long readSize() throws InvalidDataException {
+			if ((this.header[124] & 0x80) != 0) {
+				long size = 0;
+				for (int i = 125; i < 136; i++) {
+					size = (size << 8) | (this.header[i] & 0xFF);
+				}
+				return size;
+			}
+
+			final String size = readString(124, 12).trim();
+			try {
+				return size.isEmpty() ? 0 : Long.parseLong(size, 8);
+			} catch (NumberFormatException e) {
+				throw new InvalidDataException("Invalid tar entry size: " + size);
+			}
+		}
+
+		private String readString(int offset, int length) {
+			int end = offset;
+			while (end < offset + length && this.header[end] != 0) {
+				end++;
+			}
+			return new String(this.header, offset, end - offset, UTF_8);
+		}
+
+		private static String trimNulls(String value) {
+			final int end = value.indexOf('\0');
+			return end == -1 ? value : value.substring(0, end);
+		}
+
+		private static String readPaxPath(byte[] content) {
+			for (String record : new String(content, UTF_8).split("\n")) {
+				final int start = record.indexOf(" path=");
+				if (start != -1) {
+					return record.substring(start + " path=".length());
+				}
+			}
+			return null;
+		}
+	}
+}
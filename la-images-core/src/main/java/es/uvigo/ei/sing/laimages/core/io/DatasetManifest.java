@@ -0,0 +1,342 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+/**
+ * <p>
+ * The manifest of the line files of a dataset directory, built by listing the
+ * directory only once. It contains the line files sorted by their line
+ * number, along with their sizes.
+ * </p>
+ *
+ * <p>
+ * Line files must be numbered consecutively from 1, so that the line number
+ * of each file is also its position in the dataset. This way, datasets are
+ * arranged in the same way when they are loaded at once and when they are
+ * loaded line by line while being acquired (see 
+ * {@link LiveLineDatasetLoader}).
+ * </p>
+ *
+ * <p>
+ * The header columns and the row count of each line file are read on demand
+ * without parsing its values, so that large datasets can be validated before
+ * loading them.
+ * </p>
+ *
+ * @author Hugo López-Fernández
+ * @see LineToElementConverter
+ *
+ */
+public class DatasetManifest {
+	private static final Pattern LINE_NUMBER_PATTERN = Pattern.compile("[0-9]+");
+
+	private final File directory;
+	private final List<LineFileEntry> entries;
+
+	private DatasetManifest(File directory, List<LineFileEntry> entries) {
+		this.directory = directory;
+		this.entries = entries;
+	}
+
+	/**
+	 * Lists the files in {@code directory} that pass the {@code fileFilter}
+	 * and builds its manifest.
+	 *
+	 * @param directory the dataset directory.
+	 * @param fileFilter the filter that selects the line files.
+	 * @return the manifest of {@code directory}.
+	 * @throws IOException if {@code directory} can't be listed.
+	 */
+	public static DatasetManifest scan(File directory, FilenameFilter fileFilter)
+		throws IOException
+	{
+		final File[] files = directory.listFiles(fileFilter);
+		if (files == null) {
+			throw new IOException("Directory " + directory + " can't be listed.");
+		}
+
+		final List<LineFileEntry> entries = new ArrayList<LineFileEntry>(files.length);
+		for (File file : files) {
+			entries.add(new LineFileEntry(
+				file, getLineNumber(file.getName()), file.length()));
+		}
+		entries.sort(Comparator.comparingInt(LineFileEntry::getLineNumber));
+
+		return new DatasetManifest(directory, entries);
+	}
+
+	/**
+	 * Checks that the line files are numbered consecutively from 1.
+	 *
+	 * @throws InvalidDataException if the line files are not numbered 
+	 * 	consecutively from 1.
+	 */
+	public void checkLineNumbers() throws InvalidDataException {
+		final List<String> fileNames = new ArrayList<String>(entries.size());
+		for (LineFileEntry entry : entries) {
+			fileNames.add(entry.getFile().getName());
+		}
+		
+		checkLineNumbers(fileNames);
+	}
+
+	/**
+	 * Checks that the line files with the given names, sorted by line number,
+	 * are numbered consecutively from 1.
+	 *
+	 * @param fileNames the names of the line files, sorted by line number.
+	 * @throws InvalidDataException if the line files are not numbered 
+	 * 	consecutively from 1.
+	 */
+	static void checkLineNumbers(List<String> fileNames)
+		throws InvalidDataException
+	{
+		for (int i = 0; i < fileNames.size(); i++) {
+			if (getLineNumber(fileNames.get(i)) != i + 1) {
+				throw new InvalidDataException("Line files must be numbered "
+					+ "consecutively from 1, but line file " + fileNames.get(i)
+					+ " is line " + (i + 1) + " of the dataset.");
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of the line stored in a file, which is the first
+	 * number found in its name, or 0 if its name does not contain numbers.
+	 *
+	 * @param fileName the name of a line file.
+	 * @return the number of the line stored in the file.
+	 */
+	public static int getLineNumber(String fileName) {
+		final Matcher m = LINE_NUMBER_PATTERN.matcher(fileName);
+		if (m.find()) {
+			return Integer.parseInt(m.group());
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the dataset directory.
+	 *
+	 * @return the dataset directory.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the line file entries, sorted by line number.
+	 *
+	 * @return the line file entries, sorted by line number.
+	 */
+	public List<LineFileEntry> getEntries() {
+		return Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * Returns the line files, sorted by line number.
+	 *
+	 * @return the line files, sorted by line number.
+	 */
+	public File[] getFiles() {
+		return entries.stream().map(LineFileEntry::getFile).toArray(File[]::new);
+	}
+
+	/**
+	 * Returns the number of line files.
+	 *
+	 * @return the number of line files.
+	 */
+	public int getLineCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the indexes of the line file entries sorted by decreasing file
+	 * size, which is the order in which files should be scheduled when they
+	 * are read concurrently.
+	 *
+	 * @return the indexes of the line file entries sorted by decreasing file
+	 * 	size.
+	 */
+	public int[] getIndexesBySizeDescending() {
+		final Integer[] indexes = new Integer[entries.size()];
+		Arrays.setAll(indexes, i -> i);
+		Arrays.sort(indexes, (i, j) ->
+			Long.compare(entries.get(j).getSize(), entries.get(i).getSize()));
+
+		return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Returns the names of the elements declared in the headers of the line
+	 * files, in order of appearance.
+	 *
+	 * @return the names of the elements declared in the headers of the line
+	 * 	files.
+	 * @throws IOException if an error occurs reading the headers.
+	 */
+	public Set<String> getElements() throws IOException {
+		final Set<String> elements = new LinkedHashSet<String>();
+		for (LineFileEntry entry : entries) {
+			elements.addAll(entry.getElements());
+		}
+		return elements;
+	}
+
+	/**
+	 * Returns {@code true} if all the line files contain the same number of
+	 * rows and {@code false} otherwise.
+	 *
+	 * @return {@code true} if all the line files contain the same number of
+	 * 	rows and {@code false} otherwise.
+	 * @throws IOException if an error occurs reading the line files.
+	 */
+	public boolean allLinesHaveSameRowCount() throws IOException {
+		final Set<Integer> rowCounts = new HashSet<Integer>();
+		for (LineFileEntry entry : entries) {
+			rowCounts.add(entry.getRowCount());
+		}
+		return rowCounts.size() <= 1;
+	}
+
+	/**
+	 * An entry of the manifest, describing one line file.
+	 *
+	 * @author Hugo López-Fernández
+	 *
+	 */
+	public static class LineFileEntry {
+		private final File file;
+		private final int lineNumber;
+		private final long size;
+		private List<String> elements;
+		private int rowCount;
+
+		private LineFileEntry(File file, int lineNumber, long size) {
+			this.file = file;
+			this.lineNumber = lineNumber;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the line file.
+		 *
+		 * @return the line file.
+		 */
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * Returns the line number, parsed from the file name.
+		 *
+		 * @return the line number.
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Returns the size of the line file, in bytes, when the manifest was
+		 * built.
+		 *
+		 * @return the size of the line file.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the names of the elements declared in the header of the
+		 * line file. The header is read the first time this method or
+		 * {@link LineFileEntry#getRowCount()} is invoked.
+		 *
+		 * @return the names of the elements declared in the header.
+		 * @throws IOException if an error occurs reading the line file.
+		 */
+		public List<String> getElements() throws IOException {
+			readSummary();
+			return elements;
+		}
+
+		/**
+		 * Returns the number of non-empty data rows of the line file, which
+		 * is the number of values of each element. Rows are counted without
+		 * parsing their values.
+		 *
+		 * @return the number of non-empty data rows of the line file.
+		 * @throws IOException if an error occurs reading the line file.
+		 */
+		public int getRowCount() throws IOException {
+			readSummary();
+			return rowCount;
+		}
+
+		private synchronized void readSummary() throws IOException {
+			if (this.elements != null) {
+				return;
+			}
+
+			try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+				String header = reader.readLine() == null ? null : reader.readLine();
+				if (header == null) {
+					this.elements = Collections.emptyList();
+					return;
+				}
+
+				int rows = 0;
+				String row;
+				while ((row = reader.readLine()) != null) {
+					if (!row.isEmpty()) {
+						rows++;
+					}
+				}
+
+				this.rowCount = rows;
+				this.elements = Collections.unmodifiableList(
+					Arrays.asList(LineFileReader.parseElements(header)));
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * <p>
+ * A {@code DatasetReader} loads an {@code ElementDataset} stored in a given
+ * format. Dataset readers are service providers, so new formats can be 
+ * supported by registering their implementations in a 
+ * {@code META-INF/services/es.uvigo.ei.sing.laimages.core.io.DatasetReader}
+ * file. Implementations must have a public constructor without parameters.
+ * </p>
+ * 
+ * <p>
+ * As {@link LineDatasetLoader} does, the elements of the loaded datasets must
+ * be normalized by the standard element of the configuration, if any.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see DatasetReaders
+ *
+ */
+public interface DatasetReader {
+	/**
+	 * Returns a short description of the format read.
+	 * 
+	 * @return a short description of the format read.
+	 */
+	public String getFormatName();
+	
+	/**
+	 * Returns {@code true} if this reader can read the dataset stored at
+	 * {@code path} and {@code false} otherwise. This check must be fast, 
+	 * since it should not read the dataset.
+	 * 
+	 * @param path the path where a dataset is stored.
+	 * @return {@code true} if this reader can read the dataset stored at
+	 * 	{@code path} and {@code false} otherwise.
+	 */
+	public boolean canRead(Path path);
+	
+	/**
+	 * Loads the elements specified in {@code elements} of the 
+	 * {@code ElementDataset} stored at the given {@code path} and normalizes
+	 * them by the standard element. If {@code elements} is empty, all the 
+	 * elements are loaded.
+	 * 
+	 * @param path the path where the dataset is stored.
+	 * @param configuration the dataset configuration.
+	 * @param elements the names of the elements to load or an empty set to 
+	 * 	load all the elements.
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @return an {@code ElementDataset}.
+	 * @throws IOException If there is some problem reading the dataset.
+	 * @throws NoSuchStandardElementException If the standard element is not 
+	 * 	present in the dataset.
+	 */
+	public ElementDataset read(Path path, 
+		ElementDatasetConfiguration configuration, Set<String> elements,
+		ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException;
+}
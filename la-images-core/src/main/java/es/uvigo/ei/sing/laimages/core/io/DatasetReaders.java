@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * This class provides access to the {@code DatasetReader}s registered as 
+ * service providers.
+ * 
+ * @author Hugo López-Fernández
+ * @see DatasetReader
+ *
+ */
+public final class DatasetReaders {
+	private static final List<DatasetReader> READERS = loadReaders();
+	
+	private DatasetReaders() {}
+	
+	private static List<DatasetReader> loadReaders() {
+		final List<DatasetReader> readers = new ArrayList<DatasetReader>();
+		for (DatasetReader reader : ServiceLoader.load(DatasetReader.class)) {
+			readers.add(reader);
+		}
+		return Collections.unmodifiableList(readers);
+	}
+	
+	/**
+	 * Returns the registered {@code DatasetReader}s.
+	 * 
+	 * @return the registered {@code DatasetReader}s.
+	 */
+	public static List<DatasetReader> getReaders() {
+		return READERS;
+	}
+	
+	/**
+	 * Returns the first registered {@code DatasetReader} that can read the
+	 * dataset stored at {@code path}.
+	 * 
+	 * @param path the path where a dataset is stored.
+	 * @return the first registered {@code DatasetReader} that can read the
+	 * 	dataset stored at {@code path} or an empty {@code Optional} if there 
+	 * 	is no such reader.
+	 */
+	public static Optional<DatasetReader> findReader(Path path) {
+		return READERS.stream().filter(r -> r.canRead(path)).findFirst();
+	}
+}
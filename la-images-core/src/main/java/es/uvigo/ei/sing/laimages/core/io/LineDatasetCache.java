@@ -0,0 +1,563 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
+
+/**
+ * <p>
+ * A binary cache of the line files and line coordinates parsed from a dataset
+ * directory. The cache is stored as a file in the dataset directory, so that
+ * reopening a dataset does not require parsing its text files again.
+ * </p>
+ *
+ * <p>
+ * The cache is keyed by the name, size and last modification time of the line
+ * files and the positions file, and by the acquisition parameters that affect
+ * the line coordinates. A cache whose key does not match the dataset directory
+ * is ignored. The values of each element in each line are stored contiguously,
+ * so that they can be copied in bulk from the memory-mapped cache file and the
+ * elements not selected can be skipped.
+ * </p>
+ *
+ * <p>
+ * Since a single mapping can't be larger than 2 GB, the cache file is mapped
+ * in consecutive segments, as {@code IbdFile} does. Each segment overlaps the
+ * next one by the size of a {@code double}, so that any single value can be
+ * read from one segment.
+ * </p>
+ *
+ * @author Hugo López-Fernández
+ *
+ */
+final class LineDatasetCache {
+	static final String CACHE_FILE_NAME = ".la-images.cache";
+	static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+	private static final int MAGIC = 0x4C414943;
+	private static final int VERSION = 1;
+
+	private LineDatasetCache() {}
+
+	/**
+	 * The content of a dataset cache.
+	 */
+	static final class Entry {
+		private final List<LineFile> lines;
+		private final LineCoordinates[] coordinates;
+
+		Entry(List<LineFile> lines, LineCoordinates[] coordinates) {
+			this.lines = lines;
+			this.coordinates = coordinates;
+		}
+
+		public List<LineFile> getLines() {
+			return lines;
+		}
+
+		public LineCoordinates[] getCoordinates() {
+			return coordinates;
+		}
+	}
+
+	/**
+	 * Reads the cache stored in {@code directory}, if it exists and it is
+	 * valid for {@code lineFiles} and {@code configuration}. Only the
+	 * elements accepted by {@code elementFilter} are read.
+	 *
+	 * @param directory the dataset directory.
+	 * @param lineFiles the line files of the dataset, in line order.
+	 * @param configuration the acquisition parameters configuration.
+	 * @param elementFilter the filter that selects the elements to read.
+	 * @return the cached line files and coordinates or an empty
+	 * 	{@code Optional} if there is not a valid cache.
+	 */
+	static Optional<Entry> read(File directory, File[] lineFiles,
+		ElementDatasetConfiguration configuration,
+		Predicate<String> elementFilter
+	) {
+		return read(directory, lineFiles, configuration, elementFilter,
+			DEFAULT_SEGMENT_SIZE);
+	}
+
+	static Optional<Entry> read(File directory, File[] lineFiles,
+		ElementDatasetConfiguration configuration,
+		Predicate<String> elementFilter, int segmentSize
+	) {
+		final File cacheFile = new File(directory, CACHE_FILE_NAME);
+		if (!cacheFile.isFile() || !cacheFile.canRead()) {
+			return Optional.empty();
+		}
+
+		try (Input buffer = new Input(cacheFile, segmentSize)) {
+			if (!readKey(buffer, createKey(directory, lineFiles, configuration))) {
+				return Optional.empty();
+			}
+
+			return Optional.of(new Entry(
+				readLines(buffer, elementFilter), readCoordinates(buffer)));
+		} catch (IOException | BufferUnderflowException
+			| IllegalArgumentException | NegativeArraySizeException e
+		) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Reads the names of the elements of each line stored in the cache of
+	 * {@code directory}, if it exists and it is valid for {@code lineFiles}
+	 * and {@code configuration}. Element values are skipped without copying 
+	 * them.
+	 *
+	 * @param directory the dataset directory.
+	 * @param lineFiles the line files of the dataset, in line order.
+	 * @param configuration the acquisition parameters configuration.
+	 * @return the names of the elements of each line, in line order, or an
+	 * 	empty {@code Optional} if there is not a valid cache.
+	 */
+	static Optional<List<List<String>>> readLineElements(File directory,
+		File[] lineFiles, ElementDatasetConfiguration configuration
+	) {
+		return readLineElements(directory, lineFiles, configuration,
+			DEFAULT_SEGMENT_SIZE);
+	}
+
+	static Optional<List<List<String>>> readLineElements(File directory,
+		File[] lineFiles, ElementDatasetConfiguration configuration,
+		int segmentSize
+	) {
+		final File cacheFile = new File(directory, CACHE_FILE_NAME);
+		if (!cacheFile.isFile() || !cacheFile.canRead()) {
+			return Optional.empty();
+		}
+
+		try (Input buffer = new Input(cacheFile, segmentSize)) {
+			if (!readKey(buffer, createKey(directory, lineFiles, configuration))) {
+				return Optional.empty();
+			}
+
+			final int lineCount = buffer.getInt();
+			final List<List<String>> lineElements = 
+				new ArrayList<List<String>>(lineCount);
+			for (int i = 0; i < lineCount; i++) {
+				readString(buffer);
+				
+				final int elementCount = buffer.getInt();
+				final List<String> elements = new ArrayList<String>(elementCount);
+				for (int j = 0; j < elementCount; j++) {
+					elements.add(readString(buffer));
+					buffer.skip((long) buffer.getInt() * Double.BYTES);
+				}
+				lineElements.add(elements);
+			}
+
+			return Optional.of(lineElements);
+		} catch (IOException | BufferUnderflowException
+			| IllegalArgumentException | NegativeArraySizeException e
+		) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Writes the cache of the dataset stored in {@code directory}. If the 
+	 * cache can't be written, the previous cache, if any, is left untouched.
+	 *
+	 * @param directory the dataset directory.
+	 * @param lineFiles the line files of the dataset, in line order.
+	 * @param configuration the acquisition parameters configuration.
+	 * @param lines the line files parsed, with all their elements.
+	 * @param coordinates the line coordinates.
+	 * @throws IOException if an error occurs writing the cache.
+	 */
+	static void write(File directory, File[] lineFiles,
+		ElementDatasetConfiguration configuration, List<LineFile> lines,
+		LineCoordinates[] coordinates
+	) throws IOException {
+		try (Writer writer = new Writer(directory, lineFiles, configuration)) {
+			for (LineFile line : lines) {
+				writer.writeLine(line);
+			}
+			writer.finish(coordinates);
+		}
+	}
+
+	/**
+	 * A writer of the cache of a dataset that receives the line files one by
+	 * one, so that the cache can be written without holding all the line 
+	 * files in memory. The cache is written into a temporary file that 
+	 * replaces the cache file when the writer finishes. If the writer is
+	 * closed before finishing, the temporary file is deleted.
+	 */
+	static final class Writer implements Closeable {
+		private final File cacheFile;
+		private final File temporaryFile;
+		private final int lineCount;
+		private final DataOutputStream out;
+		private int writtenLines;
+		private boolean finished;
+
+		Writer(File directory, File[] lineFiles,
+			ElementDatasetConfiguration configuration
+		) throws IOException {
+			this.cacheFile = new File(directory, CACHE_FILE_NAME);
+			this.temporaryFile = new File(directory, CACHE_FILE_NAME + ".tmp");
+			this.lineCount = lineFiles.length;
+			this.out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+
+			try {
+				final byte[] key = createKey(directory, lineFiles, configuration);
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(key.length);
+				out.write(key);
+				out.writeInt(lineCount);
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Writes the next line file, with all its elements.
+		 *
+		 * @param line the next line file.
+		 * @throws IOException if an error occurs writing the cache.
+		 */
+		public void writeLine(LineFile line) throws IOException {
+			if (writtenLines == lineCount) {
+				throw new IOException("All the lines have been already written");
+			}
+			
+			writeString(out, line.getName());
+			out.writeInt(line.getElements().size());
+			for (String element : line.getElements()) {
+				final double[] values = line.getValues(element).get();
+				writeString(out, element);
+				out.writeInt(values.length);
+				for (double value : values) {
+					out.writeDouble(value);
+				}
+			}
+			writtenLines++;
+		}
+
+		/**
+		 * Writes the line coordinates and replaces the cache file with the
+		 * written cache.
+		 *
+		 * @param coordinates the line coordinates.
+		 * @throws IOException if not all the lines have been written or an
+		 * 	error occurs writing the cache.
+		 */
+		public void finish(LineCoordinates[] coordinates) throws IOException {
+			if (writtenLines != lineCount) {
+				throw new IOException("Only " + writtenLines + " of " 
+					+ lineCount + " lines have been written");
+			}
+			
+			writeCoordinates(out, coordinates);
+			out.close();
+			moveCacheFile(temporaryFile, cacheFile);
+			finished = true;
+		}
+
+		@Override
+		public void close() {
+			if (!finished) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// The unfinished cache is discarded below, and the error
+					// that prevented finishing it has been already thrown.
+				}
+				temporaryFile.delete();
+			}
+		}
+	}
+
+	private static void moveCacheFile(File source, File target)
+		throws IOException
+	{
+		try {
+			Files.move(source.toPath(), target.toPath(),
+				REPLACE_EXISTING, ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), REPLACE_EXISTING);
+		}
+	}
+
+	private static byte[] createKey(File directory, File[] lineFiles,
+		ElementDatasetConfiguration configuration
+	) throws IOException {
+		final ByteArrayOutputStream key = new ByteArrayOutputStream();
+
+		try (DataOutputStream out = new DataOutputStream(key)) {
+			out.writeDouble(configuration.getAblationSpeed());
+			out.writeDouble(configuration.getAcquisitionTime());
+			out.writeDouble(configuration.getSpaceInterval());
+
+			out.writeInt(lineFiles.length);
+			for (File lineFile : lineFiles) {
+				writeFileKey(out, lineFile);
+			}
+
+			final Optional<File> positionsFile = FileNameUtils.findFileIgnoreCase(
+				directory, LineToElementConverter.POSITIONS_FILE_NAME);
+			out.writeBoolean(positionsFile.isPresent());
+			if (positionsFile.isPresent()) {
+				writeFileKey(out, positionsFile.get());
+			}
+		}
+
+		return key.toByteArray();
+	}
+
+	private static void writeFileKey(DataOutputStream out, File file)
+		throws IOException
+	{
+		writeString(out, file.getName());
+		out.writeLong(file.length());
+		out.writeLong(file.lastModified());
+	}
+
+	private static boolean readKey(Input buffer, byte[] expectedKey) {
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			return false;
+		}
+
+		final byte[] key = new byte[buffer.getInt()];
+		buffer.get(key);
+
+		return Arrays.equals(key, expectedKey);
+	}
+
+	private static List<LineFile> readLines(Input buffer,
+		Predicate<String> elementFilter
+	) {
+		final int lineCount = buffer.getInt();
+		final List<LineFile> lines = new ArrayList<LineFile>(lineCount);
+
+		for (int i = 0; i < lineCount; i++) {
+			final String name = readString(buffer);
+			final int elementCount = buffer.getInt();
+			final List<String> elements = new ArrayList<String>(elementCount);
+			final List<double[]> values = new ArrayList<double[]>(elementCount);
+
+			for (int j = 0; j < elementCount; j++) {
+				final String element = readString(buffer);
+				final int length = buffer.getInt();
+
+				if (elementFilter.test(element)) {
+					final double[] elementValues = new double[length];
+					buffer.getDoubles(elementValues);
+					elements.add(element);
+					values.add(elementValues);
+				} else {
+					buffer.skip((long) length * Double.BYTES);
+				}
+			}
+
+			lines.add(new LineFile(name,
+				elements.toArray(new String[elements.size()]),
+				values.toArray(new double[values.size()][])));
+		}
+
+		return lines;
+	}
+
+	private static void writeCoordinates(DataOutputStream out,
+		LineCoordinates[] coordinates
+	) throws IOException {
+		out.writeInt(coordinates.length);
+		for (LineCoordinates c : coordinates) {
+			out.writeBoolean(c.isVertical());
+			out.writeDouble(c.getRangeTick());
+			out.writeDouble(c.getRangeStart());
+			out.writeDouble(c.getRangeEnd());
+			out.writeDouble(c.getPosition());
+		}
+	}
+
+	private static LineCoordinates[] readCoordinates(Input buffer) {
+		final LineCoordinates[] coordinates =
+			new LineCoordinates[buffer.getInt()];
+
+		for (int i = 0; i < coordinates.length; i++) {
+			final boolean vertical = buffer.get() != 0;
+			final double tick = buffer.getDouble();
+			final double start = buffer.getDouble();
+			final double end = buffer.getDouble();
+			final double position = buffer.getDouble();
+
+			coordinates[i] = vertical ?
+				new VerticalLineCoordinates(tick, start, end, position) :
+				new HorizontalLineCoordinates(tick, start, end, position);
+		}
+
+		return coordinates;
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+		throws IOException
+	{
+		final byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(Input buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * A sequential reader of a cache file mapped in segments.
+	 */
+	private static final class Input implements Closeable {
+		private final FileChannel channel;
+		private final long size;
+		private final int segmentSize;
+		private final MappedByteBuffer[] segments;
+		private long position;
+
+		Input(File file, int segmentSize) throws IOException {
+			this.channel = FileChannel.open(file.toPath());
+			this.segmentSize = segmentSize;
+
+			try {
+				this.size = channel.size();
+				this.segments = new MappedByteBuffer[
+					(int) ((size + segmentSize - 1) / segmentSize)];
+
+				for (int i = 0; i < segments.length; i++) {
+					final long start = (long) i * segmentSize;
+					final long length = Math.min(size - start,
+						(long) segmentSize + Double.BYTES);
+
+					segments[i] = channel.map(MapMode.READ_ONLY, start, length);
+				}
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		public byte get() {
+			return segment(Byte.BYTES).get(offset(Byte.BYTES));
+		}
+
+		public int getInt() {
+			return segment(Integer.BYTES).getInt(offset(Integer.BYTES));
+		}
+
+		public double getDouble() {
+			return segment(Double.BYTES).getDouble(offset(Double.BYTES));
+		}
+
+		public void get(byte[] target) {
+			for (int i = 0; i < target.length; i++) {
+				target[i] = get();
+			}
+		}
+
+		public void getDoubles(double[] target) {
+			checkAvailable((long) target.length * Double.BYTES);
+
+			int done = 0;
+			while (done < target.length) {
+				final ByteBuffer segment = segments[
+					(int) (position / segmentSize)].duplicate();
+				final int offset = (int) (position % segmentSize);
+				final int count = Math.min(target.length - done,
+					(segment.limit() - offset) / Double.BYTES);
+
+				segment.position(offset);
+				segment.asDoubleBuffer().get(target, done, count);
+				done += count;
+				position += (long) count * Double.BYTES;
+			}
+		}
+
+		public void skip(long bytes) {
+			checkAvailable(bytes);
+			position += bytes;
+		}
+
+		private ByteBuffer segment(int bytes) {
+			checkAvailable(bytes);
+
+			return segments[(int) (position / segmentSize)];
+		}
+
+		private int offset(int bytes) {
+			final int offset = (int) (position % segmentSize);
+			position += bytes;
+
+			return offset;
+		}
+
+		private void checkAvailable(long bytes) {
+			if (bytes < 0 || bytes > size - position) {
+				throw new BufferUnderflowException();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
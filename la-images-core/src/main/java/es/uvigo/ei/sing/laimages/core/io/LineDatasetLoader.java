@@ -27,22 +27,30 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.DefaultElementDataset;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataSource;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LazyElementDataset;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
 import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
 import es.uvigo.ei.sing.laimages.core.io.exception.PositionsFileNotFoundException;
-import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
 import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
 
 /**
@@ -52,7 +60,7 @@ import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
  *
  */
 public class LineDatasetLoader {
-	private static final String STANDARD_ELEMENT_ZEROES_WARNING =
+	public static final String STANDARD_ELEMENT_ZEROES_WARNING =
 		"Standard element contains one or more values equal to 0. "
 		+ "This means that other elements can't be adjusted using the "
 		+ "standard in these positions and, consequently, these positions are "
@@ -60,21 +68,101 @@ public class LineDatasetLoader {
 		+ "as 0's in the 2D/3D visualization and represented as empty cells "
 		+ "(missing values) when data is exported as CSV.";
 
-	private static final String[] extensions = new String[]{"xl"};
+	static final String[] LINE_FILE_EXTENSIONS = new String[]{"xl"};
 	private final FilenameFilter fileFilter;
 	private final ElementDatasetConfiguration configuration;
+	private final int parallelism;
+	private final LineFileReader lineFileReader;
+	private final boolean useCache;
 
 	/**
-	 * Constructs a new instance of {@code LineDatasetLoader}.
+	 * Constructs a new instance of {@code LineDatasetLoader} that reads line
+	 * files sequentially.
 	 * 
 	 * @param configuration the dataset configuration.
 	 */
 	public LineDatasetLoader(ElementDatasetConfiguration configuration) {
-		this.fileFilter = new ExtensionFilenameFilter(extensions);
+		this(configuration, 1);
+	}
+	
+	/**
+	 * Constructs a new instance of {@code LineDatasetLoader} that reads up to
+	 * {@code parallelism} line files concurrently. The loaded dataset is the
+	 * same regardless of the parallelism used.
+	 * 
+	 * @param configuration the dataset configuration.
+	 * @param parallelism the maximum number of line files read concurrently.
+	 * @throws IllegalArgumentException if {@code parallelism} is lower than 1.
+	 */
+	public LineDatasetLoader(ElementDatasetConfiguration configuration,
+		int parallelism
+	) {
+		this(configuration, parallelism, new LineFileReader());
+	}
+	
+	/**
+	 * Constructs a new instance of {@code LineDatasetLoader} that reads up to
+	 * {@code parallelism} line files concurrently using 
+	 * {@code lineFileReader}, without using the binary cache of the dataset
+	 * directory. For instance, a {@code MappedLineFileReader} can
+	 * be used to speed up the loading of large line files.
+	 * 
+	 * @param configuration the dataset configuration.
+	 * @param parallelism the maximum number of line files read concurrently.
+	 * @param lineFileReader the {@code LineFileReader} used to read each line
+	 * 	file.
+	 * @throws IllegalArgumentException if {@code parallelism} is lower than 1.
+	 * @see MappedLineFileReader
+	 */
+	public LineDatasetLoader(ElementDatasetConfiguration configuration,
+		int parallelism, LineFileReader lineFileReader
+	) {
+		this(configuration, parallelism, lineFileReader, false);
+	}
+	
+	/**
+	 * Constructs a new instance of {@code LineDatasetLoader} that reads up to
+	 * {@code parallelism} line files concurrently using 
+	 * {@code lineFileReader}.
+	 * 
+	 * If {@code useCache} is {@code true}, a binary cache of the parsed line
+	 * files is written into the dataset directory the first time that all the
+	 * elements of a dataset are loaded. Subsequent loads read the cache 
+	 * instead of parsing the line files again, as long as the line files and
+	 * the positions file have not changed. If the cache can't be written, the
+	 * dataset is loaded anyway and the problem is reported as a warning to the
+	 * {@code ProgressHandler} of the load.
+	 * 
+	 * The cache is disabled by default, since it writes a file into the
+	 * dataset directory. Note that 
+	 * {@link LineDatasetLoader#loadLazyDataset(Path, int, ProgressHandler)}
+	 * and {@link LineDatasetLoader#loadMappedDataset(Path, 
+	 * MappedElementStorage, ProgressHandler)} always use the cache, since 
+	 * they load elements from it.
+	 * 
+	 * @param configuration the dataset configuration.
+	 * @param parallelism the maximum number of line files read concurrently.
+	 * @param lineFileReader the {@code LineFileReader} used to read each line
+	 * 	file.
+	 * @param useCache whether the binary cache of the dataset must be used or
+	 * 	not.
+	 * @throws IllegalArgumentException if {@code parallelism} is lower than 1.
+	 */
+	public LineDatasetLoader(ElementDatasetConfiguration configuration,
+		int parallelism, LineFileReader lineFileReader, boolean useCache
+	) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		
+		this.fileFilter = new ExtensionFilenameFilter(LINE_FILE_EXTENSIONS);
 		this.configuration = configuration;
+		this.parallelism = parallelism;
+		this.lineFileReader = lineFileReader;
+		this.useCache = useCache;
 	}
 	
-	private final static class ExtensionFilenameFilter
+	final static class ExtensionFilenameFilter
 	implements FilenameFilter, Serializable {
 		private static final long serialVersionUID = 1L;
 		
@@ -92,6 +180,46 @@ public class LineDatasetLoader {
 		}
 	}
 
+	/**
+	 * Reads the configuration file (see 
+	 * {@link ElementDatasetConfigurationProperties}) of the dataset stored at
+	 * {@code path}, which may be a directory or an archive.
+	 * 
+	 * @param path the path where the dataset is stored.
+	 * @return the configuration properties of the dataset or an empty 
+	 * 	{@code Optional} if the dataset has no configuration file or 
+	 * 	{@code path} is not a directory or an archive.
+	 * @throws IOException if an error occurs reading the archive.
+	 */
+	public static Optional<ElementDatasetConfigurationProperties> 
+		readConfigurationProperties(Path path) throws IOException
+	{
+		if (Files.isDirectory(path)) {
+			return FileNameUtils.findFileIgnoreCase(path.toFile(), 
+					ElementDatasetConfigurationProperties.CONFIGURATION_FILE_NAME)
+				.map(ElementDatasetConfigurationProperties::new);
+		} else if (DatasetArchiveReader.isArchive(path)) {
+			return DatasetArchiveReader.readConfiguration(path);
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Builds the manifest of the line files of the dataset stored at the given
+	 * {@code path}, which allows validating the dataset (e.g. its elements or
+	 * the row counts of its lines) without loading it.
+	 * 
+	 * @param path the path where the dataset is stored.
+	 * @return the {@code DatasetManifest} of the dataset.
+	 * @throws IOException If there is some problem listing the dataset.
+	 */
+	public DatasetManifest scanDataset(Path path) throws IOException {
+		checkDirectory(path);
+		
+		return DatasetManifest.scan(path.toFile(), fileFilter);
+	}
+
 	/**
 	 * Loads an {@code ElementDataset} from a given {@code path} and normalizes
 	 * all the elements by the standard element. Note that the standard element
@@ -130,6 +258,11 @@ public class LineDatasetLoader {
 	 * position interval (i.e.: the space interval).</li>
 	 * </ul>
 	 * 
+	 * The {@code path} may be either the dataset directory or an archive 
+	 * containing the dataset files (a {@code .zip}, {@code .tar}, 
+	 * {@code .tar.gz} or {@code .tgz} file). Archives are read without 
+	 * extracting them.
+	 * 
 	 * @param path the path where the dataset is stored.
 	 * @param progressHandler a {@code ProgressHandler} object.
 	 * @return an {@code ElementDataset}.
@@ -143,93 +276,292 @@ public class LineDatasetLoader {
 	public ElementDataset loadAndNormalizeDataset(Path path, 
 		ProgressHandler progressHandler) throws IOException, 
 		NoSuchStandardElementException, PositionsFileNotFoundException 
+	{
+		return loadAndNormalizeDataset(
+			path, LineToElementConverter.ALL_ELEMENTS, progressHandler);
+	}
+	
+	/**
+	 * Loads the elements specified in {@code elements} of the 
+	 * {@code ElementDataset} stored at the given {@code path} and normalizes
+	 * them by the standard element. The rest of elements are skipped while the
+	 * line files are read. Note that the standard element is always read, even
+	 * if it is not included in {@code elements}, although it is not loaded.
+	 * Line's coordinates are normalized as in 
+	 * {@link LineDatasetLoader#loadAndNormalizeDataset(Path, ProgressHandler)}.
+	 * 
+	 * @param path the path where the dataset is stored.
+	 * @param elements the names of the elements to load.
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @return an {@code ElementDataset}.
+	 * 
+	 * @throws IOException If there is some problem reading the dataset.
+	 * @throws NoSuchStandardElementException If the standard element is not 
+	 * 	present in the dataset.
+	 * @throws PositionsFileNotFoundException If the positions file is not 
+	 * 	located at the dataset directory.
+	 */
+	public ElementDataset loadAndNormalizeDataset(Path path, 
+		Set<String> elements, ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException,
+		PositionsFileNotFoundException 
+	{
+		final Set<String> selectedElements = new HashSet<String>(elements);
+		if (!this.configuration.shouldNormalize()) {
+			selectedElements.add(this.configuration.getStandardElement());
+		}
+		
+		ElementDataset dataset = loadAndNormalizeDataset(
+			path, selectedElements::contains, progressHandler);
+		checkSelectedElements(dataset, elements, progressHandler);
+		
+		return dataset;
+	}
+	
+	private ElementDataset loadAndNormalizeDataset(Path path, 
+		Predicate<String> elementFilter, ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException,
+		PositionsFileNotFoundException 
 	{
 		checkPath(path);
 		
 		DefaultElementDataset dataset = createDataset(
-			path, 
-			loadElementData(path, progressHandler),
-			progressHandler
-		);
+			path, loadElementData(path, elementFilter, progressHandler));
 		
 		normalizeCoordinates(dataset);
 		
 		return dataset;
 	}
-
-	private void checkPath(Path path) throws IOException {
-		if (!Files.isDirectory(path) || !Files.isReadable(path))
-			throw new IOException("Path must be a readable directory.");
-	}
 	
-	private List<ElementData> loadElementData(Path path, 
-		ProgressHandler progressHandler) throws IOException 
+	/**
+	 * Opens the dataset stored in the directory {@code path} as a 
+	 * {@code LazyElementDataset}, whose elements are loaded and normalized 
+	 * by the standard element the first time they are accessed. At most 
+	 * {@code maxResidentElements} elements are kept in memory at the same 
+	 * time.
+	 * 
+	 * Elements are loaded from the binary cache of the dataset directory, 
+	 * reading only the values of the element and the standard element. If 
+	 * there is not a valid cache, it is written reading the line files one by
+	 * one, so that the whole dataset is never held in memory. The first 
+	 * element is loaded while the dataset is opened, so that the line lengths
+	 * and coordinates are validated. Warnings produced when loading elements
+	 * are reported to {@code progressHandler}, even after this method returns.
+	 * 
+	 * @param path the directory where the dataset is stored.
+	 * @param maxResidentElements the maximum number of elements kept in 
+	 * 	memory.
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @return a {@code LazyElementDataset}.
+	 * 
+	 * @throws IOException If there is some problem reading the dataset or 
+	 * 	writing its cache.
+	 * @throws NoSuchStandardElementException If the standard element is not 
+	 * 	present in the dataset.
+	 * @throws PositionsFileNotFoundException If the positions file is not 
+	 * 	located at the dataset directory.
+	 * @throws IllegalArgumentException if {@code maxResidentElements} is 
+	 * 	lower than 1.
+	 */
+	public LazyElementDataset loadLazyDataset(Path path, 
+		int maxResidentElements, ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException,
+		PositionsFileNotFoundException
 	{
-		LineToElementConverter converter = 
-			new LineToElementConverter(path.toFile(), fileFilter, configuration);
-		return converter.getElements(progressHandler);
+		final List<String> elementNames = prepareCache(path);
+		final LazyElementDataset dataset = new LazyElementDataset(
+			path, path.getFileName().toString(), this.configuration,
+			elementNames,
+			createElementDataSource(path, progressHandler),
+			maxResidentElements
+		);
+		
+		if (!elementNames.isEmpty()) {
+			try {
+				dataset.getElement(elementNames.get(0));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+		
+		return dataset;
 	}
 	
-	private DefaultElementDataset createDataset(Path path, 
-		List<ElementData> elements, ProgressHandler progressHandler) 
-		throws NoSuchStandardElementException 
+	/**
+	 * Loads and normalizes by the standard element the dataset stored in the
+	 * directory {@code path}, storing the values of its elements in 
+	 * {@code storage}, outside of the Java heap.
+	 * 
+	 * Elements are loaded one by one from the binary cache of the dataset 
+	 * directory, as {@link LineDatasetLoader#loadLazyDataset(Path, int, 
+	 * ProgressHandler)} does, and stored before loading the next one, so that
+	 * at most one element (and the standard element) is held in the heap at 
+	 * the same time.
+	 * 
+	 * @param path the directory where the dataset is stored.
+	 * @param storage the {@code MappedElementStorage} where element values are
+	 * 	stored.
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @return an {@code ElementDataset} whose values are stored in 
+	 * 	{@code storage}.
+	 * 
+	 * @throws IOException If there is some problem reading the dataset, 
+	 * 	writing its cache or storing its values.
+	 * @throws NoSuchStandardElementException If the standard element is not 
+	 * 	present in the dataset.
+	 * @throws PositionsFileNotFoundException If the positions file is not 
+	 * 	located at the dataset directory.
+	 */
+	public ElementDataset loadMappedDataset(Path path, 
+		MappedElementStorage storage, ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException,
+		PositionsFileNotFoundException
 	{
-		DefaultElementDataset dataset = new DefaultElementDataset(path, path
-				.getFileName().toString(), this.configuration);
-		if (this.configuration.shouldNormalize()) {
-			dataset.addElements(elements);
-		} else {
-			dataset.addElements(
-				normalizeElementData(
-					elements, this.configuration.getStandardElement(), progressHandler)
-			);
+		final List<String> elementNames = prepareCache(path);
+		final ElementDataSource source = 
+			createElementDataSource(path, progressHandler);
+		
+		final DefaultElementDataset dataset = new DefaultElementDataset(
+			path, path.getFileName().toString(), this.configuration);
+		for (String element : elementNames) {
+			dataset.addElement(storage.store(source.load(element)));
+			progressHandler.progress();
 		}
+		
 		return dataset;
 	}
-
-	private static final List<ElementData> normalizeElementData(
-		List<ElementData> elements, String standardElement, ProgressHandler progressHandler) 
-		throws NoSuchStandardElementException 
-	{
-		ElementData standardElementData = 
-			getStandardElementData(elements, standardElement);
-		checkStandardElementData(standardElementData, progressHandler);
-		return NormalizeElementData.normalize(standardElementData,elements)
-				.stream()
-					.filter(e -> !e.getName().equals(standardElement))
-						.collect(Collectors.toList());
-	}
-
-	private static final ElementData getStandardElementData(
-		List<ElementData> elements, String standardElement)
-		throws NoSuchStandardElementException 
+	
+	/*
+	 * Checks the dataset directory, writes its cache if there is not a valid
+	 * one and returns the names of the elements of the dataset.
+	 */
+	private List<String> prepareCache(Path path) 
+		throws IOException, NoSuchStandardElementException
 	{
-		Optional<ElementData> standardElementData = elements.stream()
-				.filter(e -> e.getName().equals(standardElement)).findFirst();
-		if (standardElementData.isPresent()) {
-			return standardElementData.get();
-		} else {
-			throw new NoSuchStandardElementException("Standard element "
-					+ standardElement + " is not present in the dataset");
+		checkDirectory(path);
+		
+		final File directory = path.toFile();
+		final DatasetManifest manifest = DatasetManifest.scan(directory, fileFilter);
+		final File[] lineFiles = manifest.getFiles();
+		
+		Optional<List<List<String>>> lineElements = 
+			LineDatasetCache.readLineElements(directory, lineFiles, configuration);
+		if (!lineElements.isPresent()) {
+			try {
+				LineToElementConverter.writeCache(manifest, configuration, lineFileReader);
+			} catch (IOException e) {
+				throw new IOException("The cache of the dataset can't be written: " 
+					+ e.getMessage(), e);
+			}
+			lineElements = 
+				LineDatasetCache.readLineElements(directory, lineFiles, configuration);
+			
+			if (!lineElements.isPresent()) {
+				throw new IOException("The cache of the dataset can't be written.");
+			}
 		}
+		
+		return getElementNames(lineFiles, lineElements.get());
 	}
-
-	private static void checkStandardElementData(
-		ElementData standardElementData, ProgressHandler progressHandler
+	
+	private ElementDataSource createElementDataSource(Path path, 
+		ProgressHandler progressHandler
 	) {
-		boolean warn = false;
-		for (LineData l : standardElementData.getLines()) {
-			for (double value : l.getData()) {
-				if (value == 0d) {
-					warn = true;
-					break;
-				}
+		return new LineElementDataSource(path.toFile(), fileFilter, 
+			configuration, lineFileReader, progressHandler);
+	}
+	
+	private List<String> getElementNames(File[] lineFiles, 
+		List<List<String>> lineElements
+	) throws NoSuchStandardElementException {
+		final Set<String> elementNames = new HashSet<String>();
+		for (int i = 0; i < lineElements.size(); i++) {
+			elementNames.addAll(lineElements.get(i));
+			
+			if (
+				!this.configuration.shouldNormalize()
+				&& !lineElements.get(i).contains(this.configuration.getStandardElement())
+			) {
+				throw new NoSuchStandardElementException(
+					"Standard element " + this.configuration.getStandardElement() 
+					+ " is not present in line " 
+					+ LineFileReader.getLineName(lineFiles[i]));
 			}
 		}
-		if (warn) {
-			progressHandler.warn(STANDARD_ELEMENT_ZEROES_WARNING);
+		elementNames.remove(this.configuration.getStandardElement());
+		
+		return new ArrayList<String>(elementNames);
+	}
+	
+	private void checkSelectedElements(ElementDataset dataset, 
+		Set<String> elements, ProgressHandler progressHandler
+	) {
+		final List<String> loaded = dataset.getElementNames();
+		elements.stream()
+			.filter(e -> !loaded.contains(e))
+			.filter(e -> !e.equals(this.configuration.getStandardElement()))
+			.sorted()
+		.forEach(e -> progressHandler.warn(
+			"Element " + e + " is not present in the dataset."));
+	}
+
+	private void checkPath(Path path) throws IOException {
+		if (
+			!(Files.isDirectory(path) || DatasetArchiveReader.isArchive(path))
+			|| !Files.isReadable(path)
+		)
+			throw new IOException("Path must be a readable directory or archive.");
+	}
+
+	private void checkDirectory(Path path) throws IOException {
+		if (!Files.isDirectory(path) || !Files.isReadable(path))
+			throw new IOException("Path must be a readable directory.");
+	}
+	
+	private List<ElementData> loadElementData(Path path, 
+		Predicate<String> elementFilter, ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException {
+		LineToElementConverter converter = DatasetArchiveReader.isArchive(path) ?
+			createArchiveConverter(path, elementFilter) :
+			new LineToElementConverter(
+				path.toFile(), fileFilter, configuration, 
+				LineToElementConverter.Options.DEFAULTS
+					.withParallelism(parallelism)
+					.withLineFileReader(lineFileReader)
+					.withElementFilter(elementFilter)
+					.withCache(useCache));
+		
+		if (this.configuration.shouldNormalize()) {
+			return converter.getElements(progressHandler);
+		} else {
+			return converter.getNormalizedElements(
+				this.configuration.getStandardElement(), progressHandler);
 		}
 	}
+	
+	private LineToElementConverter createArchiveConverter(Path path,
+		Predicate<String> elementFilter
+	) throws IOException {
+		DatasetArchiveReader.Contents contents = 
+			new DatasetArchiveReader(fileFilter, lineFileReader, parallelism)
+				.read(path, elementFilter, configuration.getLineRangeInterval());
+		
+		return new LineToElementConverter(
+			contents.getLines(), contents.getPositions(), configuration);
+	}
+	
+	private DefaultElementDataset createDataset(Path path, 
+		List<ElementData> elements
+	) {
+		String name = DatasetArchiveReader.isArchive(path) ?
+			DatasetArchiveReader.getDatasetName(path) :
+			path.getFileName().toString();
+		DefaultElementDataset dataset = 
+			new DefaultElementDataset(path, name, this.configuration);
+		dataset.addElements(elements);
+		
+		return dataset;
+	}
 
 	private void normalizeCoordinates(DefaultElementDataset dataset) {
 		if (dataset.getElementCount() > 0) {
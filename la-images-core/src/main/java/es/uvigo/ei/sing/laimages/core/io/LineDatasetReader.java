@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * A {@code DatasetReader} of datasets stored as line files, either in a
+ * directory or in an archive. It reads line files concurrently using as many
+ * threads as available processors.
+ * 
+ * @author Hugo López-Fernández
+ * @see LineDatasetLoader
+ *
+ */
+public class LineDatasetReader implements DatasetReader {
+	@Override
+	public String getFormatName() {
+		return "Line files";
+	}
+	
+	@Override
+	public boolean canRead(Path path) {
+		return Files.isDirectory(path) || DatasetArchiveReader.isArchive(path);
+	}
+
+	@Override
+	public ElementDataset read(Path path, 
+		ElementDatasetConfiguration configuration, Set<String> elements,
+		ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException {
+		final LineDatasetLoader loader = new LineDatasetLoader(
+			configuration, Runtime.getRuntime().availableProcessors());
+		
+		if (elements.isEmpty()) {
+			return loader.loadAndNormalizeDataset(path, progressHandler);
+		} else {
+			return loader.loadAndNormalizeDataset(path, elements, progressHandler);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataSource;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * An {@code ElementDataSource} that loads each element of a line dataset from
+ * its binary cache, reading only the values of the element and the standard
+ * element. Elements are normalized as {@link LineDatasetLoader} does.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+final class LineElementDataSource implements ElementDataSource {
+	private final File directory;
+	private final FilenameFilter fileFilter;
+	private final ElementDatasetConfiguration configuration;
+	private final LineFileReader lineFileReader;
+	private final ProgressHandler progressHandler;
+
+	LineElementDataSource(File directory, FilenameFilter fileFilter,
+		ElementDatasetConfiguration configuration, 
+		LineFileReader lineFileReader, ProgressHandler progressHandler
+	) {
+		this.directory = directory;
+		this.fileFilter = fileFilter;
+		this.configuration = configuration;
+		this.lineFileReader = lineFileReader;
+		this.progressHandler = progressHandler;
+	}
+
+	@Override
+	public ElementData load(String name) throws IOException {
+		final Set<String> selectedElements = new HashSet<String>();
+		selectedElements.add(name);
+		if (!configuration.shouldNormalize()) {
+			selectedElements.add(configuration.getStandardElement());
+		}
+		
+		final LineToElementConverter converter = new LineToElementConverter(
+			directory, fileFilter, configuration, 
+			LineToElementConverter.Options.DEFAULTS
+				.withLineFileReader(lineFileReader)
+				.withElementFilter(selectedElements::contains)
+				.withCache(true));
+		
+		final List<ElementData> elements;
+		try {
+			elements = configuration.shouldNormalize() ?
+				converter.getElements(progressHandler) :
+				converter.getNormalizedElements(
+					configuration.getStandardElement(), progressHandler);
+		} catch (NoSuchStandardElementException e) {
+			throw new InvalidDataException(e.getMessage());
+		}
+		
+		final ElementData element = elements.stream()
+			.filter(e -> e.getName().equals(name))
+			.findFirst()
+		.orElseThrow(() -> new InvalidDataException(
+			"Element " + name + " is not present in the dataset."));
+		
+		LineCoordinatesUtils.normalizeCoordinates(
+			Stream.of(element.getLines())
+				.map(LineData::getCoordinates).collect(Collectors.toList()),
+			configuration
+		);
+		
+		return element;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@code LineFile} stores the values parsed from a single line file. Values
+ * are stored by element (i.e. by column) in primitive arrays, following the
+ * order in which elements appear in the file header.
+ * 
+ * @author Hugo López-Fernández
+ * @see LineFileReader
+ *
+ */
+public class LineFile {
+	private final String name;
+	private final String[] elements;
+	private final double[][] values;
+
+	/**
+	 * Constructs a new {@code LineFile}.
+	 * 
+	 * @param name the line name.
+	 * @param elements the names of the elements, in header order.
+	 * @param values the values of each element, in the same order than
+	 * 	{@code elements}.
+	 * @throws IllegalArgumentException if {@code elements} and {@code values}
+	 * 	have different lengths.
+	 */
+	public LineFile(String name, String[] elements, double[][] values) {
+		if (elements.length != values.length) {
+			throw new IllegalArgumentException(
+				"Elements and values must have the same length");
+		}
+		
+		this.name = name;
+		this.elements = elements;
+		this.values = values;
+	}
+	
+	/**
+	 * Returns the line name.
+	 * 
+	 * @return the line name.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the names of the elements contained in the line file, in header
+	 * order.
+	 * 
+	 * @return the names of the elements contained in the line file.
+	 */
+	public List<String> getElements() {
+		return Collections.unmodifiableList(Arrays.asList(elements));
+	}
+	
+	/**
+	 * Returns an {@code Optional<double[]>} containing the values of 
+	 * {@code element} or an empty {@code Optional} if the line file does not
+	 * contain it.
+	 * 
+	 * @param element the name of the element.
+	 * @return an {@code Optional<double[]>} with the values of {@code element}.
+	 */
+	public Optional<double[]> getValues(String element) {
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i].equals(element)) {
+				return Optional.of(values[i]);
+			}
+		}
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.util.GrowableDoubleArray;
+
+/**
+ * <p>
+ * This class reads a line file into a {@code LineFile} in a single pass.
+ * Values are parsed as soon as each row is read and stored directly in a
+ * primitive buffer per element, so no intermediate {@code String} values are
+ * retained.
+ * </p>
+ * 
+ * <p>
+ * The following is an example of line file:
+ * </p>
+ * <pre>
+ *   Intensity Vs Time, Counts Per Second
+ *   Time in Seconds ,Ca43,Na23,P31
+ *   0.,60.000216000778,0.,680.027745132
+ *   
+ *   0.,80.000384001843,0.,760.03465758039
+ * </pre>
+ * 
+ * <p>
+ * The first row is a title and it is ignored. The second row is the header,
+ * where the first column is the time and the next ones are the element names.
+ * Empty rows are ignored.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see LineFile
+ *
+ */
+public class LineFileReader {
+	protected static final char SEPARATOR = ',';
+
+	/**
+	 * Reads {@code lineFile} into a {@code LineFile}.
+	 * 
+	 * @param lineFile the line file to read.
+	 * @return a {@code LineFile} with the values of {@code lineFile}.
+	 * @throws IOException if an error occurs reading the file.
+	 * @throws InvalidDataException if the file contains invalid values.
+	 */
+	public LineFile read(File lineFile) throws IOException {
+		return read(lineFile, element -> true);
+	}
+	
+	/**
+	 * Reads the elements of {@code lineFile} accepted by 
+	 * {@code elementFilter} into a {@code LineFile}. The values of the 
+	 * columns of the rest of elements are skipped without being parsed.
+	 * 
+	 * @param lineFile the line file to read.
+	 * @param elementFilter the filter that selects the elements to read.
+	 * @return a {@code LineFile} with the values of the selected elements of
+	 * 	{@code lineFile}.
+	 * @throws IOException if an error occurs reading the file.
+	 * @throws InvalidDataException if the file contains invalid values.
+	 */
+	public LineFile read(File lineFile, Predicate<String> elementFilter)
+		throws IOException 
+	{
+		try (BufferedReader reader = new BufferedReader(new FileReader(lineFile))) {
+			return read(lineFile.getName(), reader, elementFilter);
+		}
+	}
+	
+	/**
+	 * Reads the elements accepted by {@code elementFilter} of the line file
+	 * whose contents are provided by {@code in} into a {@code LineFile}. This
+	 * allows reading line files that are not stored in the file system, such
+	 * as archive entries. Note that {@code in} is not closed.
+	 * 
+	 * @param fileName the name of the line file.
+	 * @param in the contents of the line file.
+	 * @param elementFilter the filter that selects the elements to read.
+	 * @return a {@code LineFile} with the values of the selected elements of
+	 * 	the line file.
+	 * @throws IOException if an error occurs reading the contents.
+	 * @throws InvalidDataException if the contents contain invalid values.
+	 */
+	public LineFile read(String fileName, InputStream in,
+		Predicate<String> elementFilter
+	) throws IOException {
+		return read(fileName, new BufferedReader(
+			new InputStreamReader(in, Charset.defaultCharset())), elementFilter);
+	}
+	
+	private LineFile read(String fileName, BufferedReader reader,
+		Predicate<String> elementFilter
+	) throws IOException {
+		if (reader.readLine() == null) {
+			return emptyLineFile(fileName);
+		}
+		
+		final String header = reader.readLine();
+		if (header == null) {
+			return emptyLineFile(fileName);
+		}
+		
+		final String[] elements = parseElements(header);
+		final int[] columns = selectColumns(elements, elementFilter);
+		final GrowableDoubleArray[] buffers = 
+			createBuffers(countSelected(columns));
+		
+		String row;
+		int rowIndex = 2;
+		while ((row = reader.readLine()) != null) {
+			rowIndex++;
+			if (!row.isEmpty()) {
+				parseRow(row, columns, buffers, fileName, rowIndex);
+			}
+		}
+		
+		return new LineFile(
+			getLineName(fileName), 
+			selectedElements(elements, columns), 
+			toArrays(buffers)
+		);
+	}
+	
+	/**
+	 * Returns the name of the line stored in {@code lineFile}.
+	 * 
+	 * @param lineFile a line file.
+	 * @return the name of the line stored in {@code lineFile}.
+	 */
+	public static String getLineName(File lineFile) {
+		return getLineName(lineFile.getName());
+	}
+	
+	/**
+	 * Returns the name of the line stored in the line file named 
+	 * {@code fileName}.
+	 * 
+	 * @param fileName the name of a line file.
+	 * @return the name of the line stored in the line file.
+	 */
+	public static String getLineName(String fileName) {
+		return fileName.replaceAll(" ", "_");
+	}
+
+	protected static LineFile emptyLineFile(String fileName) {
+		return new LineFile(getLineName(fileName), new String[0], new double[0][]);
+	}
+	
+	protected static String[] parseElements(String header) {
+		final String[] columns = header.split(String.valueOf(SEPARATOR));
+		return columns.length == 0 ? 
+			new String[0] : Arrays.copyOfRange(columns, 1, columns.length);
+	}
+	
+	/**
+	 * Returns, for each element column, the index of the buffer where its 
+	 * values must be stored or {@code -1} if the column must be skipped.
+	 * 
+	 * @param elements the element names, in header order.
+	 * @param elementFilter the filter that selects the elements to read.
+	 * @return the buffer index of each element column.
+	 */
+	protected static int[] selectColumns(
+		String[] elements, Predicate<String> elementFilter
+	) {
+		final int[] columns = new int[elements.length];
+		int selected = 0;
+		for (int i = 0; i < elements.length; i++) {
+			columns[i] = elementFilter.test(elements[i]) ? selected++ : -1;
+		}
+		return columns;
+	}
+	
+	protected static int countSelected(int[] columns) {
+		return (int) IntStream.of(columns).filter(c -> c >= 0).count();
+	}
+	
+	protected static String[] selectedElements(String[] elements, int[] columns) {
+		final String[] selected = new String[countSelected(columns)];
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] >= 0) {
+				selected[columns[i]] = elements[i];
+			}
+		}
+		return selected;
+	}
+	
+	private static void parseRow(
+		String row, int[] columns, GrowableDoubleArray[] buffers, 
+		String fileName, int rowIndex
+	) throws InvalidDataException {
+		final int end = trimTrailingSeparators(row);
+		
+		int column = -1;
+		int start = 0;
+		while (start <= end) {
+			int separator = row.indexOf(SEPARATOR, start);
+			if (separator == -1 || separator > end) {
+				separator = end;
+			}
+			
+			if (column >= 0) {
+				if (column >= columns.length) {
+					throw tooManyValues(fileName, rowIndex);
+				}
+				if (columns[column] >= 0) {
+					buffers[columns[column]].add(
+						parseValue(row, start, separator, fileName, rowIndex));
+				}
+			}
+			
+			column++;
+			start = separator + 1;
+		}
+	}
+	
+	protected static InvalidDataException tooManyValues(
+		String fileName, int rowIndex
+	) {
+		return new InvalidDataException("Row " + rowIndex + " of file "
+			+ fileName + " contains more values than "
+			+ "columns are declared in its header.");
+	}
+	
+	protected static InvalidDataException invalidValue(
+		String value, String fileName, int rowIndex
+	) {
+		return new InvalidDataException("Invalid value '" + value 
+			+ "' found at row " + rowIndex + " of file "
+			+ fileName + ".");
+	}
+	
+	private static int trimTrailingSeparators(String row) {
+		int end = row.length();
+		while (end > 0 && row.charAt(end - 1) == SEPARATOR) {
+			end--;
+		}
+		return end;
+	}
+
+	private static double parseValue(
+		String row, int start, int end, String fileName, int rowIndex
+	) throws InvalidDataException {
+		final String value = row.substring(start, end);
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw invalidValue(value, fileName, rowIndex);
+		}
+	}
+	
+	protected static GrowableDoubleArray[] createBuffers(int count) {
+		final GrowableDoubleArray[] buffers = new GrowableDoubleArray[count];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = new GrowableDoubleArray();
+		}
+		return buffers;
+	}
+	
+	protected static double[][] toArrays(GrowableDoubleArray[] buffers) {
+		final double[][] values = new double[buffers.length][];
+		for (int i = 0; i < buffers.length; i++) {
+			values[i] = buffers[i].toArray();
+		}
+		return values;
+	}
+}
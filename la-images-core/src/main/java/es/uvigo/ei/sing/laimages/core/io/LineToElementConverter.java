@@ -23,23 +23,26 @@
  */
 package es.uvigo.ei.sing.laimages.core.io;
 
+import static java.util.Objects.requireNonNull;
+
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Scanner;
+import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
@@ -48,6 +51,7 @@ import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLi
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
 import es.uvigo.ei.sing.laimages.core.io.coordinates.LineCoordinatesLoader;
 import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
 import es.uvigo.ei.sing.laimages.core.io.exception.PositionsFileNotFoundException;
 import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
 import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
@@ -62,26 +66,124 @@ public class LineToElementConverter {
 
 	public static final String POSITIONS_FILE_NAME = "positions.txt";
 	
-	private static final Comparator<String> LINE_MAP_COMPARATOR = new Comparator<String>() {
-		@Override
-		public int compare(String o1, String o2) {
-			return getLineNumber(o1).compareTo(getLineNumber(o2));
-		}
-	};
+	static final Predicate<String> ALL_ELEMENTS = element -> true;
 	
-	private static final Comparator<File> LINE_FILES_COMPARATOR = new Comparator<File>(){
+	static final Comparator<File> LINE_FILES_COMPARATOR = new Comparator<File>(){
 		@Override
 		public int compare(File o1, File o2) {
-			return getLineNumber(o1.getName()).compareTo(getLineNumber(o2.getName()));
+			return Integer.compare(
+				DatasetManifest.getLineNumber(o1.getName()),
+				DatasetManifest.getLineNumber(o2.getName()));
 		}
 	};
 	
 	private FilenameFilter fileFilter;
 	private File directory;
 	private ElementDatasetConfiguration configuration;
+	private LineFileReader lineFileReader;
+	private int parallelism;
+	private Predicate<String> elementFilter;
+	private boolean useCache;
+	private String cacheWarning;
+	private DatasetManifest manifest;
 	private LineCoordinates[] coordinates;
-	private Map<String, Map<String, List<String>>> data;
-	private Set<Integer> linesLength = new HashSet<Integer>();
+	private List<LineFile> lines;
+	private Set<String> elementNames;
+	private Set<Integer> linesLengths;
+	private boolean normalized;
+
+	/**
+	 * The options of a conversion: the number of files parsed concurrently,
+	 * the {@code LineFileReader} used to parse them, the elements to parse
+	 * and whether the binary cache of the dataset directory is used or not.
+	 * Instances are immutable: each {@code with} method returns a copy with
+	 * the modified option.
+	 * 
+	 * If the cache is used, the line files and coordinates are read from the
+	 * binary cache of the dataset directory when it is valid for the current
+	 * files, instead of parsing them. Otherwise, the cache is written after
+	 * parsing all the elements of the files, so that it can be used in 
+	 * subsequent conversions. If the cache can't be written, the problem is
+	 * reported as a warning by {@link 
+	 * LineToElementConverter#getElements(ProgressHandler)}.
+	 */
+	public static final class Options {
+		/**
+		 * The default options: files are parsed sequentially with a default
+		 * {@code LineFileReader}, all the elements are parsed and the cache
+		 * is not used.
+		 */
+		public static final Options DEFAULTS = 
+			new Options(1, new LineFileReader(), ALL_ELEMENTS, false);
+		
+		private final int parallelism;
+		private final LineFileReader lineFileReader;
+		private final Predicate<String> elementFilter;
+		private final boolean useCache;
+		
+		private Options(int parallelism, LineFileReader lineFileReader,
+			Predicate<String> elementFilter, boolean useCache
+		) {
+			this.parallelism = parallelism;
+			this.lineFileReader = lineFileReader;
+			this.elementFilter = elementFilter;
+			this.useCache = useCache;
+		}
+		
+		/**
+		 * Returns a copy of these options that parses up to 
+		 * {@code parallelism} files concurrently.
+		 * 
+		 * @param parallelism the maximum number of files parsed concurrently.
+		 * @return a copy of these options with the new parallelism.
+		 * @throws IllegalArgumentException if {@code parallelism} is lower 
+		 * 	than 1.
+		 */
+		public Options withParallelism(int parallelism) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException("Parallelism must be at least 1");
+			}
+			
+			return new Options(parallelism, lineFileReader, elementFilter, useCache);
+		}
+		
+		/**
+		 * Returns a copy of these options that parses the files with 
+		 * {@code lineFileReader}.
+		 * 
+		 * @param lineFileReader the {@code LineFileReader} used to parse the 
+		 * 	files.
+		 * @return a copy of these options with the new {@code LineFileReader}.
+		 */
+		public Options withLineFileReader(LineFileReader lineFileReader) {
+			return new Options(parallelism, requireNonNull(lineFileReader), 
+				elementFilter, useCache);
+		}
+		
+		/**
+		 * Returns a copy of these options that only parses the elements 
+		 * accepted by {@code elementFilter}.
+		 * 
+		 * @param elementFilter the filter that selects the elements to parse.
+		 * @return a copy of these options with the new element filter.
+		 */
+		public Options withElementFilter(Predicate<String> elementFilter) {
+			return new Options(parallelism, lineFileReader, 
+				requireNonNull(elementFilter), useCache);
+		}
+		
+		/**
+		 * Returns a copy of these options that uses, or not, the binary cache
+		 * of the dataset directory.
+		 * 
+		 * @param useCache whether the binary cache of the dataset directory
+		 * 	must be used or not.
+		 * @return a copy of these options with the new cache option.
+		 */
+		public Options withCache(boolean useCache) {
+			return new Options(parallelism, lineFileReader, elementFilter, useCache);
+		}
+	}
 
 	/**
 	 * Constructs an instance of {@code LineToElementConverter} and parses all
@@ -94,12 +196,60 @@ public class LineToElementConverter {
 	 */
 	public LineToElementConverter(File directory, FilenameFilter fileFilter, 
 			ElementDatasetConfiguration configuration
+	) throws IOException {
+		this(directory, fileFilter, configuration, Options.DEFAULTS);
+	}
+
+	/**
+	 * Constructs an instance of {@code LineToElementConverter} and parses the
+	 * files in {@code directory} that pass the {@code fileFilter} as 
+	 * specified by {@code options}. Lines are always arranged in the same
+	 * order, regardless of the order in which files are parsed.
+	 * 
+	 * @param directory the directory containing the files.
+	 * @param fileFilter the file filter criteria.
+	 * @param configuration the acquisition parameters configuration.
+	 * @param options the options of the conversion.
+	 * @throws IOException if an error occurs loading the data. 
+	 * @see Options
+	 */
+	public LineToElementConverter(File directory, FilenameFilter fileFilter, 
+			ElementDatasetConfiguration configuration, Options options
 	) throws IOException {
 		this.directory = directory;
 		this.fileFilter = fileFilter;
 		this.configuration = configuration;
+		this.lineFileReader = options.lineFileReader;
+		this.parallelism = options.parallelism;
+		this.elementFilter = options.elementFilter;
+		this.useCache = options.useCache;
 		this.process();
-		this.coordinates = loadLineCoordinates(directory);
+	}
+
+	/**
+	 * Constructs an instance of {@code LineToElementConverter} from line files
+	 * that have been already read (e.g. from an archive).
+	 * 
+	 * @param lines the line files, in line order.
+	 * @param positions the line coordinates read from the positions file, if
+	 * 	available. 
+	 * @param configuration the acquisition parameters configuration.
+	 * @throws PositionsFileNotFoundException if {@code positions} is empty and
+	 * 	the lines have different lengths.
+	 * @throws InvalidDataException if the lines are not numbered 
+	 * 	consecutively from 1.
+	 */
+	LineToElementConverter(List<LineFile> lines, 
+		Optional<LineCoordinates[]> positions,
+		ElementDatasetConfiguration configuration
+	) throws PositionsFileNotFoundException, InvalidDataException {
+		DatasetManifest.checkLineNumbers(
+			lines.stream().map(LineFile::getName).collect(Collectors.toList()));
+		this.configuration = configuration;
+		this.lines = lines;
+		this.indexLines();
+		this.coordinates = positions.isPresent() ? 
+			positions.get() : generateLineCoordinates();
 	}
 
 	/**
@@ -117,69 +267,97 @@ public class LineToElementConverter {
 		this(new File(directory), fileFilter, configuration);
 	}
 	
-	private void process() {
-		data = new HashMap<String, Map<String,List<String>>>();
-		for(File lineFile : getLineFiles()) {
-			parseLineFile(data, lineFile);
+	private void process() throws IOException {
+		manifest = DatasetManifest.scan(directory, fileFilter);
+		manifest.checkLineNumbers();
+		File[] lineFiles = manifest.getFiles();
+		
+		Optional<LineDatasetCache.Entry> cached = useCache ?
+			LineDatasetCache.read(directory, lineFiles, configuration, elementFilter) :
+			Optional.empty();
+		
+		if (cached.isPresent()) {
+			lines = cached.get().getLines();
+			indexLines();
+			coordinates = cached.get().getCoordinates();
+		} else {
+			lines = parallelism == 1 || lineFiles.length < 2 ?
+				readLineFiles(lineFiles) :
+				readLineFilesConcurrently(lineFiles);
+			indexLines();
+			coordinates = loadLineCoordinates(directory);
+			
+			if (useCache && elementFilter == ALL_ELEMENTS) {
+				try {
+					LineDatasetCache.write(
+						directory, lineFiles, configuration, lines, coordinates);
+				} catch (IOException e) {
+					cacheWarning = "The cache of the dataset can't be written "
+						+ "into " + directory + ": " + e.getMessage();
+				}
+			}
 		}
 	}
 	
-	private File[] getLineFiles() {
-		File[] files = this.directory.listFiles(fileFilter);
-		Arrays.sort(files, LINE_FILES_COMPARATOR);
-		return files;
+	private void indexLines() {
+		elementNames = new HashSet<String>();
+		linesLengths = new HashSet<Integer>();
+		for (LineFile line : lines) {
+			elementNames.addAll(line.getElements());
+			for (String element : line.getElements()) {
+				linesLengths.add(line.getValues(element).get().length);
+			}
+		}
 	}
 	
-	private static final Integer getLineNumber(String lineName) {
-		Pattern p = Pattern.compile("[0-9][0-9]*");
-		Matcher m = p.matcher(lineName);
-		if(m.find()) {
-		    int n = Integer.parseInt(m.group(0));
-		    return n;
-		} else {
-			return 0;
+	private List<LineFile> readLineFiles(File[] lineFiles) throws IOException {
+		List<LineFile> lines = new ArrayList<LineFile>(lineFiles.length);
+		for(File lineFile : lineFiles) {
+			lines.add(lineFileReader.read(lineFile, elementFilter));
 		}
+		return lines;
 	}
 	
-	private void parseLineFile(Map<String, Map<String, List<String>>> data,
-			File lineFile) {
-		 try {
-			String lineName = lineFile.getName().replaceAll(" ", "_");
-			Scanner input = new Scanner(lineFile);
-			String[] headers = null;
-			
-			if (input.hasNextLine()) {
-				input.nextLine();
+	private List<LineFile> readLineFilesConcurrently(File[] lineFiles)
+		throws IOException 
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(
+			Math.min(parallelism, lineFiles.length));
+		try {
+			List<Future<LineFile>> futures = new ArrayList<Future<LineFile>>(
+				Collections.nCopies(lineFiles.length, null));
+			for (int index : manifest.getIndexesBySizeDescending()) {
+				File lineFile = lineFiles[index];
+				futures.set(index, executor.submit(
+					() -> lineFileReader.read(lineFile, elementFilter)));
 			}
 			
-			if (input.hasNextLine()) {
-				String header = input.nextLine();
-				headers = header.split(",");
-				for(int i = 1; i < headers.length; i++) {
-					data.putIfAbsent(headers[i], new TreeMap<String, List<String>>(LINE_MAP_COMPARATOR));
-					data.get(headers[i]).putIfAbsent(lineName, new LinkedList<String>());
-				}
+			List<LineFile> lines = new ArrayList<LineFile>(lineFiles.length);
+			for (Future<LineFile> future : futures) {
+				lines.add(getLineFile(future));
 			}
-			
-			int lineLength = 0;
-			
-			while (input.hasNextLine()) {
-				String line = input.nextLine();
-				if(!line.equals("")) {
-					lineLength++;
-					String[] values = line.split(",");
-					for(int i = 1; i < values.length; i++) {
-						data.get(headers[i]).get(lineName).add(values[i]);
-					}
-				}
+			return lines;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	static LineFile getLineFile(Future<LineFile> future)
+		throws IOException
+	{
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading line files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new IOException(e.getCause());
 			}
-			
-			linesLength.add(lineLength);
-			
-			input.close();
-
-		} catch (Exception ex) {
-			ex.printStackTrace();
 		}
 	}
 	
@@ -194,42 +372,43 @@ public class LineToElementConverter {
 	public List<ElementData> getElements(ProgressHandler progressHandler) 
 		throws InvalidDataException 
 	{
+		if (cacheWarning != null) {
+			progressHandler.warn(cacheWarning);
+			cacheWarning = null;
+		}
+		
 		List<ElementData> elements = new LinkedList<ElementData>();
 		
-		for (String element : data.keySet()) {
-			Map<String, List<String>> elementData = data.get(element);
-			
-			Iterator<String> lineIterator = elementData.keySet().iterator();
+		for (String element : elementNames) {
 			List<LineData> lines = new LinkedList<LineData>();
 			Set<Double> linesPositions = new HashSet<Double>();
 			int lineIndex = 0; 
-			while(lineIterator.hasNext()) {
-				String line = lineIterator.next();
-				double[] lineValues = toDoubleArray(elementData.get(line));
+			for (LineFile lineFile : this.lines) {
+				Optional<double[]> values = lineFile.getValues(element);
+				if (!values.isPresent()) {
+					continue;
+				}
+				
+				String line = lineFile.getName();
+				double[] lineValues = values.get();
 				LineCoordinates currentCoordinates = this.coordinates[lineIndex];
-				int validLineMeasurements = (int) (
-					1 +	Math.round(
-						(currentCoordinates.getRangeEnd() - currentCoordinates.getRangeStart())
-						/ currentCoordinates.getRangeTick()
-					)
-				);
+				int validLineMeasurements = 
+					getValidLineMeasurements(currentCoordinates);
 
 				if (validLineMeasurements > lineValues.length) {
-					throw new InvalidDataException("The number of required "
-							+ "measurements for line " + line + " is " + 
-							validLineMeasurements + " but file " + line + 
-							" contains only " + lineValues.length + 
-							" measurements. Please, check that the line length "
-							+ "and the data source file are correct.");
+					throw invalidLineLength(
+						line, validLineMeasurements, lineValues.length);
 				}
 				
 				if(linesPositions.contains(currentCoordinates.getPosition())) {
 					progressHandler.warn(
 						getSkippedLineMessage(line, currentCoordinates));
 				} else {
-					lines.add(new LineData(
+					lines.add(configuration.getStoragePrecision().createLineData(
 						line,
-						Arrays.copyOfRange(lineValues, 0, validLineMeasurements),
+						lineValues.length == validLineMeasurements ?
+							lineValues :
+							Arrays.copyOfRange(lineValues, 0, validLineMeasurements),
 						currentCoordinates
 					));
 					linesPositions.add(currentCoordinates.getPosition());
@@ -247,7 +426,146 @@ public class LineToElementConverter {
 		return elements;
 	}
 	
-	private String getSkippedLineMessage(String line,
+	/**
+	 * Returns the list of {@code ElementData} loaded, normalized by 
+	 * {@code standardElement}. Note that the standard element is not 
+	 * returned.
+	 * 
+	 * Each row of the parsed line files is divided by the standard in place,
+	 * in a single pass that also records the positions where the standard
+	 * is zero, so that no copy of the elements is made. Because of this, this
+	 * method can be invoked only once.
+	 * 
+	 * @param standardElement the name of the standard element.
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @return the list of normalized {@code ElementData} loaded.
+	 * @throws InvalidDataException if the line length (defined by its 
+	 * 	coordinates) is longer than the available lengh.
+	 * @throws NoSuchStandardElementException if the standard element is not
+	 * 	present in all the line files.
+	 * @throws IllegalStateException if the elements have been already 
+	 * 	normalized.
+	 */
+	public List<ElementData> getNormalizedElements(String standardElement,
+		ProgressHandler progressHandler
+	) throws InvalidDataException, NoSuchStandardElementException {
+		if (this.normalized) {
+			throw new IllegalStateException("Elements have been already normalized");
+		}
+		this.normalized = true;
+		
+		final int[] standardLengths = new int[this.lines.size()];
+		final int[] standardZeroes = normalizeLines(standardElement, standardLengths);
+		this.elementNames.remove(standardElement);
+		
+		final List<ElementData> elements = getElements(progressHandler);
+		
+		if (hasValidStandardZeroes(standardLengths, standardZeroes)) {
+			progressHandler.warn(LineDatasetLoader.STANDARD_ELEMENT_ZEROES_WARNING);
+		}
+		
+		return elements;
+	}
+	
+	private int[] normalizeLines(String standardElement, int[] standardLengths)
+		throws NoSuchStandardElementException 
+	{
+		final int[] standardZeroes = new int[this.lines.size()];
+		
+		for (int i = 0; i < this.lines.size(); i++) {
+			final LineFile line = this.lines.get(i);
+			final double[] standard = line.getValues(standardElement)
+				.orElseThrow(() -> new NoSuchStandardElementException(
+					"Standard element " + standardElement 
+					+ " is not present in line " + line.getName()));
+			
+			final List<String> elements = new ArrayList<String>(line.getElements());
+			elements.remove(standardElement);
+			final double[][] values = new double[elements.size()][];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = line.getValues(elements.get(j)).get();
+			}
+			
+			standardLengths[i] = standard.length;
+			standardZeroes[i] = normalizeRows(values, standard);
+			this.lines.set(i, new LineFile(line.getName(), 
+				elements.toArray(new String[elements.size()]), values));
+		}
+		
+		return standardZeroes;
+	}
+	
+	/*
+	 * Divides, row by row, the values of each element by the standard and 
+	 * returns the index of the first row where the standard is zero, or -1 if
+	 * there is no such row.
+	 */
+	private static int normalizeRows(double[][] values, double[] standard) {
+		int firstZero = -1;
+		
+		for (int row = 0; row < standard.length; row++) {
+			final double std = standard[row];
+			if (std == 0d && firstZero == -1) {
+				firstZero = row;
+			}
+			
+			for (double[] elementValues : values) {
+				if (row < elementValues.length) {
+					final double normalized = elementValues[row] / std;
+					elementValues[row] = Double.isInfinite(normalized) ?
+						Double.NaN : normalized;
+				}
+			}
+		}
+		
+		return firstZero;
+	}
+	
+	private boolean hasValidStandardZeroes(
+		int[] standardLengths, int[] standardZeroes
+	) throws InvalidDataException {
+		final Set<Double> linesPositions = new HashSet<Double>();
+		boolean zeroes = false;
+		
+		for (int i = 0; i < this.lines.size(); i++) {
+			final LineCoordinates currentCoordinates = this.coordinates[i];
+			final int validLineMeasurements = 
+				getValidLineMeasurements(currentCoordinates);
+			
+			if (validLineMeasurements > standardLengths[i]) {
+				throw invalidLineLength(this.lines.get(i).getName(), 
+					validLineMeasurements, standardLengths[i]);
+			}
+			
+			if (linesPositions.add(currentCoordinates.getPosition())) {
+				zeroes |= standardZeroes[i] != -1 
+					&& standardZeroes[i] < validLineMeasurements;
+			}
+		}
+		
+		return zeroes;
+	}
+	
+	static int getValidLineMeasurements(LineCoordinates coordinates) {
+		return (int) (
+			1 +	Math.round(
+				(coordinates.getRangeEnd() - coordinates.getRangeStart())
+				/ coordinates.getRangeTick()
+			)
+		);
+	}
+	
+	static InvalidDataException invalidLineLength(String line,
+			int validLineMeasurements, int lineMeasurements) {
+		return new InvalidDataException("The number of required "
+				+ "measurements for line " + line + " is " + 
+				validLineMeasurements + " but file " + line + 
+				" contains only " + lineMeasurements + 
+				" measurements. Please, check that the line length "
+				+ "and the data source file are correct.");
+	}
+	
+	static String getSkippedLineMessage(String line,
 			LineCoordinates currentCoordinates) {
 		StringBuilder sb = new StringBuilder();
 		sb
@@ -259,34 +577,83 @@ public class LineToElementConverter {
 		return sb.toString();
 	}
 
-	private static final double[] toDoubleArray(List<String> list) {
-		double[] toret = new double[list.size()];
-		int i = 0;
-		for(String s : list) {
-			toret[i++] = Double.valueOf(s);
+	/**
+	 * Writes the binary cache of the dataset described by {@code manifest},
+	 * reading its line files one by one, so that only one line file is held
+	 * in memory at a time.
+	 * 
+	 * @param manifest the manifest of the dataset directory.
+	 * @param configuration the acquisition parameters configuration.
+	 * @param lineFileReader the {@code LineFileReader} used to parse the 
+	 * 	files.
+	 * @throws IOException if an error occurs reading the line files or 
+	 * 	writing the cache.
+	 */
+	static void writeCache(DatasetManifest manifest,
+		ElementDatasetConfiguration configuration, LineFileReader lineFileReader
+	) throws IOException {
+		final File[] lineFiles = manifest.getFiles();
+		final Set<Integer> linesLengths = new HashSet<Integer>();
+		
+		try (LineDatasetCache.Writer writer = new LineDatasetCache.Writer(
+			manifest.getDirectory(), lineFiles, configuration)
+		) {
+			for (File lineFile : lineFiles) {
+				final LineFile line = lineFileReader.read(lineFile, ALL_ELEMENTS);
+				for (String element : line.getElements()) {
+					linesLengths.add(line.getValues(element).get().length);
+				}
+				writer.writeLine(line);
+			}
+			
+			writer.finish(loadLineCoordinates(manifest.getDirectory(), 
+				configuration, lineFiles.length, linesLengths));
 		}
-		return toret;
 	}
-	
+
 	private LineCoordinates[] loadLineCoordinates(File directory) throws IOException {
+		return loadLineCoordinates(
+			directory, configuration, getLinesCount(), linesLengths);
+	}
+	
+	private static LineCoordinates[] loadLineCoordinates(File directory,
+		ElementDatasetConfiguration configuration, int linesCount,
+		Set<Integer> linesLengths
+	) throws IOException {
 		File positionsFile = getPositionsFile(directory);
 		if(!checkPositionsFile(positionsFile)) {
-			if(!allLinesHaveSameLength()) {
-				throw new PositionsFileNotFoundException(
-					"Dataset directory must contain a fille called "
-					+ POSITIONS_FILE_NAME + " specifying the line "
-					+ "positions or all lines must have the same length."
-				);
-			} else {
-				return generatePositions(getLinesCount(), getlinesLength());
-			}
+			return generateLineCoordinates(
+				configuration, linesCount, linesLengths);
 		} else {
 			return LineCoordinatesLoader.loadCoordinates(positionsFile,
 					configuration.getLineRangeInterval());
 		}
 	}
+	
+	private LineCoordinates[] generateLineCoordinates() 
+		throws PositionsFileNotFoundException 
+	{
+		return generateLineCoordinates(
+			configuration, getLinesCount(), linesLengths);
+	}
+	
+	private static LineCoordinates[] generateLineCoordinates(
+		ElementDatasetConfiguration configuration, int linesCount,
+		Set<Integer> linesLengths
+	) throws PositionsFileNotFoundException {
+		if(linesLengths.size() != 1) {
+			throw new PositionsFileNotFoundException(
+				"Dataset directory must contain a fille called "
+				+ POSITIONS_FILE_NAME + " specifying the line "
+				+ "positions or all lines must have the same length."
+			);
+		} else {
+			return generatePositions(configuration, 
+				linesCount, linesLengths.iterator().next());
+		}
+	}
 
-	private File getPositionsFile(File directory) {
+	private static File getPositionsFile(File directory) {
 		return 	FileNameUtils.findFileIgnoreCase(directory, POSITIONS_FILE_NAME)
 				.orElse(null);
 	}
@@ -296,31 +663,14 @@ public class LineToElementConverter {
 	}
 
 	private int getLinesCount() {
-		return getLineFiles().length;
-	}
-
-	private boolean allLinesHaveSameLength() {
-		return getlinesLengths().size() == 1;
-	}
-
-	private Set<Integer> getlinesLengths() {
-		Set<Integer> linesLengths = new HashSet<Integer>();
-		for (Entry<String, Map<String, List<String>>> element : this.data
-				.entrySet()) {
-			for(Entry<String, List<String>> line : element.getValue().entrySet()) {
-				linesLengths.add(line.getValue().size());
-			}
-		}
-		return linesLengths;
-	}
-	
-	private int getlinesLength() {
-		return getlinesLengths().iterator().next();
+		return lines.size();
 	}
 	
-	private final LineCoordinates[] generatePositions(int lines, int measurements){
-		final double incX = this.configuration.getAblationSpeed() * this.configuration.getAcquisitionTime();
-		final double incY = this.configuration.getSpaceInterval();
+	private static final LineCoordinates[] generatePositions(
+		ElementDatasetConfiguration configuration, int lines, int measurements
+	){
+		final double incX = configuration.getAblationSpeed() * configuration.getAcquisitionTime();
+		final double incY = configuration.getSpaceInterval();
 
 		double startX = 0;
 		double endX = incX * (measurements-1);
@@ -0,0 +1,568 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader.LINE_FILE_EXTENSIONS;
+import static es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader.STANDARD_ELEMENT_ZEROES_WARNING;
+import static es.uvigo.ei.sing.laimages.core.io.LineToElementConverter.LINE_FILES_COMPARATOR;
+import static es.uvigo.ei.sing.laimages.core.io.LineToElementConverter.POSITIONS_FILE_NAME;
+import static es.uvigo.ei.sing.laimages.core.io.LineToElementConverter.getSkippedLineMessage;
+import static es.uvigo.ei.sing.laimages.core.io.LineToElementConverter.getValidLineMeasurements;
+import static es.uvigo.ei.sing.laimages.core.io.LineToElementConverter.invalidLineLength;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetSnapshot;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineDataBuffer;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.coordinates.LineCoordinatesLoader;
+import es.uvigo.ei.sing.laimages.core.io.event.DatasetUpdateEvent;
+import es.uvigo.ei.sing.laimages.core.io.event.DatasetUpdateListener;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * <p>
+ * A dataset loader that loads a dataset while it is being acquired. Once
+ * started, it watches the dataset directory and, each time a line file is 
+ * completed, it reads the line, normalizes it by the standard element and 
+ * appends it to the elements of the dataset. Registered 
+ * {@code DatasetUpdateListener}s are notified after each line is added.
+ * </p>
+ * 
+ * <p>
+ * A line file is considered completed when it has not been modified during
+ * the settle time. Line files present in the directory when the loader is 
+ * started are also loaded following the same rule. Each line is located by
+ * the line number in its file name (see 
+ * {@link DatasetManifest#getLineNumber(String)}), starting at 1, so lines
+ * can be completed in any order. As {@link LineDatasetLoader} requires, line
+ * files must be numbered consecutively from 1: line files without a valid 
+ * line number are skipped and, when the loader is closed, missing line 
+ * numbers are reported as a warning.
+ * </p>
+ * 
+ * <p>
+ * If the dataset directory contains a positions file when the loader is
+ * started, it is used to locate the lines. Otherwise, all lines are expected
+ * to have the same length than the first one. In both cases, coordinates are
+ * normalized as {@link LineDatasetLoader} does.
+ * </p>
+ * 
+ * <p>
+ * The lines of each element are kept in a {@link LineDataBuffer}, so adding a
+ * line does not copy the previous ones. After each line is added, an 
+ * immutable {@link ElementDatasetSnapshot} of the dataset is published, 
+ * which can be safely read from any thread. Note that lines are added and 
+ * listeners are notified from the watcher thread.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see LineDatasetLoader
+ * @see DatasetUpdateListener
+ *
+ */
+public class LiveLineDatasetLoader implements Closeable {
+	/**
+	 * The default settle time, in milliseconds.
+	 */
+	public static final long DEFAULT_SETTLE_TIME = 2000;
+	
+	private final Path path;
+	private final ElementDatasetConfiguration configuration;
+	private final LineFileReader lineFileReader;
+	private final long settleTime;
+	private final FilenameFilter fileFilter;
+	private final Map<String, LineDataBuffer> buffers;
+	private final List<DatasetUpdateListener> listeners;
+	private volatile ElementDataset dataset;
+	
+	private final Map<Path, Long> pendingFiles;
+	private final Set<Path> loadedFiles;
+	private final Set<Double> linesPositions;
+	private final SortedSet<Integer> lineNumbers;
+	
+	private ProgressHandler progressHandler;
+	private WatchService watchService;
+	private Thread watcher;
+	private volatile boolean running;
+	
+	private LineCoordinates[] positions;
+	private double minRangeStart;
+	private List<String> elements;
+	private int lineLength;
+	private int lineCount;
+	private boolean standardZeroesWarned;
+
+	/**
+	 * Constructs a new instance of {@code LiveLineDatasetLoader} that uses
+	 * a {@code LineFileReader} and the default settle time.
+	 * 
+	 * @param path the path where the dataset is being stored.
+	 * @param configuration the dataset configuration.
+	 */
+	public LiveLineDatasetLoader(Path path, 
+		ElementDatasetConfiguration configuration
+	) {
+		this(path, configuration, new LineFileReader(), DEFAULT_SETTLE_TIME);
+	}
+	
+	/**
+	 * Constructs a new instance of {@code LiveLineDatasetLoader}.
+	 * 
+	 * @param path the path where the dataset is being stored.
+	 * @param configuration the dataset configuration.
+	 * @param lineFileReader the {@code LineFileReader} used to read each line
+	 * 	file.
+	 * @param settleTime the time, in milliseconds, that a line file must 
+	 * 	remain unmodified to be considered completed.
+	 * @throws IllegalArgumentException if {@code settleTime} is negative.
+	 */
+	public LiveLineDatasetLoader(Path path, 
+		ElementDatasetConfiguration configuration, 
+		LineFileReader lineFileReader, long settleTime
+	) {
+		if (settleTime < 0) {
+			throw new IllegalArgumentException("Settle time can't be negative");
+		}
+		
+		this.path = path;
+		this.configuration = configuration;
+		this.lineFileReader = lineFileReader;
+		this.settleTime = settleTime;
+		this.fileFilter = new LineDatasetLoader.ExtensionFilenameFilter(
+			LINE_FILE_EXTENSIONS);
+		this.buffers = new LinkedHashMap<String, LineDataBuffer>();
+		this.dataset = ElementDatasetSnapshot.of(path, 
+			path.getFileName().toString(), configuration, 
+			new ArrayList<ElementData>());
+		this.listeners = new CopyOnWriteArrayList<DatasetUpdateListener>();
+		this.pendingFiles = new HashMap<Path, Long>();
+		this.loadedFiles = new HashSet<Path>();
+		this.linesPositions = new HashSet<Double>();
+		this.lineNumbers = new TreeSet<Integer>();
+		this.lineLength = -1;
+	}
+	
+	/**
+	 * Returns an immutable snapshot of the dataset being loaded, with the
+	 * lines added so far. A new snapshot is published each time a new line 
+	 * is added.
+	 * 
+	 * @return an immutable snapshot of the dataset being loaded.
+	 */
+	public ElementDataset getDataset() {
+		return dataset;
+	}
+	
+	/**
+	 * Returns the number of lines added to the dataset.
+	 * 
+	 * @return the number of lines added to the dataset.
+	 */
+	public synchronized int getLineCount() {
+		return lineCount;
+	}
+	
+	/**
+	 * Adds a {@code DatasetUpdateListener} to the loader.
+	 * 
+	 * @param l the {@code DatasetUpdateListener} to be added.
+	 */
+	public void addDatasetUpdateListener(DatasetUpdateListener l) {
+		this.listeners.add(l);
+	}
+	
+	/**
+	 * Removes a {@code DatasetUpdateListener} from the loader.
+	 * 
+	 * @param l the {@code DatasetUpdateListener} to be removed.
+	 */
+	public void removeDatasetUpdateListener(DatasetUpdateListener l) {
+		this.listeners.remove(l);
+	}
+
+	/**
+	 * Starts watching the dataset directory. Problems found loading line 
+	 * files are reported as warnings to {@code progressHandler} and the 
+	 * corresponding lines are skipped.
+	 * 
+	 * @param progressHandler a {@code ProgressHandler} object.
+	 * @throws IOException if the dataset directory can't be watched or the
+	 * 	positions file can't be read.
+	 * @throws IllegalStateException if the loader has been already started.
+	 */
+	public synchronized void start(ProgressHandler progressHandler)
+		throws IOException 
+	{
+		if (this.watcher != null) {
+			throw new IllegalStateException("Loader has been already started");
+		}
+		if (!Files.isDirectory(path) || !Files.isReadable(path)) {
+			throw new IOException("Path must be a readable directory.");
+		}
+		
+		this.progressHandler = progressHandler;
+		this.loadPositions();
+		
+		this.watchService = path.getFileSystem().newWatchService();
+		this.path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+		this.registerLineFiles();
+		
+		this.running = true;
+		this.watcher = new Thread(this::watch, 
+			"LiveLineDatasetLoader-" + path.getFileName());
+		this.watcher.setDaemon(true);
+		this.watcher.start();
+	}
+	
+	/**
+	 * Stops watching the dataset directory and loads the pending line files,
+	 * regardless of their settle time. If some line numbers are missing, they
+	 * are reported as a warning.
+	 * 
+	 * @throws IOException if an error occurs closing the directory watcher.
+	 */
+	@Override
+	public void close() throws IOException {
+		final Thread watcher;
+		synchronized (this) {
+			if (this.watcher == null || !this.running) {
+				return;
+			}
+			this.running = false;
+			watcher = this.watcher;
+		}
+
+		this.watchService.close();
+		try {
+			watcher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		this.loadCompletedFiles(true);
+		this.warnMissingLines();
+	}
+	
+	private synchronized void warnMissingLines() {
+		if (this.lineNumbers.isEmpty()) {
+			return;
+		}
+		
+		final String missing = IntStream.rangeClosed(1, this.lineNumbers.last())
+			.filter(n -> !this.lineNumbers.contains(n))
+			.mapToObj(Integer::toString)
+		.collect(Collectors.joining(", "));
+		
+		if (!missing.isEmpty()) {
+			progressHandler.warn("Line files are not numbered consecutively "
+				+ "from 1 (missing lines: " + missing + "), so the dataset "
+				+ "can't be loaded again once acquired.");
+		}
+	}
+	
+	private void loadPositions() throws IOException {
+		final Optional<File> positionsFile = FileNameUtils.findFileIgnoreCase(
+			path.toFile(), POSITIONS_FILE_NAME);
+		
+		if (positionsFile.isPresent() && positionsFile.get().canRead()) {
+			this.positions = LineCoordinatesLoader.loadCoordinates(
+				positionsFile.get(), configuration.getLineRangeInterval());
+			this.minRangeStart = Stream.of(this.positions)
+				.mapToDouble(LineCoordinates::getRangeStart).min().orElse(0d);
+		}
+	}
+	
+	private void registerLineFiles() {
+		for (File lineFile : path.toFile().listFiles(fileFilter)) {
+			this.lineFileChanged(lineFile.toPath());
+		}
+	}
+	
+	private void watch() {
+		final long pollTime = Math.max(10, settleTime / 2);
+		try {
+			while (running) {
+				final WatchKey key = watchService.poll(pollTime, MILLISECONDS);
+				if (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == OVERFLOW) {
+							this.registerLineFiles();
+						} else {
+							final Path file = path.resolve((Path) event.context());
+							if (fileFilter.accept(path.toFile(), file.getFileName().toString())) {
+								this.lineFileChanged(file);
+							}
+						}
+					}
+					
+					if (!key.reset()) {
+						progressHandler.warn("Dataset directory " + path 
+							+ " can't be watched anymore.");
+						running = false;
+					}
+				}
+				
+				this.loadCompletedFiles(false);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// The watch service is closed by close(): this is the normal way
+			// of stopping the watcher.
+		}
+	}
+	
+	private synchronized void lineFileChanged(Path file) {
+		if (this.loadedFiles.contains(file)) {
+			progressHandler.warn("Line file " + file.getFileName() 
+				+ " has been modified after being loaded. Changes are ignored.");
+		} else {
+			this.pendingFiles.put(file, System.nanoTime());
+		}
+	}
+	
+	private synchronized void loadCompletedFiles(boolean all) {
+		final long now = System.nanoTime();
+		final long settleNanos = TimeUnit.MILLISECONDS.toNanos(settleTime);
+		
+		final List<File> completed = this.pendingFiles.entrySet().stream()
+			.filter(e -> all || now - e.getValue() >= settleNanos)
+			.map(e -> e.getKey().toFile())
+			.sorted(LINE_FILES_COMPARATOR)
+		.collect(Collectors.toList());
+		
+		for (File lineFile : completed) {
+			this.pendingFiles.remove(lineFile.toPath());
+			this.loadedFiles.add(lineFile.toPath());
+			try {
+				this.addLine(lineFile);
+			} catch (IOException e) {
+				progressHandler.warn("Line file " + lineFile.getName() 
+					+ " has been skipped: " + e.getMessage());
+			}
+		}
+	}
+	
+	private void addLine(File file) throws IOException {
+		final int lineIndex = DatasetManifest.getLineNumber(file.getName()) - 1;
+		if (lineIndex >= 0) {
+			this.lineNumbers.add(lineIndex + 1);
+		}
+		final LineFile lineFile = this.lineFileReader.read(file);
+		this.checkElements(lineFile);
+		
+		final LineCoordinates coordinates = 
+			this.getCoordinates(lineFile, lineIndex);
+		if (coordinates == null) {
+			return;
+		}
+		
+		final int validLineMeasurements = getValidLineMeasurements(coordinates);
+		final Optional<double[]> standard = this.getStandardValues(
+			lineFile, validLineMeasurements);
+		
+		final Map<String, double[]> lineValues = 
+			new LinkedHashMap<String, double[]>();
+		for (String element : this.elements) {
+			if (isStandardElement(element)) {
+				continue;
+			}
+			
+			double[] values = getValues(lineFile, element, validLineMeasurements);
+			if (standard.isPresent()) {
+				values = NormalizeElementData.normalize(values, standard.get());
+			}
+			lineValues.put(element, values);
+		}
+		
+		lineValues.forEach((element, values) -> 
+			this.buffers.computeIfAbsent(element, LineDataBuffer::new).add(
+				configuration.getStoragePrecision().createLineData(
+					lineFile.getName(), values, coordinates))
+		);
+		
+		this.linesPositions.add(this.positions == null ?
+			coordinates.getPosition() : this.positions[lineIndex].getPosition());
+		this.lineCount++;
+		this.dataset = this.createSnapshot();
+		this.fireDatasetUpdate(
+			new DatasetUpdateEvent(dataset, lineFile.getName(), lineCount));
+	}
+	
+	private ElementDataset createSnapshot() {
+		final List<ElementData> elements = 
+			new ArrayList<ElementData>(this.buffers.size());
+		for (LineDataBuffer buffer : this.buffers.values()) {
+			elements.add(buffer.view());
+		}
+		
+		return ElementDatasetSnapshot.of(path, 
+			path.getFileName().toString(), configuration, elements);
+	}
+	
+	private void checkElements(LineFile lineFile) throws InvalidDataException {
+		if (this.elements == null) {
+			if (
+				!configuration.shouldNormalize()
+				&& !lineFile.getElements().contains(configuration.getStandardElement())
+			) {
+				throw new InvalidDataException("Standard element " 
+					+ configuration.getStandardElement() 
+					+ " is not present in the dataset");
+			}
+			this.elements = lineFile.getElements();
+		} else {
+			for (String element : this.elements) {
+				if (!lineFile.getValues(element).isPresent()) {
+					throw new InvalidDataException("Element " + element
+						+ " is not present in line " + lineFile.getName());
+				}
+			}
+		}
+	}
+	
+	private boolean isStandardElement(String element) {
+		return !configuration.shouldNormalize() 
+			&& element.equals(configuration.getStandardElement());
+	}
+
+	private LineCoordinates getCoordinates(LineFile lineFile, int lineIndex)
+		throws InvalidDataException 
+	{
+		if (lineIndex < 0) {
+			throw new InvalidDataException("Line file " + lineFile.getName()
+				+ " does not specify a valid line number");
+		}
+		final double position = configuration.getPositionInterval() * lineIndex;
+		
+		if (this.positions == null) {
+			if (this.lineLength == -1) {
+				this.lineLength = 
+					lineFile.getValues(this.elements.get(0)).get().length;
+			}
+			final double rangeTick = configuration.getLineRangeInterval();
+			final LineCoordinates coordinates = new HorizontalLineCoordinates(
+				rangeTick, 0d, rangeTick * (lineLength - 1), position);
+			
+			if (this.linesPositions.contains(position)) {
+				progressHandler.warn(
+					getSkippedLineMessage(lineFile.getName(), coordinates));
+				return null;
+			}
+			
+			return coordinates;
+		} else {
+			if (lineIndex >= this.positions.length) {
+				throw new InvalidDataException("Positions file does not "
+					+ "specify the position of line " + lineFile.getName());
+			}
+			
+			final LineCoordinates raw = this.positions[lineIndex];
+			if (this.linesPositions.contains(raw.getPosition())) {
+				progressHandler.warn(
+					getSkippedLineMessage(lineFile.getName(), raw));
+				return null;
+			}
+			
+			final double start = raw.getRangeStart() - this.minRangeStart;
+			final double end = raw.getRangeEnd() - this.minRangeStart;
+			return raw.isVertical() ?
+				new VerticalLineCoordinates(raw.getRangeTick(), start, end, position) :
+				new HorizontalLineCoordinates(raw.getRangeTick(), start, end, position);
+		}
+	}
+	
+	private Optional<double[]> getStandardValues(
+		LineFile lineFile, int validLineMeasurements
+	) throws InvalidDataException {
+		if (configuration.shouldNormalize()) {
+			return Optional.empty();
+		}
+		
+		final double[] standard = getValues(
+			lineFile, configuration.getStandardElement(), validLineMeasurements);
+		
+		if (!standardZeroesWarned && Arrays.stream(standard).anyMatch(v -> v == 0d)) {
+			standardZeroesWarned = true;
+			progressHandler.warn(STANDARD_ELEMENT_ZEROES_WARNING);
+		}
+		
+		return Optional.of(standard);
+	}
+	
+	private static double[] getValues(
+		LineFile lineFile, String element, int validLineMeasurements
+	) throws InvalidDataException {
+		final double[] values = lineFile.getValues(element).get();
+		if (validLineMeasurements > values.length) {
+			throw invalidLineLength(
+				lineFile.getName(), validLineMeasurements, values.length);
+		}
+		
+		return values.length == validLineMeasurements ?
+			values : Arrays.copyOf(values, validLineMeasurements);
+	}
+	
+	private void fireDatasetUpdate(DatasetUpdateEvent e) {
+		this.listeners.forEach(l -> l.onDatasetUpdate(e));
+	}
+}
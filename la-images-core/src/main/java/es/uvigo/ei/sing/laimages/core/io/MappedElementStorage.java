@@ -0,0 +1,227 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.DefaultElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.MappedLineData;
+
+/**
+ * <p>
+ * A file that stores the values of elements outside of the Java heap. Each 
+ * element stored is appended to the file and replaced by an 
+ * {@code ElementData} whose lines are {@link MappedLineData} views of the 
+ * memory-mapped file, so that the operating system pages the values in and
+ * out and the heap size does not limit the size of the datasets.
+ * </p>
+ * 
+ * <p>
+ * The storage file is a scratch file: it is deleted when the storage is 
+ * closed. Elements already stored can still be used after closing the 
+ * storage, since mappings remain valid until they are garbage collected, but
+ * new elements can't be stored.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see LineDatasetLoader#loadMappedDataset(Path, MappedElementStorage, 
+ * 	es.uvigo.ei.sing.laimages.core.util.ProgressHandler)
+ *
+ */
+public class MappedElementStorage implements Closeable {
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+	
+	private final Path file;
+	private final FileChannel channel;
+	private final ByteBuffer writeBuffer;
+	private long size;
+
+	/**
+	 * Constructs a new {@code MappedElementStorage} that stores the element
+	 * values in a new temporary file.
+	 * 
+	 * @throws IOException if the temporary file can't be created.
+	 */
+	public MappedElementStorage() throws IOException {
+		this(Files.createTempFile("la-images-", ".values"));
+	}
+
+	/**
+	 * Constructs a new {@code MappedElementStorage} that stores the element 
+	 * values in {@code file}. If {@code file} exists, it is overwritten.
+	 * 
+	 * @param file the file where element values are stored.
+	 * @throws IOException if {@code file} can't be opened.
+	 */
+	public MappedElementStorage(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, 
+			CREATE, TRUNCATE_EXISTING, READ, WRITE);
+		this.writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE)
+			.order(ByteOrder.nativeOrder());
+	}
+	
+	/**
+	 * Returns the file where element values are stored.
+	 * 
+	 * @return the file where element values are stored.
+	 */
+	public Path getFile() {
+		return file;
+	}
+	
+	/**
+	 * Returns the number of bytes stored.
+	 * 
+	 * @return the number of bytes stored.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+	
+	/**
+	 * Stores the values of {@code element} and returns an {@code ElementData}
+	 * with the same name and lines whose values are read from the storage 
+	 * file.
+	 * 
+	 * @param element the {@code ElementData} to store.
+	 * @return an {@code ElementData} whose values are stored off-heap.
+	 * @throws IOException if an error occurs writing or mapping the values.
+	 */
+	public synchronized ElementData store(ElementData element) 
+		throws IOException
+	{
+		final LineData[] lines = element.getLines();
+		final long start = this.size;
+		for (LineData line : lines) {
+			write(line);
+		}
+		flush();
+		final long elementSize = this.size - start;
+		
+		final LineData[] mappedLines = new LineData[lines.length];
+		if (elementSize <= Integer.MAX_VALUE) {
+			final DoubleBuffer values = asDoubleBuffer(
+				channel.map(MapMode.READ_ONLY, start, elementSize));
+			
+			int offset = 0;
+			for (int i = 0; i < lines.length; i++) {
+				mappedLines[i] = createLine(lines[i], values, offset);
+				offset += lines[i].getLength();
+			}
+		} else {
+			long offset = start;
+			for (int i = 0; i < lines.length; i++) {
+				final long lineSize = (long) lines[i].getLength() * Double.BYTES;
+				mappedLines[i] = createLine(lines[i], asDoubleBuffer(
+					channel.map(MapMode.READ_ONLY, offset, lineSize)), 0);
+				offset += lineSize;
+			}
+		}
+		
+		return ElementData.createElementData(element.getName(), mappedLines);
+	}
+	
+	/**
+	 * Stores the values of all the elements of {@code dataset} and returns a 
+	 * new {@code ElementDataset} with the same path, name, configuration and
+	 * elements, whose values are read from the storage file.
+	 * 
+	 * @param dataset the {@code ElementDataset} to store.
+	 * @return an {@code ElementDataset} whose values are stored off-heap.
+	 * @throws IOException if an error occurs writing or mapping the values.
+	 */
+	public ElementDataset store(ElementDataset dataset) throws IOException {
+		final DefaultElementDataset stored = new DefaultElementDataset(
+			dataset.getPath(), dataset.getName(), dataset.getConfiguration());
+		for (ElementData element : dataset.getElements()) {
+			stored.addElement(store(element));
+		}
+		
+		return stored;
+	}
+	
+	private void write(LineData line) throws IOException {
+		for (int i = 0; i < line.getLength(); i++) {
+			if (!writeBuffer.hasRemaining()) {
+				flush();
+			}
+			writeBuffer.putDouble(line.getValue(i));
+		}
+	}
+	
+	private void flush() throws IOException {
+		((Buffer) writeBuffer).flip();
+		while (writeBuffer.hasRemaining()) {
+			this.size += channel.write(writeBuffer, this.size);
+		}
+		((Buffer) writeBuffer).clear();
+	}
+	
+	private static DoubleBuffer asDoubleBuffer(ByteBuffer buffer) {
+		return buffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+	
+	private static LineData createLine(LineData line, DoubleBuffer values,
+		int offset
+	) {
+		return new MappedLineData(line.getName(), values, offset, 
+			line.getLength(), line.getCoordinates());
+	}
+
+	/**
+	 * Closes the storage and deletes its file.
+	 * 
+	 * @throws IOException if an error occurs closing the storage file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			channel.close();
+		} finally {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				file.toFile().deleteOnExit();
+			}
+		}
+	}
+}
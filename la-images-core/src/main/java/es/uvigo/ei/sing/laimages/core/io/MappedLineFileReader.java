@@ -0,0 +1,334 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.util.GrowableDoubleArray;
+
+/**
+ * <p>
+ * An implementation of {@code LineFileReader} that memory-maps each line file
+ * and parses it directly from the mapped bytes. Delimiters are located by
+ * scanning the bytes and decimal values are parsed without creating a 
+ * {@code String} for each of them, which makes this reader suitable for
+ * large line files.
+ * </p>
+ * 
+ * <p>
+ * Values are parsed exactly as {@link Double#parseDouble(String)} would do.
+ * Values that can't be exactly parsed by the fast path (i.e. values whose
+ * significant digits don't fit exactly in a {@code double} or with large
+ * exponents) are delegated to {@link Double#parseDouble(String)}, so the
+ * resulting {@code LineFile} is always the same than the one returned by
+ * {@code LineFileReader}.
+ * </p>
+ * 
+ * <p>
+ * Line files are expected to use an ASCII compatible encoding, which is the
+ * case of the files exported by the ICP-MS software.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see LineFileReader
+ *
+ */
+public class MappedLineFileReader extends LineFileReader {
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final int MAX_MANTISSA_DIGITS = 18;
+	private static final int MAX_EXPONENT_DIGITS = 5;
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	@Override
+	public LineFile read(File lineFile, Predicate<String> elementFilter)
+		throws IOException 
+	{
+		try (FileChannel channel = 
+			FileChannel.open(lineFile.toPath(), StandardOpenOption.READ)
+		) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File " + lineFile.getName() 
+					+ " is too large to be mapped.");
+			}
+			
+			return new MappedLineFileParser(
+				lineFile, channel.map(MapMode.READ_ONLY, 0, size)
+			).parse(elementFilter);
+		}
+	}
+	
+	private static final class MappedLineFileParser {
+		private final File lineFile;
+		private final ByteBuffer buffer;
+		private final int limit;
+		private int rowIndex;
+
+		public MappedLineFileParser(File lineFile, ByteBuffer buffer) {
+			this.lineFile = lineFile;
+			this.buffer = buffer;
+			this.limit = buffer.limit();
+			this.rowIndex = 0;
+		}
+		
+		public LineFile parse(Predicate<String> elementFilter)
+			throws InvalidDataException 
+		{
+			int position = 0;
+			if (position >= limit) {
+				return emptyLineFile(lineFile.getName());
+			}
+			
+			rowIndex++;
+			position = nextRowStart(findRowEnd(position));
+			if (position >= limit) {
+				return emptyLineFile(lineFile.getName());
+			}
+			
+			rowIndex++;
+			final int headerEnd = findRowEnd(position);
+			final String[] elements = 
+				parseElements(decode(position, headerEnd));
+			final int[] columns = selectColumns(elements, elementFilter);
+			position = nextRowStart(headerEnd);
+			
+			final GrowableDoubleArray[] buffers = 
+				createBuffers(countSelected(columns));
+			while (position < limit) {
+				rowIndex++;
+				final int rowEnd = findRowEnd(position);
+				if (rowEnd > position) {
+					parseRow(position, rowEnd, columns, buffers);
+				}
+				position = nextRowStart(rowEnd);
+			}
+			
+			return new LineFile(
+				getLineName(lineFile), 
+				selectedElements(elements, columns), 
+				toArrays(buffers)
+			);
+		}
+		
+		private int findRowEnd(int position) {
+			while (position < limit) {
+				final byte current = buffer.get(position);
+				if (current == '\n' || current == '\r') {
+					return position;
+				}
+				position++;
+			}
+			return limit;
+		}
+		
+		private int nextRowStart(int rowEnd) {
+			if (
+				rowEnd + 1 < limit 
+				&& buffer.get(rowEnd) == '\r' 
+				&& buffer.get(rowEnd + 1) == '\n'
+			) {
+				return rowEnd + 2;
+			} else {
+				return rowEnd + 1;
+			}
+		}
+		
+		private void parseRow(
+			int start, int end, int[] columns, GrowableDoubleArray[] buffers
+		) throws InvalidDataException {
+			while (end > start && buffer.get(end - 1) == SEPARATOR) {
+				end--;
+			}
+			
+			int column = -1;
+			int tokenStart = start;
+			while (tokenStart <= end) {
+				final int separator = findSeparator(tokenStart, end);
+				
+				if (column >= 0) {
+					if (column >= columns.length) {
+						throw tooManyValues(lineFile.getName(), rowIndex);
+					}
+					if (columns[column] >= 0) {
+						buffers[columns[column]].add(
+							parseValue(tokenStart, separator));
+					}
+				}
+				
+				column++;
+				tokenStart = separator + 1;
+			}
+		}
+		
+		private int findSeparator(int position, int end) {
+			while (position < end && buffer.get(position) != SEPARATOR) {
+				position++;
+			}
+			return position;
+		}
+		
+		private double parseValue(int start, int end) 
+			throws InvalidDataException 
+		{
+			int i = start;
+			int j = end;
+			while (i < j && isWhitespace(buffer.get(i))) {
+				i++;
+			}
+			while (j > i && isWhitespace(buffer.get(j - 1))) {
+				j--;
+			}
+			
+			boolean negative = false;
+			if (i < j && (buffer.get(i) == '+' || buffer.get(i) == '-')) {
+				negative = buffer.get(i) == '-';
+				i++;
+			}
+			
+			long mantissa = 0;
+			int mantissaDigits = 0;
+			int exponent = 0;
+			boolean hasDigits = false;
+			
+			while (i < j && isDigit(buffer.get(i))) {
+				final int digit = buffer.get(i) - '0';
+				hasDigits = true;
+				if (mantissa != 0 || digit != 0) {
+					if (mantissaDigits == MAX_MANTISSA_DIGITS) {
+						return parseValueFallback(start, end);
+					}
+					mantissa = mantissa * 10 + digit;
+					mantissaDigits++;
+				}
+				i++;
+			}
+			
+			if (i < j && buffer.get(i) == '.') {
+				i++;
+				while (i < j && isDigit(buffer.get(i))) {
+					final int digit = buffer.get(i) - '0';
+					hasDigits = true;
+					if (mantissa != 0 || digit != 0) {
+						if (mantissaDigits == MAX_MANTISSA_DIGITS) {
+							return parseValueFallback(start, end);
+						}
+						mantissa = mantissa * 10 + digit;
+						mantissaDigits++;
+					}
+					exponent--;
+					i++;
+				}
+			}
+			
+			if (!hasDigits) {
+				return parseValueFallback(start, end);
+			}
+			
+			if (i < j && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+				i++;
+				boolean negativeExponent = false;
+				if (i < j && (buffer.get(i) == '+' || buffer.get(i) == '-')) {
+					negativeExponent = buffer.get(i) == '-';
+					i++;
+				}
+				
+				int exponentValue = 0;
+				int exponentDigits = 0;
+				while (i < j && isDigit(buffer.get(i))) {
+					if (exponentDigits == MAX_EXPONENT_DIGITS) {
+						return parseValueFallback(start, end);
+					}
+					exponentValue = exponentValue * 10 + (buffer.get(i) - '0');
+					exponentDigits++;
+					i++;
+				}
+				
+				if (exponentDigits == 0) {
+					return parseValueFallback(start, end);
+				}
+				exponent += negativeExponent ? -exponentValue : exponentValue;
+			}
+			
+			if (i != j) {
+				return parseValueFallback(start, end);
+			}
+			
+			if (mantissa == 0) {
+				return negative ? -0d : 0d;
+			}
+			
+			if (
+				mantissa > MAX_EXACT_MANTISSA
+				|| exponent < -(POWERS_OF_TEN.length - 1)
+				|| exponent > POWERS_OF_TEN.length - 1
+			) {
+				return parseValueFallback(start, end);
+			}
+			
+			final double value = exponent < 0 ? 
+				(double) mantissa / POWERS_OF_TEN[-exponent] :
+				(double) mantissa * POWERS_OF_TEN[exponent];
+			
+			return negative ? -value : value;
+		}
+		
+		private double parseValueFallback(int start, int end)
+			throws InvalidDataException 
+		{
+			final String value = decode(start, end);
+			try {
+				return Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				throw invalidValue(value, lineFile.getName(), rowIndex);
+			}
+		}
+		
+		private String decode(int start, int end) {
+			final byte[] bytes = new byte[end - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = buffer.get(start + i);
+			}
+			return new String(bytes, Charset.defaultCharset());
+		}
+		
+		private static boolean isWhitespace(byte value) {
+			return value >= 0 && value <= ' ';
+		}
+		
+		private static boolean isDigit(byte value) {
+			return value >= '0' && value <= '9';
+		}
+	}
+}
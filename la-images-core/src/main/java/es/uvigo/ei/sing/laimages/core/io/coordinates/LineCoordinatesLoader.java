@@ -23,15 +23,17 @@
  */
 package es.uvigo.ei.sing.laimages.core.io.coordinates;
 
-import static es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils.getLinesRangeAxis;
-
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
@@ -73,6 +75,10 @@ import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLine
  * axis may go from 0.0 to 0.5 and from other 'LINE' it may go from 0.01 to 0.51) so it is 
  * necessary to align them so lines are compatible and can be represented in a common range axis.</p>
  * 
+ * <p>The coordinates file is parsed as it is read, keeping only the first and last lines of the 
+ * current 'LINE' block. Since the common range axis is regular, each coordinate is aligned by 
+ * computing the index of its closest axis value instead of scanning the whole axis.</p>
+ * 
  * @author Hugo López-Fernández
  *
  */
@@ -94,29 +100,49 @@ public class LineCoordinatesLoader {
 		return parseCoordinatesFile(coordinatesFile, xTick);
 	}
 
+	/**
+	 * Reads the line coordinates provided by {@code in} and constructs a
+	 * {@code LineCoordinates} array with the aligned coordinates. This allows
+	 * reading coordinates files that are not stored in the file system, such
+	 * as archive entries. Note that {@code in} is not closed.
+	 * 
+	 * @param in the contents of the coordinates file.
+	 * @param xTick the size of the ticks in the X axis.
+	 * @return s a {@code LineCoordinates} array with the aligned coordinates
+	 * @throws IOException if an error occurs parsing the coordinates.
+	 */
+	public static final LineCoordinates[] loadCoordinates(InputStream in,
+			double xTick) throws IOException {
+		return parseCoordinates(new BufferedReader(
+			new InputStreamReader(in, StandardCharsets.UTF_8)), xTick);
+	}
+
 	private static final LineCoordinates[] parseCoordinatesFile(File coordinatesFile, double xTick) throws IOException {
-		List<String> lines = Files.readAllLines(coordinatesFile.toPath());
-		List<LineCoordinates> coordinatesList = loadCoordinates(xTick, lines);
-		alignCoordinates(coordinatesList);
+		try (BufferedReader reader = Files.newBufferedReader(coordinatesFile.toPath())) {
+			return parseCoordinates(reader, xTick);
+		}
+	}
+
+	private static final LineCoordinates[] parseCoordinates(BufferedReader reader, double xTick) throws IOException {
+		List<LineCoordinates> coordinatesList = loadCoordinates(xTick, reader);
+		alignCoordinates(coordinatesList, xTick);
 
 		return coordinatesList.toArray(new LineCoordinates[coordinatesList.size()]);
 	}
 
 	private static List<LineCoordinates> loadCoordinates(double xTick,
-			List<String> lines) {
-		List<LineCoordinates> coordinatesList = new LinkedList<LineCoordinates>();
-		Iterator<String> linesIt = lines.iterator();
+			BufferedReader reader) throws IOException {
+		List<LineCoordinates> coordinatesList = new ArrayList<LineCoordinates>();
 		String previousLine = null;
 		Coordinate start = null;
 		
-		while(linesIt.hasNext()) {
-			String currentLine = linesIt.next();
-		
+		String currentLine;
+		while((currentLine = reader.readLine()) != null) {
 			if(currentLine.equals(LINE_BLOCK_TAG)) {
 				readEndLineAndAddCoordinate(xTick, coordinatesList,
 						previousLine, start);
 			} else {
-				if(previousLine.equals(LINE_BLOCK_TAG)) {
+				if(LINE_BLOCK_TAG.equals(previousLine)) {
 					start = readCoordinate(currentLine);
 				}
 			}
@@ -162,10 +188,12 @@ public class LineCoordinatesLoader {
 
 	private static Coordinate readCoordinate(String line) {
 		if (line != null) {
-			String[] split = line.split(",");
+			int xEnd = line.indexOf(',');
+			int yEnd = line.indexOf(',', xEnd + 1);
 			return new Coordinate(
-				Double.valueOf(split[0]),
-				Double.valueOf(split[1])
+				Double.parseDouble(line.substring(0, xEnd)),
+				Double.parseDouble(
+					yEnd == -1 ? line.substring(xEnd + 1) : line.substring(xEnd + 1, yEnd))
 			);
 		}
 		return null;
@@ -190,26 +218,24 @@ public class LineCoordinatesLoader {
 	}
 	
 	private static void alignCoordinates(
-			List<LineCoordinates> coordinates) {
-		List<Double> linesRangeAxis = getLinesRangeAxis(coordinates);
+			List<LineCoordinates> coordinates, double xTick) {
+		if (coordinates.isEmpty()) {
+			return;
+		}
+		
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (LineCoordinates lC : coordinates) {
+			min = Math.min(min, lC.getRangeStart());
+			max = Math.max(max, lC.getRangeEnd());
+		}
+		
+		ArithmeticAxis linesRangeAxis = ArithmeticAxis.sequence(min, max, xTick);
 		for(LineCoordinates lC : coordinates) {
-			double closest = findClosest(lC.getRangeStart(), linesRangeAxis);
+			double closest = linesRangeAxis.findClosest(lC.getRangeStart());
 			lC.setStartRangeCoordinate(closest);
-			closest = findClosest(lC.getRangeEnd(), linesRangeAxis);
+			closest = linesRangeAxis.findClosest(lC.getRangeEnd());
 			lC.setEndRangeCoordinate(closest);
 		}
 	}
-	
-	private static final double findClosest(double target, List<Double> values) {
-		double closest = Double.NaN;
-		double minimumDifference = Double.MAX_VALUE;
-		for(double value : values) {
-			double difference = Math.abs(value-target);
-			if(difference < minimumDifference) {
-				minimumDifference = difference;
-				closest = value;
-			}
-		}
-		return closest;
-	}
 }
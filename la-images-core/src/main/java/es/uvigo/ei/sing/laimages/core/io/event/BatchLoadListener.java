@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.event;
+
+import java.nio.file.Path;
+import java.util.EventListener;
+
+import es.uvigo.ei.sing.laimages.core.io.BatchLoadResult;
+
+/**
+ * The listener interface for receiving the progress of the datasets loaded 
+ * by a {@code BatchDatasetLoader}. Since datasets are loaded concurrently, 
+ * methods are invoked from the worker threads and may be invoked 
+ * concurrently for different datasets.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public interface BatchLoadListener extends EventListener {
+	/**
+	 * Invoked when a worker starts loading the dataset at {@code path}.
+	 * 
+	 * @param path the path of the dataset.
+	 */
+	public default void onDatasetStarted(Path path) {}
+	
+	/**
+	 * Invoked when the loading of the dataset at {@code path} progresses.
+	 * 
+	 * @param path the path of the dataset.
+	 */
+	public default void onDatasetProgress(Path path) {}
+
+	/**
+	 * Invoked when the loading of a dataset finishes, either successfully or
+	 * not.
+	 * 
+	 * @param result the result of loading the dataset.
+	 */
+	public void onDatasetFinished(BatchLoadResult result);
+}
@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.event;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+
+/**
+ * An event which indicates that new lines have been added to a dataset that
+ * is being loaded while it is acquired.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class DatasetUpdateEvent {
+	private ElementDataset dataset;
+	private String lineName;
+	private int lineCount;
+
+	/**
+	 * Constructs a {@code DatasetUpdateEvent} object.
+	 * 
+	 * @param dataset the updated {@code ElementDataset}.
+	 * @param lineName the name of the line added.
+	 * @param lineCount the number of lines of the dataset after the update.
+	 */
+	public DatasetUpdateEvent(ElementDataset dataset, String lineName,
+		int lineCount
+	) {
+		this.dataset = dataset;
+		this.lineName = lineName;
+		this.lineCount = lineCount;
+	}
+	
+	/**
+	 * Returns the updated {@code ElementDataset}.
+	 * 
+	 * @return the updated {@code ElementDataset}.
+	 */
+	public ElementDataset getDataset() {
+		return dataset;
+	}
+	
+	/**
+	 * Returns the name of the line added.
+	 * 
+	 * @return the name of the line added.
+	 */
+	public String getLineName() {
+		return lineName;
+	}
+	
+	/**
+	 * Returns the number of lines of the dataset after the update.
+	 * 
+	 * @return the number of lines of the dataset after the update.
+	 */
+	public int getLineCount() {
+		return lineCount;
+	}
+}
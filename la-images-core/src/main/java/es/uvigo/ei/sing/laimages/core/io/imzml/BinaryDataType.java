@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.imzml;
+
+/**
+ * The data types of the binary arrays stored in an {@code .ibd} file, 
+ * identified by their PSI-MS controlled vocabulary accessions. All of them 
+ * are stored in little-endian byte order.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+enum BinaryDataType {
+	INT32("MS:1000519", Integer.BYTES),
+	INT64("MS:1000522", Long.BYTES),
+	FLOAT32("MS:1000521", Float.BYTES),
+	FLOAT64("MS:1000523", Double.BYTES);
+	
+	private final String accession;
+	private final int size;
+
+	private BinaryDataType(String accession, int size) {
+		this.accession = accession;
+		this.size = size;
+	}
+	
+	/**
+	 * Returns the size of a value of this type, in bytes.
+	 * 
+	 * @return the size of a value of this type, in bytes.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Returns the data type identified by {@code accession} or {@code null} if
+	 * {@code accession} does not identify a data type.
+	 * 
+	 * @param accession a controlled vocabulary accession.
+	 * @return the data type identified by {@code accession} or {@code null}.
+	 */
+	public static BinaryDataType forAccession(String accession) {
+		for (BinaryDataType type : values()) {
+			if (type.accession.equals(accession)) {
+				return type;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.imzml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.imzml.ImzMLMetadata.BinaryArray;
+
+/**
+ * <p>
+ * A memory-mapped {@code .ibd} file, from which the values of the binary 
+ * arrays declared in an imzML file are read directly, without copying them 
+ * into intermediate arrays.
+ * </p>
+ * 
+ * <p>
+ * Since a single mapping can't be larger than 2 GB, the file is mapped in 
+ * consecutive segments. Each segment overlaps the next one by the size of 
+ * the largest value type, so that any value can be read from one segment.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+final class IbdFile implements Closeable {
+	static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+	
+	private static final int UUID_LENGTH = 16;
+	
+	private final String fileName;
+	private final FileChannel channel;
+	private final long size;
+	private final int segmentSize;
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Maps the {@code .ibd} file at {@code path}.
+	 * 
+	 * @param path the {@code .ibd} file.
+	 * @throws IOException if an error occurs mapping the file.
+	 */
+	public IbdFile(Path path) throws IOException {
+		this(path, DEFAULT_SEGMENT_SIZE);
+	}
+	
+	IbdFile(Path path, int segmentSize) throws IOException {
+		this.fileName = path.getFileName().toString();
+		this.channel = FileChannel.open(path);
+		this.segmentSize = segmentSize;
+		
+		try {
+			this.size = channel.size();
+			this.segments = new MappedByteBuffer[
+				(int) ((size + segmentSize - 1) / segmentSize)];
+			
+			for (int i = 0; i < segments.length; i++) {
+				final long start = (long) i * segmentSize;
+				final long length = Math.min(size - start, 
+					(long) segmentSize + Long.BYTES);
+				
+				segments[i] = channel.map(MapMode.READ_ONLY, start, length);
+				segments[i].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Checks that the first 16 bytes of the file, which identify it, are 
+	 * equal to {@code uuid}.
+	 * 
+	 * @param uuid the UUID declared in the imzML file.
+	 * @throws InvalidDataException if the UUID of the file is not equal to
+	 * 	{@code uuid}.
+	 */
+	public void checkUuid(byte[] uuid) throws InvalidDataException {
+		final byte[] fileUuid = new byte[UUID_LENGTH];
+		if (size >= UUID_LENGTH) {
+			for (int i = 0; i < UUID_LENGTH; i++) {
+				fileUuid[i] = segments[0].get(i);
+			}
+		}
+		
+		if (size < UUID_LENGTH || !Arrays.equals(uuid, fileUuid)) {
+			throw new InvalidDataException("The UUID of " + fileName 
+				+ " does not match the one declared in the imzML file.");
+		}
+	}
+	
+	/**
+	 * Checks that {@code array} is stored inside the file.
+	 * 
+	 * @param array a binary array.
+	 * @throws InvalidDataException if {@code array} exceeds the file size.
+	 */
+	public void checkBounds(BinaryArray array) throws InvalidDataException {
+		final long end = array.getOffset() 
+			+ (long) array.getLength() * array.getType().getSize();
+		
+		if (end > size) {
+			throw new InvalidDataException("Binary data array at offset " 
+				+ array.getOffset() + " exceeds the size of " + fileName + ".");
+		}
+	}
+	
+	/**
+	 * Returns the value at {@code index} of {@code array}, converted to 
+	 * {@code double}.
+	 * 
+	 * @param array a binary array.
+	 * @param index the index of the value.
+	 * @return the value at {@code index} of {@code array}.
+	 */
+	public double get(BinaryArray array, int index) {
+		final BinaryDataType type = array.getType();
+		final long position = array.getOffset() + (long) index * type.getSize();
+		final MappedByteBuffer segment = segments[(int) (position / segmentSize)];
+		final int offset = (int) (position % segmentSize);
+		
+		switch (type) {
+		case INT32:
+			return segment.getInt(offset);
+		case INT64:
+			return segment.getLong(offset);
+		case FLOAT32:
+			return segment.getFloat(offset);
+		default:
+			return segment.getDouble(offset);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
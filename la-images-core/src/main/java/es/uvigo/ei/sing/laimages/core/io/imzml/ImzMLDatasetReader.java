@@ -0,0 +1,366 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.imzml;
+
+import static es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader.STANDARD_ELEMENT_ZEROES_WARNING;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.DefaultElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.StoragePrecision;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.DatasetReader;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.io.imzml.ImzMLMetadata.BinaryArray;
+import es.uvigo.ei.sing.laimages.core.io.imzml.ImzMLMetadata.Spectrum;
+import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.util.FileNameUtils;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+/**
+ * <p>
+ * A {@code DatasetReader} of imzML datasets, which are stored as an imzML
+ * metadata file and a binary {@code .ibd} file with the same name. The 
+ * {@code .ibd} file is memory-mapped and the intensities are read directly
+ * from it.
+ * </p>
+ * 
+ * <p>
+ * Each element of the loaded datasets is an m/z channel, named by its m/z 
+ * value (e.g. {@code "63.0"}). The value of a channel at a pixel is the sum 
+ * of the intensities whose m/z is within the tolerance of the channel m/z. 
+ * Each row of pixels is loaded as an horizontal line and pixels without 
+ * spectrum are loaded as {@code NaN}. Pixel sizes declared in the imzML file
+ * are used as the line coordinates intervals. Otherwise, the intervals of 
+ * the dataset configuration are used.
+ * </p>
+ * 
+ * <p>
+ * Since imzML datasets usually contain thousands of m/z values, the channels
+ * to load must always be selected. If the dataset configuration declares a
+ * standard element, it must also be an m/z value.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class ImzMLDatasetReader implements DatasetReader {
+	/**
+	 * The default m/z tolerance, in Daltons.
+	 */
+	public static final double DEFAULT_TOLERANCE = 0.5d;
+	
+	private static final String IMZML_EXTENSION = ".imzml";
+	private static final String IBD_EXTENSION = ".ibd";
+	
+	private final double tolerance;
+
+	/**
+	 * Constructs a new instance of {@code ImzMLDatasetReader} that uses the 
+	 * default m/z tolerance.
+	 */
+	public ImzMLDatasetReader() {
+		this(DEFAULT_TOLERANCE);
+	}
+	
+	/**
+	 * Constructs a new instance of {@code ImzMLDatasetReader} that uses the 
+	 * specified m/z {@code tolerance}.
+	 * 
+	 * @param tolerance the m/z tolerance, in Daltons.
+	 * @throws IllegalArgumentException if {@code tolerance} is negative.
+	 */
+	public ImzMLDatasetReader(double tolerance) {
+		if (!(tolerance >= 0)) {
+			throw new IllegalArgumentException("Tolerance can't be negative");
+		}
+		
+		this.tolerance = tolerance;
+	}
+
+	@Override
+	public String getFormatName() {
+		return "imzML";
+	}
+
+	@Override
+	public boolean canRead(Path path) {
+		return Files.isRegularFile(path) && path.getFileName().toString()
+			.toLowerCase().endsWith(IMZML_EXTENSION);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws IllegalArgumentException if {@code elements} is empty or 
+	 * 	contains names that are not m/z values.
+	 */
+	@Override
+	public ElementDataset read(Path path, 
+		ElementDatasetConfiguration configuration, Set<String> elements,
+		ProgressHandler progressHandler
+	) throws IOException, NoSuchStandardElementException {
+		if (elements.isEmpty()) {
+			throw new IllegalArgumentException(
+				"The m/z channels of imzML datasets must be selected");
+		}
+		
+		final List<String> channels = new ArrayList<String>(elements);
+		channels.remove(configuration.getStandardElement());
+		channels.sort((c1, c2) -> Double.compare(parseMz(c1), parseMz(c2)));
+		
+		final int standardIndex = channels.size();
+		if (!configuration.shouldNormalize()) {
+			channels.add(getStandardChannel(configuration));
+		}
+		
+		final ImzMLMetadata metadata = ImzMLMetadata.parse(path);
+		final double[][][] images;
+		final boolean[] present;
+		try (IbdFile ibd = new IbdFile(getIbdFile(path))) {
+			if (metadata.getUuid().isPresent()) {
+				ibd.checkUuid(metadata.getUuid().get());
+			}
+			
+			present = new boolean[channels.size()];
+			images = readChannels(ibd, metadata, 
+				channels.stream().mapToDouble(ImzMLDatasetReader::parseMz).toArray(),
+				present
+			);
+		}
+		
+		if (!configuration.shouldNormalize()) {
+			if (!present[standardIndex]) {
+				throw new NoSuchStandardElementException("Standard element " 
+					+ configuration.getStandardElement() 
+					+ " is not present in the dataset");
+			}
+			normalize(images, standardIndex, progressHandler);
+		}
+		
+		final LineCoordinates[] coordinates = 
+			createCoordinates(metadata, configuration);
+		
+		final DefaultElementDataset dataset = new DefaultElementDataset(
+			path, getDatasetName(path), configuration);
+		for (int c = 0; c < standardIndex; c++) {
+			if (present[c]) {
+				dataset.addElement(
+					createElementData(channels.get(c), images[c], coordinates, 
+						configuration.getStoragePrecision()));
+			} else {
+				progressHandler.warn(
+					"Element " + channels.get(c) + " is not present in the dataset.");
+			}
+			progressHandler.progress();
+		}
+		
+		return dataset;
+	}
+
+	private static double parseMz(String channel) {
+		try {
+			return Double.parseDouble(channel);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				"Element " + channel + " is not a m/z value");
+		}
+	}
+	
+	private static String getStandardChannel(
+		ElementDatasetConfiguration configuration
+	) throws NoSuchStandardElementException {
+		try {
+			Double.parseDouble(configuration.getStandardElement());
+			return configuration.getStandardElement();
+		} catch (NumberFormatException e) {
+			throw new NoSuchStandardElementException("Standard element " 
+				+ configuration.getStandardElement() + " is not a m/z value");
+		}
+	}
+
+	private static Path getIbdFile(Path imzML) throws IOException {
+		final String ibdName = getDatasetName(imzML) + IBD_EXTENSION;
+		final File directory = imzML.toAbsolutePath().getParent().toFile();
+		
+		final Optional<File> ibd = 
+			FileNameUtils.findFileIgnoreCase(directory, ibdName);
+		if (!ibd.isPresent()) {
+			throw new IOException("Binary file " + ibdName + " not found.");
+		}
+		
+		return ibd.get().toPath();
+	}
+	
+	private static String getDatasetName(Path imzML) {
+		final String fileName = imzML.getFileName().toString();
+		
+		return fileName.substring(0, fileName.length() - IMZML_EXTENSION.length());
+	}
+
+	private double[][][] readChannels(IbdFile ibd, ImzMLMetadata metadata,
+		double[] mzs, boolean[] present
+	) throws InvalidDataException {
+		final double[][][] images = 
+			new double[mzs.length][metadata.getMaxY()][metadata.getMaxX()];
+		for (double[][] image : images) {
+			for (double[] row : image) {
+				Arrays.fill(row, Double.NaN);
+			}
+		}
+		
+		final Map<Long, int[]> rangesByMzOffset = new HashMap<Long, int[]>();
+		for (Spectrum spectrum : metadata.getSpectra()) {
+			final BinaryArray mzArray = spectrum.getMzArray();
+			final BinaryArray intensityArray = spectrum.getIntensityArray();
+			ibd.checkBounds(mzArray);
+			ibd.checkBounds(intensityArray);
+			
+			final int[] ranges = metadata.isContinuous() ?
+				rangesByMzOffset.computeIfAbsent(mzArray.getOffset(),
+					offset -> findChannelRanges(ibd, mzArray, mzs)) :
+				findChannelRanges(ibd, mzArray, mzs);
+			
+			for (int c = 0; c < mzs.length; c++) {
+				final int from = ranges[2 * c];
+				final int to = ranges[2 * c + 1];
+				
+				double intensity = 0d;
+				for (int i = from; i < to; i++) {
+					intensity += ibd.get(intensityArray, i);
+				}
+				
+				images[c][spectrum.getY() - 1][spectrum.getX() - 1] = intensity;
+				present[c] |= from < to;
+			}
+		}
+		
+		return images;
+	}
+	
+	/*
+	 * Returns the [from, to) index ranges of the m/z values of each channel,
+	 * found by binary search, since m/z arrays are sorted.
+	 */
+	private int[] findChannelRanges(IbdFile ibd, BinaryArray mzArray,
+		double[] mzs
+	) {
+		final int[] ranges = new int[2 * mzs.length];
+		for (int c = 0; c < mzs.length; c++) {
+			ranges[2 * c] = firstIndexAbove(ibd, mzArray, mzs[c] - tolerance, true);
+			ranges[2 * c + 1] = firstIndexAbove(ibd, mzArray, mzs[c] + tolerance, false);
+		}
+		
+		return ranges;
+	}
+	
+	private static int firstIndexAbove(IbdFile ibd, BinaryArray mzArray,
+		double mz, boolean inclusive
+	) {
+		int low = 0;
+		int high = mzArray.getLength();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			final double value = ibd.get(mzArray, middle);
+			
+			if (value < mz || (!inclusive && value == mz)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	private static void normalize(double[][][] images, int standardIndex, 
+		ProgressHandler progressHandler
+	) {
+		final double[][] standard = images[standardIndex];
+		
+		boolean zeroes = false;
+		for (double[] row : standard) {
+			for (double value : row) {
+				zeroes |= value == 0d;
+			}
+		}
+		if (zeroes) {
+			progressHandler.warn(STANDARD_ELEMENT_ZEROES_WARNING);
+		}
+		
+		for (int c = 0; c < standardIndex; c++) {
+			for (int y = 0; y < standard.length; y++) {
+				images[c][y] = 
+					NormalizeElementData.normalize(images[c][y], standard[y]);
+			}
+		}
+	}
+	
+	private static LineCoordinates[] createCoordinates(
+		ImzMLMetadata metadata, ElementDatasetConfiguration configuration
+	) {
+		final double tickX = Double.isNaN(metadata.getPixelSizeX()) ?
+			configuration.getLineRangeInterval() : metadata.getPixelSizeX();
+		final double tickY = Double.isNaN(metadata.getPixelSizeY()) ?
+			configuration.getPositionInterval() : metadata.getPixelSizeY();
+		final double endX = tickX * (metadata.getMaxX() - 1);
+		
+		final LineCoordinates[] coordinates = 
+			new LineCoordinates[metadata.getMaxY()];
+		for (int y = 0; y < coordinates.length; y++) {
+			coordinates[y] = new HorizontalLineCoordinates(tickX, 0, endX, tickY * y);
+		}
+		
+		return coordinates;
+	}
+
+	private static ElementData createElementData(String channel, 
+		double[][] image, LineCoordinates[] coordinates, 
+		StoragePrecision precision
+	) {
+		final LineData[] lines = new LineData[image.length];
+		for (int y = 0; y < lines.length; y++) {
+			lines[y] = precision.createLineData(
+				Integer.toString(y + 1), image[y], coordinates[y]);
+		}
+		
+		return ElementData.createElementData(channel, lines);
+	}
+}
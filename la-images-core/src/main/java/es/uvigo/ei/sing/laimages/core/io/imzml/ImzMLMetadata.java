@@ -0,0 +1,483 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.imzml;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+/**
+ * <p>
+ * The metadata of an imzML dataset: the storage mode of its {@code .ibd} 
+ * file, the dimensions of its pixel grid and the location of the m/z and 
+ * intensity arrays of each spectrum (pixel).
+ * </p>
+ * 
+ * <p>
+ * The imzML file is parsed as a stream, so that the metadata of large 
+ * datasets, which declare one {@code spectrum} element per pixel, is read 
+ * without building its XML tree in memory. Only uncompressed binary arrays
+ * are supported.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+final class ImzMLMetadata {
+	private static final String CONTINUOUS = "IMS:1000030";
+	private static final String PROCESSED = "IMS:1000031";
+	private static final String UUID = "IMS:1000080";
+	private static final String MAX_COUNT_X = "IMS:1000042";
+	private static final String MAX_COUNT_Y = "IMS:1000043";
+	private static final String PIXEL_SIZE_X = "IMS:1000046";
+	private static final String PIXEL_SIZE_Y = "IMS:1000047";
+	private static final String POSITION_X = "IMS:1000050";
+	private static final String POSITION_Y = "IMS:1000051";
+	private static final String EXTERNAL_OFFSET = "IMS:1000102";
+	private static final String EXTERNAL_ARRAY_LENGTH = "IMS:1000103";
+	private static final String EXTERNAL_ENCODED_LENGTH = "IMS:1000104";
+	private static final String MZ_ARRAY = "MS:1000514";
+	private static final String INTENSITY_ARRAY = "MS:1000515";
+	private static final String ZLIB_COMPRESSION = "MS:1000574";
+	
+	private final boolean continuous;
+	private final Optional<byte[]> uuid;
+	private final int maxX;
+	private final int maxY;
+	private final double pixelSizeX;
+	private final double pixelSizeY;
+	private final List<Spectrum> spectra;
+
+	private ImzMLMetadata(boolean continuous, Optional<byte[]> uuid, 
+		int maxX, int maxY, double pixelSizeX, double pixelSizeY,
+		List<Spectrum> spectra
+	) {
+		this.continuous = continuous;
+		this.uuid = uuid;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.pixelSizeX = pixelSizeX;
+		this.pixelSizeY = pixelSizeY;
+		this.spectra = spectra;
+	}
+	
+	/**
+	 * Returns {@code true} if all the spectra share the same m/z array 
+	 * (continuous mode) and {@code false} if each spectrum has its own m/z
+	 * array (processed mode).
+	 * 
+	 * @return {@code true} if all the spectra share the same m/z array.
+	 */
+	public boolean isContinuous() {
+		return continuous;
+	}
+	
+	/**
+	 * Returns the UUID that identifies the {@code .ibd} file of the dataset,
+	 * if it is declared.
+	 * 
+	 * @return the UUID that identifies the {@code .ibd} file of the dataset.
+	 */
+	public Optional<byte[]> getUuid() {
+		return uuid;
+	}
+	
+	/**
+	 * Returns the number of pixels in the x axis.
+	 * 
+	 * @return the number of pixels in the x axis.
+	 */
+	public int getMaxX() {
+		return maxX;
+	}
+	
+	/**
+	 * Returns the number of pixels in the y axis.
+	 * 
+	 * @return the number of pixels in the y axis.
+	 */
+	public int getMaxY() {
+		return maxY;
+	}
+	
+	/**
+	 * Returns the pixel size in the x axis, in millimeters, or {@code NaN} if
+	 * it is not declared.
+	 * 
+	 * @return the pixel size in the x axis, in millimeters.
+	 */
+	public double getPixelSizeX() {
+		return pixelSizeX;
+	}
+	
+	/**
+	 * Returns the pixel size in the y axis, in millimeters, or {@code NaN} if
+	 * it is not declared.
+	 * 
+	 * @return the pixel size in the y axis, in millimeters.
+	 */
+	public double getPixelSizeY() {
+		return pixelSizeY;
+	}
+	
+	/**
+	 * Returns the spectra of the dataset, in document order.
+	 * 
+	 * @return the spectra of the dataset.
+	 */
+	public List<Spectrum> getSpectra() {
+		return Collections.unmodifiableList(spectra);
+	}
+	
+	/**
+	 * A binary array stored in the {@code .ibd} file.
+	 */
+	static final class BinaryArray {
+		private final BinaryDataType type;
+		private final long offset;
+		private final int length;
+		
+		BinaryArray(BinaryDataType type, long offset, int length) {
+			this.type = type;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		public BinaryDataType getType() {
+			return type;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public int getLength() {
+			return length;
+		}
+	}
+	
+	/**
+	 * A spectrum, that is, the m/z and intensity arrays measured at one
+	 * pixel. Pixel coordinates start at 1.
+	 */
+	static final class Spectrum {
+		private final int x;
+		private final int y;
+		private final BinaryArray mzArray;
+		private final BinaryArray intensityArray;
+		
+		Spectrum(int x, int y, BinaryArray mzArray, BinaryArray intensityArray) {
+			this.x = x;
+			this.y = y;
+			this.mzArray = mzArray;
+			this.intensityArray = intensityArray;
+		}
+
+		public int getX() {
+			return x;
+		}
+
+		public int getY() {
+			return y;
+		}
+
+		public BinaryArray getMzArray() {
+			return mzArray;
+		}
+
+		public BinaryArray getIntensityArray() {
+			return intensityArray;
+		}
+	}
+	
+	/**
+	 * Parses the metadata of an imzML file.
+	 * 
+	 * @param imzML the imzML file.
+	 * @return the metadata of the imzML file.
+	 * @throws InvalidDataException if the imzML file is not valid or it 
+	 * 	declares unsupported binary arrays.
+	 * @throws IOException if an error occurs reading the imzML file.
+	 */
+	public static ImzMLMetadata parse(Path imzML) throws IOException {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(imzML))) {
+			final XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				return new Parser(imzML.getFileName().toString()).parse(reader);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new InvalidDataException(
+				"Invalid imzML file " + imzML.getFileName() + ": " + e.getMessage());
+		}
+	}
+	
+	private static final class Parser {
+		private final String fileName;
+		private final Map<String, Map<String, String>> groups = new HashMap<>();
+		private final Map<String, String> globalParams = new HashMap<>();
+		private final List<Spectrum> spectra = new ArrayList<Spectrum>();
+		
+		private Map<String, String> groupParams;
+		private Map<String, String> spectrumParams;
+		private Map<String, String> arrayParams;
+		private BinaryArray mzArray;
+		private BinaryArray intensityArray;
+		
+		public Parser(String fileName) {
+			this.fileName = fileName;
+		}
+		
+		public ImzMLMetadata parse(XMLStreamReader reader)
+			throws XMLStreamException, InvalidDataException
+		{
+			while (reader.hasNext()) {
+				final int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					startElement(reader);
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					endElement(reader.getLocalName());
+				}
+			}
+			
+			return createMetadata();
+		}
+		
+		private void startElement(XMLStreamReader reader)
+			throws InvalidDataException
+		{
+			switch (reader.getLocalName()) {
+			case "referenceableParamGroup":
+				groupParams = new HashMap<>();
+				groups.put(reader.getAttributeValue(null, "id"), groupParams);
+				break;
+			case "referenceableParamGroupRef":
+				final Map<String, String> group = 
+					groups.get(reader.getAttributeValue(null, "ref"));
+				if (group == null) {
+					throw invalid("undeclared parameter group " 
+						+ reader.getAttributeValue(null, "ref"));
+				}
+				currentParams().putAll(group);
+				break;
+			case "cvParam":
+				currentParams().put(
+					reader.getAttributeValue(null, "accession"),
+					reader.getAttributeValue(null, "value"));
+				break;
+			case "spectrum":
+				spectrumParams = new HashMap<>();
+				mzArray = null;
+				intensityArray = null;
+				break;
+			case "binaryDataArray":
+				arrayParams = new HashMap<>();
+				break;
+			default:
+			}
+		}
+		
+		private void endElement(String name) throws InvalidDataException {
+			switch (name) {
+			case "referenceableParamGroup":
+				groupParams = null;
+				break;
+			case "binaryDataArray":
+				endBinaryDataArray();
+				arrayParams = null;
+				break;
+			case "spectrum":
+				endSpectrum();
+				spectrumParams = null;
+				break;
+			default:
+			}
+		}
+		
+		private Map<String, String> currentParams() {
+			if (groupParams != null) {
+				return groupParams;
+			} else if (arrayParams != null) {
+				return arrayParams;
+			} else if (spectrumParams != null) {
+				return spectrumParams;
+			} else {
+				return globalParams;
+			}
+		}
+		
+		private void endBinaryDataArray() throws InvalidDataException {
+			final boolean isMz = arrayParams.containsKey(MZ_ARRAY);
+			final boolean isIntensity = arrayParams.containsKey(INTENSITY_ARRAY);
+			if (!isMz && !isIntensity) {
+				return;
+			}
+			
+			if (arrayParams.containsKey(ZLIB_COMPRESSION)) {
+				throw invalid("compressed binary data arrays are not supported");
+			}
+			
+			final BinaryDataType type = arrayParams.keySet().stream()
+				.map(BinaryDataType::forAccession)
+				.filter(t -> t != null)
+				.findFirst()
+			.orElseThrow(() -> invalid("unsupported binary data type"));
+			
+			final long offset = getLong(arrayParams, EXTERNAL_OFFSET);
+			final long length = getLong(arrayParams, EXTERNAL_ARRAY_LENGTH);
+			if (offset < 0 || length < 0 || length > Integer.MAX_VALUE) {
+				throw invalid("invalid binary data array location");
+			}
+			if (arrayParams.containsKey(EXTERNAL_ENCODED_LENGTH)
+				&& getLong(arrayParams, EXTERNAL_ENCODED_LENGTH) != length * type.getSize()
+			) {
+				throw invalid("binary data array length does not match its encoded length");
+			}
+			
+			final BinaryArray array = new BinaryArray(type, offset, (int) length);
+			if (isMz) {
+				mzArray = array;
+			} else {
+				intensityArray = array;
+			}
+		}
+		
+		private void endSpectrum() throws InvalidDataException {
+			if (mzArray == null || intensityArray == null) {
+				throw invalid("spectrum without m/z or intensity arrays");
+			}
+			if (mzArray.getLength() != intensityArray.getLength()) {
+				throw invalid("spectrum with m/z and intensity arrays of different lengths");
+			}
+			
+			final int x = (int) getLong(spectrumParams, POSITION_X);
+			final int y = (int) getLong(spectrumParams, POSITION_Y);
+			if (x < 1 || y < 1) {
+				throw invalid("invalid pixel position " + x + ", " + y);
+			}
+			
+			spectra.add(new Spectrum(x, y, mzArray, intensityArray));
+		}
+		
+		private ImzMLMetadata createMetadata() throws InvalidDataException {
+			final boolean continuous;
+			if (globalParams.containsKey(CONTINUOUS)) {
+				continuous = true;
+			} else if (globalParams.containsKey(PROCESSED)) {
+				continuous = false;
+			} else {
+				throw invalid("storage mode (continuous or processed) not declared");
+			}
+			
+			final int maxX = globalParams.containsKey(MAX_COUNT_X) ?
+				(int) getLong(globalParams, MAX_COUNT_X) :
+				spectra.stream().mapToInt(Spectrum::getX).max().orElse(0);
+			final int maxY = globalParams.containsKey(MAX_COUNT_Y) ?
+				(int) getLong(globalParams, MAX_COUNT_Y) :
+				spectra.stream().mapToInt(Spectrum::getY).max().orElse(0);
+			
+			for (Spectrum spectrum : spectra) {
+				if (spectrum.getX() > maxX || spectrum.getY() > maxY) {
+					throw invalid("pixel position out of the image bounds");
+				}
+			}
+			
+			return new ImzMLMetadata(continuous, getUuid(), maxX, maxY,
+				getMillimeters(PIXEL_SIZE_X), getMillimeters(PIXEL_SIZE_Y),
+				spectra);
+		}
+		
+		private Optional<byte[]> getUuid() throws InvalidDataException {
+			if (!globalParams.containsKey(UUID)) {
+				return Optional.empty();
+			}
+			
+			final String hex = globalParams.get(UUID).replaceAll("[^0-9a-fA-F]", "");
+			if (hex.length() != 32) {
+				throw invalid("invalid UUID " + globalParams.get(UUID));
+			}
+			
+			final byte[] uuid = new byte[16];
+			for (int i = 0; i < uuid.length; i++) {
+				uuid[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+			}
+			
+			return Optional.of(uuid);
+		}
+		
+		private double getMillimeters(String accession)
+			throws InvalidDataException 
+		{
+			if (!globalParams.containsKey(accession)) {
+				return Double.NaN;
+			}
+			
+			try {
+				return Double.parseDouble(globalParams.get(accession)) / 1000d;
+			} catch (NumberFormatException | NullPointerException e) {
+				throw invalid("invalid value for " + accession);
+			}
+		}
+		
+		private long getLong(Map<String, String> params, String accession)
+			throws InvalidDataException 
+		{
+			final String value = params.get(accession);
+			if (value == null) {
+				throw invalid("missing value for " + accession);
+			}
+			
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				throw invalid("invalid value for " + accession);
+			}
+		}
+		
+		private InvalidDataException invalid(String message) {
+			return new InvalidDataException(
+				"Invalid imzML file " + fileName + ": " + message + ".");
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.analysis.BivariateFunction;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * A {@code GridResampler} that evaluates a {@link BilinearInterpolatingFunction}
+ * at each point of the new grid. Since each evaluation searches the source 
+ * row and column, its cost grows with the size of the source matrix, so 
+ * {@link RegularGridBilinearResampler} should be preferred. This resampler
+ * is kept as the reference implementation of the bilinear interpolation.
+ * 
+ * @author Hugo López-Fernández
+ * @author Miguel Reboiro-Jato
+ */
+public class BilinearFunctionResampler implements GridResampler {
+	@Override
+	public double[][] resample(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		final int initialRows = source.getRowCount();
+		final int initialColumns = source.getColumnCount();
+		
+		final BivariateFunction function = new BilinearInterpolatingFunction(
+			IntStream.range(0, initialRows).asDoubleStream().toArray(),
+			IntStream.range(0, initialColumns).asDoubleStream().toArray(),
+			source, missingValue
+		);
+		
+		final double[][] newValues = new double[rows][columns];
+		
+		final double xFactor = ((double) initialRows - 1d) / ((double) rows - 1d);
+		final double yFactor = ((double) initialColumns - 1d) / ((double) columns - 1d);
+		for (int i = 0; i < newValues.length; i++) {
+			for (int j = 0; j < newValues[i].length; j++) {
+				newValues[i][j] = function.value(
+					(double) i * xFactor, (double) j * yFactor
+				);
+			}
+		}
+		
+		return newValues;
+	}
+}
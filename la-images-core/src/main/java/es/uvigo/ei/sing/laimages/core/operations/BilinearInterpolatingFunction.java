@@ -30,10 +30,17 @@ import org.apache.commons.math3.exception.NonMonotonicSequenceException;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.util.MathArrays;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
 public class BilinearInterpolatingFunction implements BivariateFunction {
 	private final double[] xval;
 	private final double[] yval;
-	private final double[][] fval;
+	private final Values fval;
+	
+	@FunctionalInterface
+	private static interface Values {
+		public double get(int i, int j);
+	}
 
 	public BilinearInterpolatingFunction(double[] xval, double[] yval, double[][] fval)
 	throws DimensionMismatchException, NoDataException, NonMonotonicSequenceException {
@@ -52,7 +59,39 @@ public class BilinearInterpolatingFunction implements BivariateFunction {
 		
 		this.xval = xval;
 		this.yval = yval;
-		this.fval = fval;
+		this.fval = (i, j) -> fval[i][j];
+	}
+	
+	/**
+	 * Constructs a new {@code BilinearInterpolatingFunction} that reads the 
+	 * values directly from {@code matrix}, without copying it. The rows of
+	 * {@code matrix} correspond to {@code xval} and its columns to 
+	 * {@code yval}.
+	 * 
+	 * @param xval the values of the rows.
+	 * @param yval the values of the columns.
+	 * @param matrix the matrix of values.
+	 * @param missingValue the value to use for missing values.
+	 */
+	public BilinearInterpolatingFunction(
+		double[] xval, double[] yval, ElementMatrix matrix, double missingValue
+	) throws DimensionMismatchException, NoDataException, NonMonotonicSequenceException {
+		if (xval.length == 0 || yval.length == 0 || matrix.getRowCount() == 0) {
+			throw new NoDataException();
+		}
+		if (xval.length != matrix.getRowCount()) {
+			throw new DimensionMismatchException(xval.length, matrix.getRowCount());
+		}
+		if (yval.length != matrix.getColumnCount()) {
+			throw new DimensionMismatchException(yval.length, matrix.getColumnCount());
+		}
+		
+		MathArrays.checkOrder(xval);
+		MathArrays.checkOrder(yval);
+		
+		this.xval = xval;
+		this.yval = yval;
+		this.fval = (i, j) -> matrix.get(i, j, missingValue);
 	}
 
 	@Override
@@ -64,15 +103,15 @@ public class BilinearInterpolatingFunction implements BivariateFunction {
 			final int i = getXIndex(x);
 			final int j = getYIndex(y);
 			
-			return this.fval[i][j];
+			return this.fval.get(i, j);
 		} else if (inRow) {
 			final int i = getXIndex(x);
 			final int j1 = previousY(y);
 			final int j2 = nextY(y);
 			final double y1 = this.yval[j1];
 			final double y2 = this.yval[j2];
-			final double q1 = this.fval[i][j1];
-			final double q2 = this.fval[i][j2];
+			final double q1 = this.fval.get(i, j1);
+			final double q2 = this.fval.get(i, j2);
 			
 			// Horizontal linear interpolation
 			return ((y - y1) * (q2 - q1)) / (y2 - y1) + q1;
@@ -82,8 +121,8 @@ public class BilinearInterpolatingFunction implements BivariateFunction {
 			final int i2 = nextX(x);
 			final double x1 = this.xval[i1];
 			final double x2 = this.xval[i2];
-			final double q1 = this.fval[i1][j];
-			final double q2 = this.fval[i2][j];
+			final double q1 = this.fval.get(i1, j);
+			final double q2 = this.fval.get(i2, j);
 
 			// Vertical linear interpolation
 			return ((x - x1) * (q2 - q1)) / (x2 - x1) + q1;
@@ -97,10 +136,10 @@ public class BilinearInterpolatingFunction implements BivariateFunction {
 			final double x2 = this.xval[i2];
 			final double y1 = this.yval[j1];
 			final double y2 = this.yval[j2];
-			final double q11 = this.fval[i1][j1];
-			final double q12 = this.fval[i1][j2];
-			final double q21 = this.fval[i2][j1];
-			final double q22 = this.fval[i2][j2];
+			final double q11 = this.fval.get(i1, j1);
+			final double q12 = this.fval.get(i1, j2);
+			final double q21 = this.fval.get(i2, j1);
+			final double q22 = this.fval.get(i2, j2);
 			
 			// Bilinear interpolation
 			return ((x2 - x) * (y2 - y))/((x2 - x1) * (y2 - y1)) * q11
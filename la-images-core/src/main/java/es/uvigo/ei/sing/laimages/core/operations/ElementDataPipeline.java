@@ -0,0 +1,537 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import static es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData.createElementData;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.Axis;
+
+/**
+ * <p>
+ * A lazy chain of operations over an {@code ElementData}, equivalent to 
+ * chaining {@link NormalizeElementData}, {@link ScaleElementData} and 
+ * {@link Interpolator}, that is only evaluated when 
+ * {@link ElementDataPipeline#execute()} is invoked.
+ * </p>
+ * 
+ * <p>
+ * Consecutive value operations are fused into a single 
+ * {@code DoubleUnaryOperator}, so that they are applied in one pass and only
+ * the final {@code ElementData} is allocated. Normalizing by the maximum 
+ * value only requires an additional pass to find the maximum when previous 
+ * operations have changed the values. Operations added after an 
+ * interpolation are applied in place to the interpolated values.
+ * </p>
+ * 
+ * <p>
+ * Pipelines are immutable: each method returns a new pipeline, so a common
+ * prefix can be shared by several pipelines. Missing values are kept 
+ * missing by value operations.
+ * </p>
+ * 
+ * <p>
+ * When only the values and their axes are needed (e.g. to render them), 
+ * {@link ElementDataPipeline#executeToMatrix(BooleanSupplier)} returns the
+ * final {@code ElementMatrix} without building the lines of an 
+ * {@code ElementData} from it.
+ * </p>
+ * 
+ * @author Hugo López-Fernández
+ * @see NormalizeElementData
+ * @see ScaleElementData
+ * @see Interpolator
+ *
+ */
+public final class ElementDataPipeline {
+	private final ElementData source;
+	private final ElementData standard;
+	private final List<Step> steps;
+	
+	private ElementDataPipeline(
+		ElementData source, ElementData standard, List<Step> steps
+	) {
+		this.source = source;
+		this.standard = standard;
+		this.steps = steps;
+	}
+	
+	/**
+	 * Creates a new pipeline without operations over {@code source}.
+	 * 
+	 * @param source the {@code ElementData} to transform.
+	 * @return a new pipeline over {@code source}.
+	 */
+	public static ElementDataPipeline of(ElementData source) {
+		return new ElementDataPipeline(
+			requireNonNull(source), null, unmodifiableList(new ArrayList<>()));
+	}
+	
+	/**
+	 * Returns a new pipeline that normalizes the values by the values of the
+	 * {@code standard} element, as 
+	 * {@link NormalizeElementData#normalize(ElementData, ElementData)} does.
+	 * This must be the first operation of the pipeline.
+	 * 
+	 * @param standard the standard {@code ElementData}.
+	 * @return a new pipeline that normalizes the values by {@code standard}.
+	 * @throws IllegalArgumentException if {@code standard} is not compatible
+	 * 	with the source element.
+	 * @throws IllegalStateException if the pipeline already has operations.
+	 */
+	public ElementDataPipeline normalize(ElementData standard) {
+		if (!this.steps.isEmpty() || this.standard != null) {
+			throw new IllegalStateException(
+				"Normalization by a standard must be the first operation");
+		}
+		if (!source.isCompatibleWith(standard)) {
+			throw new IllegalArgumentException(
+				"standard and source are not compatible");
+		}
+		
+		return new ElementDataPipeline(source, standard, steps);
+	}
+	
+	/**
+	 * Returns a new pipeline that divides the values by the maximum value, 
+	 * as {@link NormalizeElementData#normalize(ElementData)} does.
+	 * 
+	 * @return a new pipeline that divides the values by the maximum value.
+	 */
+	public ElementDataPipeline normalizeToMax() {
+		return add(Step.NORMALIZE_TO_MAX);
+	}
+	
+	/**
+	 * Returns a new pipeline that applies {@code operator} to the values, as
+	 * {@link ScaleElementData#scale(java.util.function.DoubleFunction, 
+	 * ElementData)} does.
+	 * 
+	 * @param operator the operator to apply to each value.
+	 * @return a new pipeline that applies {@code operator} to the values.
+	 */
+	public ElementDataPipeline map(DoubleUnaryOperator operator) {
+		return add(new Step(requireNonNull(operator)));
+	}
+	
+	/**
+	 * Returns a new pipeline that interpolates the values using the 
+	 * {@link Interpolator#DEFAULT_RESAMPLER}.
+	 * 
+	 * @param interpolationLevel the interpolation level. I.e the number of
+	 * points generated vertically or horizontally between two existing points.
+	 * @return a new pipeline that interpolates the values.
+	 * @see Interpolator#interpolate(ElementData, int)
+	 */
+	public ElementDataPipeline interpolate(int interpolationLevel) {
+		return interpolate(interpolationLevel, Interpolator.DEFAULT_RESAMPLER);
+	}
+	
+	/**
+	 * Returns a new pipeline that interpolates the values using the given 
+	 * {@code GridResampler}. A pipeline can be interpolated only once.
+	 * 
+	 * @param interpolationLevel the interpolation level. I.e the number of
+	 * points generated vertically or horizontally between two existing points.
+	 * @param resampler the {@code GridResampler} that computes the new values.
+	 * @return a new pipeline that interpolates the values.
+	 * @throws IllegalArgumentException if {@code interpolationLevel} is 
+	 * 	negative.
+	 * @throws IllegalStateException if the pipeline is already interpolated.
+	 * @see Interpolator#interpolate(ElementData, int, GridResampler)
+	 */
+	public ElementDataPipeline interpolate(
+		int interpolationLevel, GridResampler resampler
+	) {
+		if (interpolationLevel < 0) {
+			throw new IllegalArgumentException(
+				"Interpolation level can't be negative");
+		}
+		if (steps.stream().anyMatch(Step::isInterpolation)) {
+			throw new IllegalStateException("The pipeline is already interpolated");
+		}
+		
+		if (interpolationLevel == 0) {
+			return this;
+		} else {
+			return add(new Step(interpolationLevel, requireNonNull(resampler)));
+		}
+	}
+	
+	/**
+	 * Evaluates the pipeline and returns the resulting {@code ElementData}. 
+	 * If the pipeline has no operations, the source element is returned.
+	 * 
+	 * @return the resulting {@code ElementData}.
+	 * @throws IllegalStateException if the maximum value is needed and there
+	 * 	are no values.
+	 */
+	public ElementData execute() {
+		return execute(() -> false);
+	}
+	
+	/**
+	 * Evaluates the pipeline and returns the resulting {@code ElementData}, 
+	 * stopping the interpolation, if any, when {@code cancelled} returns 
+	 * {@code true}. If the pipeline has no operations, the source element is
+	 * returned.
+	 * 
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	evaluation must be cancelled.
+	 * @return the resulting {@code ElementData}.
+	 * @throws IllegalStateException if the maximum value is needed and there
+	 * 	are no values.
+	 * @throws CancellationException if the evaluation is cancelled.
+	 */
+	public ElementData execute(BooleanSupplier cancelled) {
+		if (standard == null && steps.isEmpty()) {
+			return source;
+		}
+		
+		final int interpolation = getInterpolationIndex();
+		final List<Step> before = interpolation < 0 ? 
+			steps : steps.subList(0, interpolation);
+		final DoubleUnaryOperator operator = fuseLineSteps(before);
+		
+		if (interpolation < 0) {
+			return createElementData(source.getName(), mapLines(operator));
+		} else {
+			final Step interpolate = steps.get(interpolation);
+			final double[][] newValues = Interpolator.calculateNewValues(
+				mapMatrix(before.isEmpty() ? null : operator),
+				interpolate.interpolationLevel, interpolate.resampler, cancelled
+			);
+			
+			applyInPlace(steps.subList(interpolation + 1, steps.size()), newValues);
+			
+			return createElementData(source.getName(), 
+				Interpolator.calculateNewLines(source, newValues));
+		}
+	}
+	
+	/**
+	 * Evaluates the pipeline and returns the resulting values as a 
+	 * {@code MatrixResult}, stopping the interpolation, if any, when 
+	 * {@code cancelled} returns {@code true}. Unlike 
+	 * {@link ElementDataPipeline#execute(BooleanSupplier)}, the lines of the
+	 * resulting {@code ElementData} are not created, so interpolated values
+	 * are only copied once into the matrix.
+	 * 
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	evaluation must be cancelled.
+	 * @return the resulting matrix and its axes.
+	 * @throws IllegalStateException if the maximum value is needed and there
+	 * 	are no values.
+	 * @throws CancellationException if the evaluation is cancelled.
+	 */
+	public MatrixResult executeToMatrix(BooleanSupplier cancelled) {
+		final int interpolation = getInterpolationIndex();
+		final List<Step> before = interpolation < 0 ? 
+			steps : steps.subList(0, interpolation);
+		final DoubleUnaryOperator operator = before.isEmpty() ? 
+			null : fuseLineSteps(before);
+		final ElementMatrix matrix = mapMatrix(operator);
+		
+		if (interpolation < 0) {
+			return new MatrixResult(matrix, 
+				Axis.of(source.getXAxis()), Axis.of(source.getYAxis()));
+		} else {
+			final Step interpolate = steps.get(interpolation);
+			final double[][] newValues = Interpolator.calculateNewValues(
+				matrix, interpolate.interpolationLevel, interpolate.resampler, 
+				cancelled
+			);
+			
+			applyInPlace(steps.subList(interpolation + 1, steps.size()), newValues);
+			
+			return new MatrixResult(ElementMatrix.of(newValues),
+				Interpolator.calculateNewAxis(
+					source.getXAxis(), newValues[0].length),
+				Interpolator.calculateNewAxis(
+					source.getYAxis(), newValues.length)
+			);
+		}
+	}
+	
+	private ElementDataPipeline add(Step step) {
+		final List<Step> newSteps = new ArrayList<>(steps);
+		newSteps.add(step);
+		
+		return new ElementDataPipeline(
+			source, standard, unmodifiableList(newSteps));
+	}
+	
+	private int getInterpolationIndex() {
+		for (int i = 0; i < steps.size(); i++) {
+			if (steps.get(i).isInterpolation()) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private DoubleUnaryOperator fuseLineSteps(List<Step> lineSteps) {
+		DoubleUnaryOperator operator = DoubleUnaryOperator.identity();
+		boolean changed = standard != null;
+		
+		for (Step step : lineSteps) {
+			if (step.isNormalizeToMax()) {
+				final double max = changed ? 
+					maxLineValue(operator) : source.getMaxValue();
+				operator = operator.andThen(d -> d / max);
+			} else {
+				operator = operator.andThen(step.operator);
+			}
+			changed = true;
+		}
+		
+		return operator;
+	}
+	
+	private double maxLineValue(DoubleUnaryOperator operator) {
+		final LineData[] lines = source.getLines();
+		final LineData[] standardLines = getStandardLines();
+		
+		double max = Double.NEGATIVE_INFINITY;
+		boolean found = false;
+		for (int i = 0; i < lines.length; i++) {
+			for (int j = 0; j < lines[i].getLength(); j++) {
+				final double value = lineValue(lines, standardLines, i, j);
+				
+				if (!Double.isNaN(value)) {
+					final double mapped = operator.applyAsDouble(value);
+					if (!Double.isNaN(mapped)) {
+						max = Math.max(max, mapped);
+						found = true;
+					}
+				}
+			}
+		}
+		
+		if (!found) {
+			throw new IllegalStateException("No values found");
+		}
+		
+		return max;
+	}
+	
+	private LineData[] mapLines(DoubleUnaryOperator operator) {
+		final LineData[] lines = source.getLines();
+		final LineData[] standardLines = getStandardLines();
+		final LineData[] mapped = new LineData[lines.length];
+		
+		for (int i = 0; i < lines.length; i++) {
+			final double[] values = new double[lines[i].getLength()];
+			for (int j = 0; j < values.length; j++) {
+				final double value = lineValue(lines, standardLines, i, j);
+				values[j] = Double.isNaN(value) ? 
+					Double.NaN : operator.applyAsDouble(value);
+			}
+			
+			mapped[i] = lines[i].getStoragePrecision().createLineData(
+				lines[i].getName(), values, lines[i].getCoordinates());
+		}
+		
+		return mapped;
+	}
+	
+	private ElementMatrix mapMatrix(DoubleUnaryOperator operator) {
+		final ElementMatrix matrix = source.getMatrix();
+		
+		if (standard != null) {
+			final DoubleUnaryOperator mapping = operator == null ? 
+				DoubleUnaryOperator.identity() : operator;
+			
+			return matrix.combine(standard.getMatrix(), 
+				(value, standardValue) -> {
+					final double normalized = normalize(value, standardValue);
+					
+					return Double.isNaN(normalized) ? 
+						Double.NaN : mapping.applyAsDouble(normalized);
+				}
+			);
+		} else if (operator != null) {
+			return matrix.map(operator);
+		} else {
+			return matrix;
+		}
+	}
+	
+	private static void applyInPlace(List<Step> valueSteps, double[][] values) {
+		DoubleUnaryOperator operator = DoubleUnaryOperator.identity();
+		
+		for (Step step : valueSteps) {
+			if (step.isNormalizeToMax()) {
+				final double max = maxValue(values, operator);
+				operator = operator.andThen(d -> d / max);
+			} else {
+				operator = operator.andThen(step.operator);
+			}
+		}
+		
+		if (!valueSteps.isEmpty()) {
+			for (double[] row : values) {
+				for (int i = 0; i < row.length; i++) {
+					if (!Double.isNaN(row[i])) {
+						row[i] = operator.applyAsDouble(row[i]);
+					}
+				}
+			}
+		}
+	}
+	
+	private static double maxValue(double[][] values, DoubleUnaryOperator operator) {
+		double max = Double.NEGATIVE_INFINITY;
+		boolean found = false;
+		
+		for (double[] row : values) {
+			for (double value : row) {
+				if (!Double.isNaN(value)) {
+					final double mapped = operator.applyAsDouble(value);
+					if (!Double.isNaN(mapped)) {
+						max = Math.max(max, mapped);
+						found = true;
+					}
+				}
+			}
+		}
+		
+		if (!found) {
+			throw new IllegalStateException("No values found");
+		}
+		
+		return max;
+	}
+	
+	private LineData[] getStandardLines() {
+		return standard == null ? null : standard.getLines();
+	}
+	
+	private static double lineValue(
+		LineData[] lines, LineData[] standardLines, int line, int index
+	) {
+		final double value = lines[line].getValue(index);
+		
+		return standardLines == null ? 
+			value : normalize(value, standardLines[line].getValue(index));
+	}
+	
+	private static double normalize(double value, double standardValue) {
+		final double normalized = value / standardValue;
+		
+		return Double.isInfinite(normalized) ? Double.NaN : normalized;
+	}
+	
+	/**
+	 * The result of evaluating a pipeline as a matrix: the values, with rows
+	 * along the y axis and columns along the x axis, and the axes of the 
+	 * matrix.
+	 * 
+	 * @author Hugo López-Fernández
+	 * @see ElementDataPipeline#executeToMatrix(BooleanSupplier)
+	 *
+	 */
+	public static final class MatrixResult {
+		private final ElementMatrix matrix;
+		private final Axis xAxis;
+		private final Axis yAxis;
+		
+		private MatrixResult(ElementMatrix matrix, Axis xAxis, Axis yAxis) {
+			this.matrix = matrix;
+			this.xAxis = xAxis;
+			this.yAxis = yAxis;
+		}
+		
+		/**
+		 * Returns the resulting values.
+		 * 
+		 * @return the resulting values.
+		 */
+		public ElementMatrix getMatrix() {
+			return matrix;
+		}
+		
+		/**
+		 * Returns the x axis of the matrix, i.e. the coordinates of its 
+		 * columns.
+		 * 
+		 * @return the x axis of the matrix.
+		 */
+		public Axis getXAxis() {
+			return xAxis;
+		}
+		
+		/**
+		 * Returns the y axis of the matrix, i.e. the coordinates of its rows.
+		 * 
+		 * @return the y axis of the matrix.
+		 */
+		public Axis getYAxis() {
+			return yAxis;
+		}
+	}
+	
+	private static final class Step {
+		private static final Step NORMALIZE_TO_MAX = new Step(null);
+		
+		private final DoubleUnaryOperator operator;
+		private final int interpolationLevel;
+		private final GridResampler resampler;
+		
+		public Step(DoubleUnaryOperator operator) {
+			this(operator, 0, null);
+		}
+		
+		public Step(int interpolationLevel, GridResampler resampler) {
+			this(null, interpolationLevel, resampler);
+		}
+		
+		private Step(DoubleUnaryOperator operator, int interpolationLevel,
+			GridResampler resampler
+		) {
+			this.operator = operator;
+			this.interpolationLevel = interpolationLevel;
+			this.resampler = resampler;
+		}
+		
+		public boolean isInterpolation() {
+			return resampler != null;
+		}
+		
+		public boolean isNormalizeToMax() {
+			return this == NORMALIZE_TO_MAX;
+		}
+	}
+}
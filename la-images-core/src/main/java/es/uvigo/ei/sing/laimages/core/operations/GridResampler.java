@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * A {@code GridResampler} computes the values of a regular grid of 
+ * {@code rows} x {@code columns} points that covers the same area as a 
+ * source matrix. The first and last rows and columns of the new grid are 
+ * aligned with the first and last rows and columns of the source matrix.
+ * 
+ * @author Hugo López-Fernández
+ * @see Interpolator
+ */
+@FunctionalInterface
+public interface GridResampler {
+	/**
+	 * Resamples {@code source} into a new matrix of {@code rows} x 
+	 * {@code columns} values.
+	 * 
+	 * @param source the matrix to resample.
+	 * @param rows the number of rows of the new matrix.
+	 * @param columns the number of columns of the new matrix.
+	 * @param missingValue the value used for the missing values of 
+	 * 	{@code source}.
+	 * @return a new matrix with the resampled values.
+	 */
+	public double[][] resample(
+		ElementMatrix source, int rows, int columns, double missingValue
+	);
+	
+	/**
+	 * Resamples {@code source} into a new matrix of {@code rows} x 
+	 * {@code columns} values, stopping when {@code cancelled} returns 
+	 * {@code true}. This default implementation checks {@code cancelled} 
+	 * only before and after resampling. Implementations that compute the 
+	 * new matrix in parts should check it between parts.
+	 * 
+	 * @param source the matrix to resample.
+	 * @param rows the number of rows of the new matrix.
+	 * @param columns the number of columns of the new matrix.
+	 * @param missingValue the value used for the missing values of 
+	 * 	{@code source}.
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	resampling must be cancelled.
+	 * @return a new matrix with the resampled values.
+	 * @throws CancellationException if the resampling is cancelled.
+	 */
+	public default double[][] resample(ElementMatrix source, int rows, 
+		int columns, double missingValue, BooleanSupplier cancelled
+	) {
+		checkCancelled(cancelled);
+		final double[][] newValues = resample(source, rows, columns, missingValue);
+		checkCancelled(cancelled);
+		
+		return newValues;
+	}
+	
+	/**
+	 * Throws a {@code CancellationException} if {@code cancelled} returns
+	 * {@code true}.
+	 * 
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	resampling must be cancelled.
+	 * @throws CancellationException if {@code cancelled} returns 
+	 * 	{@code true}.
+	 */
+	public static void checkCancelled(BooleanSupplier cancelled) {
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException("Resampling cancelled");
+		}
+	}
+}
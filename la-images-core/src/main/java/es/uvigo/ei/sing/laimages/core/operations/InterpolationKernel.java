@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The interpolation kernels available to resample element data.
+ * 
+ * @author Hugo López-Fernández
+ * @see Interpolator
+ */
+public enum InterpolationKernel {
+	BILINEAR("Bilinear", new RegularGridBilinearResampler()),
+	BICUBIC("Bicubic", 
+		new SeparableKernelResampler(SeparableKernelResampler.BICUBIC)),
+	LANCZOS_3("Lanczos-3", 
+		new SeparableKernelResampler(SeparableKernelResampler.LANCZOS_3));
+	
+	private final String name;
+	private final RowGridResampler resampler;
+	private final GridResampler parallelResampler;
+	
+	InterpolationKernel(String name, RowGridResampler resampler) {
+		this.name = name;
+		this.resampler = resampler;
+		this.parallelResampler = new ParallelGridResampler(resampler);
+	}
+	
+	/**
+	 * Returns the resampler that computes the new values sequentially, 
+	 * which can also be used to compute them in tiles.
+	 * 
+	 * @return the resampler that computes the new values sequentially.
+	 */
+	public RowGridResampler getRowResampler() {
+		return resampler;
+	}
+	
+	/**
+	 * Returns the resampler that computes the new values in parallel in the
+	 * common {@code ForkJoinPool}.
+	 * 
+	 * @return the resampler that computes the new values in parallel.
+	 */
+	public GridResampler getResampler() {
+		return parallelResampler;
+	}
+	
+	/**
+	 * Returns a resampler that computes the new values in parallel in 
+	 * {@code pool}, which is owned by the caller. For instance, a view can 
+	 * use a pool with a limited parallelism level to keep the rest of the 
+	 * application responsive.
+	 * 
+	 * @param pool the pool where the new values are computed.
+	 * @return a resampler that computes the new values in parallel in 
+	 * 	{@code pool}.
+	 */
+	public GridResampler getResampler(ForkJoinPool pool) {
+		return new ParallelGridResampler(
+			resampler, pool, ParallelGridResampler.DEFAULT_TILE_ROWS);
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
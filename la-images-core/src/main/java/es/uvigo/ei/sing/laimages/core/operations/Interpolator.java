@@ -24,14 +24,16 @@
 package es.uvigo.ei.sing.laimages.core.operations;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntBinaryOperator;
-import java.util.stream.IntStream;
-
-import org.apache.commons.math3.analysis.BivariateFunction;
-import org.apache.commons.math3.analysis.interpolation.BivariateGridInterpolator;
+import java.util.function.ObjIntConsumer;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.Axis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
 
@@ -71,11 +73,22 @@ import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLine
  * @author Miguel Reboiro-Jato
  */
 public class Interpolator {
+	private static final int STREAMING_TILE_ROWS = 16;
+	
 	private static final IntBinaryOperator CALCULATE_SIZE = (actual, level) ->
 		actual + (actual - 1) * level;
 	
 	/**
-	 * Interpolates an {@code ElementData} parameterized by {@code times}.
+	 * The {@code GridResampler} used by default, which computes a 
+	 * {@link RegularGridBilinearResampler} in parallel in the common 
+	 * {@code ForkJoinPool}.
+	 */
+	public static final GridResampler DEFAULT_RESAMPLER = 
+		new ParallelGridResampler(new RegularGridBilinearResampler());
+	
+	/**
+	 * Interpolates an {@code ElementData} parameterized by {@code times}
+	 * using the {@link Interpolator#DEFAULT_RESAMPLER}.
 	 * 
 	 * @param data the {@code ElementData} to interpolate.
 	 * @param interpolationLevel the interpolation level. I.e the number of
@@ -84,69 +97,212 @@ public class Interpolator {
 	 */
 	public static ElementData interpolate(
 		ElementData data, int interpolationLevel
+	) {
+		return interpolate(data, interpolationLevel, DEFAULT_RESAMPLER);
+	}
+	
+	/**
+	 * Interpolates an {@code ElementData} parameterized by {@code times}
+	 * using the given {@code GridResampler}.
+	 * 
+	 * @param data the {@code ElementData} to interpolate.
+	 * @param interpolationLevel the interpolation level. I.e the number of
+	 * points generated vertically or horizontally between two existing points.
+	 * @param resampler the {@code GridResampler} that computes the new values.
+	 * @return the interpolated {@code ElementData}.
+	 */
+	public static ElementData interpolate(
+		ElementData data, int interpolationLevel, GridResampler resampler
+	) {
+		return interpolate(data, interpolationLevel, resampler, () -> false);
+	}
+	
+	/**
+	 * Interpolates an {@code ElementData} parameterized by {@code times}
+	 * using the given {@code GridResampler}, stopping when 
+	 * {@code cancelled} returns {@code true}. For instance, a view can cancel
+	 * the interpolation of a level that has been replaced by another one.
+	 * 
+	 * @param data the {@code ElementData} to interpolate.
+	 * @param interpolationLevel the interpolation level. I.e the number of
+	 * points generated vertically or horizontally between two existing points.
+	 * @param resampler the {@code GridResampler} that computes the new values.
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	interpolation must be cancelled.
+	 * @return the interpolated {@code ElementData}.
+	 * @throws CancellationException if the interpolation is cancelled.
+	 * @see GridResampler#resample(ElementMatrix, int, int, double, 
+	 * 	BooleanSupplier)
+	 */
+	public static ElementData interpolate(ElementData data, 
+		int interpolationLevel, GridResampler resampler, 
+		BooleanSupplier cancelled
 	) {
 		if (interpolationLevel == 0) {
 			return data;
 		} else {
-			final double[][] newValues = 
-				calculateNewValues(data.getData(0), interpolationLevel);
+			final double[][] newValues = calculateNewValues(
+				data.getMatrix(), interpolationLevel, resampler, cancelled);
 			
-			final LineData[] newLines = calculateNewLines(data, interpolationLevel, newValues);
+			final LineData[] newLines = calculateNewLines(data, newValues);
 			
 			return ElementData.createElementData(data.getName(), newLines);
 		}
 	}
 	
-	private static double[][] calculateNewValues(
-		double[][] data, int interpolationLevel
+	/**
+	 * Resamples an {@code ElementData} into a regular grid of exactly 
+	 * {@code rows} x {@code columns} points that covers the same area, using
+	 * the {@link Interpolator#DEFAULT_RESAMPLER}.
+	 * 
+	 * @param data the {@code ElementData} to resample.
+	 * @param rows the number of rows of the new grid.
+	 * @param columns the number of columns of the new grid.
+	 * @return the resampled {@code ElementData}.
+	 * @throws IllegalArgumentException if {@code rows} or {@code columns} 
+	 * 	are lower than 1.
+	 */
+	public static ElementData resample(ElementData data, int rows, int columns) {
+		return resample(data, rows, columns, DEFAULT_RESAMPLER);
+	}
+	
+	/**
+	 * Resamples an {@code ElementData} into a regular grid of exactly 
+	 * {@code rows} x {@code columns} points that covers the same area, using
+	 * the given {@code GridResampler}.
+	 * 
+	 * @param data the {@code ElementData} to resample.
+	 * @param rows the number of rows of the new grid.
+	 * @param columns the number of columns of the new grid.
+	 * @param resampler the {@code GridResampler} that computes the new values.
+	 * @return the resampled {@code ElementData}.
+	 * @throws IllegalArgumentException if {@code rows} or {@code columns} 
+	 * 	are lower than 1.
+	 */
+	public static ElementData resample(
+		ElementData data, int rows, int columns, GridResampler resampler
 	) {
-		final int initialRows = data.length;
-		final int initialColumns = data[0].length;
+		checkGridSize(rows, columns);
 		
-		final BivariateGridInterpolator interpolator = new BilinearInterpolator();
-		final BivariateFunction function = interpolator.interpolate(
-			IntStream.range(0, initialRows).asDoubleStream().toArray(),
-			IntStream.range(0, initialColumns).asDoubleStream().toArray(),
-			data
-		);
+		final double[][] newValues = 
+			resampler.resample(data.getMatrix(), rows, columns, 0d);
 		
-		final int newNumRows = CALCULATE_SIZE.applyAsInt(
-			initialRows, interpolationLevel);
-		final int newNumColumns = CALCULATE_SIZE.applyAsInt(
-			initialColumns, interpolationLevel);
+		return ElementData.createElementData(
+			data.getName(), calculateNewLines(data, newValues));
+	}
+	
+	/**
+	 * Resamples an {@code ElementData} into a regular grid whose points are
+	 * separated {@code xPitch} and {@code yPitch} units (i.e. the units of 
+	 * the data axes) in the X and Y axes, respectively. The number of points 
+	 * is rounded so that the grid covers the same area as the data.
+	 * 
+	 * @param data the {@code ElementData} to resample.
+	 * @param xPitch the distance between two points of the new grid in the X
+	 * 	axis.
+	 * @param yPitch the distance between two points of the new grid in the Y
+	 * 	axis.
+	 * @return the resampled {@code ElementData}.
+	 * @throws IllegalArgumentException if {@code xPitch} or {@code yPitch} 
+	 * 	are not positive.
+	 */
+	public static ElementData resampleToPitch(
+		ElementData data, double xPitch, double yPitch
+	) {
+		return resample(data, 
+			getGridSize(data.getYAxis(), yPitch), 
+			getGridSize(data.getXAxis(), xPitch)
+		);
+	}
+	
+	/**
+	 * Resamples an {@code ElementData} into a regular grid of exactly 
+	 * {@code rows} x {@code columns} points and passes each new row to 
+	 * {@code consumer}, in order, along with its index. Rows are computed in
+	 * small tiles, so that the whole new matrix never has to be kept in 
+	 * memory. The array passed to {@code consumer} is reused, so it must be 
+	 * copied if it is going to be stored. Missing values are replaced by 
+	 * {@code 0}, as in the rest of methods of this class.
+	 * 
+	 * @param data the {@code ElementData} to resample.
+	 * @param rows the number of rows of the new grid.
+	 * @param columns the number of columns of the new grid.
+	 * @param resampler the {@code RowGridResampler} that computes the new 
+	 * 	values.
+	 * @param consumer the consumer of the new rows.
+	 * @throws IllegalArgumentException if {@code rows} or {@code columns} 
+	 * 	are lower than 1.
+	 */
+	public static void resampleRows(ElementData data, int rows, int columns,
+		RowGridResampler resampler, ObjIntConsumer<double[]> consumer
+	) {
+		checkGridSize(rows, columns);
 		
-		final double[][] newValues = new double[newNumRows][newNumColumns];
+		final RowGridResampler.Rows task = 
+			resampler.prepare(data.getMatrix(), rows, columns, 0d);
 		
-		final double xFactor = ((double) initialRows - 1d) / ((double) newNumRows - 1d);
-		final double yFactor = ((double) initialColumns - 1d) / ((double) newNumColumns - 1d);
-		for (int i = 0; i < newValues.length; i++) {
-			for (int j = 0; j < newValues[i].length; j++) {
-				newValues[i][j] = function.value(
-					(double) i * xFactor, (double) j * yFactor
-				);
+		final double[][] tile = new double[STREAMING_TILE_ROWS][columns];
+		final double[][] window = new double[rows][];
+		for (int fromRow = 0; fromRow < rows; fromRow += STREAMING_TILE_ROWS) {
+			final int toRow = Math.min(rows, fromRow + STREAMING_TILE_ROWS);
+			for (int row = fromRow; row < toRow; row++) {
+				window[row] = tile[row - fromRow];
+			}
+			
+			task.resample(fromRow, toRow, window);
+			
+			for (int row = fromRow; row < toRow; row++) {
+				consumer.accept(window[row], row);
+				window[row] = null;
 			}
 		}
+	}
+	
+	private static void checkGridSize(int rows, int columns) {
+		if (rows < 1 || columns < 1) {
+			throw new IllegalArgumentException(
+				"The new grid must have at least one row and one column");
+		}
+	}
+	
+	private static int getGridSize(List<Double> axis, double pitch) {
+		if (pitch <= 0) {
+			throw new IllegalArgumentException("Pitch must be greater than 0");
+		}
 		
-		return newValues;
+		final Axis values = Axis.of(axis);
+		
+		return (int) Math.round((values.getMax() - values.getMin()) / pitch) + 1;
 	}
 	
-	private static LineData[] calculateNewLines(
-		ElementData data,
-		int interpolationLevel,
-		double[][] newValues
+	static double[][] calculateNewValues(ElementMatrix data, 
+		int interpolationLevel, GridResampler resampler, 
+		BooleanSupplier cancelled
+	) {
+		final int newNumRows = CALCULATE_SIZE.applyAsInt(
+			data.getRowCount(), interpolationLevel);
+		final int newNumColumns = CALCULATE_SIZE.applyAsInt(
+			data.getColumnCount(), interpolationLevel);
+		
+		return resampler.resample(
+			data, newNumRows, newNumColumns, 0d, cancelled);
+	}
+	
+	static LineData[] calculateNewLines(
+		ElementData data, double[][] newValues
 	) {
 		final boolean isVertical = data.getCoordinates()[0].isVertical();
 		int newLineCount = isVertical ? newValues[0].length : newValues.length;
 		final LineData[] newLines = new LineData[newLineCount];
 		
-		final List<Double> xAxis = data.getXAxis();
-		final List<Double> yAxis = data.getYAxis();
-		final double minX = xAxis.stream().mapToDouble(Double::valueOf).min().orElseThrow(IllegalStateException::new);
-		final double maxX = xAxis.stream().mapToDouble(Double::valueOf).max().orElseThrow(IllegalStateException::new);
-		final double minY = yAxis.stream().mapToDouble(Double::valueOf).min().orElseThrow(IllegalStateException::new);
-		final double maxY = yAxis.stream().mapToDouble(Double::valueOf).max().orElseThrow(IllegalStateException::new);
-		final double tickX = (maxX - minX) / (double) (newValues[0].length - 1);
-		final double tickY = (maxY - minY) / (double) (newValues.length - 1);
+		final Axis xAxis = Axis.of(data.getXAxis());
+		final Axis yAxis = Axis.of(data.getYAxis());
+		final double minX = xAxis.getMin();
+		final double maxX = xAxis.getMax();
+		final double minY = yAxis.getMin();
+		final double maxY = yAxis.getMax();
+		final double tickX = calculateTick(minX, maxX, newValues[0].length);
+		final double tickY = calculateTick(minY, maxY, newValues.length);
 		
 		for (int i = 0; i < newLineCount; i++) {
 			final double[] lineValues = getLineValues(newValues, i, isVertical);
@@ -176,6 +332,18 @@ public class Interpolator {
 		return newLines;
 	}
 
+	static Axis calculateNewAxis(List<Double> axis, int size) {
+		final Axis values = Axis.of(axis);
+		final double min = values.getMin();
+		
+		return new ArithmeticAxis(
+			min, calculateTick(min, values.getMax(), size), size);
+	}
+
+	private static double calculateTick(double min, double max, int size) {
+		return size > 1 ? (max - min) / (double) (size - 1) : 1d;
+	}
+
 	private static double[] getLineValues(double[][] values, int index, boolean vertical) {
 		if (vertical) {
 			final double[] lineValues = new double[values.length];
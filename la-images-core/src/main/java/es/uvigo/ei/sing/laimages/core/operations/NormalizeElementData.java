@@ -97,7 +97,7 @@ public class NormalizeElementData {
 				lDtoNormalize.getData(), lDStandard.getData()
 			);
 			
-			normalized[i] = new LineData(
+			normalized[i] = lDtoNormalize.getStoragePrecision().createLineData(
 				lDtoNormalize.getName(),
 				normalizedValues,
 				lDtoNormalize.getCoordinates()
@@ -107,7 +107,16 @@ public class NormalizeElementData {
 		return createElementData(toNormalize.getName(), normalized);
 	}
 
-	private static final double[] normalize(double[] data, double[] standard) {
+	/**
+	 * Normalizes the {@code data} values by the {@code standard} values. Note
+	 * that if {@code standard} contains zeroes, {@code NaN} values will appear
+	 * at these positions in the normalized values.
+	 * 
+	 * @param data the values to normalize.
+	 * @param standard the standard values.
+	 * @return the normalized values.
+	 */
+	public static final double[] normalize(double[] data, double[] standard) {
 		final double[] normalized = new double[data.length];
 
 		for (int i = 0; i < data.length; i++) {
@@ -138,7 +147,7 @@ public class NormalizeElementData {
 				lDtoNormalize.getData(), maxValue
 			);
 			
-			normalized[i] = new LineData(
+			normalized[i] = lDtoNormalize.getStoragePrecision().createLineData(
 				lDtoNormalize.getName(),
 				normalizedValues,
 				lDtoNormalize.getCoordinates()
@@ -0,0 +1,213 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * A {@code GridResampler} that splits the new matrix in tiles of rows and 
+ * computes them in parallel in a {@code ForkJoinPool}, using a 
+ * {@link RowGridResampler}. Since each row is computed independently of the
+ * tile in which it is computed, the values are the same as those of the 
+ * sequential {@link RowGridResampler}.
+ * 
+ * The resampling can be cancelled by means of a {@code BooleanSupplier} that
+ * is checked before computing each tile.
+ * 
+ * A resampler constructed with a parallelism level owns the pool that it 
+ * creates, which is shut down by {@link ParallelGridResampler#close()}. The
+ * pools received by the other constructors are owned by the caller, so 
+ * closing the resampler does not shut them down.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class ParallelGridResampler implements GridResampler, AutoCloseable {
+	/**
+	 * The default number of rows of each tile.
+	 */
+	public static final int DEFAULT_TILE_ROWS = 32;
+	
+	private final RowGridResampler resampler;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final int tileRows;
+
+	/**
+	 * Constructs a new {@code ParallelGridResampler} that runs in the common
+	 * {@code ForkJoinPool}.
+	 * 
+	 * @param resampler the resampler that computes the rows.
+	 */
+	public ParallelGridResampler(RowGridResampler resampler) {
+		this(resampler, ForkJoinPool.commonPool(), DEFAULT_TILE_ROWS);
+	}
+	
+	/**
+	 * Constructs a new {@code ParallelGridResampler} that runs in a new 
+	 * {@code ForkJoinPool} with the given {@code parallelism} level. The pool
+	 * is owned by the resampler, so it must be closed when it is no longer
+	 * needed.
+	 * 
+	 * @param resampler the resampler that computes the rows.
+	 * @param parallelism the parallelism level.
+	 * @throws IllegalArgumentException if {@code parallelism} is not 
+	 * 	positive.
+	 */
+	public ParallelGridResampler(RowGridResampler resampler, int parallelism) {
+		this(resampler, new ForkJoinPool(parallelism), true, DEFAULT_TILE_ROWS);
+	}
+	
+	/**
+	 * Constructs a new {@code ParallelGridResampler} that runs in 
+	 * {@code pool}, which is owned by the caller.
+	 * 
+	 * @param resampler the resampler that computes the rows.
+	 * @param pool the pool where tiles are computed.
+	 * @param tileRows the number of rows of each tile.
+	 * @throws IllegalArgumentException if {@code tileRows} is not positive.
+	 */
+	public ParallelGridResampler(
+		RowGridResampler resampler, ForkJoinPool pool, int tileRows
+	) {
+		this(resampler, pool, false, tileRows);
+	}
+	
+	private ParallelGridResampler(RowGridResampler resampler, 
+		ForkJoinPool pool, boolean ownsPool, int tileRows
+	) {
+		if (tileRows <= 0) {
+			if (ownsPool) {
+				pool.shutdown();
+			}
+			throw new IllegalArgumentException("tileRows must be positive");
+		}
+		
+		this.resampler = resampler;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.tileRows = tileRows;
+	}
+	
+	/**
+	 * Returns the parallelism level of the pool used by this resampler.
+	 * 
+	 * @return the parallelism level of the pool used by this resampler.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+	
+	/**
+	 * Shuts down the pool of this resampler if it was created by the 
+	 * resampler. Pools owned by the caller are not shut down.
+	 */
+	@Override
+	public void close() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+	
+	@Override
+	public double[][] resample(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		return resample(source, rows, columns, missingValue, () -> false);
+	}
+	
+	/**
+	 * Resamples {@code source} into a new matrix of {@code rows} x 
+	 * {@code columns} values. {@code cancelled} is checked before computing
+	 * each tile, so that the resampling stops soon after it returns 
+	 * {@code true}.
+	 * 
+	 * @param source the matrix to resample.
+	 * @param rows the number of rows of the new matrix.
+	 * @param columns the number of columns of the new matrix.
+	 * @param missingValue the value used for the missing values of 
+	 * 	{@code source}.
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	resampling must be cancelled.
+	 * @return a new matrix with the resampled values.
+	 * @throws CancellationException if the resampling is cancelled.
+	 */
+	@Override
+	public double[][] resample(ElementMatrix source, int rows, int columns,
+		double missingValue, BooleanSupplier cancelled
+	) {
+		final RowGridResampler.Rows task = 
+			resampler.prepare(source, rows, columns, missingValue);
+		final double[][] newValues = new double[rows][columns];
+		
+		if (rows <= tileRows) {
+			GridResampler.checkCancelled(cancelled);
+			task.resample(0, rows, newValues);
+		} else {
+			pool.invoke(new TileAction(task, newValues, cancelled, 0, rows));
+		}
+		
+		return newValues;
+	}
+	
+	private final class TileAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final RowGridResampler.Rows task;
+		private final double[][] target;
+		private final BooleanSupplier cancelled;
+		private final int fromRow;
+		private final int toRow;
+
+		public TileAction(RowGridResampler.Rows task, double[][] target,
+			BooleanSupplier cancelled, int fromRow, int toRow
+		) {
+			this.task = task;
+			this.target = target;
+			this.cancelled = cancelled;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected void compute() {
+			GridResampler.checkCancelled(cancelled);
+			
+			if (toRow - fromRow <= tileRows) {
+				task.resample(fromRow, toRow, target);
+			} else {
+				final int middle = (fromRow + toRow) >>> 1;
+				invokeAll(
+					new TileAction(task, target, cancelled, fromRow, middle),
+					new TileAction(task, target, cancelled, middle, toRow)
+				);
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * A {@code GridResampler} that performs a bilinear interpolation taking 
+ * advantage of the source matrix being a regular grid whose rows and 
+ * columns are located at {@code 0..n-1}. The source cell and the 
+ * interpolation weights of each new row and column are computed 
+ * arithmetically once, so that each new value is computed in constant time.
+ * 
+ * The values computed are the same as those of 
+ * {@link BilinearFunctionResampler}, since the same operations are done in 
+ * the same order.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class RegularGridBilinearResampler extends RowGridResampler {
+	@Override
+	public Rows prepare(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		final Weights rowWeights = new Weights(source.getRowCount(), rows);
+		final Weights columnWeights = new Weights(source.getColumnCount(), columns);
+		
+		return (fromRow, toRow, target) -> {
+			final double[] upper = new double[source.getColumnCount()];
+			final double[] lower = new double[source.getColumnCount()];
+			int upperRow = -1;
+			int lowerRow = -1;
+			
+			for (int i = fromRow; i < toRow; i++) {
+				final int row = rowWeights.index[i];
+				if (row != upperRow) {
+					source.copyRow(row, upper, missingValue);
+					upperRow = row;
+				}
+				if (!rowWeights.exact[i] && row + 1 != lowerRow) {
+					source.copyRow(row + 1, lower, missingValue);
+					lowerRow = row + 1;
+				}
+				
+				resampleRow(upper, lower, rowWeights, i, columnWeights, target[i]);
+			}
+		};
+	}
+	
+	private static void resampleRow(double[] upper, double[] lower,
+		Weights rowWeights, int i, Weights columnWeights, double[] target
+	) {
+		final boolean exactRow = rowWeights.exact[i];
+		final double x0 = rowWeights.previous[i];
+		final double x1 = rowWeights.next[i];
+		
+		for (int j = 0; j < target.length; j++) {
+			final int column = columnWeights.index[j];
+			
+			if (exactRow && columnWeights.exact[j]) {
+				target[j] = upper[column];
+			} else if (exactRow) {
+				final double q1 = upper[column];
+				final double q2 = upper[column + 1];
+				
+				target[j] = columnWeights.next[j] * (q2 - q1) + q1;
+			} else if (columnWeights.exact[j]) {
+				final double q1 = upper[column];
+				final double q2 = lower[column];
+				
+				target[j] = x1 * (q2 - q1) + q1;
+			} else {
+				final double y0 = columnWeights.previous[j];
+				final double y1 = columnWeights.next[j];
+				
+				target[j] = (x0 * y0) * upper[column]
+					+ (x1 * y0) * lower[column]
+					+ (x0 * y1) * upper[column + 1]
+					+ (x1 * y1) * lower[column + 1];
+			}
+		}
+	}
+	
+	/**
+	 * The interpolation weights of the new rows or columns. For each new 
+	 * position, {@code index} is the previous source position, 
+	 * {@code previous} is the weight of that position, {@code next} is the 
+	 * weight of the following one and {@code exact} indicates whether the 
+	 * new position matches a source position.
+	 */
+	private static final class Weights {
+		private final int[] index;
+		private final double[] previous;
+		private final double[] next;
+		private final boolean[] exact;
+		
+		public Weights(int sourceSize, int size) {
+			this.index = new int[size];
+			this.previous = new double[size];
+			this.next = new double[size];
+			this.exact = new boolean[size];
+			
+			final double factor = ((double) sourceSize - 1d) / ((double) size - 1d);
+			for (int i = 0; i < size; i++) {
+				final double position = size == 1 ? 0d : (double) i * factor;
+				final int floor = (int) Math.floor(position);
+				
+				if (position == (double) floor && floor < sourceSize) {
+					this.index[i] = floor;
+					this.exact[i] = true;
+				} else {
+					this.index[i] = Math.min(floor, sourceSize - 2);
+					this.previous[i] = ((double) this.index[i] + 1d) - position;
+					this.next[i] = position - (double) this.index[i];
+				}
+			}
+		}
+	}
+}
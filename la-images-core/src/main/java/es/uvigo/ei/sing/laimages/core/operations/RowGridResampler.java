@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import java.util.function.BooleanSupplier;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * An abstract {@code GridResampler} that computes each row of the new matrix
+ * independently of the others, so that the rows can be computed in tiles 
+ * (e.g. in parallel by a {@link ParallelGridResampler}). The values of a row
+ * never depend on the tile in which it is computed.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public abstract class RowGridResampler implements GridResampler {
+	/**
+	 * Computes a range of rows of the new matrix.
+	 * 
+	 * @author Hugo López-Fernández
+	 *
+	 */
+	@FunctionalInterface
+	public static interface Rows {
+		/**
+		 * Computes the rows between {@code fromRow}, inclusive, and 
+		 * {@code toRow}, exclusive, and stores them in {@code target}.
+		 * 
+		 * @param fromRow the first row to compute.
+		 * @param toRow the row after the last row to compute.
+		 * @param target the new matrix.
+		 */
+		public void resample(int fromRow, int toRow, double[][] target);
+	}
+	
+	/**
+	 * Prepares the resampling of {@code source} into a new matrix of
+	 * {@code rows} x {@code columns} values. The returned object can be 
+	 * invoked concurrently for different row ranges.
+	 * 
+	 * @param source the matrix to resample.
+	 * @param rows the number of rows of the new matrix.
+	 * @param columns the number of columns of the new matrix.
+	 * @param missingValue the value used for the missing values of 
+	 * 	{@code source}.
+	 * @return an object that computes ranges of rows of the new matrix.
+	 */
+	public abstract Rows prepare(
+		ElementMatrix source, int rows, int columns, double missingValue
+	);
+	
+	@Override
+	public double[][] resample(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		final double[][] newValues = new double[rows][columns];
+		prepare(source, rows, columns, missingValue).resample(0, rows, newValues);
+		
+		return newValues;
+	}
+	
+	/**
+	 * Resamples {@code source} into a new matrix of {@code rows} x 
+	 * {@code columns} values, checking {@code cancelled} before computing 
+	 * each tile of {@link ParallelGridResampler#DEFAULT_TILE_ROWS} rows.
+	 */
+	@Override
+	public double[][] resample(ElementMatrix source, int rows, int columns,
+		double missingValue, BooleanSupplier cancelled
+	) {
+		final Rows task = prepare(source, rows, columns, missingValue);
+		final double[][] newValues = new double[rows][columns];
+		
+		for (
+			int fromRow = 0; fromRow < rows; 
+			fromRow += ParallelGridResampler.DEFAULT_TILE_ROWS
+		) {
+			GridResampler.checkCancelled(cancelled);
+			task.resample(fromRow, Math.min(rows, 
+				fromRow + ParallelGridResampler.DEFAULT_TILE_ROWS), newValues);
+		}
+		GridResampler.checkCancelled(cancelled);
+		
+		return newValues;
+	}
+}
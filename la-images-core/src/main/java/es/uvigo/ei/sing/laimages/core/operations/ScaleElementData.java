@@ -87,7 +87,8 @@ public class ScaleElementData {
 		for (int i = 0; i < toScale.getNumLines(); i++) {
 			LineData lDtoScale = toScale.getLines()[i];
 			double[] scaledValues = scale(lDtoScale.getData(), scale);
-			scaled[i] = new LineData(lDtoScale.getName(), scaledValues, 
+			scaled[i] = lDtoScale.getStoragePrecision().createLineData(
+				lDtoScale.getName(), scaledValues, 
 				lDtoScale.getCoordinates());
 		}
 		return ElementData.createElementData(toScale.getName(), scaled);
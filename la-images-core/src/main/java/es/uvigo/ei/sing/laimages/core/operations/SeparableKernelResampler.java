@@ -0,0 +1,239 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+/**
+ * A {@code RowGridResampler} that interpolates with a separable kernel (e.g.
+ * bicubic or Lanczos) in two passes: each source row is first convolved 
+ * horizontally into the new columns and then the new rows are convolved 
+ * vertically from those rows. The taps and weights of each new row and 
+ * column are computed once in weight tables, so the cost of each new value 
+ * is proportional to the kernel width instead of its area.
+ * 
+ * Like the rest of resamplers, the first and last rows and columns of the 
+ * new grid are aligned with those of the source matrix. Taps outside the 
+ * source matrix are clamped to its borders.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class SeparableKernelResampler extends RowGridResampler {
+	/**
+	 * A symmetric interpolation kernel.
+	 * 
+	 * @author Hugo López-Fernández
+	 *
+	 */
+	public static interface Kernel {
+		/**
+		 * Returns the radius of the kernel, that is, the distance from which
+		 * its weight is always 0.
+		 * 
+		 * @return the radius of the kernel.
+		 */
+		public int getRadius();
+		
+		/**
+		 * Returns the weight of a sample located at distance {@code x}.
+		 * 
+		 * @param x the distance of the sample.
+		 * @return the weight of the sample.
+		 */
+		public double weight(double x);
+	}
+	
+	/**
+	 * The cubic convolution kernel of Keys with {@code a = -0.5}, used by 
+	 * bicubic interpolation.
+	 */
+	public static final Kernel BICUBIC = new Kernel() {
+		private static final double A = -0.5d;
+		
+		@Override
+		public int getRadius() {
+			return 2;
+		}
+		
+		@Override
+		public double weight(double x) {
+			final double t = Math.abs(x);
+			
+			if (t <= 1d) {
+				return ((A + 2d) * t - (A + 3d)) * t * t + 1d;
+			} else if (t < 2d) {
+				return ((A * t - 5d * A) * t + 8d * A) * t - 4d * A;
+			} else {
+				return 0d;
+			}
+		}
+	};
+	
+	/**
+	 * The Lanczos kernel with three lobes.
+	 */
+	public static final Kernel LANCZOS_3 = new Kernel() {
+		@Override
+		public int getRadius() {
+			return 3;
+		}
+		
+		@Override
+		public double weight(double x) {
+			if (x == 0d) {
+				return 1d;
+			} else if (Math.abs(x) < 3d) {
+				final double px = Math.PI * x;
+				
+				return 3d * Math.sin(px) * Math.sin(px / 3d) / (px * px);
+			} else {
+				return 0d;
+			}
+		}
+	};
+	
+	private final Kernel kernel;
+
+	/**
+	 * Constructs a new {@code SeparableKernelResampler}.
+	 * 
+	 * @param kernel the interpolation kernel.
+	 */
+	public SeparableKernelResampler(Kernel kernel) {
+		this.kernel = kernel;
+	}
+	
+	/**
+	 * Returns the interpolation kernel.
+	 * 
+	 * @return the interpolation kernel.
+	 */
+	public Kernel getKernel() {
+		return kernel;
+	}
+	
+	@Override
+	public Rows prepare(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		final Weights rowWeights = 
+			new Weights(kernel, source.getRowCount(), rows);
+		final Weights columnWeights = 
+			new Weights(kernel, source.getColumnCount(), columns);
+		
+		return (fromRow, toRow, target) -> {
+			if (fromRow >= toRow) {
+				return;
+			}
+			
+			final int firstSourceRow = rowWeights.getFirstIndex(fromRow);
+			final int lastSourceRow = rowWeights.getLastIndex(toRow - 1);
+			final double[][] horizontal = 
+				new double[lastSourceRow - firstSourceRow + 1][columns];
+			final double[] sourceRow = new double[source.getColumnCount()];
+			
+			for (int row = firstSourceRow; row <= lastSourceRow; row++) {
+				source.copyRow(row, sourceRow, missingValue);
+				columnWeights.convolve(sourceRow, horizontal[row - firstSourceRow]);
+			}
+			
+			for (int i = fromRow; i < toRow; i++) {
+				rowWeights.convolveColumns(
+					horizontal, firstSourceRow, i, target[i]);
+			}
+		};
+	}
+	
+	/**
+	 * The taps and weights of the new rows or columns. For each new position
+	 * {@code k}, the source positions are stored in 
+	 * {@code index[k * taps + t]} and their normalized weights in 
+	 * {@code weight[k * taps + t]}.
+	 */
+	private static final class Weights {
+		private final int taps;
+		private final int[] index;
+		private final double[] weight;
+		
+		public Weights(Kernel kernel, int sourceSize, int size) {
+			this.taps = 2 * kernel.getRadius();
+			this.index = new int[size * taps];
+			this.weight = new double[size * taps];
+			
+			final double factor = ((double) sourceSize - 1d) / ((double) size - 1d);
+			for (int k = 0; k < size; k++) {
+				final double position = size == 1 ? 0d : (double) k * factor;
+				final int first = (int) Math.floor(position) - kernel.getRadius() + 1;
+				
+				double sum = 0d;
+				for (int t = 0; t < taps; t++) {
+					final int tap = first + t;
+					final double w = kernel.weight(position - (double) tap);
+					
+					this.index[k * taps + t] = Math.max(0, Math.min(sourceSize - 1, tap));
+					this.weight[k * taps + t] = w;
+					sum += w;
+				}
+				for (int t = 0; t < taps; t++) {
+					this.weight[k * taps + t] /= sum;
+				}
+			}
+		}
+		
+		public int getFirstIndex(int k) {
+			return index[k * taps];
+		}
+		
+		public int getLastIndex(int k) {
+			return index[k * taps + taps - 1];
+		}
+		
+		public void convolve(double[] source, double[] target) {
+			for (int k = 0; k < target.length; k++) {
+				final int offset = k * taps;
+				double value = 0d;
+				for (int t = 0; t < taps; t++) {
+					value += weight[offset + t] * source[index[offset + t]];
+				}
+				target[k] = value;
+			}
+		}
+		
+		public void convolveColumns(
+			double[][] rows, int firstRow, int k, double[] target
+		) {
+			final int offset = k * taps;
+			
+			for (int column = 0; column < target.length; column++) {
+				double value = 0d;
+				for (int t = 0; t < taps; t++) {
+					value += weight[offset + t] 
+						* rows[index[offset + t] - firstRow][column];
+				}
+				target[column] = value;
+			}
+		}
+	}
+}
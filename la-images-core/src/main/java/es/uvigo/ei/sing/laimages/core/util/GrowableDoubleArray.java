@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of primitive {@code double} values. It avoids the boxing
+ * and the per-node overhead of using a {@code List<Double>} when the number
+ * of values is not known in advance.
+ * 
+ * @author Hugo López-Fernández
+ *
+ */
+public class GrowableDoubleArray {
+	private static final int DEFAULT_CAPACITY = 256;
+	
+	private double[] values;
+	private int size;
+
+	/**
+	 * Constructs a new empty {@code GrowableDoubleArray}.
+	 */
+	public GrowableDoubleArray() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@code GrowableDoubleArray} with the specified
+	 * initial capacity.
+	 * 
+	 * @param initialCapacity the initial capacity.
+	 */
+	public GrowableDoubleArray(int initialCapacity) {
+		this.values = new double[Math.max(1, initialCapacity)];
+		this.size = 0;
+	}
+
+	/**
+	 * Appends {@code value} at the end of the array.
+	 * 
+	 * @param value the value to append.
+	 */
+	public void add(double value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Returns the value at {@code index}.
+	 * 
+	 * @param index the index of the value.
+	 * @return the value at {@code index}.
+	 * @throws IndexOutOfBoundsException if {@code index} is not valid.
+	 */
+	public double get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid index: " + index);
+		}
+		return values[index];
+	}
+
+	/**
+	 * Returns the number of values stored.
+	 * 
+	 * @return the number of values stored.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a new array containing exactly the values stored.
+	 * 
+	 * @return a new array containing exactly the values stored.
+	 */
+	public double[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
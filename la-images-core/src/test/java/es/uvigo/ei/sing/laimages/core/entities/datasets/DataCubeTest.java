@@ -0,0 +1,194 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertListEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertMatrixEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+
+public class DataCubeTest {
+	private static final ElementData TEST_ELEMENT_DATA_VERTICAL_A = 
+		ElementData.createElementData("A", new LineData[]{
+			new LineData("Line 1", new double[]{1.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.0d, 0.0d)),
+			new LineData("Line 2", new double[]{3.0d, 4.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.1d, 0.1d)),
+			new LineData("Line 3", new double[]{5.0d, 6.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.1d, 0.2d, 0.2d))
+		});
+
+	private static final ElementData TEST_ELEMENT_DATA_VERTICAL_B = 
+		ElementData.createElementData("B", new LineData[]{
+			new LineData("Line 1", new double[]{2.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.0d, 0.0d)),
+			new LineData("Line 2", new double[]{0.0d, 2.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.1d, 0.1d)),
+			new LineData("Line 3", new double[]{Double.NaN, 3.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.1d, 0.2d, 0.2d))
+		});
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testCubeSizeOverflow() {
+		final ElementData element = 
+			ElementData.createElementData("A", new LineData[]{
+				new LineData("Line 1", new double[]{1.0d}, 
+					new HorizontalLineCoordinates(1d, 0d, 0d, 0d)),
+				new LineData("Line 2", new double[]{1.0d}, 
+					new HorizontalLineCoordinates(1d, 1.5e9d, 1.5e9d, 1d))
+			});
+		
+		DataCube.of(Arrays.asList(element));
+	}
+	
+	@Test
+	public void testHorizontalDatasetCube() 
+		throws IOException, NoSuchStandardElementException {
+		final ElementDataset dataset = loadTestDataset();
+		final DataCube cube = DataCube.of(dataset);
+		
+		assertEquals(dataset.getElements().size(), cube.getElementCount());
+		for (ElementData expected : dataset.getElements()) {
+			assertCubeElementEquals(expected, 
+				cube.getElement(expected.getName()).get());
+		}
+	}
+	
+	@Test
+	public void testVerticalCube() {
+		final DataCube cube = DataCube.of(Arrays.asList(
+			TEST_ELEMENT_DATA_VERTICAL_A, TEST_ELEMENT_DATA_VERTICAL_B));
+		
+		assertTrue(cube.getGrid().isVertical());
+		assertEquals(Arrays.asList("A", "B"), cube.getElementNames());
+		assertCubeElementEquals(TEST_ELEMENT_DATA_VERTICAL_A, cube.getElement(0));
+		assertCubeElementEquals(TEST_ELEMENT_DATA_VERTICAL_B, cube.getElement(1));
+		assertTrue(cube.getElement(0).isCompatibleWith(cube.getElement(1)));
+		assertFalse(cube.getElement("C").isPresent());
+	}
+	
+	@Test
+	public void testElementsShareGrid() 
+		throws IOException, NoSuchStandardElementException {
+		final DataCube cube = DataCube.of(loadTestDataset());
+		final List<ElementData> elements = cube.getElements();
+		
+		assertSame(
+			elements.get(0).getCoordinates()[0], 
+			elements.get(1).getCoordinates()[0]
+		);
+		assertSame(elements.get(0).getXAxis(), elements.get(1).getXAxis());
+	}
+	
+	@Test
+	public void testSum() {
+		final DataCube cube = DataCube.of(Arrays.asList(
+			TEST_ELEMENT_DATA_VERTICAL_A, TEST_ELEMENT_DATA_VERTICAL_B));
+		
+		final ElementData sum = cube.sum("Sum");
+		
+		assertEquals("Sum", sum.getName());
+		assertMatrixEquals(
+			new double[][]{
+				new double[]{3.0d, 3.0d, -1.0d},
+				new double[]{-1.0d, 6.0d, 5.0d},
+				new double[]{-1.0d, -1.0d, 9.0d},
+			}, 
+			sum.getData(-1.0d), 0.000001d);
+		assertEquals(9.0d, sum.getMaxValue(), 0.000001d);
+		assertEquals(3.0d, sum.getMinValue(), 0.000001d);
+	}
+	
+	@Test
+	public void testRatio() {
+		final DataCube cube = DataCube.of(Arrays.asList(
+			TEST_ELEMENT_DATA_VERTICAL_A, TEST_ELEMENT_DATA_VERTICAL_B));
+		
+		final ElementData ratio = cube.ratio("A", "B", "A/B");
+		
+		assertEquals("A/B", ratio.getName());
+		assertMatrixEquals(
+			new double[][]{
+				new double[]{0.5d, -1.0d, -1.0d},
+				new double[]{-1.0d, 2.0d, -1.0d},
+				new double[]{-1.0d, -1.0d, 2.0d},
+			}, 
+			ratio.getData(-1.0d), 0.000001d);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testRatioMissingElement() {
+		DataCube.of(Arrays.asList(TEST_ELEMENT_DATA_VERTICAL_A))
+			.ratio("A", "C", "A/C");
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyCube() {
+		DataCube.of(Arrays.<ElementData>asList());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncompatibleElements() {
+		final ElementData horizontal = ElementData.createElementData("H", 
+			new LineData[]{
+				new LineData("Line 1", new double[]{1.0d, 2.0d}, 
+					new HorizontalLineCoordinates(0.1d, 0.0d, 0.1d, 0.0d))
+			});
+		
+		DataCube.of(Arrays.asList(TEST_ELEMENT_DATA_VERTICAL_A, horizontal));
+	}
+
+	private static void assertCubeElementEquals(
+		ElementData expected, ElementData actual
+	) {
+		assertEquals(expected.getName(), actual.getName());
+		assertElementDataEquals(expected, actual);
+		assertMatrixEquals(expected.getData(-1.0d), actual.getData(-1.0d), 0.0d);
+		assertListEquals(expected.getXAxis(), actual.getXAxis(), 0.0d);
+		assertListEquals(expected.getYAxis(), actual.getYAxis(), 0.0d);
+		assertEquals(expected.getMaxValue(), actual.getMaxValue(), 0.0d);
+		assertEquals(expected.getMinValue(), actual.getMinValue(), 0.0d);
+		assertEquals(expected.isVertical(), actual.isVertical());
+		for (int i = 0; i < expected.getNumLines(); i++) {
+			assertArrayEquals(
+				expected.getLines()[i].getData(), 
+				actual.getLines()[i].getData(), 0.0d);
+		}
+	}
+}
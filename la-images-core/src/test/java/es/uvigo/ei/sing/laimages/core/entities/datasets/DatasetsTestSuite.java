@@ -29,6 +29,10 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+	DataCubeTest.class,
+	ElementDatasetSnapshotTest.class,
+	ElementMatrixTest.class,
+	ElementStatisticsTest.class,
 	HorizontalElementDatasetTest.class,
 	VerticalElementDataTest.class,
 })
@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+
+public class ElementDatasetSnapshotTest {
+	@Test
+	public void testDatasetSnapshot() 
+		throws IOException, NoSuchStandardElementException {
+		final ElementDataset dataset = loadTestDataset();
+		final ElementDataset snapshot = dataset.snapshot();
+		
+		assertEquals(dataset.getName(), snapshot.getName());
+		assertEquals(dataset.getElementNames(), snapshot.getElementNames());
+		assertEquals(dataset.getMinValue(), snapshot.getMinValue(), 0d);
+		assertEquals(dataset.getMaxValue(), snapshot.getMaxValue(), 0d);
+		for (int i = 0; i < dataset.getElementCount(); i++) {
+			assertElementDataEquals(
+				dataset.getElements().get(i), snapshot.getElements().get(i));
+		}
+		assertSame(snapshot, snapshot.snapshot());
+	}
+	
+	@Test
+	public void testSnapshotSharesCoordinates() 
+		throws IOException, NoSuchStandardElementException {
+		final ElementDataset snapshot = loadTestDataset().snapshot();
+		
+		assertSame(
+			snapshot.getElements().get(0).getCoordinates()[0],
+			snapshot.getElements().get(1).getCoordinates()[0]
+		);
+	}
+	
+	@Test
+	public void testSnapshotIsNotAffectedByChanges() {
+		final LineCoordinates coordinates = 
+			new HorizontalLineCoordinates(0.1d, 0.0d, 0.1d, 0.0d);
+		final double[] values = new double[]{1.0d, 2.0d};
+		final ElementData data = ElementData.createElementData("A", 
+			new LineData[]{ new LineData("Line 1", values, coordinates) });
+		
+		final ElementData snapshot = data.snapshot();
+		values[0] = 10.0d;
+		coordinates.setPosition(5.0d);
+		
+		assertNotSame(coordinates, snapshot.getCoordinates()[0]);
+		assertEquals(0.0d, snapshot.getCoordinates()[0].getPosition(), 0d);
+		assertEquals(1.0d, snapshot.getLines()[0].getValue(0), 0d);
+		assertEquals(1.0d, snapshot.getMinValue(), 0d);
+		
+		snapshot.getLines()[0].getData()[0] = 20.0d;
+		snapshot.getLines()[0] = null;
+		assertEquals(1.0d, snapshot.getLines()[0].getValue(0), 0d);
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotCoordinatesAreImmutable() {
+		final ElementData snapshot = ElementData.createElementData("A", 
+			new LineData[]{ new LineData("Line 1", new double[]{1.0d}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.0d, 0.0d)) 
+			}).snapshot();
+		
+		snapshot.getCoordinates()[0].setPosition(1.0d);
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotElementsAreUnmodifiable() 
+		throws IOException, NoSuchStandardElementException {
+		loadTestDataset().snapshot().getElements().remove(0);
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertMatrixEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
+
+public class ElementMatrixTest {
+	private static final ElementData TEST_ELEMENT_DATA_HORIZONTAL = 
+		ElementData.createElementData("H", new LineData[]{
+			new LineData("Line 1", new double[]{1.0d, Double.NaN}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.1d, 0.0d)),
+			new LineData("Line 2", new double[]{3.0d, 4.0d, 5.0d}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.2d, 0.1d))
+		});
+	
+	private static final ElementData TEST_ELEMENT_DATA_VERTICAL = 
+		ElementData.createElementData("V", new LineData[]{
+			new LineData("Line 1", new double[]{1.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.0d, 0.0d)),
+			new LineData("Line 2", new double[]{3.0d, 4.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.0d, 0.1d, 0.1d)),
+			new LineData("Line 3", new double[]{5.0d, 6.0d}, 
+				new VerticalLineCoordinates(0.1d, 0.1d, 0.2d, 0.2d))
+		});
+	
+	@Test
+	public void testHorizontalMatrix() {
+		final ElementMatrix matrix = TEST_ELEMENT_DATA_HORIZONTAL.getMatrix();
+		
+		assertMatrixEquals(
+			TEST_ELEMENT_DATA_HORIZONTAL.getData(-1d), matrix.toArray(-1d), 0d);
+		assertEquals(2, matrix.getRowCount());
+		assertEquals(3, matrix.getColumnCount());
+		assertEquals(2, matrix.getMissingCount());
+		assertEquals(4.0d, matrix.get(1, 1), 0d);
+		assertTrue(matrix.isMissing(0, 1));
+		assertEquals(-1d, matrix.get(0, 2, -1d), 0d);
+		
+		final BitSet expectedMask = new BitSet();
+		expectedMask.set(1);
+		expectedMask.set(2);
+		assertEquals(expectedMask, matrix.getMissingMask());
+	}
+	
+	@Test
+	public void testVerticalMatrix() {
+		final ElementMatrix matrix = TEST_ELEMENT_DATA_VERTICAL.getMatrix();
+		
+		assertMatrixEquals(
+			TEST_ELEMENT_DATA_VERTICAL.getData(0d), matrix.toArray(0d), 0d);
+		assertEquals(3, matrix.getRowCount());
+		assertEquals(3, matrix.getColumnCount());
+		assertEquals(4, matrix.getMissingCount());
+		assertFalse(matrix.isMissing(2, 2));
+		
+		final double[] row = new double[matrix.getColumnCount()];
+		matrix.copyRow(1, row, 0d);
+		assertArrayEquals(new double[]{0d, 4.0d, 5.0d}, row, 0d);
+	}
+	
+	@Test
+	public void testMatrixIsCached() {
+		assertSame(
+			TEST_ELEMENT_DATA_VERTICAL.getMatrix(),
+			TEST_ELEMENT_DATA_VERTICAL.getMatrix()
+		);
+	}
+	
+	@Test
+	public void testGetDataReturnsCopies() {
+		final double[][] data = TEST_ELEMENT_DATA_HORIZONTAL.getData(0d);
+		data[0][0] = 100d;
+		
+		assertNotSame(data, TEST_ELEMENT_DATA_HORIZONTAL.getData(0d));
+		assertEquals(1.0d, TEST_ELEMENT_DATA_HORIZONTAL.getData(0d)[0][0], 0d);
+		assertEquals(1.0d, TEST_ELEMENT_DATA_HORIZONTAL.getMatrix().get(0, 0), 0d);
+	}
+	
+	@Test
+	public void testCubeMatrix() {
+		final DataCube cube = DataCube.of(Arrays.asList(TEST_ELEMENT_DATA_VERTICAL));
+		final ElementData element = cube.getElement(0);
+		
+		assertSame(element.getMatrix(), element.getMatrix());
+		assertMatrixEquals(
+			TEST_ELEMENT_DATA_VERTICAL.getMatrix().toArray(0d), 
+			element.getMatrix().toArray(0d), 0d
+		);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfWithDifferentRowLengths() {
+		ElementMatrix.of(new double[][]{ {1d, 2d}, {3d} });
+	}
+}
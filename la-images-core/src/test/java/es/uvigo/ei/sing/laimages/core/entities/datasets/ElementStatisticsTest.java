@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.entities.datasets;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+
+public class ElementStatisticsTest {
+	private static final ElementData TEST_ELEMENT_DATA_NEGATIVE = 
+		ElementData.createElementData("A", new LineData[]{
+			new LineData("Line 1", new double[]{-1.0d, 0.0d, Double.NaN}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.2d, 0.0d)),
+			new LineData("Line 2", new double[]{-3.0d, 0.0d}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.1d, 0.1d))
+		});
+	
+	private static final ElementData TEST_ELEMENT_DATA_POSITIVE = 
+		ElementData.createElementData("B", new LineData[]{
+			new LineData("Line 1", new double[]{2.0d, 4.0d, 6.0d}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.2d, 0.0d)),
+			new LineData("Line 2", new double[]{8.0d, Double.NaN}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.1d, 0.1d))
+		});
+	
+	@Test
+	public void testStatistics() {
+		final ElementStatistics statistics = 
+			ElementStatistics.of(TEST_ELEMENT_DATA_NEGATIVE.getLines(), 4);
+		
+		assertEquals(4, statistics.getCount());
+		assertEquals(1, statistics.getMissingCount());
+		assertEquals(-3.0d, statistics.getMin(), 0d);
+		assertEquals(0.0d, statistics.getMax(), 0d);
+		assertEquals(-1.0d, statistics.getMean(), 1e-12);
+		assertEquals(1.5d, statistics.getVariance(), 1e-12);
+		assertEquals(0.75d, statistics.getBinWidth(), 1e-12);
+		assertArrayEquals(new long[]{1, 0, 1, 2}, statistics.getHistogram());
+	}
+	
+	@Test
+	public void testNonPositiveValueRangeIsCached() {
+		assertEquals(-3.0d, TEST_ELEMENT_DATA_NEGATIVE.getMinValue(), 0d);
+		assertEquals(0.0d, TEST_ELEMENT_DATA_NEGATIVE.getMaxValue(), 0d);
+		assertSame(
+			TEST_ELEMENT_DATA_NEGATIVE.getStatistics(), 
+			TEST_ELEMENT_DATA_NEGATIVE.getStatistics()
+		);
+	}
+	
+	@Test
+	public void testMerge() {
+		final ElementStatistics merged = ElementStatistics.merge(asList(
+			TEST_ELEMENT_DATA_NEGATIVE.getStatistics(),
+			TEST_ELEMENT_DATA_POSITIVE.getStatistics()
+		));
+		
+		assertEquals(8, merged.getCount());
+		assertEquals(2, merged.getMissingCount());
+		assertEquals(-3.0d, merged.getMin(), 0d);
+		assertEquals(8.0d, merged.getMax(), 0d);
+		assertEquals(2.0d, merged.getMean(), 1e-12);
+		assertEquals(12.25d, merged.getVariance(), 1e-12);
+		assertEquals(8, sum(merged.getHistogram()));
+	}
+	
+	@Test
+	public void testParallelStatistics() {
+		final Random random = new Random(42);
+		final LineData[] lines = new LineData[64];
+		double sum = 0d;
+		for (int i = 0; i < lines.length; i++) {
+			final double[] values = new double[2048];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = random.nextGaussian() * 10d + 5d;
+				sum += values[j];
+			}
+			lines[i] = new LineData("Line " + i, values, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 204.7d, i));
+		}
+		final long count = lines.length * 2048;
+		final double mean = sum / (double) count;
+		
+		double squares = 0d;
+		for (LineData line : lines) {
+			for (double value : line.getData()) {
+				squares += (value - mean) * (value - mean);
+			}
+		}
+		
+		final ElementStatistics statistics = ElementStatistics.of(lines);
+		
+		assertEquals(count, statistics.getCount());
+		assertEquals(mean, statistics.getMean(), 1e-9);
+		assertEquals(squares / (double) count, statistics.getVariance(), 1e-6);
+		assertEquals(count, sum(statistics.getHistogram()));
+	}
+	
+	@Test
+	public void testArraySegmentsStatistics() {
+		final double[] values = new double[] {
+			9d, -1.0d, 0.0d, Double.NaN, 9d, -3.0d, 0.0d, 9d
+		};
+		
+		assertStatisticsEquals(
+			ElementStatistics.of(TEST_ELEMENT_DATA_NEGATIVE.getLines(), 4),
+			ElementStatistics.of(values, new int[]{1, 5}, new int[]{3, 2}, 4)
+		);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testArraySegmentsOutOfBounds() {
+		ElementStatistics.of(new double[4], new int[]{2}, new int[]{3});
+	}
+	
+	@Test
+	public void testCubeElementStatistics() {
+		final DataCube cube = DataCube.of(asList(
+			TEST_ELEMENT_DATA_NEGATIVE, TEST_ELEMENT_DATA_POSITIVE));
+		
+		assertStatisticsEquals(TEST_ELEMENT_DATA_POSITIVE.getStatistics(), 
+			cube.getElement(1).getStatistics());
+	}
+	
+	@Test
+	public void testDatasetStatistics() {
+		final DefaultElementDataset dataset = 
+			new DefaultElementDataset(Paths.get("."), "Test", null);
+		dataset.addElements(asList(
+			TEST_ELEMENT_DATA_NEGATIVE, TEST_ELEMENT_DATA_POSITIVE));
+		
+		assertEquals(-3.0d, dataset.getMinValue(), 0d);
+		assertEquals(8.0d, dataset.getMaxValue(), 0d);
+		assertEquals(8, dataset.getStatistics().getCount());
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testEmptyStatistics() {
+		ElementStatistics.of(new LineData[]{
+			new LineData("Line 1", new double[]{Double.NaN}, 
+				new HorizontalLineCoordinates(0.1d, 0.0d, 0.0d, 0.0d))
+		}).getMin();
+	}
+	
+	private static void assertStatisticsEquals(
+		ElementStatistics expected, ElementStatistics actual
+	) {
+		assertEquals(expected.getCount(), actual.getCount());
+		assertEquals(expected.getMissingCount(), actual.getMissingCount());
+		assertEquals(expected.getMin(), actual.getMin(), 0d);
+		assertEquals(expected.getMax(), actual.getMax(), 0d);
+		assertEquals(expected.getMean(), actual.getMean(), 1e-12);
+		assertEquals(expected.getVariance(), actual.getVariance(), 1e-12);
+		assertArrayEquals(expected.getHistogram(), actual.getHistogram());
+	}
+	
+	private static long sum(long[] values) {
+		long sum = 0;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+}
@@ -26,6 +26,7 @@ package es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates;
 import static es.uvigo.ei.sing.laimages.core.TestUtils.assertListEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -69,6 +70,21 @@ public class LineCoordinatesTest {
 		assertTrue(lC.isVertical());
 	}
 	
+	@Test
+	public void testEqualsAcrossImplementations() {
+		LineCoordinates mutable = new HorizontalLineCoordinates(0.1d, 0d, 1d, 2d);
+		LineCoordinates immutable = ImmutableLineCoordinates.copyOf(mutable);
+		
+		assertEquals(mutable, immutable);
+		assertEquals(immutable, mutable);
+		assertEquals(mutable.hashCode(), immutable.hashCode());
+		assertNotEquals(immutable, new VerticalLineCoordinates(0.1d, 0d, 1d, 2d));
+		
+		mutable.setPosition(3d);
+		assertNotEquals(mutable, immutable);
+		assertNotEquals(immutable, mutable);
+	}
+	
 	@Test
 	public void testGetAxisFromHorizontalLineCoordinates() {
 		List<Double> expectedLinesRangeAxis = Arrays.asList(new Double[]{
@@ -0,0 +1,185 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_LINE_POSITIONS_REPEATED_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIFFERENT_LINE_LENGTHS_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
+import es.uvigo.ei.sing.laimages.core.io.event.BatchLoadListener;
+import es.uvigo.ei.sing.laimages.core.io.exception.PositionsFileNotFoundException;
+
+public class BatchDatasetLoaderTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLoadBatch() throws Exception {
+		final List<Path> paths = Arrays.asList(
+			TEST_DATASET_DIRECTORY.toPath(),
+			TEST_DATASET_MISSING_POSITIONS_DIFFERENT_LINE_LENGTHS_DIRECTORY.toPath(),
+			TEST_DATASET_MISSING_POSITIONS_DIRECTORY.toPath(),
+			new File(temporaryFolder.getRoot(), "missing").toPath(),
+			TEST_DATASET_LINE_POSITIONS_REPEATED_DIRECTORY.toPath()
+		);
+		
+		final Map<Path, Integer> started = new ConcurrentHashMap<>();
+		final Map<Path, BatchLoadResult> finished = new ConcurrentHashMap<>();
+		final List<BatchLoadResult> results = new BatchDatasetLoader(3).load(
+			paths, CONFIGURATION, new BatchLoadListener() {
+				@Override
+				public void onDatasetStarted(Path path) {
+					started.merge(path, 1, Integer::sum);
+				}
+				
+				@Override
+				public void onDatasetFinished(BatchLoadResult result) {
+					finished.put(result.getPath(), result);
+				}
+			});
+		
+		assertEquals(paths.size(), results.size());
+		for (int i = 0; i < paths.size(); i++) {
+			assertEquals(paths.get(i), results.get(i).getPath());
+			assertEquals(Integer.valueOf(1), started.get(paths.get(i)));
+			assertEquals(results.get(i), finished.get(paths.get(i)));
+		}
+		
+		assertLoadedAsSingleDataset(results.get(0), CONFIGURATION);
+		assertLoadedAsSingleDataset(results.get(2), CONFIGURATION);
+		assertLoadedAsSingleDataset(results.get(4), CONFIGURATION);
+		
+		assertFalse(results.get(1).isLoaded());
+		assertTrue(results.get(1).getError().get() 
+			instanceof PositionsFileNotFoundException);
+		assertFalse(results.get(3).isLoaded());
+		
+		assertEquals(
+			Arrays.asList(
+				"Line LINHA_03.xl has been skipped since position 0.08 is already occupied."
+			),
+			results.get(4).getWarnings()
+		);
+	}
+	
+	@Test
+	public void testLoadBatchWithDirectoryConfigurations() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		FileUtils.copyDirectory(TEST_DATASET_DIRECTORY, directory);
+		Files.write(
+			new File(directory, 
+				ElementDatasetConfigurationProperties.CONFIGURATION_FILE_NAME).toPath(),
+			"standard=Na23\nspace.interval=0.1\n".getBytes(UTF_8)
+		);
+		
+		final List<BatchLoadResult> results = new BatchDatasetLoader(2).load(
+			Arrays.asList(directory.toPath(), TEST_DATASET_DIRECTORY.toPath()),
+			BatchDatasetLoader.directoryConfigurations(CONFIGURATION), 
+			result -> {}
+		);
+		
+		final ElementDatasetConfiguration directoryConfiguration = 
+			new ElementDatasetConfiguration(0.060d,	0.527d, 0.1d, "Na23");
+		final ElementDataset dataset = results.get(0).getDataset().get();
+		assertEquals("Na23", dataset.getConfiguration().getStandardElement());
+		assertEquals(0.1d, dataset.getConfiguration().getSpaceInterval(), 0d);
+		assertLoadedAsSingleDataset(results.get(0), directoryConfiguration);
+		assertLoadedAsSingleDataset(results.get(1), CONFIGURATION);
+	}
+	
+	@Test
+	public void testLoadEmptyBatch() throws Exception {
+		assertEquals(Collections.emptyList(), new BatchDatasetLoader(2)
+			.load(Collections.emptyList(), CONFIGURATION));
+	}
+	
+	@Test
+	public void testCountsProgress() throws Exception {
+		final AtomicInteger progress = new AtomicInteger();
+		new BatchDatasetLoader(1).load(
+			Arrays.asList(TEST_DATASET_DIRECTORY.toPath()), CONFIGURATION,
+			new BatchLoadListener() {
+				@Override
+				public void onDatasetProgress(Path path) {
+					progress.incrementAndGet();
+				}
+				
+				@Override
+				public void onDatasetFinished(BatchLoadResult result) {}
+			});
+		
+		final AtomicInteger expected = new AtomicInteger();
+		new LineDatasetLoader(CONFIGURATION).loadAndNormalizeDataset(
+			TEST_DATASET_DIRECTORY.toPath(), expected::incrementAndGet);
+		
+		assertEquals(expected.get(), progress.get());
+	}
+	
+	private static void assertLoadedAsSingleDataset(BatchLoadResult result, 
+		ElementDatasetConfiguration configuration
+	) throws Exception {
+		assertTrue(result.isLoaded());
+		assertFalse(result.getError().isPresent());
+		
+		final ElementDataset expected = new LineDatasetLoader(configuration)
+			.loadAndNormalizeDataset(result.getPath());
+		final ElementDataset dataset = result.getDataset().get();
+		
+		assertEquals(expected.getName(), dataset.getName());
+		assertEquals(expected.getElementNames(), dataset.getElementNames());
+		for (String element : expected.getElementNames()) {
+			assertElementDataEquals(
+				expected.getElement(element).get(), 
+				dataset.getElement(element).get()
+			);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_ELEMENT_NAMES;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIFFERENT_LINE_LENGTHS_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.io.DatasetManifest.LineFileEntry;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+public class DatasetManifestTest {
+	private static final LineDatasetLoader LOADER = new LineDatasetLoader(
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12"));
+
+	@Test
+	public void testScanDataset() throws IOException {
+		final DatasetManifest manifest = 
+			LOADER.scanDataset(TEST_DATASET_DIRECTORY.toPath());
+		final List<LineFileEntry> entries = manifest.getEntries();
+		
+		assertEquals(33, manifest.getLineCount());
+		for (int i = 0; i < entries.size(); i++) {
+			final LineFileEntry entry = entries.get(i);
+			final LineFile lineFile = new LineFileReader().read(entry.getFile());
+			
+			assertEquals(i + 1, entry.getLineNumber());
+			assertEquals(entry.getFile().length(), entry.getSize());
+			assertEquals(lineFile.getElements(), entry.getElements());
+			assertEquals(
+				lineFile.getValues("Na23").get().length, entry.getRowCount());
+		}
+		
+		assertTrue(manifest.getElements().containsAll(TEST_DATASET_ELEMENT_NAMES));
+		assertTrue(manifest.getElements().contains("C12"));
+	}
+	
+	@Test
+	public void testIndexesBySizeDescending() throws IOException {
+		final DatasetManifest manifest = 
+			LOADER.scanDataset(TEST_DATASET_DIRECTORY.toPath());
+		final int[] indexes = manifest.getIndexesBySizeDescending();
+		
+		assertEquals(manifest.getLineCount(), indexes.length);
+		for (int i = 1; i < indexes.length; i++) {
+			assertTrue(
+				manifest.getEntries().get(indexes[i - 1]).getSize() >= 
+				manifest.getEntries().get(indexes[i]).getSize()
+			);
+		}
+	}
+	
+	@Test
+	public void testAllLinesHaveSameRowCount() throws IOException {
+		assertTrue(
+			LOADER.scanDataset(TEST_DATASET_MISSING_POSITIONS_DIRECTORY.toPath())
+				.allLinesHaveSameRowCount()
+		);
+		assertFalse(
+			LOADER.scanDataset(
+				TEST_DATASET_MISSING_POSITIONS_DIFFERENT_LINE_LENGTHS_DIRECTORY.toPath()
+			).allLinesHaveSameRowCount()
+		);
+	}
+	
+	@Test
+	public void testGetLineNumber() {
+		assertEquals(12, DatasetManifest.getLineNumber("LINHA 12.xl"));
+		assertEquals(7, DatasetManifest.getLineNumber("Line 7 (2).xl"));
+		assertEquals(0, DatasetManifest.getLineNumber("Line.xl"));
+	}
+	
+	@Test
+	public void testCheckLineNumbers() throws IOException {
+		LOADER.scanDataset(TEST_DATASET_DIRECTORY.toPath()).checkLineNumbers();
+		DatasetManifest.checkLineNumbers(
+			Arrays.asList("Line 1.xl", "Line 2.xl", "Line 3.xl"));
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testCheckLineNumbersStartingAtZero() throws IOException {
+		DatasetManifest.checkLineNumbers(
+			Arrays.asList("LINHA 00.xl", "LINHA 01.xl", "LINHA 02.xl"));
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testCheckLineNumbersWithGaps() throws IOException {
+		DatasetManifest.checkLineNumbers(
+			Arrays.asList("LINHA 01.xl", "LINHA 02.xl", "LINHA 04.xl"));
+	}
+}
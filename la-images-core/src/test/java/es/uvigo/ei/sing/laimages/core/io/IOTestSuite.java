@@ -27,10 +27,22 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import es.uvigo.ei.sing.laimages.core.io.imzml.ImzMLDatasetReaderTest;
+
 @RunWith(Suite.class)
 @SuiteClasses({
 	LoadDatasetTest.class,
 	LoadVerticalDatasetTest.class,
+	LineFileReaderTest.class,
+	MappedLineFileReaderTest.class,
+	LiveLineDatasetLoaderTest.class,
+	LineDatasetCacheTest.class,
+	DatasetManifestTest.class,
+	LoadDatasetArchiveTest.class,
+	ImzMLDatasetReaderTest.class,
+	BatchDatasetLoaderTest.class,
+	LazyElementDatasetTest.class,
+	MappedElementStorageTest.class,
 //	SerializeLaImagesAnalysisTest.class
 })
 public class IOTestSuite {
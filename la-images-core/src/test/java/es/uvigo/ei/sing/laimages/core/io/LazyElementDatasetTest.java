@@ -0,0 +1,231 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.LineDatasetCache.CACHE_FILE_NAME;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_LINE_POSITIONS_REPEATED_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_STANDARD_WITH_ZEROES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LazyElementDataset;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+public class LazyElementDatasetTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLoadLazyDataset() throws Exception {
+		assertLoadsAsEagerDataset(TEST_DATASET_DIRECTORY, CONFIGURATION);
+	}
+	
+	@Test
+	public void testLoadLazyDatasetWithoutPositions() throws Exception {
+		assertLoadsAsEagerDataset(
+			TEST_DATASET_MISSING_POSITIONS_DIRECTORY, CONFIGURATION);
+	}
+	
+	@Test
+	public void testLoadLazyDatasetWithRepeatedPositions() throws Exception {
+		assertLoadsAsEagerDataset(
+			TEST_DATASET_LINE_POSITIONS_REPEATED_DIRECTORY, CONFIGURATION);
+	}
+	
+	@Test
+	public void testLoadLazyDatasetWithStandardZeroes() throws Exception {
+		assertLoadsAsEagerDataset(TEST_DATASET_STANDARD_WITH_ZEROES, CONFIGURATION);
+	}
+	
+	@Test
+	public void testLoadLazyDatasetWithoutStandard() throws Exception {
+		assertLoadsAsEagerDataset(TEST_DATASET_DIRECTORY, 
+			new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, ""));
+	}
+	
+	@Test(expected = NoSuchStandardElementException.class)
+	public void testLoadLazyDatasetMissingStandard() throws Exception {
+		new LineDatasetLoader(
+			new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "Xx99")
+		).loadLazyDataset(copyDataset(TEST_DATASET_DIRECTORY).toPath(), 
+			2, new DefaultProgressHandler());
+	}
+	
+	@Test
+	public void testResidentElementsAreBounded() throws Exception {
+		final ElementDataset expected = new LineDatasetLoader(CONFIGURATION)
+			.loadAndNormalizeDataset(TEST_DATASET_DIRECTORY.toPath());
+		final Map<String, Integer> loads = new HashMap<String, Integer>();
+		
+		final LazyElementDataset dataset = new LazyElementDataset(
+			TEST_DATASET_DIRECTORY.toPath(), "dataset", CONFIGURATION,
+			expected.getElementNames(), 
+			name -> {
+				loads.merge(name, 1, Integer::sum);
+				return expected.getElement(name).get();
+			}, 
+			2
+		);
+		assertTrue(loads.isEmpty());
+		
+		final String first = expected.getElementNames().get(0);
+		final String second = expected.getElementNames().get(1);
+		final String third = expected.getElementNames().get(2);
+		
+		dataset.getElement(first);
+		dataset.getElement(second);
+		dataset.getElement(first);
+		dataset.getElement(third);
+		assertEquals(Arrays.asList(first, third), dataset.getResidentElementNames());
+		
+		dataset.getElement(second);
+		assertEquals(Integer.valueOf(1), loads.get(first));
+		assertEquals(Integer.valueOf(2), loads.get(second));
+		assertEquals(Integer.valueOf(1), loads.get(third));
+		
+		assertEquals(expected.getMaxValue(), dataset.getMaxValue(), 0d);
+		assertEquals(expected.getMinValue(), dataset.getMinValue(), 0d);
+		assertEquals(2, dataset.getResidentElementNames().size());
+		assertFalse(dataset.getElement("Xx99").isPresent());
+	}
+	
+	@Test
+	public void testElementsAreLoadedOutsideTheLock() throws Exception {
+		final ElementDataset expected = new LineDatasetLoader(CONFIGURATION)
+			.loadAndNormalizeDataset(TEST_DATASET_DIRECTORY.toPath());
+		final String first = expected.getElementNames().get(0);
+		final String second = expected.getElementNames().get(1);
+		final Map<String, Integer> loads = new HashMap<String, Integer>();
+		final CountDownLatch loadStarted = new CountDownLatch(1);
+		final CountDownLatch loadReleased = new CountDownLatch(1);
+		
+		final LazyElementDataset dataset = new LazyElementDataset(
+			TEST_DATASET_DIRECTORY.toPath(), "dataset", CONFIGURATION,
+			expected.getElementNames(), 
+			name -> {
+				synchronized (loads) {
+					loads.merge(name, 1, Integer::sum);
+				}
+				if (name.equals(first)) {
+					loadStarted.countDown();
+					try {
+						loadReleased.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return expected.getElement(name).get();
+			}, 
+			2
+		);
+		dataset.getElement(second);
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final Future<ElementData> firstLoad = 
+				executor.submit(() -> dataset.getElement(first).get());
+			assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+			final Future<ElementData> secondLoad = 
+				executor.submit(() -> dataset.getElement(first).get());
+			
+			assertElementDataEquals(
+				expected.getElement(second).get(), 
+				dataset.getElement(second).get()
+			);
+			
+			loadReleased.countDown();
+			assertTrue(firstLoad.get(10, TimeUnit.SECONDS) 
+				== secondLoad.get(10, TimeUnit.SECONDS));
+			assertEquals(Integer.valueOf(1), loads.get(first));
+			assertEquals(Integer.valueOf(1), loads.get(second));
+		} finally {
+			loadReleased.countDown();
+			executor.shutdownNow();
+		}
+	}
+	
+	private void assertLoadsAsEagerDataset(File directory, 
+		ElementDatasetConfiguration configuration
+	) throws Exception {
+		final File copy = copyDataset(directory);
+		
+		final ProgressHandler expectedProgressHandler = new DefaultProgressHandler();
+		final ElementDataset expected = new LineDatasetLoader(configuration, 1,
+			new LineFileReader(), false
+		).loadAndNormalizeDataset(directory.toPath(), expectedProgressHandler);
+		
+		final ProgressHandler progressHandler = new DefaultProgressHandler();
+		final LazyElementDataset dataset = new LineDatasetLoader(configuration)
+			.loadLazyDataset(copy.toPath(), 2, progressHandler);
+		
+		assertTrue(new File(copy, CACHE_FILE_NAME).isFile());
+		assertEquals(expected.getName(), dataset.getName());
+		assertEquals(expected.getElementNames(), dataset.getElementNames());
+		assertEquals(1, dataset.getResidentElementNames().size());
+		
+		for (ElementData element : dataset.getElements()) {
+			assertElementDataEquals(
+				expected.getElement(element.getName()).get(), element);
+			assertTrue(dataset.getResidentElementNames().size() <= 2);
+		}
+		assertEquals(expectedProgressHandler.getWarnings(), 
+			progressHandler.getWarnings());
+	}
+	
+	private File copyDataset(File directory) throws IOException {
+		final File copy = temporaryFolder.newFolder(directory.getName());
+		FileUtils.copyDirectory(directory, copy);
+		new File(copy, CACHE_FILE_NAME).delete();
+		
+		return copy;
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.LineDatasetCache.CACHE_FILE_NAME;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.NA23_NAME;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+
+public class LineDatasetCacheTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	private File directory;
+	private AtomicInteger readCount;
+	
+	@Before
+	public void copyDataset() throws IOException {
+		this.directory = temporaryFolder.newFolder("dataset");
+		for (File file : TEST_DATASET_DIRECTORY.listFiles()) {
+			if (!file.getName().equals(CACHE_FILE_NAME)) {
+				Files.copy(file.toPath(), new File(directory, file.getName()).toPath());
+			}
+		}
+		this.readCount = new AtomicInteger();
+	}
+
+	@Test
+	public void testCacheIsWrittenAndRead() throws Exception {
+		final ElementDataset expected = load(false);
+		assertFalse(cacheFile().exists());
+		
+		final ElementDataset parsed = load(true);
+		assertTrue(cacheFile().exists());
+		assertEquals(66, readCount.get());
+		
+		final ElementDataset cached = load(true);
+		assertEquals(66, readCount.get());
+		
+		assertDatasetEquals(expected, parsed);
+		assertDatasetEquals(expected, cached);
+	}
+	
+	@Test
+	public void testCacheIsDisabledByDefault() throws Exception {
+		new LineDatasetLoader(CONFIGURATION).loadAndNormalizeDataset(
+			directory.toPath());
+		
+		assertFalse(cacheFile().exists());
+	}
+	
+	@Test
+	public void testCacheWriteErrorIsReportedAsWarning() throws Exception {
+		assertTrue(new File(directory, CACHE_FILE_NAME + ".tmp").mkdir());
+		
+		final DefaultProgressHandler progressHandler = 
+			new DefaultProgressHandler();
+		final ElementDataset dataset = loader(true).loadAndNormalizeDataset(
+			directory.toPath(), progressHandler);
+		
+		assertFalse(cacheFile().exists());
+		assertEquals(1, progressHandler.getWarnings().size());
+		assertTrue(progressHandler.getWarnings().get(0)
+			.startsWith("The cache of the dataset can't be written"));
+		assertDatasetEquals(load(false), dataset);
+	}
+	
+	@Test
+	public void testCacheIsReadInSegments() throws Exception {
+		load(true);
+		
+		final File[] lineFiles = DatasetManifest.scan(directory, 
+			(dir, name) -> name.endsWith(".xl")).getFiles();
+		
+		final LineDatasetCache.Entry expected = LineDatasetCache.read(
+			directory, lineFiles, CONFIGURATION, element -> true).get();
+		final LineDatasetCache.Entry segmented = LineDatasetCache.read(
+			directory, lineFiles, CONFIGURATION, element -> true, 100).get();
+		
+		assertEquals(expected.getLines().size(), segmented.getLines().size());
+		for (int i = 0; i < expected.getLines().size(); i++) {
+			final LineFile expectedLine = expected.getLines().get(i);
+			final LineFile segmentedLine = segmented.getLines().get(i);
+			
+			assertEquals(expectedLine.getName(), segmentedLine.getName());
+			assertEquals(expectedLine.getElements(), segmentedLine.getElements());
+			for (String element : expectedLine.getElements()) {
+				assertArrayEquals(expectedLine.getValues(element).get(), 
+					segmentedLine.getValues(element).get(), 0d);
+			}
+		}
+		assertArrayEquals(expected.getCoordinates(), segmented.getCoordinates());
+		assertEquals(
+			LineDatasetCache.readLineElements(directory, lineFiles, CONFIGURATION),
+			LineDatasetCache.readLineElements(directory, lineFiles, CONFIGURATION, 100)
+		);
+	}
+	
+	@Test
+	public void testCacheWithSelectedElements() throws Exception {
+		load(true);
+		
+		final ElementDataset dataset = loader(true).loadAndNormalizeDataset(
+			directory.toPath(), new HashSet<>(asList(NA23_NAME)), 
+			new DefaultProgressHandler());
+		
+		assertEquals(33, readCount.get());
+		assertEquals(asList(NA23_NAME), dataset.getElementNames());
+		assertElementDataEquals(
+			load(false).getElement(NA23_NAME).get(), 
+			dataset.getElement(NA23_NAME).get());
+	}
+	
+	@Test
+	public void testCacheIsNotWrittenWithSelectedElements() throws Exception {
+		loader(true).loadAndNormalizeDataset(
+			directory.toPath(), new HashSet<>(asList(NA23_NAME)), 
+			new DefaultProgressHandler());
+		
+		assertFalse(cacheFile().exists());
+	}
+	
+	@Test
+	public void testCacheIsInvalidatedWhenFilesChange() throws Exception {
+		load(true);
+		
+		final File lineFile = new File(directory, "LINHA 01.xl");
+		assertTrue(lineFile.setLastModified(lineFile.lastModified() - 10000));
+		load(true);
+		
+		assertEquals(66, readCount.get());
+	}
+	
+	@Test
+	public void testCorruptedCacheIsIgnored() throws Exception {
+		final ElementDataset expected = load(true);
+		
+		final byte[] cache = Files.readAllBytes(cacheFile().toPath());
+		Files.write(cacheFile().toPath(), 
+			Arrays.copyOf(cache, cache.length / 2));
+		
+		assertDatasetEquals(expected, load(true));
+		assertEquals(66, readCount.get());
+	}
+	
+	private File cacheFile() {
+		return new File(directory, CACHE_FILE_NAME);
+	}
+	
+	private ElementDataset load(boolean useCache) throws Exception {
+		return loader(useCache).loadAndNormalizeDataset(directory.toPath());
+	}
+	
+	private LineDatasetLoader loader(boolean useCache) {
+		final LineFileReader reader = new LineFileReader() {
+			@Override
+			public LineFile read(File file, Predicate<String> elementFilter)
+				throws IOException 
+			{
+				readCount.incrementAndGet();
+				return super.read(file, elementFilter);
+			}
+		};
+		
+		return new LineDatasetLoader(CONFIGURATION, 1, reader, useCache);
+	}
+	
+	private static void assertDatasetEquals(
+		ElementDataset expected, ElementDataset actual
+	) {
+		assertEquals(expected.getElementNames(), actual.getElementNames());
+		for (String element : expected.getElementNames()) {
+			assertElementDataEquals(
+				expected.getElement(element).get(), 
+				actual.getElement(element).get()
+			);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.io.ResourceLoader.loadResource;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+public class LineFileReaderTest {
+	private static final File TEST_LINE_FILE = loadResource("/dataset/LINHA 01.xl");
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testReadLineFile() throws IOException {
+		LineFile lineFile = new LineFileReader().read(TEST_LINE_FILE);
+		
+		assertEquals("LINHA_01.xl", lineFile.getName());
+		assertEquals(
+			Arrays.asList("Ca43", "Na23", "P31", "Mg24", "C13", "Ca44", "Si28", "K39", "C12"),
+			lineFile.getElements()
+		);
+		
+		double[] ca43 = lineFile.getValues("Ca43").get();
+		assertEquals(60.000216000778d, ca43[0], 0d);
+		assertEquals(80.000384001843d, ca43[1], 0d);
+		assertEquals(
+			lineFile.getValues("C12").get().length, ca43.length
+		);
+		assertFalse(lineFile.getValues("Fe56").isPresent());
+	}
+	
+	@Test
+	public void testReadLineFileWithTrailingSeparators() throws IOException {
+		File file = writeLineFile(
+			"Title",
+			"Time,A,B",
+			"0.,1.5,2,,",
+			"",
+			"1.,3,4.25"
+		);
+		
+		LineFile lineFile = new LineFileReader().read(file);
+		
+		assertArrayEquals(new double[] { 1.5d, 3d }, lineFile.getValues("A").get(), 0d);
+		assertArrayEquals(new double[] { 2d, 4.25d }, lineFile.getValues("B").get(), 0d);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testReadLineFileWithInvalidValue() throws IOException {
+		File file = writeLineFile(
+			"Title",
+			"Time,A,B",
+			"0.,1.5,foo"
+		);
+		
+		new LineFileReader().read(file);
+	}
+	
+	private File writeLineFile(String ... rows) throws IOException {
+		File file = folder.newFile("LINE 01.xl");
+		Files.write(file.toPath(), Arrays.asList(rows));
+		return file;
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertEqualCoordinates;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+
+public class LiveLineDatasetLoaderTest {
+	private static final long SETTLE_TIME = 100;
+	
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLiveLoadExistingFiles() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		copyFiles(TEST_DATASET_DIRECTORY, directory, true);
+		
+		final ElementDataset dataset = liveLoad(directory, false);
+		
+		assertDatasetEquals(loadDataset(TEST_DATASET_DIRECTORY), dataset);
+	}
+	
+	@Test
+	public void testLiveLoadNewFiles() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		
+		final ElementDataset dataset = liveLoad(directory, true);
+		
+		assertDatasetEquals(
+			loadDataset(TEST_DATASET_MISSING_POSITIONS_DIRECTORY), dataset);
+	}
+	
+	@Test
+	public void testCloseLoadsPendingFiles() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		copyFiles(TEST_DATASET_DIRECTORY, directory, true);
+		
+		final LiveLineDatasetLoader loader = new LiveLineDatasetLoader(
+			directory.toPath(), CONFIGURATION, new LineFileReader(), 
+			TimeUnit.HOURS.toMillis(1));
+		loader.start(new DefaultProgressHandler());
+		assertEquals(0, loader.getLineCount());
+		loader.close();
+		
+		assertEquals(33, loader.getLineCount());
+		assertDatasetEquals(
+			loadDataset(TEST_DATASET_DIRECTORY), loader.getDataset());
+	}
+
+	@Test
+	public void testLiveLoadFilesInReverseOrder() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		final List<File> files = Arrays.asList(
+			TEST_DATASET_DIRECTORY.listFiles(LINE_FILES_FILTER));
+		Collections.sort(files, LineToElementConverter.LINE_FILES_COMPARATOR);
+		Collections.reverse(files);
+		Files.copy(new File(TEST_DATASET_DIRECTORY, "positions.txt").toPath(), 
+			new File(directory, "positions.txt").toPath());
+		
+		final LiveLineDatasetLoader loader = new LiveLineDatasetLoader(
+			directory.toPath(), CONFIGURATION, new LineFileReader(), SETTLE_TIME);
+		final CountDownLatch latch = new CountDownLatch(files.size());
+		loader.addDatasetUpdateListener(e -> latch.countDown());
+		try {
+			loader.start(new DefaultProgressHandler());
+			for (File file : files) {
+				Files.copy(file.toPath(), 
+					new File(directory, file.getName()).toPath());
+				Thread.sleep(SETTLE_TIME * 3 / 2);
+			}
+			
+			assertTrue(latch.await(30, TimeUnit.SECONDS));
+		} finally {
+			loader.close();
+		}
+		
+		assertDatasetEquals(
+			loadDataset(TEST_DATASET_DIRECTORY), loader.getDataset());
+	}
+	
+	@Test
+	public void testSkippedLineDoesNotShiftPositions() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		copyFiles(TEST_DATASET_DIRECTORY, directory, true);
+		final File firstLine = new File(directory, "LINHA 01.xl");
+		final List<String> rows = Files.readAllLines(firstLine.toPath());
+		Files.write(firstLine.toPath(), rows.subList(0, 10));
+		
+		final LiveLineDatasetLoader loader = new LiveLineDatasetLoader(
+			directory.toPath(), CONFIGURATION, new LineFileReader(), 
+			TimeUnit.HOURS.toMillis(1));
+		loader.start(new DefaultProgressHandler());
+		loader.close();
+		
+		assertEquals(32, loader.getLineCount());
+		
+		final ElementDataset expected = loadDataset(TEST_DATASET_DIRECTORY);
+		for (String element : expected.getElementNames()) {
+			final ElementData expectedElement = expected.getElement(element).get();
+			final ElementData actualElement = 
+				loader.getDataset().getElement(element).get();
+			
+			assertEquals(32, actualElement.getNumLines());
+			for (int i = 0; i < 32; i++) {
+				assertEqualCoordinates(
+					expectedElement.getCoordinates()[i + 1], 
+					actualElement.getCoordinates()[i]
+				);
+			}
+		}
+	}
+
+	@Test
+	public void testMissingLinesAreReported() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		copyFiles(TEST_DATASET_DIRECTORY, directory, true);
+		Files.delete(new File(directory, "LINHA 05.xl").toPath());
+		
+		final LiveLineDatasetLoader loader = new LiveLineDatasetLoader(
+			directory.toPath(), CONFIGURATION, new LineFileReader(), 
+			TimeUnit.HOURS.toMillis(1));
+		final DefaultProgressHandler progressHandler = new DefaultProgressHandler();
+		loader.start(progressHandler);
+		loader.close();
+		
+		assertEquals(32, loader.getLineCount());
+		assertTrue(progressHandler.getWarnings().stream()
+			.anyMatch(w -> w.contains("missing lines: 5)")));
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testMissingLinesAreRejectedByBatchLoading() throws Exception {
+		final File directory = temporaryFolder.newFolder("dataset");
+		copyFiles(TEST_DATASET_DIRECTORY, directory, true);
+		Files.delete(new File(directory, "LINHA 05.xl").toPath());
+		
+		loadDataset(directory);
+	}
+
+	private static ElementDataset liveLoad(File directory, boolean copyAfterStart) 
+		throws Exception 
+	{
+		final LiveLineDatasetLoader loader = new LiveLineDatasetLoader(
+			directory.toPath(), CONFIGURATION, new LineFileReader(), SETTLE_TIME);
+		final CountDownLatch latch = new CountDownLatch(33);
+		loader.addDatasetUpdateListener(e -> latch.countDown());
+		
+		try {
+			loader.start(new DefaultProgressHandler());
+			if (copyAfterStart) {
+				copyFiles(TEST_DATASET_MISSING_POSITIONS_DIRECTORY, directory, false);
+			}
+			
+			assertTrue(latch.await(30, TimeUnit.SECONDS));
+		} finally {
+			loader.close();
+		}
+		
+		assertEquals(33, loader.getLineCount());
+		
+		return loader.getDataset();
+	}
+	
+	private static final FileFilter LINE_FILES_FILTER = 
+		f -> f.getName().endsWith(".xl");
+	
+	private static void copyFiles(File source, File target, boolean all)
+		throws IOException, InterruptedException 
+	{
+		final File[] files = source.listFiles();
+		Arrays.sort(files, LineToElementConverter.LINE_FILES_COMPARATOR);
+		
+		for (File file : files) {
+			Files.copy(file.toPath(), 
+				new File(target, file.getName()).toPath(), REPLACE_EXISTING);
+			if (!all) {
+				Thread.sleep(SETTLE_TIME / 10);
+			}
+		}
+	}
+	
+	private static ElementDataset loadDataset(File directory) throws Exception {
+		return new LineDatasetLoader(CONFIGURATION)
+			.loadAndNormalizeDataset(directory.toPath());
+	}
+
+	private static void assertDatasetEquals(
+		ElementDataset expected, ElementDataset actual
+	) {
+		assertEquals(
+			new HashSet<>(expected.getElementNames()), 
+			new HashSet<>(actual.getElementNames())
+		);
+		for (String element : expected.getElementNames()) {
+			assertElementDataEquals(
+				expected.getElement(element).get(), 
+				actual.getElement(element).get()
+			);
+		}
+	}
+}
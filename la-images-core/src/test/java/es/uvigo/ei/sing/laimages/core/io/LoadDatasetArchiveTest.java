@@ -0,0 +1,271 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.config.ElementDatasetConfigurationProperties;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+
+public class LoadDatasetArchiveTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	private static final byte[] EXTRA_ENTRY_CONTENT = 
+		"0.0 0.0 1.0 1.0\n".getBytes(UTF_8);
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLoadZipDataset() throws Exception {
+		final File archive = createZip(TEST_DATASET_DIRECTORY, "dataset.zip");
+		
+		assertLoadsAsDirectory(TEST_DATASET_DIRECTORY, archive, "dataset");
+	}
+	
+	@Test
+	public void testLoadTarGzipDataset() throws Exception {
+		final File archive = createTar(TEST_DATASET_DIRECTORY, "dataset.tar.gz");
+		
+		assertLoadsAsDirectory(TEST_DATASET_DIRECTORY, archive, "dataset");
+	}
+	
+	@Test
+	public void testLoadTarDatasetWithoutPositions() throws Exception {
+		final File archive = 
+			createTar(TEST_DATASET_MISSING_POSITIONS_DIRECTORY, "dataset.tar");
+		
+		assertLoadsAsDirectory(
+			TEST_DATASET_MISSING_POSITIONS_DIRECTORY, archive, "dataset");
+	}
+	
+	@Test
+	public void testLoadZipDatasetWithMacOsMetadata() throws Exception {
+		final File archive = createZip(TEST_DATASET_DIRECTORY, "dataset.zip",
+			"__MACOSX/run/._LINHA 01.xl", "__MACOSX/run/._positions.txt",
+			"run/._LINHA 02.xl");
+		
+		assertLoadsAsDirectory(TEST_DATASET_DIRECTORY, archive, "dataset");
+	}
+	
+	@Test
+	public void testLoadTarDatasetWithMacOsMetadata() throws Exception {
+		final File archive = createTar(TEST_DATASET_DIRECTORY, "dataset.tar",
+			"run/._LINHA 01.xl", "run/._positions.txt", "run/notes.txt");
+		
+		assertLoadsAsDirectory(TEST_DATASET_DIRECTORY, archive, "dataset");
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testLoadZipDatasetWithSeveralPositionsFiles() throws Exception {
+		final File archive = createZip(TEST_DATASET_DIRECTORY, "dataset.zip",
+			"other/positions.txt");
+		
+		new LineDatasetLoader(CONFIGURATION).loadAndNormalizeDataset(
+			archive.toPath());
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testLoadTarDatasetWithSeveralPositionsFiles() throws Exception {
+		final File archive = createTar(TEST_DATASET_DIRECTORY, "dataset.tar",
+			"other/POSITIONS.TXT");
+		
+		new LineDatasetLoader(CONFIGURATION).loadAndNormalizeDataset(
+			archive.toPath());
+	}
+	
+	@Test
+	public void testReadZipConfiguration() throws Exception {
+		final File archive = createZip(
+			copyWithConfiguration(TEST_DATASET_DIRECTORY), "dataset.zip");
+		
+		assertConfiguration(archive);
+	}
+	
+	@Test
+	public void testReadTarGzipConfiguration() throws Exception {
+		final File archive = createTar(
+			copyWithConfiguration(TEST_DATASET_DIRECTORY), "dataset.tar.gz");
+		
+		assertConfiguration(archive);
+	}
+	
+	@Test
+	public void testReadMissingArchiveConfiguration() throws Exception {
+		assertFalse(LineDatasetLoader.readConfigurationProperties(
+			createZip(TEST_DATASET_DIRECTORY, "dataset.zip").toPath()
+		).isPresent());
+		assertFalse(LineDatasetLoader.readConfigurationProperties(
+			createTar(TEST_DATASET_DIRECTORY, "dataset.tar", 
+				"__MACOSX/run/._parameters.conf").toPath()
+		).isPresent());
+	}
+	
+	private File copyWithConfiguration(File directory) throws IOException {
+		final File copy = temporaryFolder.newFolder(directory.getName());
+		FileUtils.copyDirectory(directory, copy);
+		Files.write(
+			new File(copy, ElementDatasetConfigurationProperties.CONFIGURATION_FILE_NAME).toPath(),
+			"ablation.speed=0.070\nstandard=Xx99\n".getBytes(UTF_8)
+		);
+		
+		return copy;
+	}
+	
+	private static void assertConfiguration(File archive) throws IOException {
+		final Optional<ElementDatasetConfigurationProperties> properties = 
+			LineDatasetLoader.readConfigurationProperties(archive.toPath());
+		
+		assertEquals(Optional.of("0.070"), properties.get().getAblationSpeed());
+		assertEquals(Optional.of("Xx99"), properties.get().getStandard());
+		assertFalse(properties.get().getSpaceInterval().isPresent());
+	}
+	
+	private static void assertLoadsAsDirectory(
+		File directory, File archive, String name
+	) throws Exception {
+		final ElementDataset expected = new LineDatasetLoader(CONFIGURATION)
+			.loadAndNormalizeDataset(directory.toPath());
+		
+		for (int parallelism : new int[] { 1, 4 }) {
+			final ElementDataset dataset = 
+				new LineDatasetLoader(CONFIGURATION, parallelism)
+					.loadAndNormalizeDataset(archive.toPath());
+			
+			assertEquals(name, dataset.getName());
+			assertEquals(expected.getElementNames(), dataset.getElementNames());
+			for (String element : expected.getElementNames()) {
+				assertElementDataEquals(
+					expected.getElement(element).get(), 
+					dataset.getElement(element).get()
+				);
+			}
+		}
+	}
+	
+	private File createZip(File directory, String name, String ... extraEntries)
+		throws IOException
+	{
+		final File archive = temporaryFolder.newFile(name);
+		
+		try (ZipOutputStream out = 
+			new ZipOutputStream(Files.newOutputStream(archive.toPath()))
+		) {
+			for (File file : datasetFiles(directory)) {
+				out.putNextEntry(new ZipEntry("run/" + file.getName()));
+				Files.copy(file.toPath(), out);
+				out.closeEntry();
+			}
+			for (String entry : extraEntries) {
+				out.putNextEntry(new ZipEntry(entry));
+				out.write(EXTRA_ENTRY_CONTENT);
+				out.closeEntry();
+			}
+		}
+		
+		return archive;
+	}
+	
+	private File createTar(File directory, String name, String ... extraEntries)
+		throws IOException
+	{
+		final File archive = temporaryFolder.newFile(name);
+		
+		try (OutputStream out = name.endsWith(".gz") ?
+			new GZIPOutputStream(Files.newOutputStream(archive.toPath())) :
+			Files.newOutputStream(archive.toPath())
+		) {
+			for (File file : datasetFiles(directory)) {
+				final byte[] content = Files.readAllBytes(file.toPath());
+				out.write(tarHeader("run/" + file.getName(), content.length));
+				out.write(content);
+				out.write(new byte[(512 - content.length % 512) % 512]);
+			}
+			for (String entry : extraEntries) {
+				out.write(tarHeader(entry, EXTRA_ENTRY_CONTENT.length));
+				out.write(EXTRA_ENTRY_CONTENT);
+				out.write(new byte[(512 - EXTRA_ENTRY_CONTENT.length % 512) % 512]);
+			}
+			out.write(new byte[1024]);
+		}
+		
+		return archive;
+	}
+	
+	private static File[] datasetFiles(File directory) {
+		return Arrays.stream(directory.listFiles())
+			.filter(f -> !f.getName().startsWith("."))
+			.toArray(File[]::new);
+	}
+	
+	private static byte[] tarHeader(String name, long size) {
+		final byte[] header = new byte[512];
+		put(header, 0, name);
+		put(header, 100, "0000644");
+		put(header, 108, "0000000");
+		put(header, 116, "0000000");
+		put(header, 124, String.format("%011o", size));
+		put(header, 136, "00000000000");
+		header[156] = '0';
+		put(header, 257, "ustar");
+		put(header, 263, "00");
+		
+		Arrays.fill(header, 148, 156, (byte) ' ');
+		int checksum = 0;
+		for (byte b : header) {
+			checksum += b & 0xFF;
+		}
+		put(header, 148, String.format("%06o", checksum));
+		header[154] = 0;
+		
+		return header;
+	}
+	
+	private static void put(byte[] header, int offset, String value) {
+		final byte[] bytes = value.getBytes(UTF_8);
+		System.arraycopy(bytes, 0, header, offset, bytes.length);
+	}
+}
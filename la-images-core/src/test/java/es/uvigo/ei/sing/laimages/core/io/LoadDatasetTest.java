@@ -24,8 +24,10 @@
 package es.uvigo.ei.sing.laimages.core.io;
 
 import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertMatrixEquals;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.NA23;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.NA23_NAME;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_ELEMENT_NAMES;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_INVALID_LINE_LENGTHS_DIRECTORY;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_LINE_POSITIONS_REPEATED_DIRECTORY;
@@ -33,22 +35,29 @@ import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MI
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_MISSING_POSITIONS_DIRECTORY;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_STANDARD_WITH_ZEROES;
 import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Test;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.FloatLineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.StoragePrecision;
 import es.uvigo.ei.sing.laimages.core.io.LineDatasetLoader;
 import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
 import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
 import es.uvigo.ei.sing.laimages.core.io.exception.PositionsFileNotFoundException;
+import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
 import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
 import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
 
@@ -67,6 +76,73 @@ public class LoadDatasetTest {
 		assertCorrectDataset(dataset);
 	}
 
+	@Test
+	public void testLoadDatasetWithFloatPrecision() throws IOException, NoSuchStandardElementException {
+		ElementDataset expected = loadTestDataset();
+		ElementDataset dataset = loadTestDataset(new ElementDatasetConfiguration(
+			0.060d,	0.527d, 0.080d, "C12", StoragePrecision.FLOAT));
+		
+		assertEquals(expected.getElementNames(), dataset.getElementNames());
+		for (ElementData element : expected.getElements()) {
+			ElementData actual = dataset.getElement(element.getName()).get();
+			assertElementDataEquals(element, actual);
+			for (LineData line : actual.getLines()) {
+				assertTrue(line instanceof FloatLineData);
+			}
+			assertMatrixEquals(element.getData(0d), actual.getData(0d), 
+				Math.ulp((float) element.getMaxValue()));
+		}
+	}
+
+	@Test
+	public void testLoadDatasetConcurrently() throws IOException, NoSuchStandardElementException {
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+		ElementDataset expected = loadTestDataset(datasetConfiguration);
+		
+		LineDatasetLoader datasetLoader = new LineDatasetLoader(datasetConfiguration, 4);
+		ElementDataset dataset = datasetLoader.loadAndNormalizeDataset(TEST_DATASET_DIRECTORY.toPath());
+		
+		assertCorrectDataset(dataset);
+		assertEquals(expected.getElementNames(), dataset.getElementNames());
+		for (ElementData element : expected.getElements()) {
+			assertElementDataEquals(element, dataset.getElement(element.getName()).get());
+		}
+	}
+
+	@Test
+	public void testLoadDatasetSelectedElements() throws IOException, NoSuchStandardElementException {
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+		LineDatasetLoader datasetLoader = new LineDatasetLoader(datasetConfiguration);
+		
+		ProgressHandler progressHandler = new DefaultProgressHandler();
+		ElementDataset dataset = datasetLoader.loadAndNormalizeDataset(
+			TEST_DATASET_DIRECTORY.toPath(), 
+			new HashSet<>(Arrays.asList(NA23_NAME, "P31", "Fe56")),
+			progressHandler
+		);
+		
+		assertEquals(
+			new HashSet<>(Arrays.asList(NA23_NAME, "P31")),
+			new HashSet<>(dataset.getElementNames())
+		);
+		assertElementDataEquals(NA23, dataset.getElement(NA23_NAME).get());
+		assertEquals(
+			Arrays.asList("Element Fe56 is not present in the dataset."),
+			progressHandler.getWarnings()
+		);
+	}
+	
+	@Test(expected = NoSuchStandardElementException.class)
+	public void testLoadDatasetSelectedElementsWithMissingStandardElement() throws IOException, NoSuchStandardElementException {
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "FOO");
+		LineDatasetLoader datasetLoader = new LineDatasetLoader(datasetConfiguration);
+		datasetLoader.loadAndNormalizeDataset(
+			TEST_DATASET_DIRECTORY.toPath(), 
+			new HashSet<>(Arrays.asList(NA23_NAME)),
+			new DefaultProgressHandler()
+		);
+	}
+
 	@Test
 	public void testLoadDatasetWithoutPositionsFile() throws IOException, NoSuchStandardElementException {
 		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
@@ -119,6 +195,51 @@ public class LoadDatasetTest {
 		);
 	}
 
+	@Test
+	public void testLoadDatasetNormalizesAsNormalizeElementData() throws IOException, NoSuchStandardElementException {
+		ElementDatasetConfiguration rawConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "");
+		ElementDataset raw = new LineDatasetLoader(rawConfiguration, 1, new LineFileReader(), false)
+			.loadAndNormalizeDataset(TEST_DATASET_STANDARD_WITH_ZEROES.toPath());
+		
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+		ElementDataset dataset = new LineDatasetLoader(datasetConfiguration, 1, new LineFileReader(), false)
+			.loadAndNormalizeDataset(TEST_DATASET_STANDARD_WITH_ZEROES.toPath());
+		
+		ElementData standard = raw.getElement("C12").get();
+		assertFalse(dataset.getElement("C12").isPresent());
+		for (String element : dataset.getElementNames()) {
+			ElementData expected = NormalizeElementData.normalize(
+				standard, raw.getElement(element).get());
+			ElementData actual = dataset.getElement(element).get();
+			
+			for (int i = 0; i < expected.getNumLines(); i++) {
+				assertArrayEquals(
+					expected.getLines()[i].getData(), actual.getLines()[i].getData(), 0d);
+			}
+		}
+	}
+
+	@Test
+	public void testConvertWithOptions() throws IOException {
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+		LineToElementConverter converter = new LineToElementConverter(
+			TEST_DATASET_DIRECTORY, 
+			new LineDatasetLoader.ExtensionFilenameFilter(LineDatasetLoader.LINE_FILE_EXTENSIONS),
+			datasetConfiguration,
+			LineToElementConverter.Options.DEFAULTS
+				.withParallelism(2)
+				.withElementFilter(NA23_NAME::equals));
+		
+		List<ElementData> elements = converter.getElements(new DefaultProgressHandler());
+		assertEquals(1, elements.size());
+		assertEquals(NA23_NAME, elements.get(0).getName());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testConvertWithInvalidParallelism() {
+		LineToElementConverter.Options.DEFAULTS.withParallelism(0);
+	}
+
 	private void assertCorrectDataset(ElementDataset dataset) {
 		ElementData Na23 = dataset.getElement(NA23_NAME).get();
 		
@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertMatrixEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.MappedLineData;
+import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+
+public class MappedElementStorageTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testStoreDataset() throws Exception {
+		final ElementDataset expected = loadTestDataset();
+		
+		try (MappedElementStorage storage = new MappedElementStorage(
+			temporaryFolder.newFile().toPath())
+		) {
+			final ElementDataset stored = storage.store(expected);
+			
+			assertSame(expected.getConfiguration(), stored.getConfiguration());
+			assertDatasetEquals(expected, stored);
+			assertEquals(totalValues(expected) * Double.BYTES, storage.getSize());
+		}
+	}
+	
+	@Test
+	public void testLoadMappedDataset() throws Exception {
+		final ElementDataset expected = loadTestDataset();
+		final Path storageFile = temporaryFolder.newFile().toPath();
+		
+		try (MappedElementStorage storage = new MappedElementStorage(storageFile)) {
+			final ElementDataset stored = new LineDatasetLoader(CONFIGURATION)
+				.loadMappedDataset(copyDataset(TEST_DATASET_DIRECTORY).toPath(), 
+					storage, new DefaultProgressHandler());
+			
+			assertDatasetEquals(expected, stored);
+		}
+		
+		assertFalse(Files.exists(storageFile));
+	}
+	
+	@Test
+	public void testOperationsOnMappedElements() throws Exception {
+		final ElementDataset expected = loadTestDataset();
+		final ElementData element = expected.getElements().get(0);
+		
+		try (MappedElementStorage storage = new MappedElementStorage()) {
+			final ElementData stored = storage.store(element);
+			
+			assertElementDataEquals(
+				NormalizeElementData.normalize(element),
+				NormalizeElementData.normalize(stored)
+			);
+		}
+	}
+	
+	@Test
+	public void testSerializeMappedElement() throws Exception {
+		final ElementData element = loadTestDataset().getElements().get(0);
+		
+		try (MappedElementStorage storage = new MappedElementStorage()) {
+			final ElementData deserialized = serializeAndDeserialize(
+				storage.store(element));
+			
+			for (LineData line : deserialized.getLines()) {
+				assertFalse(line instanceof MappedLineData);
+			}
+			assertElementDataEquals(element, deserialized);
+		}
+	}
+	
+	private static void assertDatasetEquals(
+		ElementDataset expected, ElementDataset actual
+	) {
+		assertEquals(expected.getElementNames(), actual.getElementNames());
+		for (ElementData element : expected.getElements()) {
+			final ElementData stored = actual.getElement(element.getName()).get();
+			
+			for (LineData line : stored.getLines()) {
+				assertTrue(line instanceof MappedLineData);
+			}
+			assertElementDataEquals(element, stored);
+			assertMatrixEquals(element.getData(0d), stored.getData(0d), 0d);
+			assertEquals(element.getMaxValue(), stored.getMaxValue(), 0d);
+			assertEquals(element.getMinValue(), stored.getMinValue(), 0d);
+		}
+	}
+	
+	private static long totalValues(ElementDataset dataset) {
+		long values = 0;
+		for (ElementData element : dataset.getElements()) {
+			for (LineData line : element.getLines()) {
+				values += line.getLength();
+			}
+		}
+		
+		return values;
+	}
+	
+	private static ElementData serializeAndDeserialize(ElementData element)
+		throws IOException, ClassNotFoundException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(element);
+		}
+		
+		try (ObjectInputStream in = new ObjectInputStream(
+			new ByteArrayInputStream(bytes.toByteArray()))
+		) {
+			return (ElementData) in.readObject();
+		}
+	}
+	
+	private File copyDataset(File dataset) throws IOException {
+		final File copy = temporaryFolder.newFolder();
+		FileUtils.copyDirectory(dataset, copy);
+		
+		return copy;
+	}
+}
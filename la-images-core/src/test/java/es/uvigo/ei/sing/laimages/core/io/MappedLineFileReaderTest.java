@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_DIRECTORY;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+
+public class MappedLineFileReaderTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testReadDatasetLineFiles() throws IOException {
+		LineFileReader expectedReader = new LineFileReader();
+		LineFileReader mappedReader = new MappedLineFileReader();
+		
+		for (File file : TEST_DATASET_DIRECTORY.listFiles((d, n) -> n.endsWith(".xl"))) {
+			assertLineFileEquals(expectedReader.read(file), mappedReader.read(file));
+		}
+	}
+	
+	@Test
+	public void testReadSelectedElements() throws IOException {
+		LineFileReader expectedReader = new LineFileReader();
+		LineFileReader mappedReader = new MappedLineFileReader();
+		
+		for (File file : TEST_DATASET_DIRECTORY.listFiles((d, n) -> n.endsWith(".xl"))) {
+			LineFile lineFile = mappedReader.read(file, e -> e.equals("Na23") || e.equals("C12"));
+			
+			assertEquals(Arrays.asList("Na23", "C12"), lineFile.getElements());
+			assertLineFileEquals(
+				expectedReader.read(file, e -> e.equals("Na23") || e.equals("C12")), 
+				lineFile
+			);
+		}
+	}
+	
+	@Test
+	public void testReadValues() throws IOException {
+		File file = writeLineFile(
+			"Title",
+			"Time,A,B,C,D",
+			"0., 1.5 ,-0,1e3,-2.5E-2",
+			"1.,0.1,12345678901234567890,4.9e-324,.5",
+			"2.,-0.000001,9007199254740993,1.7976931348623157E308,+7.",
+			"3.,0.3,2,,"
+		);
+		
+		assertLineFileEquals(
+			new LineFileReader().read(file), 
+			new MappedLineFileReader().read(file)
+		);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testReadLineFileWithInvalidValue() throws IOException {
+		File file = writeLineFile(
+			"Title",
+			"Time,A,B",
+			"0.,1.5,1e"
+		);
+		
+		new MappedLineFileReader().read(file);
+	}
+	
+	@Test
+	public void testLoadDataset() throws IOException, NoSuchStandardElementException {
+		ElementDatasetConfiguration datasetConfiguration = new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "C12");
+		ElementDataset expected = loadTestDataset(datasetConfiguration);
+		
+		LineDatasetLoader datasetLoader = new LineDatasetLoader(
+			datasetConfiguration, 1, new MappedLineFileReader());
+		ElementDataset dataset = datasetLoader.loadAndNormalizeDataset(TEST_DATASET_DIRECTORY.toPath());
+		
+		assertEquals(expected.getElementNames(), dataset.getElementNames());
+		for (ElementData element : expected.getElements()) {
+			assertElementDataEquals(element, dataset.getElement(element.getName()).get());
+		}
+	}
+	
+	private static void assertLineFileEquals(LineFile expected, LineFile actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getElements(), actual.getElements());
+		for (String element : expected.getElements()) {
+			assertArrayEquals(
+				expected.getValues(element).get(), 
+				actual.getValues(element).get(), 
+				0d
+			);
+		}
+	}
+	
+	private File writeLineFile(String ... rows) throws IOException {
+		File file = folder.newFile("LINE 01.xl");
+		Files.write(file.toPath(), Arrays.asList(rows));
+		return file;
+	}
+}
@@ -42,7 +42,7 @@ import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementExceptio
 public class TestDatasetUtils {
 	public static final String NA23_NAME = "Na23";
 	
-	private static final File TEST_DATASET_DIRECTORY = loadResource("/dataset");
+	public static final File TEST_DATASET_DIRECTORY = loadResource("/dataset");
 
 	public static final File TEST_DATASET_MISSING_POSITIONS_DIRECTORY = loadResource(
 		"/dataset-without-positions");
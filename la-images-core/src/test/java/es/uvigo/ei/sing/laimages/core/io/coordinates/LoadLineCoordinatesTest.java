@@ -28,12 +28,17 @@ import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.TEST_DATASET_CO
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.ArithmeticAxis;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinates;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.LineCoordinatesUtils;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.VerticalLineCoordinates;
 import es.uvigo.ei.sing.laimages.core.io.coordinates.LineCoordinatesLoader;
 
@@ -85,4 +90,68 @@ public class LoadLineCoordinatesTest {
 			LineCoordinatesLoader.loadCoordinates(TEST_DATASET_COORDINATES_FILE, 0.03162d)
 		);		
 	}
+	
+	@Test
+	public void rangeAxisFindClosestTest() {
+		final Random random = new Random(17);
+		
+		for (int i = 0; i < 100; i++) {
+			final double tick = 0.001 + random.nextDouble();
+			final List<LineCoordinates> coordinates = new ArrayList<>();
+			for (int j = 0; j < 5; j++) {
+				final double start = random.nextDouble() * 10;
+				coordinates.add(new HorizontalLineCoordinates(
+					tick, start, start + random.nextDouble() * 50, j));
+			}
+			
+			final List<Double> axis = sequence(coordinates, tick);
+			final ArithmeticAxis rangeAxis = 
+				LineCoordinatesUtils.getLinesRangeAxis(coordinates);
+			
+			Assert.assertEquals(axis, rangeAxis);
+			for (int j = 0; j < 100; j++) {
+				final double target = random.nextDouble() * 70 - 5;
+				Assert.assertEquals(
+					findClosest(target, axis), rangeAxis.findClosest(target), 0d);
+			}
+			for (int j = 0; j < axis.size(); j++) {
+				Assert.assertEquals(j, rangeAxis.indexOf(axis.get(j), 0.000001d));
+			}
+		}
+	}
+	
+	private static List<Double> sequence(List<LineCoordinates> coordinates, 
+		double tick
+	) {
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (LineCoordinates lC : coordinates) {
+			min = Math.min(min, lC.getRangeStart());
+			max = Math.max(max, lC.getRangeEnd());
+		}
+		
+		final List<Double> sequence = new ArrayList<Double>();
+		double last = 0;
+		int count = 0;
+		while (last < max) {
+			last = min + count * tick;
+			sequence.add(last);
+			count++;
+		}
+		
+		return sequence;
+	}
+	
+	private static double findClosest(double target, List<Double> values) {
+		double closest = Double.NaN;
+		double minimumDifference = Double.MAX_VALUE;
+		for (double value : values) {
+			double difference = Math.abs(value - target);
+			if (difference < minimumDifference) {
+				minimumDifference = difference;
+				closest = value;
+			}
+		}
+		return closest;
+	}
 }
@@ -0,0 +1,352 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.io.imzml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDatasetConfiguration;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.io.DatasetReaders;
+import es.uvigo.ei.sing.laimages.core.io.LineDatasetReader;
+import es.uvigo.ei.sing.laimages.core.io.exception.InvalidDataException;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+import es.uvigo.ei.sing.laimages.core.io.imzml.ImzMLMetadata.BinaryArray;
+import es.uvigo.ei.sing.laimages.core.util.DefaultProgressHandler;
+import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
+
+public class ImzMLDatasetReaderTest {
+	private static final ElementDatasetConfiguration CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "");
+	private static final ElementDatasetConfiguration STANDARD_CONFIGURATION = 
+		new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "64.0");
+	
+	private static final byte[] UUID = new byte[] {
+		0x55, 0x4e, 0x4c, 0x2a, 0x10, 0x73, 0x4c, 0x2e, 
+		(byte) 0x8b, 0x1f, 0x2a, 0x3c, 0x04, 0x7d, 0x11, 0x22
+	};
+	private static final double[] MZS = new double[] { 62.9, 63.1, 64.0, 65.0 };
+	private static final int[][] PIXELS = new int[][] {
+		{ 1, 1 }, { 2, 1 }, { 3, 1 }, { 1, 2 }, { 2, 2 } 
+	};
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testReadContinuousDataset() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		final ElementDataset dataset = new ImzMLDatasetReader().read(imzML, 
+			CONFIGURATION, set("65.0", "63.0"), new DefaultProgressHandler());
+		
+		assertEquals("continuous", dataset.getName());
+		assertEquals(Arrays.asList("63.0", "65.0"), dataset.getElementNames());
+		assertImageEquals(new double[][] {
+			{ 3, 6, 9 }, { 12, 15, Double.NaN } 
+		}, dataset.getElement("63.0").get());
+		assertImageEquals(new double[][] {
+			{ 10, 10, 10 }, { 10, 10, Double.NaN } 
+		}, dataset.getElement("65.0").get());
+	}
+	
+	@Test
+	public void testReadProcessedDataset() throws Exception {
+		final Path imzML = writeDataset("processed", false, UUID);
+		
+		final ElementDataset dataset = new ImzMLDatasetReader().read(imzML, 
+			CONFIGURATION, set("63.0"), new DefaultProgressHandler());
+		
+		assertImageEquals(new double[][] {
+			{ 3, 6, 9 }, { 12, 15, Double.NaN } 
+		}, dataset.getElement("63.0").get());
+	}
+	
+	@Test
+	public void testReadWithTolerance() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		final ElementDataset dataset = new ImzMLDatasetReader(0.05d).read(
+			imzML, CONFIGURATION, set("63.1"), new DefaultProgressHandler());
+		
+		assertImageEquals(new double[][] {
+			{ 2, 4, 6 }, { 8, 10, Double.NaN } 
+		}, dataset.getElement("63.1").get());
+	}
+	
+	@Test
+	public void testReadNormalizesByStandard() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		final ElementDataset dataset = new ImzMLDatasetReader().read(imzML, 
+			STANDARD_CONFIGURATION, set("63.0", "64.0"), 
+			new DefaultProgressHandler()
+		);
+		
+		assertEquals(Arrays.asList("63.0"), dataset.getElementNames());
+		assertImageEquals(new double[][] {
+			{ 3, 3, 3 }, { 3, 3, Double.NaN } 
+		}, dataset.getElement("63.0").get());
+	}
+	
+	@Test
+	public void testReadUsesPixelSizes() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		final ElementData data = new ImzMLDatasetReader().read(imzML, 
+			CONFIGURATION, set("63.0"), new DefaultProgressHandler())
+		.getElement("63.0").get();
+		
+		assertFalse(data.isVertical());
+		assertEquals(0.05d, data.getLines()[0].getCoordinates().getRangeTick(), 0d);
+		assertEquals(0.1d, data.getLines()[1].getCoordinates().getPosition(), 0d);
+		assertEquals(Arrays.asList(0d, 0.05d, 0.1d), data.getXAxis());
+	}
+	
+	@Test
+	public void testReadWarnsMissingElements() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		final ProgressHandler progressHandler = new DefaultProgressHandler();
+		
+		final ElementDataset dataset = new ImzMLDatasetReader().read(imzML, 
+			CONFIGURATION, set("63.0", "80.0"), progressHandler);
+		
+		assertEquals(Arrays.asList("63.0"), dataset.getElementNames());
+		assertEquals(
+			Arrays.asList("Element 80.0 is not present in the dataset."),
+			progressHandler.getWarnings()
+		);
+	}
+	
+	@Test(expected = NoSuchStandardElementException.class)
+	public void testReadMissingStandard() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		new ImzMLDatasetReader().read(imzML, 
+			new ElementDatasetConfiguration(0.060d,	0.527d, 0.080d, "80.0"),
+			set("63.0"), new DefaultProgressHandler()
+		);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void testReadUuidMismatch() throws Exception {
+		final byte[] uuid = UUID.clone();
+		uuid[0]++;
+		final Path imzML = writeDataset("continuous", true, uuid);
+		
+		new ImzMLDatasetReader().read(imzML, 
+			CONFIGURATION, set("63.0"), new DefaultProgressHandler());
+	}
+	
+	@Test
+	public void testIbdFileSegments() throws IOException {
+		final File file = temporaryFolder.newFile("segments.ibd");
+		final ByteBuffer buffer = 
+			ByteBuffer.allocate(3 + 10 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(3);
+		for (int i = 0; i < 10; i++) {
+			buffer.putDouble(i + 0.5d);
+		}
+		Files.write(file.toPath(), buffer.array());
+		
+		final BinaryArray array = new BinaryArray(BinaryDataType.FLOAT64, 3, 10);
+		for (int segmentSize : new int[] { 5, 7, 16, 1024 }) {
+			try (IbdFile ibd = new IbdFile(file.toPath(), segmentSize)) {
+				ibd.checkBounds(array);
+				for (int i = 0; i < 10; i++) {
+					assertEquals(i + 0.5d, ibd.get(array, i), 0d);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testFindReader() throws Exception {
+		final Path imzML = writeDataset("continuous", true, UUID);
+		
+		assertTrue(DatasetReaders.findReader(imzML).get() 
+			instanceof ImzMLDatasetReader);
+		assertTrue(DatasetReaders.findReader(temporaryFolder.getRoot().toPath()).get() 
+			instanceof LineDatasetReader);
+	}
+	
+	private static void assertImageEquals(double[][] expected, ElementData data) {
+		final LineData[] lines = data.getLines();
+		assertEquals(expected.length, lines.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertArrayEquals(expected[i], lines[i].getData(), 1e-12);
+		}
+	}
+	
+	private static Set<String> set(String ... elements) {
+		final Set<String> set = new HashSet<String>();
+		Collections.addAll(set, elements);
+		return set;
+	}
+	
+	/*
+	 * Writes a 3x2 dataset with a missing pixel at (3, 2). The intensities of
+	 * the pixel p are { p, 2p, p, 10 }. In processed mode, the m/z array of 
+	 * each pixel is shifted by up to 0.04.
+	 */
+	private Path writeDataset(String name, boolean continuous, byte[] ibdUuid) 
+		throws IOException
+	{
+		final BinaryDataType mzType = 
+			continuous ? BinaryDataType.FLOAT64 : BinaryDataType.FLOAT32;
+		final BinaryDataType intensityType = 
+			continuous ? BinaryDataType.FLOAT32 : BinaryDataType.INT32;
+		
+		final ByteBuffer ibd = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+		ibd.put(ibdUuid);
+		
+		final StringBuilder spectra = new StringBuilder();
+		long mzOffset = ibd.position();
+		if (continuous) {
+			put(ibd, mzType, MZS);
+		}
+		
+		for (int p = 0; p < PIXELS.length; p++) {
+			if (!continuous) {
+				final double shift = 0.01d * p;
+				mzOffset = ibd.position();
+				put(ibd, mzType, Arrays.stream(MZS).map(mz -> mz + shift).toArray());
+			}
+			final long intensityOffset = ibd.position();
+			put(ibd, intensityType, new double[] { p + 1, 2 * (p + 1), p + 1, 10 });
+			
+			spectra.append("<spectrum id=\"Scan=" + (p + 1) + "\" index=\"" + p + "\">")
+				.append("<scanList count=\"1\"><scan>")
+				.append(cvParam("IMS:1000050", PIXELS[p][0]))
+				.append(cvParam("IMS:1000051", PIXELS[p][1]))
+				.append("</scan></scanList>")
+				.append("<binaryDataArrayList count=\"2\">")
+				.append(binaryDataArray("mzArray", mzOffset, mzType))
+				.append(binaryDataArray("intensityArray", intensityOffset, intensityType))
+				.append("</binaryDataArrayList></spectrum>\n");
+		}
+		
+		final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<mzML xmlns=\"http://psi.hupo.org/ms/mzml\" version=\"1.1\">\n"
+			+ "<fileDescription><fileContent>"
+			+ cvParam(continuous ? "IMS:1000030" : "IMS:1000031", "")
+			+ cvParam("IMS:1000080", "{554e4c2a-1073-4c2e-8b1f-2a3c047d1122}")
+			+ "</fileContent></fileDescription>\n"
+			+ "<referenceableParamGroupList count=\"2\">"
+			+ paramGroup("mzArray", "MS:1000514", mzType)
+			+ paramGroup("intensityArray", "MS:1000515", intensityType)
+			+ "</referenceableParamGroupList>\n"
+			+ "<scanSettingsList count=\"1\"><scanSettings id=\"settings\">"
+			+ cvParam("IMS:1000042", 3) + cvParam("IMS:1000043", 2)
+			+ cvParam("IMS:1000046", 50) + cvParam("IMS:1000047", 100)
+			+ "</scanSettings></scanSettingsList>\n"
+			+ "<run id=\"run\"><spectrumList count=\"" + PIXELS.length + "\">\n"
+			+ spectra
+			+ "</spectrumList></run></mzML>\n";
+		
+		final Path imzML = temporaryFolder.getRoot().toPath().resolve(name + ".imzML");
+		Files.write(imzML, xml.getBytes(UTF_8));
+		Files.write(temporaryFolder.getRoot().toPath().resolve(name + ".ibd"),
+			Arrays.copyOf(ibd.array(), ibd.position()));
+		
+		return imzML;
+	}
+	
+	private static void put(ByteBuffer buffer, BinaryDataType type, double[] values) {
+		for (double value : values) {
+			switch (type) {
+			case INT32:
+				buffer.putInt((int) value);
+				break;
+			case INT64:
+				buffer.putLong((long) value);
+				break;
+			case FLOAT32:
+				buffer.putFloat((float) value);
+				break;
+			default:
+				buffer.putDouble(value);
+			}
+		}
+	}
+	
+	private static String cvParam(String accession, Object value) {
+		return "<cvParam cvRef=\"IMS\" accession=\"" + accession 
+			+ "\" name=\"\" value=\"" + value + "\"/>";
+	}
+	
+	private static String paramGroup(String id, String accession, 
+		BinaryDataType type
+	) {
+		return "<referenceableParamGroup id=\"" + id + "\">"
+			+ "<cvParam cvRef=\"MS\" accession=\"" + accession + "\" name=\"\"/>"
+			+ "<cvParam cvRef=\"MS\" accession=\"" + accession(type) + "\" name=\"\"/>"
+			+ "<cvParam cvRef=\"MS\" accession=\"MS:1000576\" name=\"no compression\"/>"
+			+ "</referenceableParamGroup>";
+	}
+	
+	private static String accession(BinaryDataType type) {
+		switch (type) {
+		case INT32:
+			return "MS:1000519";
+		case INT64:
+			return "MS:1000522";
+		case FLOAT32:
+			return "MS:1000521";
+		default:
+			return "MS:1000523";
+		}
+	}
+	
+	private static String binaryDataArray(String group, long offset,
+		BinaryDataType type
+	) {
+		return "<binaryDataArray encodedLength=\"0\">"
+			+ "<referenceableParamGroupRef ref=\"" + group + "\"/>"
+			+ cvParam("IMS:1000102", offset)
+			+ cvParam("IMS:1000103", MZS.length)
+			+ cvParam("IMS:1000104", MZS.length * type.getSize())
+			+ "<binary/></binaryDataArray>";
+	}
+}
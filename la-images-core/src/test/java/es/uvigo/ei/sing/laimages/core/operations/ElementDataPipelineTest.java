@@ -0,0 +1,196 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertMatrixEquals;
+import static es.uvigo.ei.sing.laimages.core.io.TestDatasetUtils.loadTestDataset;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.io.exception.NoSuchStandardElementException;
+
+public class ElementDataPipelineTest {
+	private static ElementData element;
+	private static ElementData standard;
+	
+	@BeforeClass
+	public static void loadElements() 
+		throws IOException, NoSuchStandardElementException
+	{
+		final List<ElementData> elements = loadTestDataset().getElements();
+		
+		element = elements.get(0);
+		standard = elements.get(1);
+	}
+	
+	@Test
+	public void testNormalizeScaleAndInterpolate() {
+		final ElementData expected = Interpolator.interpolate(
+			ScaleElementData.scale(d -> d * 2.5d, 
+				NormalizeElementData.normalize(element)), 
+			2
+		);
+		
+		final ElementData actual = ElementDataPipeline.of(element)
+			.normalizeToMax()
+			.map(d -> d * 2.5d)
+			.interpolate(2)
+		.execute();
+		
+		assertPipelineResult(expected, actual);
+	}
+	
+	@Test
+	public void testNormalizeByStandard() {
+		final ElementData expected = ScaleElementData.scale(d -> d + 1d,
+			NormalizeElementData.normalize(
+				NormalizeElementData.normalize(standard, element)));
+		
+		final ElementData actual = ElementDataPipeline.of(element)
+			.normalize(standard)
+			.normalizeToMax()
+			.map(d -> d + 1d)
+		.execute();
+		
+		assertPipelineResult(expected, actual);
+	}
+	
+	@Test
+	public void testNormalizeByStandardAndInterpolate() {
+		final ElementData expected = Interpolator.interpolate(
+			NormalizeElementData.normalize(standard, element), 1,
+			InterpolationKernel.BICUBIC.getResampler()
+		);
+		
+		final ElementData actual = ElementDataPipeline.of(element)
+			.normalize(standard)
+			.interpolate(1, InterpolationKernel.BICUBIC.getResampler())
+		.execute();
+		
+		assertPipelineResult(expected, actual);
+	}
+	
+	@Test(expected = CancellationException.class)
+	public void testCancelledInterpolation() {
+		ElementDataPipeline.of(element)
+			.normalizeToMax()
+			.interpolate(2)
+		.execute(() -> true);
+	}
+	
+	@Test
+	public void testOperationsAfterInterpolation() {
+		final ElementData expected = NormalizeElementData.normalize(
+			ScaleElementData.scale(d -> d * d, 
+				Interpolator.interpolate(element, 1)));
+		
+		final ElementData actual = ElementDataPipeline.of(element)
+			.interpolate(1)
+			.map(d -> d * d)
+			.normalizeToMax()
+		.execute();
+		
+		assertPipelineResult(expected, actual);
+	}
+	
+	@Test
+	public void testEmptyPipelineReturnsSource() {
+		assertSame(element, ElementDataPipeline.of(element).execute());
+		assertSame(element, 
+			ElementDataPipeline.of(element).interpolate(0).execute());
+	}
+	
+	@Test
+	public void testExecuteToMatrix() {
+		assertMatrixResult(ElementDataPipeline.of(element));
+		assertMatrixResult(ElementDataPipeline.of(element)
+			.normalize(standard)
+			.normalizeToMax()
+			.map(d -> d + 1d)
+		);
+		assertMatrixResult(ElementDataPipeline.of(element)
+			.normalizeToMax()
+			.map(d -> d * 2.5d)
+			.interpolate(2)
+			.map(d -> d * d)
+		);
+	}
+	
+	@Test(expected = CancellationException.class)
+	public void testCancelledInterpolationToMatrix() {
+		ElementDataPipeline.of(element)
+			.interpolate(2)
+		.executeToMatrix(() -> true);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testNormalizeByStandardAfterOtherOperations() {
+		ElementDataPipeline.of(element).normalizeToMax().normalize(standard);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testInterpolateTwice() {
+		ElementDataPipeline.of(element).interpolate(1).interpolate(1);
+	}
+	
+	private static void assertMatrixResult(ElementDataPipeline pipeline) {
+		final ElementData expected = pipeline.execute();
+		final ElementDataPipeline.MatrixResult actual = 
+			pipeline.executeToMatrix(() -> false);
+		
+		assertMatrixEquals(
+			expected.getMatrix().toArray(Double.NaN), 
+			actual.getMatrix().toArray(Double.NaN), 
+			1e-12d
+		);
+		assertArrayEquals(toArray(expected.getXAxis()), 
+			actual.getXAxis().toDoubleArray(), 1e-9d);
+		assertArrayEquals(toArray(expected.getYAxis()), 
+			actual.getYAxis().toDoubleArray(), 1e-9d);
+	}
+	
+	private static double[] toArray(List<Double> values) {
+		return values.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+	
+	private static void assertPipelineResult(
+		ElementData expected, ElementData actual
+	) {
+		assertElementDataEquals(expected, actual);
+		assertMatrixEquals(
+			expected.getMatrix().toArray(Double.NaN), 
+			actual.getMatrix().toArray(Double.NaN), 
+			1e-12d
+		);
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+
+public class GridResamplerTest {
+	private static final GridResampler REFERENCE = new BilinearFunctionResampler();
+	private static final GridResampler REGULAR_GRID = new RegularGridBilinearResampler();
+	
+	@Test
+	public void testRegularGridResamplerMatchesReference() {
+		final ElementMatrix source = randomMatrix(7, 11, new Random(7));
+		
+		for (int level = 1; level <= 3; level++) {
+			assertResamplersMatch(source, 
+				7 + 6 * level, 11 + 10 * level, 0d);
+		}
+	}
+	
+	@Test
+	public void testRegularGridResamplerWithMissingValues() {
+		final ElementMatrix source = randomMatrix(5, 4, new Random(11));
+		
+		assertResamplersMatch(source, 13, 10, -1d);
+	}
+	
+	@Test
+	public void testRegularGridResamplerWithOneRow() {
+		final double[] row = new double[]{ 1d, 4d, 2d, 8d };
+		final double[][] expected = REFERENCE.resample(
+			ElementMatrix.of(new double[][]{ row, row }), 2, 10, 0d);
+		
+		final double[][] actual = REGULAR_GRID.resample(
+			ElementMatrix.of(new double[][]{ row }), 1, 10, 0d);
+		
+		assertEquals(1, actual.length);
+		assertArrayEquals(expected[0], actual[0], 0d);
+	}
+	
+	@Test
+	public void testRegularGridResamplerWithNonIntegerFactor() {
+		assertResamplersMatch(randomMatrix(10, 9, new Random(13)), 23, 31, 0d);
+	}
+	
+	@Test
+	public void testParallelResamplerMatchesSequential() {
+		final ElementMatrix source = randomMatrix(40, 30, new Random(17));
+		final ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			final GridResampler parallel = new ParallelGridResampler(
+				new RegularGridBilinearResampler(), pool, 4);
+			
+			assertMatricesEqual(
+				REGULAR_GRID.resample(source, 157, 117, 0d),
+				parallel.resample(source, 157, 117, 0d)
+			);
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test(expected = CancellationException.class)
+	public void testParallelResamplerCancellation() {
+		final ElementMatrix source = randomMatrix(40, 30, new Random(19));
+		final AtomicInteger tiles = new AtomicInteger();
+		
+		try (ParallelGridResampler parallel = new ParallelGridResampler(
+			new RegularGridBilinearResampler(), 2)
+		) {
+			parallel.resample(source, 157, 117, 0d, 
+				() -> tiles.incrementAndGet() > 3);
+		}
+	}
+	
+	@Test(expected = CancellationException.class)
+	public void testRowResamplerCancellation() {
+		final ElementMatrix source = randomMatrix(40, 30, new Random(19));
+		final AtomicInteger tiles = new AtomicInteger();
+		
+		InterpolationKernel.BICUBIC.getRowResampler().resample(
+			source, 157, 117, 0d, () -> tiles.incrementAndGet() > 3);
+	}
+	
+	@Test
+	public void testCloseOnlyShutsDownOwnedPools() {
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			new ParallelGridResampler(
+				new RegularGridBilinearResampler(), pool, 4).close();
+			assertFalse(pool.isShutdown());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testKernelsKeepSourceValues() {
+		final ElementMatrix source = randomMatrix(6, 8, new Random(23));
+		
+		for (InterpolationKernel kernel : InterpolationKernel.values()) {
+			final double[][] resampled = 
+				kernel.getRowResampler().resample(source, 11, 15, -1d);
+			
+			for (int i = 0; i < source.getRowCount(); i++) {
+				for (int j = 0; j < source.getColumnCount(); j++) {
+					assertEquals(kernel.toString(), 
+						source.get(i, j, -1d), resampled[2 * i][2 * j], 1e-9d);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testKernelsKeepConstantValues() {
+		final double[][] values = new double[5][7];
+		for (double[] row : values) {
+			Arrays.fill(row, 3.5d);
+		}
+		
+		for (InterpolationKernel kernel : InterpolationKernel.values()) {
+			final double[][] resampled = kernel.getResampler()
+				.resample(ElementMatrix.of(values), 19, 23, 0d);
+			
+			for (double[] row : resampled) {
+				for (double value : row) {
+					assertEquals(kernel.toString(), 3.5d, value, 1e-9d);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testKernelsWithOneRow() {
+		final ElementMatrix source = 
+			ElementMatrix.of(new double[][]{ { 1d, 4d, 2d, 8d } });
+		
+		for (InterpolationKernel kernel : InterpolationKernel.values()) {
+			final double[][] resampled = 
+				kernel.getResampler().resample(source, 1, 7, 0d);
+			
+			assertEquals(1, resampled.length);
+			assertArrayEquals(new double[]{ 1d, 4d, 2d, 8d }, 
+				new double[]{ resampled[0][0], resampled[0][2], 
+					resampled[0][4], resampled[0][6] }, 1e-9d);
+		}
+	}
+	
+	@Test
+	public void testCubicKernelsDifferFromBilinear() {
+		final double[][] values = new double[6][6];
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 6; j++) {
+				values[i][j] = i * i + j * j;
+			}
+		}
+		final ElementMatrix source = ElementMatrix.of(values);
+		
+		final double bilinear = REGULAR_GRID.resample(source, 11, 11, 0d)[5][5];
+		final double bicubic = InterpolationKernel.BICUBIC.getResampler()
+			.resample(source, 11, 11, 0d)[5][5];
+		
+		assertEquals(13d, bilinear, 1e-9d);
+		assertEquals(12.5d, bicubic, 1e-9d);
+	}
+	
+	@Test
+	public void testParallelKernelResamplerMatchesSequential() {
+		final ElementMatrix source = randomMatrix(40, 30, new Random(29));
+		final RowGridResampler lanczos = 
+			InterpolationKernel.LANCZOS_3.getRowResampler();
+		final ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			final GridResampler parallel = 
+				InterpolationKernel.LANCZOS_3.getResampler(pool);
+			
+			assertMatricesEqual(
+				lanczos.resample(source, 157, 117, 0d),
+				parallel.resample(source, 157, 117, 0d)
+			);
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	private static void assertResamplersMatch(
+		ElementMatrix source, int rows, int columns, double missingValue
+	) {
+		assertMatricesEqual(
+			REFERENCE.resample(source, rows, columns, missingValue),
+			REGULAR_GRID.resample(source, rows, columns, missingValue)
+		);
+	}
+	
+	private static void assertMatricesEqual(
+		double[][] expected, double[][] actual
+	) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].length, actual[i].length);
+			for (int j = 0; j < expected[i].length; j++) {
+				assertEquals(
+					Double.doubleToLongBits(expected[i][j]), 
+					Double.doubleToLongBits(actual[i][j])
+				);
+			}
+		}
+	}
+	
+	private static ElementMatrix randomMatrix(int rows, int columns, Random random) {
+		final double[][] values = new double[rows][columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				values[i][j] = random.nextInt(10) == 0 ? 
+					Double.NaN : random.nextDouble() * 100d;
+			}
+		}
+		
+		return ElementMatrix.of(values);
+	}
+}
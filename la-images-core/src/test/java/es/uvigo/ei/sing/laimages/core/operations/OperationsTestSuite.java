@@ -29,9 +29,12 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+	ElementDataPipelineTest.class,
+	GridResamplerTest.class,
 	InterpolateVerticalElementDataTest.class,
 	InterpolateHorizontalElementDataTest.class,
 	NormalizeElementDataTest.class,
+	ResampleElementDataTest.class,
 	ScaleElementDataTest.class
 })
 public class OperationsTestSuite {
@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * LA-iMageS Core
+ * %%
+ * Copyright (C) 2016 Marco Aurélio Zezzi Arruda, Gustavo de Souza
+ * 			Pessôa, José Luis Capelo Martínez, Florentino Fdez-Riverola, Miguel
+ * 			Reboiro-Jato, Hugo López-Fdez, and Daniel Glez-Peña
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package es.uvigo.ei.sing.laimages.core.operations;
+
+import static es.uvigo.ei.sing.laimages.core.TestUtils.assertElementDataEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.LineData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.HorizontalLineCoordinates;
+
+public class ResampleElementDataTest {
+	private static final ElementData TO_RESAMPLE = ElementData.createElementData(
+		"To resample",
+		new LineData[]{
+			new LineData(
+				"Line 1",
+				new double[] { 1d, 2d, 3d },
+				new HorizontalLineCoordinates(0.1d, 0d, 0.2d, 0d)
+			),
+			new LineData(
+				"Line 2",
+				new double[] { 4d, 5d, 6d },
+				new HorizontalLineCoordinates(0.1d, 0d, 0.2d, 0.1d)
+			)
+		}
+	);
+	
+	@Test
+	public void testResampleToGridSize() {
+		final ElementData resampled = Interpolator.resample(TO_RESAMPLE, 4, 5);
+		
+		assertEquals(4, resampled.getNumLines());
+		assertEquals(5, resampled.getXAxis().size());
+		assertEquals(4, resampled.getYAxis().size());
+		assertArrayEquals(
+			new double[] { 1d, 1.5d, 2d, 2.5d, 3d }, 
+			resampled.getLines()[0].getData(), 1e-12
+		);
+		assertArrayEquals(
+			new double[] { 4d, 4.5d, 5d, 5.5d, 6d }, 
+			resampled.getLines()[3].getData(), 1e-12
+		);
+		assertEquals(0.1d / 3d, 
+			resampled.getLines()[1].getCoordinates().getPosition(), 1e-12);
+	}
+	
+	@Test
+	public void testResampleMatchesInterpolationLevel() {
+		assertElementDataEquals(
+			Interpolator.interpolate(TO_RESAMPLE, 2), 
+			Interpolator.resample(TO_RESAMPLE, 4, 7)
+		);
+	}
+	
+	@Test
+	public void testResampleToPitch() {
+		assertElementDataEquals(
+			Interpolator.interpolate(TO_RESAMPLE, 1), 
+			Interpolator.resampleToPitch(TO_RESAMPLE, 0.05d, 0.05d)
+		);
+	}
+	
+	@Test
+	public void testResampleRows() {
+		final RowGridResampler resampler = new RegularGridBilinearResampler();
+		final double[][] expected = 
+			resampler.resample(TO_RESAMPLE.getMatrix(), 37, 11, 0d);
+		
+		final List<double[]> rows = new ArrayList<>();
+		Interpolator.resampleRows(TO_RESAMPLE, 37, 11, resampler, 
+			(values, row) -> {
+				assertEquals(rows.size(), row);
+				rows.add(values.clone());
+			}
+		);
+		
+		assertEquals(expected.length, rows.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertArrayEquals(expected[i], rows.get(i), 0d);
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testResampleToEmptyGrid() {
+		Interpolator.resample(TO_RESAMPLE, 0, 3);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testResampleToInvalidPitch() {
+		Interpolator.resampleToPitch(TO_RESAMPLE, 0d, 0.1d);
+	}
+}
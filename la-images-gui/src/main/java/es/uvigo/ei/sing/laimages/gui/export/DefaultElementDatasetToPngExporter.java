@@ -40,7 +40,7 @@ import org.jzy3d.plot3d.rendering.legends.colorbars.AWTColorbarLegend;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
-import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.operations.ElementDataPipeline;
 import es.uvigo.ei.sing.laimages.core.util.ProgressHandler;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.ElementDataImageConfiguration;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.ElementDataSurfaceAdapter;
@@ -52,15 +52,14 @@ public class DefaultElementDatasetToPngExporter implements ElementDatasetToPngEx
 	@Override
 	public void toPNG(ElementData data, File file, ElementDataImageConfiguration configuration)
 	throws IOException {
-		ElementData normalizedData = NormalizeElementData.normalize(data);
-		
-		ElementDataSurfaceAdapter surfaceAdapter = 
-				new ElementDataSurfaceAdapter(normalizedData);
+		ElementDataSurfaceAdapter surfaceAdapter = new ElementDataSurfaceAdapter(
+			ElementDataPipeline.of(data).normalizeToMax());
 		final Shape surface = surfaceAdapter.generateSurface(
 			configuration.getInterpolationLevel(),
+			configuration.getInterpolationKernel(),
 			configuration.getColorMap(),
 			normalizeColorMapRange(getColorMapRange(data, configuration), data),
-			configuration.getScaleFunction()
+			configuration.getScaleOperator()
 		);
 		
 		ShapeExporter.exportShape(
@@ -27,12 +27,14 @@ import static es.uvigo.ei.sing.laimages.gui.jzy3d.CoordinatesUtils.toCoord3d;
 
 import java.util.Optional;
 import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 
 import org.jzy3d.colors.colormaps.IColorMap;
 import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.plot3d.rendering.canvas.Quality;
 
+import es.uvigo.ei.sing.laimages.core.operations.InterpolationKernel;
 import es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration;
 
 /**
@@ -48,6 +50,7 @@ public class ElementDataImageConfiguration {
 	private int height;
 	private Quality quality;
 	private int interpolationLevel;
+	private InterpolationKernel interpolationKernel;
 	private IColorMap colorMap;
 	private Optional<Range> colorMapRange;
 	private Coord2d viewPoint;
@@ -62,11 +65,25 @@ public class ElementDataImageConfiguration {
 			Optional<Range> colorMapRange, Coord2d viewPoint,
 			boolean showColorBarLegend, boolean showAxes, boolean showTickLines, 
 			double scale, boolean is3D
+	) {
+		this(width, height, quality, interpolationLevel, 
+			ElementDataViewConfiguration.DEFAULT_INTERPOLATION_KERNEL, colorMap,
+			colorMapRange, viewPoint, showColorBarLegend, showAxes, 
+			showTickLines, scale, is3D);
+	}
+
+	public ElementDataImageConfiguration(int width, int height,
+			Quality quality, int interpolationLevel, 
+			InterpolationKernel interpolationKernel, IColorMap colorMap,
+			Optional<Range> colorMapRange, Coord2d viewPoint,
+			boolean showColorBarLegend, boolean showAxes, boolean showTickLines, 
+			double scale, boolean is3D
 	) {
 		this.width = width;
 		this.height = height;
 		this.quality = quality;
 		this.interpolationLevel = interpolationLevel;
+		this.interpolationKernel = interpolationKernel;
 		this.colorMap = colorMap;
 		this.colorMapRange = colorMapRange;
 		this.viewPoint = viewPoint;
@@ -93,6 +110,10 @@ public class ElementDataImageConfiguration {
 		return interpolationLevel;
 	}
 
+	public InterpolationKernel getInterpolationKernel() {
+		return interpolationKernel;
+	}
+
 	public IColorMap getColorMap() {
 		return colorMap;
 	}
@@ -141,4 +162,8 @@ public class ElementDataImageConfiguration {
 	public DoubleFunction<Double> getScaleFunction() {
 		return (d -> d * (double) scale);
 	}
+	
+	public DoubleUnaryOperator getScaleOperator() {
+		return (d -> d * scale);
+	}
 }
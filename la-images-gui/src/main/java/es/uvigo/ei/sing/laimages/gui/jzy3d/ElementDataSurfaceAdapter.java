@@ -23,12 +23,12 @@
  */
 package es.uvigo.ei.sing.laimages.gui.jzy3d;
 
-import static es.uvigo.ei.sing.laimages.core.operations.Interpolator.interpolate;
-import static es.uvigo.ei.sing.laimages.core.operations.ScaleElementData.scale;
-
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 
 import org.jzy3d.colors.ColorMapper;
 import org.jzy3d.colors.colormaps.IColorMap;
@@ -37,6 +37,12 @@ import org.jzy3d.plot3d.builder.Builder;
 import org.jzy3d.plot3d.primitives.Shape;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementMatrix;
+import es.uvigo.ei.sing.laimages.core.entities.datasets.coordinates.Axis;
+import es.uvigo.ei.sing.laimages.core.operations.ElementDataPipeline;
+import es.uvigo.ei.sing.laimages.core.operations.ElementDataPipeline.MatrixResult;
+import es.uvigo.ei.sing.laimages.core.operations.GridResampler;
+import es.uvigo.ei.sing.laimages.core.operations.InterpolationKernel;
 
 /**
  * A class that adapts an {@code ElementData} into a {@code Shape}.
@@ -46,7 +52,7 @@ import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
  */
 public class ElementDataSurfaceAdapter {
 
-	private ElementData data;
+	private ElementDataPipeline pipeline;
 
 	/**
 	 * Constructs a new {@code ElementDataSurfaceAdapter}.
@@ -54,7 +60,19 @@ public class ElementDataSurfaceAdapter {
 	 * @param data the {@code ElementData} to adapt.
 	 */
 	public ElementDataSurfaceAdapter(ElementData data) {
-		this.data = data;
+		this(ElementDataPipeline.of(data));
+	}
+
+	/**
+	 * Constructs a new {@code ElementDataSurfaceAdapter} that adapts the 
+	 * result of {@code pipeline}. The pipeline is evaluated each time a 
+	 * surface is generated, along with the scale and interpolation of the 
+	 * surface, so that only the final data is allocated.
+	 * 
+	 * @param pipeline the {@code ElementDataPipeline} to adapt.
+	 */
+	public ElementDataSurfaceAdapter(ElementDataPipeline pipeline) {
+		this.pipeline = pipeline;
 	}
 	
 	/**
@@ -65,15 +83,65 @@ public class ElementDataSurfaceAdapter {
 	 * @param colorMapRange a {@code Range} to create the surface color mapper.
 	 * @param scale a {@code DoubleFunction<Double>} to scale the data.
 	 * @return a new {@code Shape} with the surface for this data.
+	 * @deprecated boxes every value when scaling the data. Use 
+	 * 	{@link ElementDataSurfaceAdapter#generateSurface(int, InterpolationKernel, IColorMap, Range, DoubleUnaryOperator)}
+	 * 	instead.
 	 */
+	@Deprecated
 	public Shape generateSurface(int interpolationLevel, IColorMap colorMap, 
 		Range colorMapRange, DoubleFunction<Double> scale
+	) {
+		return generateSurface(interpolationLevel, 
+			InterpolationKernel.BILINEAR, colorMap, colorMapRange, scale::apply);
+	}
+	
+	/**
+	 * Generates a {@code Shape} to represent the data using the specified 
+	 * {@code interpolationLevel}, {@code interpolationKernel} and 
+	 * {@code colormap}.
+	 * 
+	 * @param interpolationLevel an integer specifying the interpolation level to use.
+	 * @param interpolationKernel the {@code InterpolationKernel} to use.
+	 * @param colorMap an {@code IColorMap} to configure the surface.
+	 * @param colorMapRange a {@code Range} to create the surface color mapper.
+	 * @param scale a {@code DoubleUnaryOperator} to scale the data.
+	 * @return a new {@code Shape} with the surface for this data.
+	 */
+	public Shape generateSurface(int interpolationLevel, 
+		InterpolationKernel interpolationKernel, IColorMap colorMap, 
+		Range colorMapRange, DoubleUnaryOperator scale
+	) {
+		return generateSurface(interpolationLevel, 
+			interpolationKernel.getResampler(), colorMap, colorMapRange, scale,
+			() -> false);
+	}
+	
+	/**
+	 * Generates a {@code Shape} to represent the data using the specified 
+	 * {@code interpolationLevel}, {@code resampler} and {@code colormap}. The
+	 * interpolation stops when {@code cancelled} returns {@code true}, so 
+	 * that a surface that is no longer needed (e.g. because the interpolation
+	 * level has changed) does not keep consuming resources.
+	 * 
+	 * @param interpolationLevel an integer specifying the interpolation level to use.
+	 * @param resampler the {@code GridResampler} that interpolates the data.
+	 * @param colorMap an {@code IColorMap} to configure the surface.
+	 * @param colorMapRange a {@code Range} to create the surface color mapper.
+	 * @param scale a {@code DoubleUnaryOperator} to scale the data.
+	 * @param cancelled a supplier that returns {@code true} when the 
+	 * 	generation must be cancelled.
+	 * @return a new {@code Shape} with the surface for this data.
+	 * @throws CancellationException if the generation is cancelled.
+	 */
+	public Shape generateSurface(int interpolationLevel, 
+		GridResampler resampler, IColorMap colorMap, Range colorMapRange, 
+		DoubleUnaryOperator scale, BooleanSupplier cancelled
 	) {
 		final List<Coord3d> coords = dataToCoord3d(
-			scale(
-				scale,
-				interpolate(data, interpolationLevel)
-			)
+			pipeline
+				.map(scale)
+				.interpolate(interpolationLevel, resampler)
+			.executeToMatrix(cancelled)
 		);
 		
 		final Shape surface = Builder.buildDelaunay(coords);
@@ -83,19 +151,19 @@ public class ElementDataSurfaceAdapter {
 		return surface;
 	}
 	
-	private final static List<Coord3d> dataToCoord3d(ElementData data) {
-		final List<Coord3d> coords = new ArrayList<>();
+	private final static List<Coord3d> dataToCoord3d(MatrixResult data) {
+		final ElementMatrix dataMatrix = data.getMatrix();
+		final Axis xAxis = data.getXAxis();
+		final Axis yAxis = data.getYAxis();
+		final List<Coord3d> coords = new ArrayList<>(xAxis.size() * yAxis.size());
 		
-		double[][] dataMatrix = data.getData(0.0d);
-		List<Double> xAxis = data.getXAxis();
-		List<Double> yAxis = data.getYAxis();
 		for(int xIndex = 0; xIndex < xAxis.size(); xIndex++) {
 			for(int yIndex = 0; yIndex < yAxis.size(); yIndex++) {
 				coords.add(
 					new Coord3d(
-						xAxis.get(xIndex), 
-						yAxis.get(yIndex), 
-						dataMatrix[yIndex][xIndex]
+						xAxis.getValue(xIndex), 
+						yAxis.getValue(yIndex), 
+						dataMatrix.get(yIndex, xIndex, 0.0d)
 					)
 				);
 			}
@@ -39,12 +39,18 @@ import static java.util.Objects.requireNonNull;
 import java.awt.CardLayout;
 import java.awt.Component;
 import java.awt.Font;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import org.jzy3d.chart.Chart;
 import org.jzy3d.chart.controllers.mouse.camera.NewtCameraMouseController;
@@ -68,7 +74,9 @@ import com.jogamp.newt.event.MouseEvent;
 import com.jogamp.opengl.util.gl2.GLUT;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
-import es.uvigo.ei.sing.laimages.core.operations.NormalizeElementData;
+import es.uvigo.ei.sing.laimages.core.operations.ElementDataPipeline;
+import es.uvigo.ei.sing.laimages.core.operations.GridResampler;
+import es.uvigo.ei.sing.laimages.core.operations.InterpolationKernel;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.ElementDataSurfaceAdapter;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.Range;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.chart2d.Chart2dComponentFactory;
@@ -93,9 +101,11 @@ public class ElementDataView extends JPanel {
 			
 	private static final String CARD_CHART_RENDERING = "CARD_CHART_RENDERING";
 	private static final String CARD_CHART = "CARD_CHART";
+	private static final String RENDERING_MESSAGE = "Rendering chart...";
 
 	private CardLayout cardLayout;
 	private JPanel renderingPanel;
+	private JLabel renderingLabel;
 	private Chart chart;
 	private Component currentCanvas;
 	private Shape surface;
@@ -105,9 +115,10 @@ public class ElementDataView extends JPanel {
 		new CustomNewtCameraMouseController();
 	
 	private ElementData element;
-	private ElementData normalizedElement;
 	private ElementDataViewConfiguration configuration;
 	private ElementDataSurfaceAdapter surfaceAdapter;
+	private final ForkJoinPool pool;
+	private final AtomicInteger surfaceRequests = new AtomicInteger();
 	
 	private Coord3d current3DAngle = toCoord3d(getDefault3DAngle());
 	private Coord3d current2DAngle = toCoord3d(getDefault2DAngle());
@@ -127,8 +138,31 @@ public class ElementDataView extends JPanel {
 		ElementDataViewConfiguration configuration,
 		IViewPointChangedListener viewPointChangedListener
 	) {
+		this(element, configuration, viewPointChangedListener, 
+			ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Constructs an {@code ElementDataView} object and renders it using the
+	 * configuration specified by the {@code ElementDataViewConfiguratioṇ} 
+	 * object. Interpolations are computed in {@code pool}, which is owned by
+	 * the caller, so that the parallelism of the view can be limited.
+	 * 
+	 * @param element the {@code ElementData} to display. Can't be {@code null}.
+	 * @param configuration the {@code ElementDataViewConfiguration} to apply. 
+	 * Can't be {@code null}.
+	 * @param viewPointChangedListener a {@code IViewPointChangedListener} to 
+	 * 	add to the chart. Can't be {@code null}.
+	 * @param pool the {@code ForkJoinPool} where interpolations are computed.
+	 * 	Can't be {@code null}.
+	 */
+	public ElementDataView(ElementData element, 
+		ElementDataViewConfiguration configuration,
+		IViewPointChangedListener viewPointChangedListener,
+		ForkJoinPool pool
+	) {
+		this.pool = requireNonNull(pool);
 		this.element = requireNonNull(element);
-		this.normalizedElement = NormalizeElementData.normalize(requireNonNull(element));
 		this.viewPointChangedListener = requireNonNull(viewPointChangedListener);
 		this.setInitialConfiguration(requireNonNull(configuration));
 		this.chart = null;
@@ -150,18 +184,22 @@ public class ElementDataView extends JPanel {
 	}
 
 	private void updateSurfaceAdapter() {
-		this.surfaceAdapter = new ElementDataSurfaceAdapter(this.normalizedElement);
+		this.surfaceAdapter = new ElementDataSurfaceAdapter(
+			ElementDataPipeline.of(this.element).normalizeToMax());
 	}
 
 	private void init() {
 		cardLayout = new CardLayout();
 		this.setLayout(cardLayout);
 		this.add(getRenderingPanel(), CARD_CHART_RENDERING);
-		addChart();
+		showChartRendering();
+		renderSurface();
 	}
 
-	private void addChart() {
-		currentCanvas = (Component) this.getCanvas();
+	private void addChart(Shape newSurface) {
+		this.surface = newSurface;
+		createChart();
+		currentCanvas = (Component) this.chart.getCanvas();
 		this.add(currentCanvas, CARD_CHART);
 		showChart();
 	}
@@ -176,51 +214,48 @@ public class ElementDataView extends JPanel {
 			renderingPanel.setLayout(new BoxLayout(renderingPanel,
 				BoxLayout.X_AXIS));
 			renderingPanel.add(Box.createHorizontalGlue());
-			JLabel renderingLbl = new JLabel("Rendering chart...");
-			renderingLbl.setFont(renderingLbl.getFont().deriveFont(Font.BOLD));
-			renderingPanel.add(renderingLbl);
+			renderingLabel = new JLabel(RENDERING_MESSAGE);
+			renderingLabel.setFont(renderingLabel.getFont().deriveFont(Font.BOLD));
+			renderingPanel.add(renderingLabel);
 			renderingPanel.add(Box.createHorizontalGlue());
 		}
 		return renderingPanel;
 	}
 	
 	/**
-	 * Return an {@code ICanvas} object with the element displayed.
+	 * Return an {@code ICanvas} object with the element displayed. The chart
+	 * is rendered in background, so this method returns {@code null} while 
+	 * it is being rendered.
 	 * 
-	 * @return an {@code ICanvas} object with the element displayed.
+	 * @return an {@code ICanvas} object with the element displayed or 
+	 * 	{@code null} if the chart is being rendered.
 	 */
 	public ICanvas getCanvas() {
-		return getChart().getCanvas();
+		return chart == null ? null : chart.getCanvas();
 	}
 
-	private synchronized Chart getChart() {
-		if(chart == null) {
-			surface = surfaceAdapter.generateSurface(getInterpolation().getLevel(),
-				getColorMap(), getNormalizedColorMapRange(), 
-				d -> d* getScale());
-			if (is3DEnabled()) {
-				chart = AWTChartComponentFactory.chart(QUALITY, "newt");
-			} else {
-				chart = Chart2dComponentFactory.chart(QUALITY, "newt");
-			}
-			chart.getScene().getGraph().add(surface);
-			chart.getView().setSquared(false);
-			chart.setAxeDisplayed(isShowAxes());
-			chart.getAxeLayout().setTickLineDisplayed(isShowTickLines());
-			chart.getAxeLayout().setXTickRenderer(TICK_RENDERER);
-			chart.getAxeLayout().setYTickRenderer(TICK_RENDERER);
-			chart.getAxeLayout().setZTickRenderer(this::formatZTick);
-			chart.getView().addViewPointChangedListener(viewPointChangedListener);
-			AxeBox a = (AxeBox) chart.getView().getAxe();
-			a.setTextRenderer(new TextBitmapRenderer() {{
-					font = GLUT.BITMAP_HELVETICA_12;
-					fontHeight = 14;
-			}});
-			setColorBarLegend();
-			_updateViewMode();
-			chart.pauseAnimator();
+	private void createChart() {
+		if (is3DEnabled()) {
+			chart = AWTChartComponentFactory.chart(QUALITY, "newt");
+		} else {
+			chart = Chart2dComponentFactory.chart(QUALITY, "newt");
 		}
-		return chart;
+		chart.getScene().getGraph().add(surface);
+		chart.getView().setSquared(false);
+		chart.setAxeDisplayed(isShowAxes());
+		chart.getAxeLayout().setTickLineDisplayed(isShowTickLines());
+		chart.getAxeLayout().setXTickRenderer(TICK_RENDERER);
+		chart.getAxeLayout().setYTickRenderer(TICK_RENDERER);
+		chart.getAxeLayout().setZTickRenderer(this::formatZTick);
+		chart.getView().addViewPointChangedListener(viewPointChangedListener);
+		AxeBox a = (AxeBox) chart.getView().getAxe();
+		a.setTextRenderer(new TextBitmapRenderer() {{
+				font = GLUT.BITMAP_HELVETICA_12;
+				fontHeight = 14;
+		}});
+		setColorBarLegend();
+		_updateViewMode();
+		chart.pauseAnimator();
 	}
 	
 	private String formatZTick(double value) {
@@ -256,9 +291,8 @@ public class ElementDataView extends JPanel {
 	 * @param elementData the {@code ElementData} to display.
 	 */
 	public void setElementData(ElementData elementData) {
-		if(!this.normalizedElement.equals(elementData)) {
+		if(!this.element.equals(elementData)) {
 			this.element = elementData;
-			this.normalizedElement = NormalizeElementData.normalize(elementData);
 			updateSurfaceAdapter();
 			updateChart();
 		}
@@ -275,6 +309,18 @@ public class ElementDataView extends JPanel {
 			updateChart();
 		}
 	}
+	
+	/**
+	 * Sets the {@code InterpolationKernel} to use.
+	 * 
+	 * @param kernel the {@code InterpolationKernel} to use.
+	 */
+	public void setInterpolationKernel(InterpolationKernel kernel) {
+		if(!this.getInterpolationKernel().equals(kernel)) {
+			this.configuration.setInterpolationKernel(kernel);
+			updateChart();
+		}
+	}
 	/**
 	 * Sets the scale value.
 	 * 
@@ -306,10 +352,23 @@ public class ElementDataView extends JPanel {
 	}
 	
 	private void showChartRendering() {
+		renderingLabel.setText(RENDERING_MESSAGE);
+		cardLayout.show(this, CARD_CHART_RENDERING);
+	}
+	
+	private void showRenderingError(Throwable error) {
+		renderingLabel.setText("The chart can't be rendered: " + 
+			(error.getMessage() == null ? 
+				error.getClass().getSimpleName() : error.getMessage()));
 		cardLayout.show(this, CARD_CHART_RENDERING);
 	}
 
 	private void _updateViewMode() {
+		if (this.chart == null) {
+			// The view mode is configured when the chart being rendered is 
+			// created.
+			return;
+		}
 		configureViewPoint();
 		showChart();
 	}
@@ -341,7 +400,11 @@ public class ElementDataView extends JPanel {
 	}
 
 	public Coord2d getCurrentViewPoint() {
-		return getChart().getViewPoint().getXY();
+		if (this.chart == null) {
+			return (is3DEnabled() ? current3DAngle : current2DAngle).getXY();
+		} else {
+			return this.chart.getViewPoint().getXY();
+		}
 	}
 	
 	/**
@@ -351,6 +414,10 @@ public class ElementDataView extends JPanel {
 	 * @param angle a {@code Coord2d} object specifying the rotation angle.
 	 */
 	public void rotateViewPoint(Coord2d angle) {
+		if (this.chart == null) {
+			// The chart is being rendered.
+			return;
+		}
 		if(angle.getX() == 0 && angle.getY() == 0) {
 			setDefaultViewPositionMode();
 		} else {
@@ -374,9 +441,9 @@ public class ElementDataView extends JPanel {
 	private boolean shouldReset2DView() {
 				
 		return !is3DEnabled() && (
-				equalsTo(getChart().getViewPoint().x, getDefault2DAngle().x) ||
-				equalsTo(getChart().getViewPoint().x, ROTATION_360_POS) ||
-				equalsTo(getChart().getViewPoint().x, ROTATION_360_NEG));
+				equalsTo(this.chart.getViewPoint().x, getDefault2DAngle().x) ||
+				equalsTo(this.chart.getViewPoint().x, ROTATION_360_POS) ||
+				equalsTo(this.chart.getViewPoint().x, ROTATION_360_NEG));
 	}
 
 	private void enable2DFreeModeAndRotateViewPoint(Coord2d angle) {
@@ -437,10 +504,70 @@ public class ElementDataView extends JPanel {
 	
 	private void updateChart() { 
 		showChartRendering();
-		remove(currentCanvas);
-		this.chart.dispose();
-		this.chart = null;
-		SwingUtilities.invokeLater(this::addChart);
+		if (this.chart != null) {
+			remove(currentCanvas);
+			this.chart.dispose();
+			this.chart = null;
+		}
+		this.surface = null;
+		renderSurface();
+	}
+	
+	/*
+	 * Generates the surface outside the event dispatch thread and adds the 
+	 * chart when it is ready. This is the only place where surfaces are 
+	 * generated, so the event dispatch thread never waits for an 
+	 * interpolation. Each request cancels the interpolation of the previous
+	 * ones, so that when the interpolation level is changed several times 
+	 * only the last one is computed completely. If the generation fails, the
+	 * error is shown instead of the chart.
+	 */
+	private void renderSurface() {
+		final int request = surfaceRequests.incrementAndGet();
+		final BooleanSupplier cancelled = () -> request != surfaceRequests.get();
+		final Function<BooleanSupplier, Shape> task = createSurfaceTask();
+		
+		new SwingWorker<Shape, Void>() {
+			@Override
+			protected Shape doInBackground() {
+				return task.apply(cancelled);
+			}
+			
+			@Override
+			protected void done() {
+				if (cancelled.getAsBoolean()) {
+					// A newer request has replaced this one and adds the chart.
+					return;
+				}
+				
+				try {
+					final Shape newSurface = get();
+					newSurface.setColorMapper(new ColorMapper(
+						getColorMap(), getNormalizedColorMapRange()));
+					addChart(newSurface);
+				} catch (ExecutionException e) {
+					showRenderingError(e.getCause());
+				} catch (InterruptedException | RuntimeException e) {
+					showRenderingError(e);
+				}
+			}
+		}.execute();
+	}
+	
+	/*
+	 * Captures the current configuration, so that the surface can be 
+	 * generated in another thread.
+	 */
+	private Function<BooleanSupplier, Shape> createSurfaceTask() {
+		final ElementDataSurfaceAdapter adapter = this.surfaceAdapter;
+		final int interpolationLevel = getInterpolation().getLevel();
+		final GridResampler resampler = getInterpolationKernel().getResampler(pool);
+		final IColorMap colorMap = getColorMap();
+		final Range colorMapRange = getNormalizedColorMapRange();
+		final double scale = getScale();
+		
+		return cancelled -> adapter.generateSurface(interpolationLevel, 
+			resampler, colorMap, colorMapRange, d -> d * scale, cancelled);
 	}
 
 	private void updateColorMap() { 
@@ -449,6 +576,11 @@ public class ElementDataView extends JPanel {
 	}
 	
 	private void _updateColorMap() {
+		if (this.chart == null) {
+			// The surface being rendered gets the current color map when its
+			// chart is added.
+			return;
+		}
 		this.surface.setColorMapper(
 			new ColorMapper(
 				this.getColorMap(), getNormalizedColorMapRange()
@@ -468,15 +600,19 @@ public class ElementDataView extends JPanel {
 	public void setShowAxes(boolean show) {
 		if (show != this.configuration.isShowAxes()) {
 			this.configuration.setShowAxes(show);
-			getChart().setAxeDisplayed(this.isShowAxes());
+			if (this.chart != null) {
+				this.chart.setAxeDisplayed(this.isShowAxes());
+			}
 		}
 	}
 	
 	public void setShowTickLines(boolean show) {
 		if (show != this.configuration.isShowTickLines()) {
 			this.configuration.setShowTickLines(show);
-			getChart().getAxeLayout().setTickLineDisplayed(this.isShowTickLines());
-			getChart().setAxeDisplayed(this.isShowAxes());
+			if (this.chart != null) {
+				this.chart.getAxeLayout().setTickLineDisplayed(this.isShowTickLines());
+				this.chart.setAxeDisplayed(this.isShowAxes());
+			}
 		}
 	}
 	
@@ -495,6 +631,10 @@ public class ElementDataView extends JPanel {
 	public int getInterpolationLevel() {
 		return getInterpolation().getLevel();
 	}
+	
+	public InterpolationKernel getInterpolationKernel() {
+		return this.configuration.getInterpolationKernel();
+	}
 
 	public IColorMap getColorMap() {
 		return getColorMapType().getColorMap();
@@ -547,6 +687,9 @@ public class ElementDataView extends JPanel {
 	}
 
 	private void _updateColorMapRange() {
+		if (this.chart == null) {
+			return;
+		}
 		this.surface.getColorMapper().setRange(getNormalizedColorMapRange());
 		setColorBarLegend();
 		showChart();
@@ -591,14 +734,14 @@ public class ElementDataView extends JPanel {
 		
 		@Override
 		public void mousePressed(MouseEvent e) {
-			getChart().resumeAnimator();
+			chart.resumeAnimator();
 			super.mousePressed(e);
 		}
 		
 		@Override
 		public void mouseReleased(MouseEvent e) {
 			super.mouseReleased(e);
-			getChart().pauseAnimator();
+			chart.pauseAnimator();
 		}
 	}
 }
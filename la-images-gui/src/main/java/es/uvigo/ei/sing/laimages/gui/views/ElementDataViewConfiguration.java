@@ -41,6 +41,7 @@ import org.jzy3d.plot3d.rendering.canvas.Quality;
 import org.jzy3d.plot3d.rendering.view.modes.ViewPositionMode;
 
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
+import es.uvigo.ei.sing.laimages.core.operations.InterpolationKernel;
 import es.uvigo.ei.sing.laimages.gui.jzy3d.Range;
 import es.uvigo.ei.sing.laimages.gui.util.DecimalFormatter;
 
@@ -143,6 +144,8 @@ public class ElementDataViewConfiguration implements Serializable {
 			ColorMapRangeMode.ELEMENT;
 	public static final InterpolationLevel DEFAULT_INTERPOLATION = 
 		InterpolationLevel.NONE;
+	public static final InterpolationKernel DEFAULT_INTERPOLATION_KERNEL = 
+		InterpolationKernel.BILINEAR;
 	public static final boolean DEFAULT_SHOW_COLOR_BAR_LEGEND = true;
 	public static final boolean DEFAULT_SHOW_AXES = true;
 	public static final boolean DEFAULT_SHOW_TICK_LINES = true;
@@ -159,6 +162,7 @@ public class ElementDataViewConfiguration implements Serializable {
 	private ViewPositionMode viewPositionMode2D = DEFAULT_2D_POSITION_MODE;
 	private Coord2d viewPoint = getDefault2DAngle();
 	private InterpolationLevel interpolationLevel = DEFAULT_INTERPOLATION;
+	private InterpolationKernel interpolationKernel = DEFAULT_INTERPOLATION_KERNEL;
 	private ColorMap colorMap = DEFAULT_COLOR_MAP;
 	private ColorMapRangeMode rangeMode = DEFAULT_COLOR_MAP_RANGE_MODE;
 	private boolean showColorBarLegend = DEFAULT_SHOW_COLOR_BAR_LEGEND;
@@ -258,6 +262,21 @@ public class ElementDataViewConfiguration implements Serializable {
 		this.interpolationLevel = interpolationLevel;
 	}
 
+	/**
+	 * Returns the {@code InterpolationKernel} used. Configurations 
+	 * serialized before kernels were selectable use the default kernel.
+	 * 
+	 * @return the {@code InterpolationKernel} used.
+	 */
+	public InterpolationKernel getInterpolationKernel() {
+		return interpolationKernel == null ? 
+			DEFAULT_INTERPOLATION_KERNEL : interpolationKernel;
+	}
+	
+	public void setInterpolationKernel(InterpolationKernel interpolationKernel) {
+		this.interpolationKernel = interpolationKernel;
+	}
+
 	public ColorMap getColorMap() {
 		return colorMap;
 	}
@@ -345,6 +364,7 @@ public class ElementDataViewConfiguration implements Serializable {
 		this.viewPositionMode2D = DEFAULT_2D_POSITION_MODE;
 		this.viewPoint = getDefault2DAngle();
 		this.interpolationLevel = DEFAULT_INTERPOLATION;
+		this.interpolationKernel = DEFAULT_INTERPOLATION_KERNEL;
 		this.colorMap = DEFAULT_COLOR_MAP;
 		this.rangeMode = DEFAULT_COLOR_MAP_RANGE_MODE;
 		this.colorMapRange = null;
@@ -413,6 +433,7 @@ public class ElementDataViewConfiguration implements Serializable {
 				this.getViewPositionMode2D().equals(other.getViewPositionMode2D()) &&
 				equalsViewPoints(getViewPoint(), other.getViewPoint()) &&
 				this.getInterpolationLevel().equals(other.getInterpolationLevel()) &&
+				this.getInterpolationKernel().equals(other.getInterpolationKernel()) &&
 				this.getColorMap().equals(other.getColorMap()) &&
 				this.getRangeMode().equals(other.getRangeMode()) &&
 				this.getColorMapRange().equals(other.getColorMapRange()) &&
@@ -26,6 +26,7 @@ package es.uvigo.ei.sing.laimages.gui.views;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_COLOR_MAP;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_COLOR_MAP_RANGE_MODE;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_INTERPOLATION;
+import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_INTERPOLATION_KERNEL;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_SCALE;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_SHOW_AXES;
 import static es.uvigo.ei.sing.laimages.gui.views.ElementDataViewConfiguration.DEFAULT_SHOW_COLOR_BAR_LEGEND;
@@ -85,6 +86,7 @@ import org.jzy3d.maths.Coord2d;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementData;
 import es.uvigo.ei.sing.laimages.core.entities.datasets.ElementDataset;
 import es.uvigo.ei.sing.laimages.core.io.csv.CSVFormat;
+import es.uvigo.ei.sing.laimages.core.operations.InterpolationKernel;
 import es.uvigo.ei.sing.laimages.core.util.CommonFileChooser;
 import es.uvigo.ei.sing.laimages.gui.analysis.LaImagesAnalysis;
 import es.uvigo.ei.sing.laimages.gui.analysis.io.LaImagesAnalysisWriter;
@@ -145,7 +147,11 @@ public class LaImagesAnalysisViewer extends JPanel {
 	private final static String ELEMENT_NAME = "ELEMENT_NAME";
 	private static final Dimension PREFERRED_MENU_ITEM_SIZE = new Dimension(200, 25);
 	
-	private ElementDataset dataset;
+	/*
+	 * The dataset is only read by this viewer, so exports read it directly
+	 * from their threads instead of copying it.
+	 */
+	private final ElementDataset dataset;
 	private List<String> elementNames;
 	private JMenuBar menuBar;
 	private JMenu exportMenu; 
@@ -163,6 +169,7 @@ public class LaImagesAnalysisViewer extends JPanel {
 	private IViewPointChangedListener viewPointChangedListener = 
 		this::viewPointChanged;
 	private ButtonGroup interpolationButtons;
+	private ButtonGroup interpolationKernelButtons;
 	private ButtonGroup colorMapButtons;
 	private ButtonGroup rangeModeButtons;
 	private Map<String, Float> minRangeValues = new HashMap<>(); 
@@ -217,6 +224,7 @@ public class LaImagesAnalysisViewer extends JPanel {
 	private JMenu getGraphicSettingsMenu() {
 		JMenu gS = new JMenu("Graphic settings");
 		gS.add(getInterpolationLevelMenu());
+		gS.add(getInterpolationKernelMenu());
 		gS.add(getColorMapMenu());
 		gS.add(getRangeModeMenu());
 		gS.add(getShowColorBarLegendComponent());
@@ -270,6 +278,40 @@ public class LaImagesAnalysisViewer extends JPanel {
 			return level;
 		}
 	}
+
+	private JMenu getInterpolationKernelMenu() {
+		JMenu interpolationKernel = new JMenu("Interpolation kernel");
+		interpolationKernel.setIcon(ICON_INTERPOLATE);
+		interpolationKernel.setPreferredSize(PREFERRED_MENU_ITEM_SIZE);
+		interpolationKernelButtons = new ButtonGroup();
+		Stream.of(InterpolationKernel.values()).forEach(k -> {
+			JRadioButtonMenuItem item =	new InterpolationKernelRadioButtonMenuItem(k);
+			interpolationKernelButtons.add(item);
+			interpolationKernel.add(item);
+		});
+		return interpolationKernel;
+	}
+	
+	private class InterpolationKernelRadioButtonMenuItem 
+		extends JRadioButtonMenuItem 
+	{
+		private static final long serialVersionUID = 1L;
+		private InterpolationKernel kernel;
+		
+		public InterpolationKernelRadioButtonMenuItem(InterpolationKernel kernel) {
+			super(kernel.toString());
+			this.setSelected(kernel.equals(configuration.getInterpolationKernel()));
+			this.setPreferredSize(PREFERRED_MENU_ITEM_SIZE);
+			this.kernel = kernel;
+			this.addActionListener((e) -> {
+				interpolationKernelChanged();
+			});
+		}
+		
+		public InterpolationKernel getKernel() {
+			return kernel;
+		}
+	}
 	
 	private JMenu getColorMapMenu() {
 		JMenu colorMap = new JMenu("Color Map");
@@ -568,6 +610,7 @@ public class LaImagesAnalysisViewer extends JPanel {
 							dialog.getSelectedHeight(),
 							elementDataPanel.getQuality(),
 							dialog.getSelectedInterpolationLevel(),
+							getSelectedInterpolationKernel(),
 							dialog.getSelectedColorMap(),
 							dialog.getSelectedColorMapRange(),
 							dialog.getSelectedViewPoint(),
@@ -778,25 +821,30 @@ public class LaImagesAnalysisViewer extends JPanel {
 	}
 
 	private void exportCurrentElementToPNG(File file, int width, int height) {
+		final String element = 
+			this.elementNames.get(this.elementCombo.getSelectedIndex());
+		final ElementDataImageConfiguration imageConfiguration = 
+			new ElementDataImageConfiguration(
+				width, 
+				height, 
+				elementDataPanel.getQuality(), 
+				elementDataPanel.getInterpolationLevel(), 
+				elementDataPanel.getInterpolationKernel(), 
+				elementDataPanel.getColorMap(), 
+				Optional.of(elementDataPanel.getColorMapRange()),
+				elementDataPanel.getCurrentViewPoint(), 
+				elementDataPanel.isShowColorBarLegend(),
+				elementDataPanel.isShowAxes(),
+				elementDataPanel.isShowTickLines(),
+				elementDataPanel.getScale(),
+				is3DEnabled()
+			);
 		Thread t = new Thread( () -> {
 			try {
 				DATASET_EXPORTER.toPNG(
-					getSelectedElementData(),
+					dataset.getElement(element).get(),
 					file, 
-					new ElementDataImageConfiguration(
-						width, 
-						height, 
-						elementDataPanel.getQuality(), 
-						elementDataPanel.getInterpolationLevel(), 
-						elementDataPanel.getColorMap(), 
-						Optional.of(elementDataPanel.getColorMapRange()),
-						elementDataPanel.getCurrentViewPoint(), 
-						elementDataPanel.isShowColorBarLegend(),
-						elementDataPanel.isShowAxes(),
-						elementDataPanel.isShowTickLines(),
-						elementDataPanel.getScale(),
-						is3DEnabled()
-					)
+					imageConfiguration
 				);
 			} catch (Exception e) {
 				JOptionPane
@@ -952,6 +1000,7 @@ public class LaImagesAnalysisViewer extends JPanel {
 		setDefaultScaleIntensity();
 		setDefaultViewMode();
 		setDefaultInterpolationLevel();
+		setDefaultInterpolationKernel();
 		setDefaultColorMap();
 		setDefaultShowColorBarLegend();
 		setDefaultShowAxes();
@@ -1006,6 +1055,16 @@ public class LaImagesAnalysisViewer extends JPanel {
 		}
 	}
 	
+	private final void setDefaultInterpolationKernel() {
+		Collections.list(interpolationKernelButtons.getElements()).forEach(a -> {
+			InterpolationKernelRadioButtonMenuItem k = ((InterpolationKernelRadioButtonMenuItem) a);
+			k.setSelected(k.getKernel().equals(DEFAULT_INTERPOLATION_KERNEL));	
+		});
+		if(mustUpdateElementDataPanel()) {
+			elementDataPanel.setInterpolationKernel(getSelectedInterpolationKernel());
+		}
+	}
+	
 	private final void setDefaultViewMode() {
 		this.viewerModeCB.setSelected(false);
 		if(mustUpdateElementDataPanel()) {
@@ -1047,6 +1106,10 @@ public class LaImagesAnalysisViewer extends JPanel {
 	private final void interpolationModeChanged() {
 		elementDataPanel.setInterpolation(getSelectedInterpolation());
 	}
+	
+	private final void interpolationKernelChanged() {
+		elementDataPanel.setInterpolationKernel(getSelectedInterpolationKernel());
+	}
 
 	private final ElementData getSelectedElementData() {
 		return this.dataset.getElements().get(this.elementCombo.getSelectedIndex());
@@ -1063,6 +1126,14 @@ public class LaImagesAnalysisViewer extends JPanel {
 				.findFirst().get()
 			).getLevel();
 	}
+	
+	private final InterpolationKernel getSelectedInterpolationKernel() {
+		return ((InterpolationKernelRadioButtonMenuItem) 
+				Collections.list(interpolationKernelButtons.getElements()).stream()
+				.filter(isSelected())
+				.findFirst().get()
+			).getKernel();
+	}
 
 	private Predicate<? super AbstractButton> isSelected() {
 		return b -> ((JRadioButtonMenuItem) b).isSelected();